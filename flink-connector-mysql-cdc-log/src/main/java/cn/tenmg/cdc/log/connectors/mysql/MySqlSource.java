@@ -18,6 +18,8 @@
 
 package cn.tenmg.cdc.log.connectors.mysql;
 
+import org.apache.flink.table.api.ValidationException;
+
 import cn.tenmg.cdc.log.debezium.DebeziumDeserializationSchema;
 import cn.tenmg.cdc.log.debezium.DebeziumSourceFunction;
 import cn.tenmg.cdc.log.debezium.internal.DebeziumOffset;
@@ -231,6 +233,12 @@ public class MySqlSource {
                                     startupOptions.startupTimestampMillis, deserializer);
                     break;
 
+                case SNAPSHOT:
+                    throw new ValidationException(
+                            "The snapshot startup mode is only supported by the"
+                                    + " cn.tenmg.cdc.log.connectors.mysql.source.MySqlSource,"
+                                    + " please use it instead.");
+
                 default:
                     throw new UnsupportedOperationException();
             }
@@ -38,7 +38,9 @@ import static io.debezium.config.Configuration.from;
 
 /**
  * The validator for MySql: it only cares about the version of the database is larger than or equal
- * to 5.7. It also requires the binlog format in the database is ROW and row image is FULL.
+ * to 5.7. It also requires the binlog format in the database is ROW and row image is FULL, unless
+ * the source handles the MINIMAL and NOBLOB row images, and the binlog transaction compression is
+ * disabled.
  */
 public class MySqlValidator implements Validator {
 
@@ -47,6 +49,9 @@ public class MySqlValidator implements Validator {
 
     private static final String BINLOG_FORMAT_ROW = "ROW";
     private static final String BINLOG_FORMAT_IMAGE_FULL = "FULL";
+    private static final String BINLOG_ROW_IMAGE_MINIMAL = "MINIMAL";
+    private static final String BINLOG_ROW_IMAGE_NOBLOB = "NOBLOB";
+    private static final String BINLOG_TRANSACTION_COMPRESSION_ON = "ON";
 
     private final Properties dbzProperties;
     private final MySqlSourceConfig sourceConfig;
@@ -74,6 +79,7 @@ public class MySqlValidator implements Validator {
             checkVersion(connection);
             checkBinlogFormat(connection);
             checkBinlogRowImage(connection);
+            checkBinlogTransactionCompression(connection);
         } catch (SQLException ex) {
             throw new TableException(
                     "Unexpected error while connecting to MySQL and validating", ex);
@@ -134,7 +140,10 @@ public class MySqlValidator implements Validator {
         }
     }
 
-    /** Check whether the binlog row image is FULL. */
+    /**
+     * Check whether the binlog row image is FULL, or MINIMAL or NOBLOB if the absent columns of
+     * the row images are handled by the source.
+     */
     private void checkBinlogRowImage(JdbcConnection connection) throws SQLException {
         String rowImage =
                 connection
@@ -150,6 +159,13 @@ public class MySqlValidator implements Validator {
                                     return BINLOG_FORMAT_IMAGE_FULL;
                                 })
                         .toUpperCase();
+        if (sourceConfig != null
+                && sourceConfig.isMinimalRowImageEnabled()
+                && (BINLOG_ROW_IMAGE_MINIMAL.equals(rowImage)
+                        || BINLOG_ROW_IMAGE_NOBLOB.equals(rowImage))) {
+            LOG.info("The binlog_row_image {} is handled by the source.", rowImage);
+            return;
+        }
         if (!rowImage.equals(BINLOG_FORMAT_IMAGE_FULL)) {
             throw new ValidationException(
                     String.format(
@@ -159,4 +175,28 @@ public class MySqlValidator implements Validator {
                             rowImage, BINLOG_FORMAT_IMAGE_FULL));
         }
     }
+
+    /**
+     * Check whether the binlog transaction compression is disabled. The transaction payload events
+     * written by MySQL 8.0.20+ with binlog_transaction_compression=ON can't be decoded by the
+     * binlog client, the changes in them would be skipped.
+     *
+     * <p>Only the global value is checked, a session may still enable the compression for itself.
+     * The binlog reader fails on the first transaction payload event for that case.
+     */
+    private void checkBinlogTransactionCompression(JdbcConnection connection)
+            throws SQLException {
+        String compression =
+                connection
+                        .queryAndMap(
+                                "SHOW GLOBAL VARIABLES LIKE 'binlog_transaction_compression'",
+                                rs -> rs.next() ? rs.getString(2) : "")
+                        .toUpperCase();
+        if (BINLOG_TRANSACTION_COMPRESSION_ON.equals(compression)) {
+            throw new ValidationException(
+                    "The MySQL server is configured with binlog_transaction_compression ON, the compressed transaction "
+                            + "payloads can't be read by this connector. Change the MySQL configuration to use a "
+                            + "binlog_transaction_compression=OFF and restart the connector.");
+        }
+    }
 }
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium;
+
+import com.github.shyiko.mysql.binlog.BinaryLogClient;
+import com.github.shyiko.mysql.binlog.BinaryLogFileReader;
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventData;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.RotateEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.EventDataDeserializationException;
+import com.github.shyiko.mysql.binlog.event.deserialization.EventDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link BinaryLogClient} which replays the local binlog files instead of reading the binlog of
+ * a MySQL server, e.g. to measure the throughput of the binlog reading without a live instance.
+ *
+ * <p>On connecting, the client reads the binlog files in name order from its binlog filename and
+ * position, and notifies its listeners of the events as the server would send them: an artificial
+ * rotate event of the starting binlog file comes first, and a binlog file not ending with a rotate
+ * event is followed by an artificial one of the next file. The client stays connected after the
+ * last binlog file is replayed, like an idle connection, until it's disconnected.
+ */
+public class BinlogFileReplayClient extends BinaryLogClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinlogFileReplayClient.class);
+
+    // the binlog files are named by a base name and a sequence number, e.g. mysql-bin.000001
+    private static final Pattern BINLOG_FILE_NAME = Pattern.compile(".+\\.\\d+");
+    private static final long BINLOG_MAGIC_LENGTH = 4L;
+    // the flag of the events not written in the binlog files, see LOG_EVENT_ARTIFICIAL_F
+    private static final int ARTIFICIAL_EVENT_FLAG = 0x20;
+
+    private final List<File> binlogFiles;
+    private volatile EventDeserializer eventDeserializer = new EventDeserializer();
+    private volatile boolean connected;
+    private volatile boolean replayed;
+    @Nullable private volatile Thread replayThread;
+    private volatile CountDownLatch disconnected = new CountDownLatch(0);
+
+    /** Creates a client replaying the binlog files in the given directory. */
+    public BinlogFileReplayClient(File binlogDirectory) {
+        this(listBinlogFiles(binlogDirectory));
+    }
+
+    /** Creates a client replaying the given binlog files, which are sorted by name. */
+    public BinlogFileReplayClient(List<File> binlogFiles) {
+        super("localhost", 0, "", "");
+        checkArgument(!binlogFiles.isEmpty(), "There is no binlog file to replay.");
+        this.binlogFiles = new ArrayList<>(binlogFiles);
+        this.binlogFiles.sort((f1, f2) -> f1.getName().compareTo(f2.getName()));
+    }
+
+    /** Lists the binlog files in the given directory in name order, the index file is excluded. */
+    public static List<File> listBinlogFiles(File binlogDirectory) {
+        final File[] files =
+                binlogDirectory.listFiles(
+                        file ->
+                                file.isFile()
+                                        && BINLOG_FILE_NAME.matcher(file.getName()).matches());
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(files)
+                .sorted((f1, f2) -> f1.getName().compareTo(f2.getName()))
+                .collect(Collectors.toList());
+    }
+
+    /** Returns the names of the replayed binlog files, like SHOW BINARY LOGS. */
+    public List<String> getBinlogFilenames() {
+        return binlogFiles.stream().map(File::getName).collect(Collectors.toList());
+    }
+
+    /** Returns whether all the binlog files have been replayed since the client connected. */
+    public boolean isReplayed() {
+        return replayed;
+    }
+
+    @Override
+    public void setEventDeserializer(EventDeserializer eventDeserializer) {
+        super.setEventDeserializer(eventDeserializer);
+        this.eventDeserializer = eventDeserializer;
+    }
+
+    @Override
+    public boolean isKeepAlive() {
+        return false;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public void connect() throws IOException {
+        connect(getConnectTimeout());
+        try {
+            disconnected.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void connect(long timeout) throws IOException {
+        if (connected) {
+            throw new IllegalStateException("BinaryLogClient is already connected");
+        }
+        final int startingFileIndex = startingFileIndex();
+        connected = true;
+        replayed = false;
+        disconnected = new CountDownLatch(1);
+        for (LifecycleListener listener : getLifecycleListeners()) {
+            listener.onConnect(this);
+        }
+        final Thread thread =
+                new Thread(() -> replay(startingFileIndex), "blc-replay-" + getServerId());
+        thread.setDaemon(true);
+        replayThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void disconnect() throws IOException {
+        final Thread thread;
+        synchronized (this) {
+            if (!connected) {
+                return;
+            }
+            connected = false;
+            thread = replayThread;
+            replayThread = null;
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            // the listeners may be blocked by a full queue
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (LifecycleListener listener : getLifecycleListeners()) {
+            listener.onDisconnect(this);
+        }
+        disconnected.countDown();
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private int startingFileIndex() throws IOException {
+        final String binlogFilename = getBinlogFilename();
+        if (binlogFilename == null || binlogFilename.isEmpty()) {
+            setBinlogFilename(binlogFiles.get(0).getName());
+            setBinlogPosition(BINLOG_MAGIC_LENGTH);
+            return 0;
+        }
+        for (int i = 0; i < binlogFiles.size(); i++) {
+            if (binlogFiles.get(i).getName().equals(binlogFilename)) {
+                if (getBinlogPosition() < BINLOG_MAGIC_LENGTH) {
+                    setBinlogPosition(BINLOG_MAGIC_LENGTH);
+                }
+                return i;
+            }
+        }
+        throw new IOException(
+                String.format(
+                        "The binlog file %s to start from is not found in the replayed files %s.",
+                        binlogFilename, getBinlogFilenames()));
+    }
+
+    private void replay(int startingFileIndex) {
+        long startingPosition = getBinlogPosition();
+        notifyEvent(rotateEvent(binlogFiles.get(startingFileIndex).getName(), startingPosition));
+        try {
+            for (int i = startingFileIndex; i < binlogFiles.size() && connected; i++) {
+                final boolean rotated = replayFile(binlogFiles.get(i), startingPosition);
+                startingPosition = BINLOG_MAGIC_LENGTH;
+                if (!rotated && i + 1 < binlogFiles.size() && connected) {
+                    notifyEvent(rotateEvent(binlogFiles.get(i + 1).getName(), startingPosition));
+                }
+            }
+            replayed = connected;
+            if (replayed) {
+                LOG.info("Replayed the binlog files {}.", getBinlogFilenames());
+            }
+        } catch (EventDataDeserializationException e) {
+            if (connected) {
+                for (LifecycleListener listener : getLifecycleListeners()) {
+                    listener.onEventDeserializationFailure(this, e);
+                }
+            }
+        } catch (Exception e) {
+            if (connected) {
+                for (LifecycleListener listener : getLifecycleListeners()) {
+                    listener.onCommunicationFailure(this, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays the events of the binlog file from the given position, the format description event
+     * is always replayed. Returns whether the file ends with a rotate event.
+     */
+    private boolean replayFile(File binlogFile, long startingPosition) throws IOException {
+        boolean rotated = false;
+        try (BinaryLogFileReader reader =
+                new BinaryLogFileReader(new FileInputStream(binlogFile), eventDeserializer)) {
+            for (Event event = reader.readEvent();
+                    event != null && connected;
+                    event = reader.readEvent()) {
+                final EventHeaderV4 header = event.getHeader();
+                if (header.getPosition() < startingPosition) {
+                    if (header.getEventType() != EventType.FORMAT_DESCRIPTION) {
+                        continue;
+                    }
+                    // the server sends the format description event without its position as well
+                    header.setNextPosition(0);
+                }
+                notifyEvent(event);
+                rotated = header.getEventType() == EventType.ROTATE;
+            }
+        }
+        return rotated;
+    }
+
+    private void notifyEvent(Event event) {
+        for (EventListener listener : getEventListeners()) {
+            try {
+                listener.onEvent(event);
+            } catch (Exception e) {
+                LOG.warn("{} choked on {}", listener, event, e);
+            }
+        }
+        updateBinlogFilenameAndPosition(event);
+    }
+
+    private void updateBinlogFilenameAndPosition(Event event) {
+        final EventHeaderV4 header = event.getHeader();
+        if (header.getEventType() == EventType.ROTATE) {
+            EventData data = event.getData();
+            if (data instanceof EventDeserializer.EventDataWrapper) {
+                data = ((EventDeserializer.EventDataWrapper) data).getInternal();
+            }
+            final RotateEventData rotateEventData = (RotateEventData) data;
+            setBinlogFilename(rotateEventData.getBinlogFilename());
+            setBinlogPosition(rotateEventData.getBinlogPosition());
+        } else if (header.getEventType() != EventType.TABLE_MAP
+                && header.getNextPosition() > 0) {
+            setBinlogPosition(header.getNextPosition());
+        }
+    }
+
+    private Event rotateEvent(String binlogFilename, long binlogPosition) {
+        final EventHeaderV4 header = new EventHeaderV4();
+        header.setEventType(EventType.ROTATE);
+        header.setServerId(getServerId());
+        header.setFlags(ARTIFICIAL_EVENT_FLAG);
+        final RotateEventData data = new RotateEventData();
+        data.setBinlogFilename(binlogFilename);
+        data.setBinlogPosition(binlogPosition);
+        return new Event(header, data);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.util.FlinkRuntimeException;
+
+import com.github.shyiko.mysql.binlog.BinaryLogClient;
+
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
+import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
+import io.debezium.jdbc.JdbcConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seeks the binlog offset to start reading from a timestamp.
+ *
+ * <p>The binlog files listed by 'SHOW BINARY LOGS' are binary searched by the timestamp of their
+ * first event, so only the first event headers of O(log n) files are read rather than all the
+ * events before the timestamp. The reading starts from the beginning of the last file created at or
+ * before the timestamp, the binlog reader skips the changes of the file before the timestamp.
+ */
+public class BinlogTimestampSeeker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinlogTimestampSeeker.class);
+
+    /** The position of the first event in a binlog file, right after the magic header. */
+    private static final long FIRST_EVENT_POSITION = 4L;
+
+    private BinlogTimestampSeeker() {}
+
+    public static BinlogOffset seek(
+            MySqlSourceConfig sourceConfig, JdbcConnection jdbc, long timestampMillis) {
+        return seek(sourceConfig, listBinlogFiles(jdbc), timestampMillis);
+    }
+
+    @VisibleForTesting
+    static BinlogOffset seek(
+            MySqlSourceConfig sourceConfig, List<String> binlogFiles, long timestampMillis) {
+        if (binlogFiles.isEmpty()) {
+            throw new FlinkRuntimeException(
+                    "Cannot find any binlog file via 'SHOW BINARY LOGS'. Make sure your server is correctly configured");
+        }
+        // the last file whose first event is at or before the timestamp, or the earliest file
+        int found = 0;
+        int low = 0;
+        int high = binlogFiles.size() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (readFirstEventTimestamp(sourceConfig, binlogFiles.get(mid)) <= timestampMillis) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        final BinlogOffset offset = new BinlogOffset(binlogFiles.get(found), FIRST_EVENT_POSITION);
+        LOG.info(
+                "Seek the binlog to timestamp {} at {} among {} binlog files.",
+                timestampMillis,
+                offset,
+                binlogFiles.size());
+        return offset;
+    }
+
+    private static List<String> listBinlogFiles(JdbcConnection jdbc) {
+        final List<String> binlogFiles = new ArrayList<>();
+        try {
+            jdbc.query(
+                    "SHOW BINARY LOGS",
+                    rs -> {
+                        while (rs.next()) {
+                            binlogFiles.add(rs.getString(1));
+                        }
+                    });
+        } catch (SQLException e) {
+            throw new FlinkRuntimeException("Cannot list the binlog files", e);
+        }
+        return binlogFiles;
+    }
+
+    /**
+     * Reads the timestamp of the first event in the binlog file, in milliseconds. The binlog client
+     * uses an auxiliary server id, which never conflicts with the server ids of the readers.
+     */
+    private static long readFirstEventTimestamp(MySqlSourceConfig sourceConfig, String binlogFile) {
+        final BinaryLogClient client =
+                DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
+        client.setServerId(DebeziumUtils.createAuxiliaryServerId());
+        client.setBinlogFilename(binlogFile);
+        client.setBinlogPosition(FIRST_EVENT_POSITION);
+        client.setKeepAlive(false);
+        final CompletableFuture<Long> timestamp = new CompletableFuture<>();
+        client.registerEventListener(
+                event -> {
+                    // the artificial rotate event sent ahead of the file has no timestamp
+                    if (event.getHeader().getTimestamp() > 0) {
+                        timestamp.complete(event.getHeader().getTimestamp());
+                    }
+                });
+        final long timeoutMillis = sourceConfig.getConnectTimeout().toMillis();
+        try {
+            client.connect(timeoutMillis);
+            return timestamp.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            throw new FlinkRuntimeException(
+                    String.format("Failed to read the first event of binlog file %s", binlogFile),
+                    e);
+        } finally {
+            try {
+                client.disconnect();
+            } catch (IOException e) {
+                LOG.warn("Failed to disconnect the binlog client.", e);
+            }
+        }
+    }
+}
@@ -25,6 +25,7 @@ import com.github.shyiko.mysql.binlog.BinaryLogClient;
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
 import cn.tenmg.cdc.log.connectors.mysql.source.connection.JdbcConnectionFactory;
 import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
+import cn.tenmg.cdc.log.connectors.mysql.table.StopOptions;
 import io.debezium.config.Configuration;
 import io.debezium.connector.mysql.MySqlConnection;
 import io.debezium.connector.mysql.MySqlConnectorConfig;
@@ -41,12 +42,13 @@ import io.debezium.util.SchemaNameAdjuster;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static cn.tenmg.cdc.log.connectors.mysql.source.utils.TableDiscoveryUtils.listTables;
+import static cn.tenmg.cdc.log.connectors.mysql.source.utils.TableDiscoveryUtils.listCapturedTables;
 
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /** Utilities related to Debezium. */
 public class DebeziumUtils {
@@ -84,6 +86,19 @@ public class DebeziumUtils {
                 connectorConfig.password());
     }
 
+    /**
+     * Creates a new {@link SharedBinaryLogClient} for consuming mysql binlog, which shares one
+     * binlog connection with the other clients of the same MySQL instance in the TaskManager.
+     */
+    public static BinaryLogClient createSharedBinaryClient(Configuration dbzConfiguration) {
+        final MySqlConnectorConfig connectorConfig = new MySqlConnectorConfig(dbzConfiguration);
+        return new SharedBinaryLogClient(
+                connectorConfig.hostname(),
+                connectorConfig.port(),
+                connectorConfig.username(),
+                connectorConfig.password());
+    }
+
     /** Creates a new {@link MySqlDatabaseSchema} to monitor the latest MySql database schemas. */
     public static MySqlDatabaseSchema createMySqlDatabaseSchema(
             MySqlConnectorConfig dbzMySqlConfig, boolean isTableIdCaseSensitive) {
@@ -128,6 +143,39 @@ public class DebeziumUtils {
         }
     }
 
+    /**
+     * Resolves the ending offset of the binlog split from the stop options, the latest offset is
+     * read from the server when it's called. The {@link BinlogOffset#NO_STOPPING_OFFSET} is
+     * returned for the timestamp stop mode, the stop timestamp is checked by the binlog reader.
+     */
+    public static BinlogOffset stoppingBinlogOffset(MySqlSourceConfig sourceConfig) {
+        StopOptions stopOptions = sourceConfig.getStopOptions();
+        switch (stopOptions.stopMode) {
+            case LATEST_OFFSET:
+                try (JdbcConnection jdbc = openJdbcConnection(sourceConfig)) {
+                    return currentBinlogOffset(jdbc);
+                } catch (SQLException e) {
+                    throw new FlinkRuntimeException("Read the stopping binlog offset error", e);
+                }
+            case SPECIFIC_OFFSETS:
+                return new BinlogOffset(
+                        stopOptions.specificOffsetFile, stopOptions.specificOffsetPos);
+            case GTID_SET:
+                return new BinlogOffset("", 0L, 0L, 0L, 0L, stopOptions.gtidSet, null);
+            default:
+                return BinlogOffset.NO_STOPPING_OFFSET;
+        }
+    }
+
+    /**
+     * Creates a random server id for the auxiliary binlog connections, e.g. of the table change
+     * tracker and the binlog timestamp seeker. The server id is above the max int, thus never
+     * conflicts with the server ids of the readers, which are ints.
+     */
+    public static long createAuxiliaryServerId() {
+        return (1L << 31) + ThreadLocalRandom.current().nextLong(1L << 31);
+    }
+
     // --------------------------------------------------------------------------------------------
 
     private static MySqlValueConverters getValueConverters(MySqlConnectorConfig dbzMySqlConfig) {
@@ -159,7 +207,7 @@ public class DebeziumUtils {
 
         final List<TableId> capturedTableIds;
         try {
-            capturedTableIds = listTables(jdbc, sourceConfig.getTableFilters());
+            capturedTableIds = listCapturedTables(jdbc, sourceConfig);
         } catch (SQLException e) {
             throw new FlinkRuntimeException("Failed to discover captured tables", e);
         }
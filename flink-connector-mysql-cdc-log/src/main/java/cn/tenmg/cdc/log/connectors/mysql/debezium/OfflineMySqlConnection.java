@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium;
+
+import io.debezium.config.Configuration;
+import io.debezium.connector.mysql.MySqlConnection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link MySqlConnection} which answers the server state queried by the binlog reading without
+ * connecting the server, for reading the binlog files replayed by {@link BinlogFileReplayClient} or
+ * served by a fake binlog server.
+ *
+ * <p>The server is assumed to use no GTIDs and case sensitive table names, and to have exactly the
+ * given binlog files. The table schemas are not queried, they are carried by the binlog split,
+ * thus the lazy schema loading must not be enabled.
+ */
+public class OfflineMySqlConnection extends MySqlConnection {
+
+    private final List<String> binlogFilenames;
+
+    public OfflineMySqlConnection(Configuration dbzConfiguration, List<String> binlogFilenames) {
+        super(new MySqlConnectionConfiguration(dbzConfiguration));
+        this.binlogFilenames = new ArrayList<>(binlogFilenames);
+    }
+
+    @Override
+    public boolean isTableIdCaseSensitive() {
+        // lower_case_table_names = 0
+        return false;
+    }
+
+    @Override
+    public String knownGtidSet() {
+        return "";
+    }
+
+    @Override
+    public List<String> availableBinlogFiles() {
+        return new ArrayList<>(binlogFilenames);
+    }
+}
@@ -0,0 +1,396 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium;
+
+import org.apache.flink.annotation.VisibleForTesting;
+
+import com.github.shyiko.mysql.binlog.event.DeleteRowsEventData;
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventData;
+import com.github.shyiko.mysql.binlog.event.UpdateRowsEventData;
+import com.github.shyiko.mysql.binlog.event.WriteRowsEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.EventDeserializer;
+import io.debezium.connector.mysql.MySqlDatabaseSchema;
+import io.debezium.data.Envelope;
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import javax.annotation.Nullable;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Reconstructs the rows of the row events written with binlog_row_image=MINIMAL or NOBLOB, whose
+ * row images only contain some of the columns of the table.
+ *
+ * <p>The binlog client compacts the columns present in a row image, which Debezium would map to the
+ * leading columns of the table. The rows are expanded to all the columns of the table before
+ * Debezium handles the event. The columns absent from the after image of an update are not
+ * changed, they're taken from the before image, which contains the primary key at least. If a
+ * cache size is given, the last full images of the rows are also kept by the primary key and
+ * merged into the partial images of the same rows.
+ *
+ * <p>The columns still absent are converted as nulls, or the fallback values of the non-null
+ * columns, by Debezium. They're listed by the {@link
+ * #ABSENT_COLUMNS_HEADER} header of the change record of the row, which is told by the row number
+ * of the event in the source info of the record. Both the events and the records are handled by
+ * the binlog reading thread.
+ *
+ * <p>The unknown values are not distinguished from the changed ones in the emitted rows. With
+ * MINIMAL, the before image of an update or delete only contains the primary key and the cached
+ * columns, so the before rows can't retract the previous rows, and the after rows would overwrite
+ * the unknown columns in an upsert sink.
+ */
+public final class RowImageReconstructor {
+
+    public static final String ABSENT_COLUMNS_HEADER = "row_image.absent_columns";
+    public static final Schema ABSENT_COLUMNS_SCHEMA =
+            SchemaBuilder.array(Schema.STRING_SCHEMA).build();
+    private static final String SOURCE_ROW_KEY = "row";
+
+    @Nullable private final FullImageCache fullImages;
+    // the absent columns of the before and after images of each row of the current event
+    private final List<List<String>> beforeAbsentColumns = new ArrayList<>();
+    private final List<List<String>> afterAbsentColumns = new ArrayList<>();
+    private boolean hasAbsentColumns;
+
+    public RowImageReconstructor(int cacheSize) {
+        this.fullImages = cacheSize > 0 ? new FullImageCache(cacheSize) : null;
+    }
+
+    /** Reconstructs the rows of the row event, which must be called before Debezium handles it. */
+    public void reconstruct(Event event, MySqlDatabaseSchema schema) {
+        reconstruct(event, tableNumber -> tableFor(schema, tableNumber));
+    }
+
+    @VisibleForTesting
+    void reconstruct(Event event, LongFunction<Table> tables) {
+        clear();
+        EventData data = event.getData();
+        if (data instanceof EventDeserializer.EventDataWrapper) {
+            data = ((EventDeserializer.EventDataWrapper) data).getInternal();
+        }
+        if (data instanceof WriteRowsEventData) {
+            reconstructInserts((WriteRowsEventData) data, tables);
+        } else if (data instanceof UpdateRowsEventData) {
+            reconstructUpdates((UpdateRowsEventData) data, tables);
+        } else if (data instanceof DeleteRowsEventData) {
+            reconstructDeletes((DeleteRowsEventData) data, tables);
+        }
+    }
+
+    /** Adds the absent columns of the row of the change record to its headers, if there are. */
+    public SourceRecord tag(SourceRecord record) {
+        if (!hasAbsentColumns
+                || record.valueSchema() == null
+                || record.valueSchema().field(Envelope.FieldName.SOURCE) == null) {
+            return record;
+        }
+        final Struct value = (Struct) record.value();
+        final Struct source = value.getStruct(Envelope.FieldName.SOURCE);
+        if (source.schema().field(SOURCE_ROW_KEY) == null) {
+            return record;
+        }
+        final int row = ((Number) source.get(SOURCE_ROW_KEY)).intValue();
+        final String operation = value.getString(Envelope.FieldName.OPERATION);
+        final List<List<String>> absentColumns =
+                Envelope.Operation.DELETE.code().equals(operation)
+                        ? beforeAbsentColumns
+                        : afterAbsentColumns;
+        if (row < absentColumns.size() && absentColumns.get(row) != null) {
+            record.headers()
+                    .addList(ABSENT_COLUMNS_HEADER, absentColumns.get(row), ABSENT_COLUMNS_SCHEMA);
+        }
+        return record;
+    }
+
+    /** Clears the absent columns of the rows of the event, which is called after it's handled. */
+    public void clear() {
+        beforeAbsentColumns.clear();
+        afterAbsentColumns.clear();
+        hasAbsentColumns = false;
+    }
+
+    /** Returns the names of the columns absent from the row image of the record, if there are. */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static List<String> getAbsentColumns(SourceRecord record) {
+        final Header header = record.headers().lastWithName(ABSENT_COLUMNS_HEADER);
+        return header == null ? null : (List<String>) header.value();
+    }
+
+    private void reconstructInserts(WriteRowsEventData data, LongFunction<Table> tables) {
+        final Table table = tables.apply(data.getTableId());
+        if (table == null || (isFull(data.getIncludedColumns(), table) && fullImages == null)) {
+            return;
+        }
+        final List<Serializable[]> rows = new ArrayList<>(data.getRows().size());
+        for (Serializable[] row : data.getRows()) {
+            final RowImage after = new RowImage(table, row, data.getIncludedColumns());
+            // an inserted row has no previous image to merge, the absent columns took defaults
+            cache(null, after);
+            rows.add(after.values);
+            addAbsentColumns(null, after);
+        }
+        data.setRows(rows);
+        data.setIncludedColumns(allColumns(table));
+    }
+
+    private void reconstructUpdates(UpdateRowsEventData data, LongFunction<Table> tables) {
+        final Table table = tables.apply(data.getTableId());
+        if (table == null
+                || (isFull(data.getIncludedColumnsBeforeUpdate(), table)
+                        && isFull(data.getIncludedColumns(), table)
+                        && fullImages == null)) {
+            return;
+        }
+        final List<Map.Entry<Serializable[], Serializable[]>> rows =
+                new ArrayList<>(data.getRows().size());
+        for (Map.Entry<Serializable[], Serializable[]> row : data.getRows()) {
+            final RowImage before =
+                    new RowImage(table, row.getKey(), data.getIncludedColumnsBeforeUpdate());
+            final RowImage after = new RowImage(table, row.getValue(), data.getIncludedColumns());
+            mergeCachedImage(before);
+            // the columns absent from the after image are not changed by the update
+            after.mergeFrom(before.values, before.present);
+            cache(before, after);
+            rows.add(new AbstractMap.SimpleEntry<>(before.values, after.values));
+            addAbsentColumns(before, after);
+        }
+        data.setRows(rows);
+        data.setIncludedColumnsBeforeUpdate(allColumns(table));
+        data.setIncludedColumns(allColumns(table));
+    }
+
+    private void reconstructDeletes(DeleteRowsEventData data, LongFunction<Table> tables) {
+        final Table table = tables.apply(data.getTableId());
+        if (table == null || (isFull(data.getIncludedColumns(), table) && fullImages == null)) {
+            return;
+        }
+        final List<Serializable[]> rows = new ArrayList<>(data.getRows().size());
+        for (Serializable[] row : data.getRows()) {
+            final RowImage before = new RowImage(table, row, data.getIncludedColumns());
+            mergeCachedImage(before);
+            cache(before, null);
+            rows.add(before.values);
+            addAbsentColumns(before, null);
+        }
+        data.setRows(rows);
+        data.setIncludedColumns(allColumns(table));
+    }
+
+    private void mergeCachedImage(RowImage image) {
+        if (fullImages == null || image.isFull()) {
+            return;
+        }
+        final RowKey key = image.key();
+        final FullImage cached = key == null ? null : fullImages.get(key);
+        // the image cached before the schema of the table changed is not merged
+        if (cached != null && cached.table == image.table) {
+            image.mergeFrom(cached.values, null);
+        }
+    }
+
+    /** Replaces the cached full image of the row by its new image, if it's full. */
+    private void cache(@Nullable RowImage before, @Nullable RowImage after) {
+        if (fullImages == null) {
+            return;
+        }
+        final RowKey beforeKey = before == null ? null : before.key();
+        if (beforeKey != null) {
+            fullImages.remove(beforeKey);
+        }
+        final RowKey afterKey = after == null ? null : after.key();
+        if (afterKey != null) {
+            if (after.isFull()) {
+                fullImages.put(afterKey, new FullImage(after.table, after.values));
+            } else {
+                fullImages.remove(afterKey);
+            }
+        }
+    }
+
+    private void addAbsentColumns(@Nullable RowImage before, @Nullable RowImage after) {
+        final List<String> beforeAbsent = before == null ? null : before.absentColumns();
+        final List<String> afterAbsent = after == null ? null : after.absentColumns();
+        beforeAbsentColumns.add(beforeAbsent);
+        afterAbsentColumns.add(afterAbsent);
+        hasAbsentColumns |= beforeAbsent != null || afterAbsent != null;
+    }
+
+    @Nullable
+    private static Table tableFor(MySqlDatabaseSchema schema, long tableNumber) {
+        final TableId tableId = schema.getTableId(tableNumber);
+        return tableId == null ? null : schema.tableFor(tableId);
+    }
+
+    private static boolean isFull(BitSet includedColumns, Table table) {
+        return includedColumns.nextClearBit(0) >= table.columns().size();
+    }
+
+    private static BitSet allColumns(Table table) {
+        final BitSet columns = new BitSet(table.columns().size());
+        columns.set(0, table.columns().size());
+        return columns;
+    }
+
+    /** A row image expanded to all the columns of the table. */
+    private static final class RowImage {
+        private final Table table;
+        private final Serializable[] values;
+        private final BitSet present;
+
+        private RowImage(Table table, Serializable[] row, BitSet includedColumns) {
+            final int width = table.columns().size();
+            this.table = table;
+            if (row.length >= width) {
+                this.values = row;
+                this.present = allColumns(table);
+            } else {
+                this.values = new Serializable[width];
+                this.present = includedColumns.get(0, width);
+                int index = 0;
+                for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+                    values[i] = row[index++];
+                }
+            }
+        }
+
+        private boolean isFull() {
+            return present.cardinality() == values.length;
+        }
+
+        /** Takes the absent columns from the other image of the row, which is full if null. */
+        private void mergeFrom(Serializable[] other, @Nullable BitSet otherPresent) {
+            int i = present.nextClearBit(0);
+            for (; i < values.length; i = present.nextClearBit(i + 1)) {
+                if (otherPresent == null || otherPresent.get(i)) {
+                    values[i] = other[i];
+                    present.set(i);
+                }
+            }
+        }
+
+        /** Returns the key of the row, null if the table has no primary key or it's absent. */
+        @Nullable
+        private RowKey key() {
+            final List<Column> keyColumns = table.primaryKeyColumns();
+            if (keyColumns.isEmpty()) {
+                return null;
+            }
+            final Object[] key = new Object[keyColumns.size()];
+            for (int i = 0; i < key.length; i++) {
+                final int index = keyColumns.get(i).position() - 1;
+                if (!present.get(index)) {
+                    return null;
+                }
+                key[i] = values[index];
+            }
+            return new RowKey(table.id(), key);
+        }
+
+        @Nullable
+        private List<String> absentColumns() {
+            if (isFull()) {
+                return null;
+            }
+            final List<String> absentColumns = new ArrayList<>();
+            int i = present.nextClearBit(0);
+            for (; i < values.length; i = present.nextClearBit(i + 1)) {
+                absentColumns.add(table.columns().get(i).name());
+            }
+            return Collections.unmodifiableList(absentColumns);
+        }
+    }
+
+    /** The primary key of a row, the string values of the binlog are byte arrays. */
+    private static final class RowKey {
+        private final TableId tableId;
+        private final Object[] key;
+        private final int hashCode;
+
+        private RowKey(TableId tableId, Object[] key) {
+            this.tableId = tableId;
+            this.key = key;
+            this.hashCode = 31 * tableId.hashCode() + Arrays.deepHashCode(key);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RowKey)) {
+                return false;
+            }
+            final RowKey that = (RowKey) o;
+            return hashCode == that.hashCode
+                    && tableId.equals(that.tableId)
+                    && Arrays.deepEquals(key, that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /** The full image of a row of the table of a schema version. */
+    private static final class FullImage {
+        private final Table table;
+        private final Serializable[] values;
+
+        private FullImage(Table table, Serializable[] values) {
+            this.table = table;
+            this.values = values;
+        }
+    }
+
+    /** The least recently used full images of the rows. */
+    private static final class FullImageCache extends LinkedHashMap<RowKey, FullImage> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private FullImageCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RowKey, FullImage> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
@@ -0,0 +1,908 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium;
+
+import org.apache.flink.annotation.VisibleForTesting;
+
+import com.github.shyiko.mysql.binlog.BinaryLogClient;
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventHeader;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.QueryEventData;
+import com.github.shyiko.mysql.binlog.event.RotateEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.EventDeserializer;
+import com.github.shyiko.mysql.binlog.event.deserialization.NullEventDataDeserializer;
+import com.github.shyiko.mysql.binlog.io.ByteArrayInputStream;
+import com.github.shyiko.mysql.binlog.network.SSLMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link BinaryLogClient} which shares one binlog connection with the other clients of the same
+ * MySQL instance in the TaskManager.
+ *
+ * <p>On connecting, the client joins a shared connection of the instance whose next position is
+ * the starting position of the client at a transaction boundary. A client starting behind a shared
+ * connection catches up by a private connection from its starting position, and merges into the
+ * shared connection once the private connection reaches a transaction boundary the shared
+ * connection has passed; the events delivered by the shared connection meanwhile are kept for the
+ * client, and the merge is retried at a later boundary if too many are kept. Otherwise the client
+ * opens a new shared connection from its starting position.
+ *
+ * <p>The shared connection only decodes the events it tracks the position by, the rows are never
+ * decoded by it. Each client receives the bytes of all the events through a bounded buffer, and
+ * decodes them by its own {@link EventDeserializer}, thus its own table map state, on its own
+ * thread, then notifies its own listeners; the table filter of the listeners drops the events of
+ * the other clients. A slow client blocks the shared connection once its buffer is full, thus all
+ * the other clients of the connection, which is logged as a warning. The binlog position of a
+ * client is the next position of the events notified to its listeners.
+ *
+ * <p>The shared connection always uses the server id of one of its clients. When that client
+ * disconnects, the connection reconnects from the last transaction boundary with the server id of
+ * another client, and skips the events which have been delivered already.
+ */
+public class SharedBinaryLogClient extends BinaryLogClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SharedBinaryLogClient.class);
+
+    /** The number of events buffered for each client. */
+    static final int EVENT_BUFFER_SIZE = 1024;
+
+    /** The max number of the shared events kept for a client catching up. */
+    static final int CATCH_UP_BACKLOG_SIZE = 4 * EVENT_BUFFER_SIZE;
+
+    private static final long POLL_INTERVAL_MILLIS = 100L;
+
+    // the time a full buffer blocks the shared connection before a warning is logged
+    private static final long BLOCKED_WARNING_MILLIS = 30_000L;
+
+    // the shared connections of the TaskManager, keyed by the MySQL instance and user
+    private static final Map<String, List<SharedBinlogConnection>> CONNECTIONS = new HashMap<>();
+
+    private final String hostname;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final String instanceKey;
+    private final BlockingQueue<byte[]> events = new ArrayBlockingQueue<>(EVENT_BUFFER_SIZE);
+    // orders the events of the private connection and the shared connection of the client
+    private final Object inboundLock = new Object();
+
+    private EventDeserializer eventDeserializer = new EventDeserializer();
+    // the format description event of the shared connection to decode the events by on joining
+    @Nullable private volatile byte[] formatDescriptionBytes;
+    private SSLMode sslMode = SSLMode.DISABLED;
+
+    // the next position of the events notified to the listeners, updated by the dispatcher
+    @Nullable private volatile String binlogFilename;
+    private volatile long binlogPosition = 4;
+
+    @Nullable private volatile SharedBinlogConnection connection;
+    private volatile boolean connected;
+    @Nullable private Thread dispatcher;
+    private CountDownLatch disconnected = new CountDownLatch(0);
+
+    // the private connection to catch up with the shared connection, null once merged
+    @Nullable private volatile BinaryLogClient catchUpClient;
+    // the next position of the events of the private connection, guarded by the inbound lock
+    @Nullable private String catchUpFilename;
+    private long catchUpPosition;
+
+    public SharedBinaryLogClient(String hostname, int port, String username, String password) {
+        super(hostname, port, username, password);
+        this.hostname = hostname;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.instanceKey = username + "@" + hostname + ":" + port;
+    }
+
+    @Override
+    public void setEventDeserializer(EventDeserializer eventDeserializer) {
+        super.setEventDeserializer(eventDeserializer);
+        this.eventDeserializer = eventDeserializer;
+    }
+
+    @Override
+    public String getBinlogFilename() {
+        return binlogFilename;
+    }
+
+    @Override
+    public void setBinlogFilename(String binlogFilename) {
+        super.setBinlogFilename(binlogFilename);
+        this.binlogFilename = binlogFilename;
+    }
+
+    @Override
+    public long getBinlogPosition() {
+        return binlogPosition;
+    }
+
+    @Override
+    public void setBinlogPosition(long binlogPosition) {
+        super.setBinlogPosition(binlogPosition);
+        this.binlogPosition = binlogPosition;
+    }
+
+    @Override
+    public void setSSLMode(SSLMode sslMode) {
+        super.setSSLMode(sslMode);
+        this.sslMode = sslMode;
+    }
+
+    /** The keep alive of the shared connection is done by the client of the connection. */
+    @Override
+    public boolean isKeepAlive() {
+        return false;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /** Whether the client is catching up with the shared connection by a private connection. */
+    @VisibleForTesting
+    boolean isCatchingUp() {
+        return catchUpClient != null;
+    }
+
+    /** The number of the clients reading by the shared connection of the client. */
+    @VisibleForTesting
+    int getSharedClientCount() {
+        final SharedBinlogConnection sharedConnection = connection;
+        return sharedConnection == null ? 0 : sharedConnection.currentSubscribers().size();
+    }
+
+    @Override
+    public void connect() throws IOException {
+        try {
+            connect(getConnectTimeout());
+            disconnected.await();
+        } catch (TimeoutException e) {
+            throw new IOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void connect(long timeout) throws IOException, TimeoutException {
+        if (connected) {
+            throw new IllegalStateException("BinaryLogClient is already connected");
+        }
+        // the events are buffered once the client joins the shared connection
+        connected = true;
+        disconnected = new CountDownLatch(1);
+        SharedBinlogConnection sharedConnection = null;
+        boolean isNewConnection = false;
+        boolean isCatchingUp = false;
+        synchronized (CONNECTIONS) {
+            List<SharedBinlogConnection> connections =
+                    CONNECTIONS.computeIfAbsent(instanceKey, k -> new ArrayList<>());
+            for (SharedBinlogConnection candidate : connections) {
+                if (candidate.join(this)) {
+                    sharedConnection = candidate;
+                    break;
+                }
+            }
+            if (sharedConnection == null) {
+                for (SharedBinlogConnection candidate : connections) {
+                    if (candidate.catchUp(this)) {
+                        sharedConnection = candidate;
+                        isCatchingUp = true;
+                        break;
+                    }
+                }
+            }
+            if (sharedConnection == null) {
+                final RawEventDeserializer rawEventDeserializer = new RawEventDeserializer();
+                sharedConnection =
+                        new SharedBinlogConnection(
+                                instanceKey,
+                                createClient(rawEventDeserializer),
+                                rawEventDeserializer);
+                sharedConnection.join(this);
+                connections.add(sharedConnection);
+                isNewConnection = true;
+            }
+        }
+        connection = sharedConnection;
+        try {
+            if (isNewConnection) {
+                sharedConnection.client.connect(timeout);
+            } else if (isCatchingUp) {
+                startCatchingUp(timeout);
+            }
+        } catch (IOException | TimeoutException | RuntimeException e) {
+            disconnect();
+            throw e;
+        }
+        if (isNewConnection) {
+            LOG.info(
+                    "Opened a shared binlog connection to {} from {}:{} with server id {}.",
+                    instanceKey,
+                    getBinlogFilename(),
+                    getBinlogPosition(),
+                    getServerId());
+        } else if (isCatchingUp) {
+            LOG.info(
+                    "Catch up with the shared binlog connection to {} from {}:{} with server id {}.",
+                    instanceKey,
+                    getBinlogFilename(),
+                    getBinlogPosition(),
+                    getServerId());
+        } else {
+            LOG.info(
+                    "Joined the shared binlog connection to {} at {}:{}.",
+                    instanceKey,
+                    getBinlogFilename(),
+                    getBinlogPosition());
+        }
+        for (LifecycleListener listener : getLifecycleListeners()) {
+            listener.onConnect(this);
+        }
+        dispatcher = new Thread(this::dispatchEvents, "shared-binlog-client-" + getServerId());
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Override
+    public void disconnect() throws IOException {
+        final SharedBinlogConnection sharedConnection;
+        synchronized (this) {
+            sharedConnection = connection;
+            if (sharedConnection == null) {
+                return;
+            }
+            connection = null;
+            connected = false;
+        }
+        try {
+            stopCatchingUp();
+            sharedConnection.leave(this);
+        } finally {
+            final Thread dispatcherThread = dispatcher;
+            if (dispatcherThread != null && dispatcherThread != Thread.currentThread()) {
+                try {
+                    dispatcherThread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            dispatcher = null;
+            events.clear();
+            for (LifecycleListener listener : getLifecycleListeners()) {
+                listener.onDisconnect(this);
+            }
+            disconnected.countDown();
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private BinaryLogClient createClient(RawEventDeserializer rawEventDeserializer) {
+        final BinaryLogClient client = new BinaryLogClient(hostname, port, username, password);
+        client.setServerId(getServerId());
+        client.setBinlogFilename(getBinlogFilename());
+        client.setBinlogPosition(getBinlogPosition());
+        if (getGtidSet() != null) {
+            client.setGtidSet(getGtidSet());
+        }
+        client.setGtidSetFallbackToPurged(isGtidSetFallbackToPurged());
+        client.setUseBinlogFilenamePositionInGtidMode(isUseBinlogFilenamePositionInGtidMode());
+        client.setKeepAliveInterval(getKeepAliveInterval());
+        client.setHeartbeatInterval(getHeartbeatInterval());
+        client.setConnectTimeout(getConnectTimeout());
+        client.setSSLMode(sslMode);
+        client.setEventDeserializer(rawEventDeserializer);
+        return client;
+    }
+
+    /** Opens the private connection from the starting position of the client. */
+    private void startCatchingUp(long timeout) throws IOException, TimeoutException {
+        final RawEventDeserializer rawEventDeserializer = new RawEventDeserializer();
+        final BinaryLogClient client = createClient(rawEventDeserializer);
+        client.registerEventListener(
+                event -> onCatchUpEvent(client, event, rawEventDeserializer.lastEventBytes));
+        client.registerLifecycleListener(
+                new AbstractLifecycleListener() {
+                    @Override
+                    public void onCommunicationFailure(BinaryLogClient source, Exception ex) {
+                        notifyFailure(ex, false);
+                    }
+
+                    @Override
+                    public void onEventDeserializationFailure(
+                            BinaryLogClient source, Exception ex) {
+                        notifyFailure(ex, true);
+                    }
+                });
+        synchronized (inboundLock) {
+            catchUpClient = client;
+            catchUpFilename = getBinlogFilename();
+            catchUpPosition = getBinlogPosition();
+        }
+        client.connect(timeout);
+    }
+
+    private void stopCatchingUp() throws IOException {
+        final BinaryLogClient client;
+        synchronized (inboundLock) {
+            client = catchUpClient;
+            catchUpClient = null;
+        }
+        if (client != null) {
+            client.disconnect();
+        }
+    }
+
+    /**
+     * Buffers the event of the private connection, and merges into the shared connection once the
+     * private connection reaches the position the events are kept from for the client.
+     */
+    private void onCatchUpEvent(BinaryLogClient client, Event event, byte[] eventBytes) {
+        final List<byte[]> backlog;
+        final String mergedFilename;
+        final long mergedPosition;
+        synchronized (inboundLock) {
+            if (catchUpClient != client) {
+                // the events after the merge are delivered by the shared connection
+                return;
+            }
+            try {
+                if (!offer(eventBytes)) {
+                    return;
+                }
+                final EventHeader header = event.getHeader();
+                if (header.getEventType() == EventType.ROTATE) {
+                    final RotateEventData rotateEventData = event.getData();
+                    catchUpFilename = rotateEventData.getBinlogFilename();
+                    catchUpPosition = rotateEventData.getBinlogPosition();
+                } else if (header instanceof EventHeaderV4
+                        && ((EventHeaderV4) header).getNextPosition() > 0) {
+                    catchUpPosition = ((EventHeaderV4) header).getNextPosition();
+                }
+                final SharedBinlogConnection sharedConnection = connection;
+                backlog =
+                        sharedConnection == null
+                                ? null
+                                : sharedConnection.merge(this, catchUpFilename, catchUpPosition);
+                if (backlog == null) {
+                    return;
+                }
+                catchUpClient = null;
+                mergedFilename = catchUpFilename;
+                mergedPosition = catchUpPosition;
+                for (byte[] sharedEventBytes : backlog) {
+                    if (!offer(sharedEventBytes)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        LOG.info(
+                "Merged into the shared binlog connection to {} at {}:{} with {} kept events.",
+                instanceKey,
+                mergedFilename,
+                mergedPosition,
+                backlog.size());
+        // the private connection can't be disconnected by its own thread
+        final Thread disconnector =
+                new Thread(
+                        () -> {
+                            try {
+                                client.disconnect();
+                            } catch (IOException e) {
+                                LOG.warn("Failed to disconnect the catching up connection.", e);
+                            }
+                        },
+                        "shared-binlog-client-merge-" + getServerId());
+        disconnector.setDaemon(true);
+        disconnector.start();
+    }
+
+    /** Buffers the event of the shared connection. */
+    private boolean deliver(byte[] eventBytes) throws InterruptedException {
+        synchronized (inboundLock) {
+            return offer(eventBytes);
+        }
+    }
+
+    /**
+     * Buffers the event, blocks while the buffer is full. A warning is logged every {@link
+     * #BLOCKED_WARNING_MILLIS} while it's blocked.
+     */
+    private boolean offer(byte[] eventBytes) throws InterruptedException {
+        if (events.offer(eventBytes)) {
+            return true;
+        }
+        final long blockedSince = System.currentTimeMillis();
+        long nextWarning = blockedSince + BLOCKED_WARNING_MILLIS;
+        while (connected) {
+            if (events.offer(eventBytes, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            final long now = System.currentTimeMillis();
+            if (now >= nextWarning) {
+                LOG.warn(
+                        "The binlog client with server id {} at {}:{} didn't take the events of the"
+                                + " shared binlog connection to {} for {} ms, all the clients of the"
+                                + " connection are blocked by it.",
+                        getServerId(),
+                        getBinlogFilename(),
+                        getBinlogPosition(),
+                        instanceKey,
+                        now - blockedSince);
+                nextWarning = now + BLOCKED_WARNING_MILLIS;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    @VisibleForTesting
+    Event poll() throws IOException, InterruptedException {
+        final byte[] joiningFormatDescriptionBytes = formatDescriptionBytes;
+        if (joiningFormatDescriptionBytes != null) {
+            // the checksum of the events is told by the format description event
+            formatDescriptionBytes = null;
+            decode(joiningFormatDescriptionBytes);
+        }
+        final byte[] eventBytes = events.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        return eventBytes == null ? null : decode(eventBytes);
+    }
+
+    /** Decodes the event by the deserializer of the client, which tracks its own table maps. */
+    private Event decode(byte[] eventBytes) throws IOException {
+        return eventDeserializer.nextEvent(new ByteArrayInputStream(eventBytes));
+    }
+
+    private void dispatchEvents() {
+        try {
+            while (connected) {
+                final Event event;
+                try {
+                    event = poll();
+                } catch (IOException e) {
+                    notifyFailure(e, true);
+                    continue;
+                }
+                if (event == null) {
+                    continue;
+                }
+                for (EventListener listener : getEventListeners()) {
+                    try {
+                        listener.onEvent(event);
+                    } catch (Exception e) {
+                        LOG.warn("{} choked on {}", listener, event, e);
+                    }
+                }
+                updatePosition(event);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Tracks the position of the notified events like {@link BinaryLogClient} does. */
+    @VisibleForTesting
+    void updatePosition(Event event) {
+        final EventHeader header = event.getHeader();
+        final EventType eventType = header.getEventType();
+        if (eventType == EventType.ROTATE) {
+            RotateEventData rotateEventData = event.getData();
+            binlogFilename = rotateEventData.getBinlogFilename();
+            binlogPosition = rotateEventData.getBinlogPosition();
+        } else if (eventType != EventType.TABLE_MAP && header instanceof EventHeaderV4) {
+            // the position never points between the table map event and its row events
+            final long nextPosition = ((EventHeaderV4) header).getNextPosition();
+            if (nextPosition > 0) {
+                binlogPosition = nextPosition;
+            }
+        }
+    }
+
+    private void notifyFailure(Exception exception, boolean isDeserializationFailure) {
+        for (LifecycleListener listener : getLifecycleListeners()) {
+            if (isDeserializationFailure) {
+                listener.onEventDeserializationFailure(this, exception);
+            } else {
+                listener.onCommunicationFailure(this, exception);
+            }
+        }
+    }
+
+    private static int compare(
+            String filename, long position, String thatFilename, long thatPosition) {
+        final int compared = filename.compareToIgnoreCase(thatFilename);
+        return compared != 0 ? compared : Long.compare(position, thatPosition);
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * An {@link EventDeserializer} which keeps the bytes of the last event for the clients to
+     * decode. Only the events tracking the position are decoded, the rows are skipped.
+     */
+    static final class RawEventDeserializer extends EventDeserializer {
+
+        private static final int EVENT_HEADER_LENGTH = 19;
+
+        @Nullable private volatile byte[] lastEventBytes;
+
+        RawEventDeserializer() {
+            for (EventType eventType :
+                    new EventType[] {
+                        EventType.PRE_GA_WRITE_ROWS,
+                        EventType.PRE_GA_UPDATE_ROWS,
+                        EventType.PRE_GA_DELETE_ROWS,
+                        EventType.WRITE_ROWS,
+                        EventType.UPDATE_ROWS,
+                        EventType.DELETE_ROWS,
+                        EventType.EXT_WRITE_ROWS,
+                        EventType.EXT_UPDATE_ROWS,
+                        EventType.EXT_DELETE_ROWS,
+                        EventType.ROWS_QUERY
+                    }) {
+                setEventDataDeserializer(eventType, new NullEventDataDeserializer());
+            }
+        }
+
+        @Override
+        public Event nextEvent(ByteArrayInputStream inputStream) throws IOException {
+            if (inputStream.peek() == -1) {
+                return null;
+            }
+            final byte[] header = inputStream.read(EVENT_HEADER_LENGTH);
+            final int eventLength =
+                    (header[9] & 0xff)
+                            | (header[10] & 0xff) << 8
+                            | (header[11] & 0xff) << 16
+                            | (header[12] & 0xff) << 24;
+            final byte[] eventBytes = new byte[eventLength];
+            System.arraycopy(header, 0, eventBytes, 0, EVENT_HEADER_LENGTH);
+            inputStream.fill(eventBytes, EVENT_HEADER_LENGTH, eventLength - EVENT_HEADER_LENGTH);
+            lastEventBytes = eventBytes;
+            return super.nextEvent(new ByteArrayInputStream(eventBytes));
+        }
+    }
+
+    /** A client catching up with the shared connection, and the events kept for it. */
+    private static final class CatchingUpClient {
+        private final List<byte[]> backlog = new ArrayList<>();
+        // the transaction boundary to merge at, null until the connection reaches a boundary
+        @Nullable private String mergeFilename;
+        private long mergePosition;
+    }
+
+    /** A binlog connection whose events are delivered to all of its clients. */
+    static final class SharedBinlogConnection
+            implements BinaryLogClient.EventListener, BinaryLogClient.LifecycleListener {
+
+        private final String instanceKey;
+        private final BinaryLogClient client;
+        private final RawEventDeserializer rawEventDeserializer;
+        private final List<SharedBinaryLogClient> subscribers = new ArrayList<>();
+        private final Map<SharedBinaryLogClient, CatchingUpClient> catchingUpClients =
+                new HashMap<>();
+        private boolean closed;
+
+        // the next position of the events which have been delivered to the clients
+        @Nullable private String deliveredFilename;
+        private long deliveredPosition;
+
+        // the next position of the last transaction which have been delivered to the clients
+        @Nullable private String boundaryFilename;
+        private long boundaryPosition;
+        private boolean inTransaction;
+
+        // the last format description event, which a joining client decodes the events by
+        @Nullable private byte[] formatDescriptionBytes;
+
+        // whether the delivered events are being re-read after reconnecting
+        private boolean resuming;
+        @Nullable private String resumingFilename;
+
+        SharedBinlogConnection(
+                String instanceKey,
+                BinaryLogClient client,
+                RawEventDeserializer rawEventDeserializer) {
+            this.instanceKey = instanceKey;
+            this.client = client;
+            this.rawEventDeserializer = rawEventDeserializer;
+            this.deliveredFilename = client.getBinlogFilename();
+            this.deliveredPosition = client.getBinlogPosition();
+            this.boundaryFilename = deliveredFilename;
+            this.boundaryPosition = deliveredPosition;
+            client.registerEventListener(this);
+            client.registerLifecycleListener(this);
+        }
+
+        /**
+         * Adds the client if its starting position is the next position of the connection, and
+         * the connection is at a transaction boundary.
+         */
+        synchronized boolean join(SharedBinaryLogClient subscriber) {
+            if (closed) {
+                return false;
+            }
+            if (!subscribers.isEmpty()
+                    && (inTransaction
+                            || deliveredFilename == null
+                            || !deliveredFilename.equals(subscriber.getBinlogFilename())
+                            || deliveredPosition != subscriber.getBinlogPosition())) {
+                return false;
+            }
+            subscriber.formatDescriptionBytes = formatDescriptionBytes;
+            subscribers.add(subscriber);
+            return true;
+        }
+
+        /**
+         * Keeps the events delivered from now on for the client if its starting position is behind
+         * the connection, the client catches up by a private connection then.
+         */
+        synchronized boolean catchUp(SharedBinaryLogClient subscriber) {
+            if (closed
+                    || subscribers.isEmpty()
+                    || deliveredFilename == null
+                    || subscriber.getBinlogFilename() == null
+                    || compare(
+                                    subscriber.getBinlogFilename(),
+                                    subscriber.getBinlogPosition(),
+                                    deliveredFilename,
+                                    deliveredPosition)
+                            >= 0) {
+                return false;
+            }
+            final CatchingUpClient catchingUpClient = new CatchingUpClient();
+            if (!inTransaction) {
+                catchingUpClient.mergeFilename = deliveredFilename;
+                catchingUpClient.mergePosition = deliveredPosition;
+            }
+            catchingUpClients.put(subscriber, catchingUpClient);
+            return true;
+        }
+
+        /**
+         * Adds the catching up client if its private connection reaches the position the events
+         * are kept from. Returns the kept events, or null if the client isn't merged.
+         */
+        @Nullable
+        synchronized List<byte[]> merge(
+                SharedBinaryLogClient subscriber, String filename, long position) {
+            final CatchingUpClient catchingUpClient = catchingUpClients.get(subscriber);
+            if (catchingUpClient == null
+                    || catchingUpClient.mergeFilename == null
+                    || !catchingUpClient.mergeFilename.equals(filename)
+                    || catchingUpClient.mergePosition != position) {
+                return null;
+            }
+            catchingUpClients.remove(subscriber);
+            subscribers.add(subscriber);
+            return catchingUpClient.backlog;
+        }
+
+        void leave(SharedBinaryLogClient subscriber) throws IOException {
+            final SharedBinaryLogClient nextOwner;
+            synchronized (CONNECTIONS) {
+                synchronized (this) {
+                    catchingUpClients.remove(subscriber);
+                    if (!subscribers.remove(subscriber)) {
+                        return;
+                    }
+                    if (subscribers.isEmpty()) {
+                        closed = true;
+                        // the catching up clients keep reading by their private connections
+                        catchingUpClients.clear();
+                        final List<SharedBinlogConnection> connections =
+                                CONNECTIONS.get(instanceKey);
+                        if (connections != null) {
+                            connections.remove(this);
+                            if (connections.isEmpty()) {
+                                CONNECTIONS.remove(instanceKey);
+                            }
+                        }
+                        nextOwner = null;
+                    } else if (subscriber.getServerId() == client.getServerId()) {
+                        nextOwner = subscribers.get(0);
+                    } else {
+                        return;
+                    }
+                }
+            }
+            if (nextOwner == null) {
+                client.disconnect();
+                LOG.info("Closed the shared binlog connection to {}.", instanceKey);
+            } else {
+                handover(nextOwner);
+            }
+        }
+
+        /**
+         * Reconnects with the server id of another client, the server id of the leaving client
+         * may be used by its new connection.
+         */
+        private void handover(SharedBinaryLogClient nextOwner) throws IOException {
+            client.disconnect();
+            synchronized (this) {
+                // re-read the transaction which is partially delivered, the row events can't be
+                // read without the table map events ahead of them
+                if (boundaryFilename != null) {
+                    client.setBinlogFilename(boundaryFilename);
+                    client.setBinlogPosition(boundaryPosition);
+                }
+                resuming = true;
+                resumingFilename = null;
+            }
+            client.setServerId(nextOwner.getServerId());
+            LOG.info(
+                    "Reconnect the shared binlog connection to {} from {}:{} with server id {}.",
+                    instanceKey,
+                    client.getBinlogFilename(),
+                    client.getBinlogPosition(),
+                    nextOwner.getServerId());
+            try {
+                client.connect(client.getConnectTimeout());
+            } catch (TimeoutException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void onEvent(Event event) {
+            deliver(event, rawEventDeserializer.lastEventBytes);
+        }
+
+        /** Delivers the bytes of the event to the clients. */
+        @VisibleForTesting
+        void deliver(Event event, byte[] eventBytes) {
+            final List<SharedBinaryLogClient> receivers;
+            synchronized (this) {
+                if (resuming && isDelivered(event)) {
+                    return;
+                }
+                resuming = false;
+                trackPosition(event);
+                if (event.getHeader().getEventType() == EventType.FORMAT_DESCRIPTION) {
+                    formatDescriptionBytes = eventBytes;
+                }
+                for (CatchingUpClient catchingUpClient : catchingUpClients.values()) {
+                    keep(catchingUpClient, eventBytes);
+                }
+                receivers = new ArrayList<>(subscribers);
+            }
+            try {
+                for (SharedBinaryLogClient receiver : receivers) {
+                    receiver.deliver(eventBytes);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Keeps the delivered event for the catching up client, the events are kept from a
+         * transaction boundary. The client is merged at a later boundary if too many are kept.
+         */
+        private void keep(CatchingUpClient catchingUpClient, byte[] eventBytes) {
+            if (catchingUpClient.mergeFilename != null) {
+                catchingUpClient.backlog.add(eventBytes);
+                if (catchingUpClient.backlog.size() <= CATCH_UP_BACKLOG_SIZE) {
+                    return;
+                }
+                catchingUpClient.backlog.clear();
+                catchingUpClient.mergeFilename = null;
+            }
+            if (!inTransaction) {
+                catchingUpClient.mergeFilename = deliveredFilename;
+                catchingUpClient.mergePosition = deliveredPosition;
+            }
+        }
+
+        private boolean isDelivered(Event event) {
+            final EventHeader header = event.getHeader();
+            final EventType eventType = header.getEventType();
+            if (eventType == EventType.ROTATE) {
+                resumingFilename = ((RotateEventData) event.getData()).getBinlogFilename();
+                return true;
+            }
+            if (eventType == EventType.FORMAT_DESCRIPTION || eventType == EventType.HEARTBEAT) {
+                return true;
+            }
+            if (header instanceof EventHeaderV4) {
+                long nextPosition = ((EventHeaderV4) header).getNextPosition();
+                return Objects.equals(resumingFilename, deliveredFilename)
+                        && nextPosition <= deliveredPosition;
+            }
+            return false;
+        }
+
+        private void trackPosition(Event event) {
+            final EventHeader header = event.getHeader();
+            final EventType eventType = header.getEventType();
+            if (eventType == EventType.ROTATE) {
+                RotateEventData rotateEventData = event.getData();
+                deliveredFilename = rotateEventData.getBinlogFilename();
+                deliveredPosition = rotateEventData.getBinlogPosition();
+            } else if (header instanceof EventHeaderV4
+                    && ((EventHeaderV4) header).getNextPosition() > 0) {
+                deliveredPosition = ((EventHeaderV4) header).getNextPosition();
+            }
+            if (eventType == EventType.GTID || eventType == EventType.ANONYMOUS_GTID) {
+                inTransaction = true;
+            } else if (eventType == EventType.QUERY) {
+                // the transaction of row events starts with BEGIN, the DDL is a transaction
+                String sql = ((QueryEventData) event.getData()).getSql();
+                inTransaction = "BEGIN".equalsIgnoreCase(sql);
+            } else if (eventType == EventType.XID) {
+                inTransaction = false;
+            }
+            if (!inTransaction) {
+                boundaryFilename = deliveredFilename;
+                boundaryPosition = deliveredPosition;
+            }
+        }
+
+        @Override
+        public void onConnect(BinaryLogClient client) {}
+
+        @Override
+        public void onCommunicationFailure(BinaryLogClient client, Exception ex) {
+            for (SharedBinaryLogClient subscriber : currentSubscribers()) {
+                subscriber.notifyFailure(ex, false);
+            }
+        }
+
+        @Override
+        public void onEventDeserializationFailure(BinaryLogClient client, Exception ex) {
+            for (SharedBinaryLogClient subscriber : currentSubscribers()) {
+                subscriber.notifyFailure(ex, true);
+            }
+        }
+
+        @Override
+        public void onDisconnect(BinaryLogClient client) {}
+
+        private synchronized List<SharedBinaryLogClient> currentSubscribers() {
+            return new ArrayList<>(subscribers);
+        }
+    }
+}
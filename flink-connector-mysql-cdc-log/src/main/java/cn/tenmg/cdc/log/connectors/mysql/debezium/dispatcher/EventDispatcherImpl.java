@@ -41,8 +41,11 @@ import org.apache.kafka.connect.source.SourceRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import cn.tenmg.cdc.log.connectors.mysql.debezium.RowImageReconstructor;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.task.context.StatefulTaskContext;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
@@ -71,6 +74,8 @@ public class EventDispatcherImpl<T extends DataCollectionId> extends EventDispat
     private final TopicSelector<T> topicSelector;
     private final Schema schemaChangeKeySchema;
     private final Schema schemaChangeValueSchema;
+    // marks the columns absent from the row images, null if the row images are always full
+    @Nullable private final RowImageReconstructor rowImageReconstructor;
 
     public EventDispatcherImpl(
             CommonConnectorConfig connectorConfig,
@@ -81,7 +86,7 @@ public class EventDispatcherImpl<T extends DataCollectionId> extends EventDispat
             ChangeEventCreator changeEventCreator,
             EventMetadataProvider metadataProvider,
             SchemaNameAdjuster schemaNameAdjuster) {
-        super(
+        this(
                 connectorConfig,
                 topicSelector,
                 schema,
@@ -89,7 +94,34 @@ public class EventDispatcherImpl<T extends DataCollectionId> extends EventDispat
                 filter,
                 changeEventCreator,
                 metadataProvider,
+                schemaNameAdjuster,
+                null);
+    }
+
+    public EventDispatcherImpl(
+            CommonConnectorConfig connectorConfig,
+            TopicSelector<T> topicSelector,
+            DatabaseSchema<T> schema,
+            ChangeEventQueue<DataChangeEvent> queue,
+            DataCollectionFilters.DataCollectionFilter<T> filter,
+            ChangeEventCreator changeEventCreator,
+            EventMetadataProvider metadataProvider,
+            SchemaNameAdjuster schemaNameAdjuster,
+            @Nullable RowImageReconstructor rowImageReconstructor) {
+        super(
+                connectorConfig,
+                topicSelector,
+                schema,
+                queue,
+                filter,
+                rowImageReconstructor == null
+                        ? changeEventCreator
+                        : record ->
+                                changeEventCreator.createDataChangeEvent(
+                                        rowImageReconstructor.tag(record)),
+                metadataProvider,
                 schemaNameAdjuster);
+        this.rowImageReconstructor = rowImageReconstructor;
         this.historizedSchema =
                 schema instanceof HistorizedDatabaseSchema
                         ? (HistorizedDatabaseSchema<T>) schema
@@ -125,6 +157,11 @@ public class EventDispatcherImpl<T extends DataCollectionId> extends EventDispat
         return queue;
     }
 
+    @Nullable
+    public RowImageReconstructor getRowImageReconstructor() {
+        return rowImageReconstructor;
+    }
+
     @Override
     public void dispatchSchemaChangeEvent(
             T dataCollectionId, SchemaChangeEventEmitter schemaChangeEventEmitter)
@@ -163,6 +200,15 @@ public class EventDispatcherImpl<T extends DataCollectionId> extends EventDispat
         schemaChangeEventEmitter.emitSchemaChangeEvent(new SchemaChangeEventReceiver());
     }
 
+    /**
+     * Dispatches the schema of a table loaded on demand by the binlog reading. The schema has been
+     * applied to the database schema already, it's only forwarded to be recorded in the split
+     * state like a schema change.
+     */
+    public void dispatchLoadedTableSchema(SchemaChangeEvent event) throws InterruptedException {
+        new SchemaChangeEventReceiver().enqueueSchemaChangeRecord(event);
+    }
+
     /** A {@link SchemaChangeEventEmitter.Receiver} implementation for {@link SchemaChangeEvent}. */
     private final class SchemaChangeEventReceiver implements SchemaChangeEventEmitter.Receiver {
 
@@ -203,6 +249,11 @@ public class EventDispatcherImpl<T extends DataCollectionId> extends EventDispat
         @Override
         public void schemaChangeEvent(SchemaChangeEvent event) throws InterruptedException {
             historizedSchema.applySchemaChange(event);
+            enqueueSchemaChangeRecord(event);
+        }
+
+        private void enqueueSchemaChangeRecord(SchemaChangeEvent event)
+                throws InterruptedException {
             if (connectorConfig.isSchemaChangesHistoryEnabled()) {
                 try {
                     final String topicName = topicSelector.getPrimaryTopic();
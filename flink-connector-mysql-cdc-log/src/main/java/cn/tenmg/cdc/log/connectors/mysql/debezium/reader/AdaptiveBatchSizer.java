@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium.reader;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+import java.time.Duration;
+
+/**
+ * Chooses the size of the record batches polled by a split reader by the arrival rate of the
+ * records and a target latency bound.
+ *
+ * <p>The batch size is the number of records expected to arrive within the target latency, which
+ * is 1 at low rates, so a record is emitted as soon as it arrives, and grows up to the max batch
+ * size at high rates, so the cost per batch is amortized over more records. A record waits for its
+ * batch to fill up at most the target latency. The arrival rate is the exponentially weighted
+ * moving average of the rates observed by the polls, each observed by the number of the polled
+ * records and the times they arrived at, which don't include the time the reader spends
+ * downstream. A sizer only observes the records of one reader.
+ */
+public final class AdaptiveBatchSizer {
+
+    // the weight of the latest observed rate in the moving average
+    private static final double SMOOTHING_FACTOR = 0.2;
+
+    private final int maxBatchSize;
+    private final long targetLatencyNanos;
+
+    // the records per nanosecond, only accessed by the polling thread
+    private double arrivalRate;
+    private long lastArrivalNanos;
+    // the records polled since the last arrival time
+    private long pendingRecords;
+
+    // read by the metrics
+    private volatile int batchSize = 1;
+
+    public AdaptiveBatchSizer(int maxBatchSize, Duration targetLatency) {
+        checkArgument(maxBatchSize > 0, "The max batch size must be positive.");
+        checkArgument(!targetLatency.isNegative(), "The target latency must not be negative.");
+        this.maxBatchSize = maxBatchSize;
+        this.targetLatencyNanos = targetLatency.toNanos();
+    }
+
+    /** Returns the size of the next batch, which is between 1 and the max batch size. */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getTargetLatencyNanos() {
+        return targetLatencyNanos;
+    }
+
+    /**
+     * Returns how long to wait for the given number of records to arrive at the estimated rate,
+     * which is at most the target latency.
+     */
+    public long getWaitNanos(int records) {
+        if (records <= 0) {
+            return 0L;
+        }
+        if (arrivalRate <= 0) {
+            return targetLatencyNanos;
+        }
+        return (long) Math.min(targetLatencyNanos, records / arrivalRate);
+    }
+
+    /**
+     * Updates the arrival rate by the number of records polled, the last of which arrived at the
+     * given time. The records polled without a later arrival time are counted at the next one.
+     */
+    public void update(int records, long lastArrivalNanos) {
+        pendingRecords += records;
+        if (lastArrivalNanos == this.lastArrivalNanos) {
+            return;
+        }
+        if (this.lastArrivalNanos != 0L) {
+            final long interval = Math.max(lastArrivalNanos - this.lastArrivalNanos, 1L);
+            final double observedRate = (double) pendingRecords / interval;
+            arrivalRate =
+                    arrivalRate <= 0
+                            ? observedRate
+                            : SMOOTHING_FACTOR * observedRate
+                                    + (1 - SMOOTHING_FACTOR) * arrivalRate;
+            final double expectedRecords = arrivalRate * targetLatencyNanos;
+            batchSize = (int) Math.max(1L, Math.min(maxBatchSize, Math.round(expectedRecords)));
+        }
+        this.lastArrivalNanos = lastArrivalNanos;
+        pendingRecords = 0;
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium.reader;
+
+import org.apache.flink.util.FlinkRuntimeException;
+
+import org.apache.kafka.connect.source.SourceRecord;
+
+import javax.annotation.Nullable;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A lock-free single producer single consumer handoff of the binlog records from the binlog
+ * reading thread to the split reader, which replaces polling the Debezium {@code
+ * ChangeEventQueue} by the reader.
+ *
+ * <p>The records are put in a ring buffer bounded by both the number of records and their
+ * approximate size. The size of a record is approximated by its share of the bytes of the binlog
+ * event it's read from plus a fixed overhead, which is known without walking the record. The
+ * producer wakes up the consumer waiting for records as soon as a record is
+ * put, and the consumer wakes up the producer waiting for space as soon as records are polled,
+ * thus neither side sleeps by a poll interval. The handoff accepts a record of any size when it's
+ * empty, so a large record never blocks the binlog reading forever.
+ *
+ * <p>With a {@link BinlogRecordSpool}, the producer spills the records to the spool instead of
+ * blocking while the handoff is full, and keeps spilling until the spilled records are all polled,
+ * so the records are polled in order: the consumer polls the handoff first, and the spool once the
+ * handoff is empty. Thus the records only go through the disk while the reader is back-pressured.
+ *
+ * <p>{@link #put(SourceRecord, long)} must only be called by one thread at a time, and so must
+ * {@link #poll(int, long)}.
+ */
+public final class BinlogRecordHandoff implements Closeable {
+
+    // the max time the blocked producer waits before checking whether the handoff is closed
+    private static final long MAX_PRODUCER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // the approximate size of the record itself, its partition and offset
+    static final long RECORD_OVERHEAD = 256L;
+
+    private final SourceRecord[] records;
+    private final long[] sizes;
+    private final long[] arrivalNanos;
+    private final int mask;
+    private final long maxSize;
+    @Nullable private final BinlogRecordSpool spool;
+
+    // the index of the next record to put and the size of the records put, written by the producer
+    private final AtomicLong tail = new AtomicLong();
+    private long producedSize;
+    // the index of the next record to poll and the size of the records polled, written by the
+    // consumer
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong consumedSize = new AtomicLong();
+    // the arrival time of the last record polled from the ring, only accessed by the consumer
+    private long lastArrivalNanos;
+
+    @Nullable private volatile Thread waitingProducer;
+    @Nullable private volatile Thread waitingConsumer;
+    private volatile boolean closed;
+
+    public BinlogRecordHandoff(int maxRecords, long maxSize) {
+        this(maxRecords, maxSize, null);
+    }
+
+    BinlogRecordHandoff(int maxRecords, long maxSize, @Nullable BinlogRecordSpool spool) {
+        checkArgument(maxRecords > 0, "The max number of records must be positive.");
+        checkArgument(maxSize > 0, "The max size of records must be positive.");
+        final int capacity =
+                maxRecords > 1 << 30 ? 1 << 30 : Integer.highestOneBit(maxRecords - 1) << 1;
+        this.records = new SourceRecord[Math.max(capacity, 1)];
+        this.sizes = new long[records.length];
+        this.arrivalNanos = new long[records.length];
+        this.mask = records.length - 1;
+        this.maxSize = maxSize;
+        this.spool = spool;
+    }
+
+    /**
+     * Puts the record read from the given bytes of binlog event, blocks while the handoff is full,
+     * or spills the record to the spool then if any. Returns false without putting the record if
+     * the handoff is closed.
+     */
+    public boolean put(SourceRecord record, long eventBytes) throws InterruptedException {
+        final long size = RECORD_OVERHEAD + eventBytes;
+        final long index = tail.get();
+        if (spool != null && (!spool.isEmpty() || !hasSpace(index, size))) {
+            return spill(record);
+        }
+        while (!hasSpace(index, size)) {
+            if (closed) {
+                return false;
+            }
+            waitingProducer = Thread.currentThread();
+            // checks again after announcing the waiting, the consumer may have just polled
+            if (!hasSpace(index, size) && !closed) {
+                LockSupport.parkNanos(this, MAX_PRODUCER_PARK_NANOS);
+            }
+            waitingProducer = null;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        if (closed) {
+            return false;
+        }
+        final int slot = (int) index & mask;
+        records[slot] = record;
+        sizes[slot] = size;
+        arrivalNanos[slot] = System.nanoTime();
+        producedSize += size;
+        // publishes the record before reading whether the consumer is waiting
+        tail.set(index + 1);
+        final Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    private boolean spill(SourceRecord record) throws InterruptedException {
+        if (closed) {
+            return false;
+        }
+        try {
+            spool.append(Collections.singletonList(record));
+        } catch (IOException e) {
+            if (closed) {
+                return false;
+            }
+            throw new FlinkRuntimeException("Failed to spool the binlog record", e);
+        }
+        // the consumer waits for the handoff only when the spool is empty
+        final Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    private boolean hasSpace(long index, long size) {
+        if (index - head.get() >= records.length) {
+            return false;
+        }
+        final long pendingSize = producedSize - consumedSize.get();
+        return pendingSize == 0 || pendingSize + size <= maxSize;
+    }
+
+    /**
+     * Polls at most the given number of records, waits for the timeout if the handoff is empty.
+     * Returns an empty list if no record is put within the timeout or the handoff is closed.
+     */
+    public List<SourceRecord> poll(int maxRecords, long timeoutMillis) throws InterruptedException {
+        return poll(maxRecords, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Polls like {@link #poll(int, long)} with the timeout in the given unit. */
+    public List<SourceRecord> poll(int maxRecords, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        final long index = head.get();
+        long deadline = 0L;
+        boolean waited = false;
+        while (true) {
+            final long available = tail.get() - index;
+            if (available > 0) {
+                return take(index, (int) Math.min(available, maxRecords));
+            }
+            if (spool != null && !spool.isEmpty()) {
+                // the spilled records follow all the records of the handoff
+                try {
+                    return spool.poll(maxRecords, 0L);
+                } catch (IOException e) {
+                    throw new FlinkRuntimeException("Failed to read the binlog spool", e);
+                }
+            }
+            if (closed) {
+                return Collections.emptyList();
+            }
+            final long now = System.nanoTime();
+            if (!waited) {
+                deadline = now + unit.toNanos(timeout);
+                waited = true;
+            }
+            if (now - deadline >= 0) {
+                return Collections.emptyList();
+            }
+            waitingConsumer = Thread.currentThread();
+            // checks again after announcing the waiting, the producer may have just put
+            if (tail.get() == index && !closed && (spool == null || spool.isEmpty())) {
+                LockSupport.parkNanos(this, deadline - now);
+            }
+            waitingConsumer = null;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private List<SourceRecord> take(long index, int count) {
+        final List<SourceRecord> batch = new ArrayList<>(count);
+        long size = 0L;
+        for (int i = 0; i < count; i++) {
+            final int slot = (int) (index + i) & mask;
+            batch.add(records[slot]);
+            records[slot] = null;
+            size += sizes[slot];
+            lastArrivalNanos = arrivalNanos[slot];
+        }
+        head.set(index + count);
+        // frees the space before reading whether the producer is waiting
+        consumedSize.set(consumedSize.get() + size);
+        final Thread producer = waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+        return batch;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} the last record polled from the handoff was put at,
+     * the spilled records don't update it.
+     */
+    public long getLastArrivalNanos() {
+        return lastArrivalNanos;
+    }
+
+    /** Returns the number of records put but not polled yet. */
+    public int getNumRecords() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /** Closes the handoff, the blocked producer and consumer return immediately. */
+    @Override
+    public void close() {
+        closed = true;
+        final Thread producer = waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+        final Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+}
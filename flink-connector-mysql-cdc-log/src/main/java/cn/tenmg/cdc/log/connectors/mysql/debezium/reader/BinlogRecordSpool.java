@@ -0,0 +1,467 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium.reader;
+
+import org.apache.flink.util.FileUtils;
+
+import org.apache.kafka.connect.data.SchemaAndValue;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.header.Headers;
+import org.apache.kafka.connect.json.JsonConverter;
+import org.apache.kafka.connect.json.JsonConverterConfig;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.kafka.connect.storage.ConverterConfig;
+import org.apache.kafka.connect.storage.ConverterType;
+
+import javax.annotation.Nullable;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local disk spool of the binlog records, which the binlog reading spills the records to while
+ * the {@link BinlogRecordHandoff} is full, and which is drained in order by the split reader.
+ *
+ * <p>The records are appended to segment files of about the segment size in the spool directory,
+ * a segment is deleted once it is drained. The appending blocks while the spool exceeds its max
+ * size, thus the binlog reading is back-pressured by the spool then. The max size is not smaller
+ * than the segment size, so the spool exceeding it always has a sealed segment to be drained.
+ */
+final class BinlogRecordSpool implements Closeable {
+
+    private static final String SEGMENT_FILE_PREFIX = "segment-";
+
+    // the type tags of the values of the source partition and offset
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte LONG_VALUE = 2;
+    private static final byte INT_VALUE = 3;
+    private static final byte SHORT_VALUE = 4;
+    private static final byte BYTE_VALUE = 5;
+    private static final byte BOOLEAN_VALUE = 6;
+    private static final byte DOUBLE_VALUE = 7;
+    private static final byte FLOAT_VALUE = 8;
+
+    private final File directory;
+    private final long maxSize;
+    private final long segmentSize;
+    private final JsonConverter keyConverter;
+    private final JsonConverter valueConverter;
+    private final JsonConverter headerConverter;
+
+    // the segments not drained yet, guarded by this
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long spoolSize;
+    // the number of the records appended but not polled yet
+    private long pendingRecords;
+    private long nextSegmentId;
+    private boolean closed;
+
+    // the reading segment, only accessed by the draining thread
+    @Nullable private Segment readingSegment;
+    @Nullable private DataInputStream segmentInput;
+    private long readRecords;
+
+    BinlogRecordSpool(File parentDirectory, long maxSize, long segmentSize) throws IOException {
+        checkArgument(
+                segmentSize > 0, "The segment size must be positive, but is %s.", segmentSize);
+        checkArgument(
+                maxSize >= segmentSize,
+                "The max size %s is smaller than the segment size %s.",
+                maxSize,
+                segmentSize);
+        if (!parentDirectory.exists() && !parentDirectory.mkdirs()) {
+            throw new IOException("Failed to create the spool directory " + parentDirectory);
+        }
+        this.directory =
+                Files.createTempDirectory(parentDirectory.toPath(), "mysql-binlog-spool-")
+                        .toFile();
+        this.maxSize = maxSize;
+        this.segmentSize = segmentSize;
+        this.keyConverter = createConverter(ConverterType.KEY);
+        this.valueConverter = createConverter(ConverterType.VALUE);
+        this.headerConverter = createConverter(ConverterType.HEADER);
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    synchronized long getSpoolSize() {
+        return spoolSize;
+    }
+
+    /** Whether all the appended records have been polled. */
+    synchronized boolean isEmpty() {
+        return pendingRecords == 0;
+    }
+
+    /**
+     * Appends the records to the spool, blocks while the spool exceeds its max size. The records
+     * are written under the lock, so the spool can't be closed in the middle of the writing.
+     */
+    synchronized void append(List<SourceRecord> records) throws IOException, InterruptedException {
+        if (records.isEmpty()) {
+            return;
+        }
+        final Segment segment = getWritingSegment();
+        final long sizeBefore = segment.output.size();
+        for (SourceRecord record : records) {
+            writeRecord(record, segment.output);
+        }
+        segment.output.flush();
+        segment.writtenRecords += records.size();
+        pendingRecords += records.size();
+        spoolSize += segment.output.size() - sizeBefore;
+        if (segment.output.size() >= segmentSize) {
+            segment.seal();
+        }
+        notifyAll();
+    }
+
+    /** Polls at most the given number of records, waits for the timeout if the spool is empty. */
+    List<SourceRecord> poll(int maxRecords, long timeoutMillis)
+            throws IOException, InterruptedException {
+        final List<SourceRecord> records = new ArrayList<>();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (records.isEmpty()) {
+            final long available;
+            synchronized (this) {
+                while (!closed && (readingSegment = segments.peekFirst()) != null) {
+                    if (readRecords < readingSegment.writtenRecords || !readingSegment.sealed) {
+                        break;
+                    }
+                    // the drained segment is deleted
+                    removeReadingSegment();
+                }
+                if (closed) {
+                    return records;
+                }
+                available =
+                        readingSegment == null ? 0 : readingSegment.writtenRecords - readRecords;
+                if (available == 0) {
+                    long waitMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (waitMillis <= 0) {
+                        return records;
+                    }
+                    wait(waitMillis);
+                    continue;
+                }
+            }
+            if (segmentInput == null) {
+                segmentInput =
+                        new DataInputStream(
+                                new BufferedInputStream(new FileInputStream(readingSegment.file)));
+            }
+            for (long i = 0; i < Math.min(available, maxRecords); i++) {
+                records.add(readRecord(segmentInput));
+                readRecords++;
+            }
+            synchronized (this) {
+                pendingRecords -= records.size();
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            for (Segment segment : segments) {
+                segment.close();
+            }
+            segments.clear();
+            spoolSize = 0;
+            pendingRecords = 0;
+            notifyAll();
+        }
+        if (segmentInput != null) {
+            segmentInput.close();
+            segmentInput = null;
+        }
+        FileUtils.deleteDirectory(directory);
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private synchronized Segment getWritingSegment() throws IOException, InterruptedException {
+        // the spool exceeding the max size has its first segment sealed, it's deleted once drained
+        while (!closed && spoolSize >= maxSize) {
+            wait();
+        }
+        if (closed) {
+            throw new IOException("The binlog spool is closed");
+        }
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.sealed) {
+            final File file = new File(directory, SEGMENT_FILE_PREFIX + nextSegmentId++);
+            segment = new Segment(file);
+            segments.addLast(segment);
+        }
+        return segment;
+    }
+
+    private void removeReadingSegment() throws IOException {
+        final Segment segment = segments.pollFirst();
+        if (segmentInput != null) {
+            segmentInput.close();
+            segmentInput = null;
+        }
+        segment.close();
+        spoolSize -= segment.output.size();
+        Files.deleteIfExists(segment.file.toPath());
+        readingSegment = null;
+        readRecords = 0;
+        notifyAll();
+    }
+
+    private void writeRecord(SourceRecord record, DataOutputStream out) {
+        try {
+            writeStringMap(record.sourcePartition(), out);
+            writeStringMap(record.sourceOffset(), out);
+            out.writeUTF(record.topic());
+            out.writeInt(record.kafkaPartition() == null ? -1 : record.kafkaPartition());
+            writeBytes(
+                    record.keySchema() == null && record.key() == null
+                            ? null
+                            : keyConverter.fromConnectData(
+                                    record.topic(), record.keySchema(), record.key()),
+                    out);
+            writeBytes(
+                    record.valueSchema() == null && record.value() == null
+                            ? null
+                            : valueConverter.fromConnectData(
+                                    record.topic(), record.valueSchema(), record.value()),
+                    out);
+            out.writeLong(record.timestamp() == null ? -1L : record.timestamp());
+            // the headers tag the records, e.g. by the columns absent from the row image
+            out.writeInt(record.headers().size());
+            for (Header header : record.headers()) {
+                out.writeUTF(header.key());
+                writeBytes(
+                        headerConverter.fromConnectHeader(
+                                record.topic(), header.key(), header.schema(), header.value()),
+                        out);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to spool the binlog record " + record, e);
+        }
+    }
+
+    private SourceRecord readRecord(DataInputStream in) throws IOException {
+        final Map<String, ?> partition = readStringMap(in);
+        final Map<String, ?> offset = readStringMap(in);
+        final String topic = in.readUTF();
+        final int kafkaPartition = in.readInt();
+        final byte[] keyBytes = readBytes(in);
+        final byte[] valueBytes = readBytes(in);
+        final long timestamp = in.readLong();
+        final Headers headers = new ConnectHeaders();
+        for (int i = in.readInt(); i > 0; i--) {
+            final String headerKey = in.readUTF();
+            headers.add(
+                    headerKey, headerConverter.toConnectHeader(topic, headerKey, readBytes(in)));
+        }
+        final SchemaAndValue key =
+                keyBytes == null
+                        ? SchemaAndValue.NULL
+                        : keyConverter.toConnectData(topic, keyBytes);
+        final SchemaAndValue value =
+                valueBytes == null
+                        ? SchemaAndValue.NULL
+                        : valueConverter.toConnectData(topic, valueBytes);
+        return new SourceRecord(
+                partition,
+                offset,
+                topic,
+                kafkaPartition < 0 ? null : kafkaPartition,
+                key.schema(),
+                key.value(),
+                value.schema(),
+                value.value(),
+                timestamp < 0 ? null : timestamp,
+                headers);
+    }
+
+    private static void writeStringMap(Map<String, ?> map, DataOutputStream out)
+            throws IOException {
+        if (map == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(map.size());
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeValue(entry.getValue(), out);
+        }
+    }
+
+    @Nullable
+    private static Map<String, ?> readStringMap(DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        final Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String key = in.readUTF();
+            map.put(key, readValue(in));
+        }
+        return map;
+    }
+
+    /**
+     * Writes the value of the source partition or offset with its type tag, the offset restored
+     * from the spooled record must be the same as the one of the record read from the binlog.
+     */
+    private static void writeValue(@Nullable Object value, DataOutputStream out)
+            throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_VALUE);
+        } else if (value instanceof String) {
+            out.writeByte(STRING_VALUE);
+            out.writeUTF((String) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG_VALUE);
+            out.writeLong((Long) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT_VALUE);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT_VALUE);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE_VALUE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN_VALUE);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE_VALUE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT_VALUE);
+            out.writeFloat((Float) value);
+        } else {
+            throw new IOException(
+                    "Unsupported type of the source offset value " + value.getClass().getName());
+        }
+    }
+
+    @Nullable
+    private static Object readValue(DataInputStream in) throws IOException {
+        final byte type = in.readByte();
+        switch (type) {
+            case NULL_VALUE:
+                return null;
+            case STRING_VALUE:
+                return in.readUTF();
+            case LONG_VALUE:
+                return in.readLong();
+            case INT_VALUE:
+                return in.readInt();
+            case SHORT_VALUE:
+                return in.readShort();
+            case BYTE_VALUE:
+                return in.readByte();
+            case BOOLEAN_VALUE:
+                return in.readBoolean();
+            case DOUBLE_VALUE:
+                return in.readDouble();
+            case FLOAT_VALUE:
+                return in.readFloat();
+            default:
+                throw new IOException("Unknown type tag of the source offset value " + type);
+        }
+    }
+
+    private static void writeBytes(@Nullable byte[] bytes, DataOutputStream out)
+            throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    @Nullable
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static JsonConverter createConverter(ConverterType converterType) {
+        final JsonConverter converter = new JsonConverter();
+        final Map<String, Object> configs = new HashMap<>(2);
+        configs.put(ConverterConfig.TYPE_CONFIG, converterType.getName());
+        configs.put(JsonConverterConfig.SCHEMAS_ENABLE_CONFIG, true);
+        converter.configure(configs);
+        return converter;
+    }
+
+    /** A segment file of the spool. */
+    private static final class Segment {
+        private final File file;
+        private final DataOutputStream output;
+        private long writtenRecords;
+        private boolean sealed;
+
+        private Segment(File file) throws IOException {
+            this.file = file;
+            this.output =
+                    new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        }
+
+        private void seal() throws IOException {
+            sealed = true;
+            output.close();
+        }
+
+        private void close() throws IOException {
+            if (!sealed) {
+                seal();
+            }
+        }
+    }
+}
@@ -18,41 +18,56 @@
 
 package cn.tenmg.cdc.log.connectors.mysql.debezium.reader;
 
-import org.apache.flink.table.types.logical.RowType;
 import org.apache.flink.util.FlinkRuntimeException;
 
 import org.apache.flink.shaded.guava18.com.google.common.util.concurrent.ThreadFactoryBuilder;
 
-import io.debezium.connector.base.ChangeEventQueue;
+import io.debezium.connector.mysql.GtidSet;
+import io.debezium.connector.mysql.MySqlConnectorConfig;
 import io.debezium.connector.mysql.MySqlOffsetContext;
 import io.debezium.connector.mysql.MySqlStreamingChangeEventSourceMetrics;
-import io.debezium.pipeline.DataChangeEvent;
+import io.debezium.document.Array;
 import io.debezium.pipeline.source.spi.ChangeEventSource;
 import io.debezium.relational.TableId;
-import io.debezium.relational.Tables;
+import io.debezium.relational.history.HistoryRecord;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.connect.source.SourceRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.TableDescriptorCache.TableDescriptor;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.task.MySqlBinlogSplitReadTask;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.task.context.StatefulTaskContext;
+import cn.tenmg.cdc.log.connectors.mysql.schema.MySqlSchema;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
 import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.FinishedSnapshotSplitInfo;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplit;
-import cn.tenmg.cdc.log.connectors.mysql.source.utils.ChunkUtils;
 import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.SplitKeyComparator;
+import cn.tenmg.cdc.log.connectors.mysql.table.StartupMode;
+import cn.tenmg.cdc.log.connectors.mysql.table.StartupOptions;
+import cn.tenmg.cdc.log.connectors.mysql.table.StopMode;
+import cn.tenmg.cdc.log.connectors.mysql.table.StopOptions;
 
 import javax.annotation.Nullable;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A Debezium binlog reader implementation that also support reads binlog and filter overlapping
@@ -63,8 +78,8 @@ public class BinlogSplitReader implements DebeziumReader<SourceRecord, MySqlSpli
     private static final Logger LOG = LoggerFactory.getLogger(BinlogSplitReader.class);
     private final StatefulTaskContext statefulTaskContext;
     private final ExecutorService executor;
+    private final int subTaskId;
 
-    private volatile ChangeEventQueue<DataChangeEvent> queue;
     private volatile boolean currentTaskRunning;
     private volatile Throwable readException;
 
@@ -73,23 +88,100 @@ public class BinlogSplitReader implements DebeziumReader<SourceRecord, MySqlSpli
     private Map<TableId, List<FinishedSnapshotSplitInfo>> finishedSplitsInfo;
     // tableId -> the max splitHighWatermark
     private Map<TableId, BinlogOffset> maxSplitHighWatermarkMap;
-    private Tables.TableFilter capturedTableFilter;
+    // the per-table facts of the data change records
+    private TableDescriptorCache tableDescriptorCache;
+
+    // the fenced binlog split only emits the events not after the fence offset, the
+    // finished snapshot splits of the fence offset are received before the fence offset
+    private boolean fenced;
+    private BinlogOffset fenceOffset;
+    // the tables whose snapshot splits are being read, null means all tables are fenced until the
+    // first fence offset is received, the tables created after the captured tables were
+    // discovered are never fenced, they have no snapshot split
+    @Nullable private Set<TableId> fencedTables;
+    @Nullable private List<TableId> fencedTableList;
+    private final List<FinishedSnapshotSplitInfo> receivedFinishedSplitInfos = new ArrayList<>();
+    private final Deque<SourceRecord> heldBackRecords = new ArrayDeque<>();
+
+    // the bounded binlog split finishes at the first record at or after the stopping offset or
+    // the stop timestamp, the record is not emitted
+    @Nullable private BinlogOffset stoppingOffset;
+    @Nullable private GtidSet stoppingGtidSet;
+    @Nullable private Long stopTimestampMillis;
+    // the startup timestamp, the changes before it are skipped until the first change at or after
+    // it, as the binlog reading starts from the beginning of the binlog file containing it
+    @Nullable private Long startupTimestampMillis;
+    // the table group read by the binlog split among the groups of the binlog splits
+    private int binlogSplitNumber;
+    private int binlogSplitGroup;
+    // the local disk spool the handoff spills to while it's full, which keeps the binlog reading
+    // at full speed while the reader is back-pressured
+    @Nullable private BinlogRecordSpool spool;
+    // the records are handed off by the binlog reading thread right after each binlog event
+    private BinlogRecordHandoff recordHandoff;
+    private final AdaptiveBatchSizer batchSizer;
 
     public BinlogSplitReader(StatefulTaskContext statefulTaskContext, int subTaskId) {
+        this(
+                statefulTaskContext,
+                subTaskId,
+                new AdaptiveBatchSizer(
+                        statefulTaskContext.getConnectorConfig().getMaxBatchSize(),
+                        statefulTaskContext.getSourceConfig().getBatchTargetLatency()));
+    }
+
+    public BinlogSplitReader(
+            StatefulTaskContext statefulTaskContext,
+            int subTaskId,
+            AdaptiveBatchSizer batchSizer) {
         this.statefulTaskContext = statefulTaskContext;
+        this.batchSizer = batchSizer;
         ThreadFactory threadFactory =
                 new ThreadFactoryBuilder().setNameFormat("debezium-reader-" + subTaskId).build();
         this.executor = Executors.newSingleThreadExecutor(threadFactory);
+        this.subTaskId = subTaskId;
         this.currentTaskRunning = true;
     }
 
     public void submitSplit(MySqlSplit mySqlSplit) {
         this.currentBinlogSplit = mySqlSplit.asBinlogSplit();
-        configureFilter();
+        this.fenced = currentBinlogSplit.isFenced();
+        this.fenceOffset = currentBinlogSplit.getStartingOffset();
+        this.fencedTables = null;
+        this.fencedTableList = null;
+        this.receivedFinishedSplitInfos.clear();
+        this.receivedFinishedSplitInfos.addAll(currentBinlogSplit.getFinishedSnapshotSplitInfos());
+        this.heldBackRecords.clear();
+        configureStopping();
+        configureStartupTimestamp();
+        this.binlogSplitNumber = statefulTaskContext.getSourceConfig().getBinlogSplitNumber();
+        this.binlogSplitGroup =
+                binlogSplitNumber > 1
+                        ? MySqlBinlogSplit.binlogSplitGroup(currentBinlogSplit.splitId())
+                        : 0;
+        configureFilter(currentBinlogSplit.getFinishedSnapshotSplitInfos());
         statefulTaskContext.configure(currentBinlogSplit);
-        this.capturedTableFilter =
-                statefulTaskContext.getConnectorConfig().getTableFilters().dataCollectionFilter();
-        this.queue = statefulTaskContext.getQueue();
+        this.tableDescriptorCache =
+                new TableDescriptorCache(
+                        statefulTaskContext
+                                .getConnectorConfig()
+                                .getTableFilters()
+                                .dataCollectionFilter(),
+                        this::isInTableGroup,
+                        tableId -> statefulTaskContext.getDatabaseSchema().tableFor(tableId),
+                        statefulTaskContext.getSchemaNameAdjuster());
+        final MySqlConnectorConfig connectorConfig = statefulTaskContext.getConnectorConfig();
+        if (statefulTaskContext.getSourceConfig().isBinlogSpoolEnabled() && spool == null) {
+            this.spool = createSpool();
+        }
+        this.recordHandoff =
+                new BinlogRecordHandoff(
+                        connectorConfig.getMaxQueueSize(),
+                        statefulTaskContext
+                                .getSourceConfig()
+                                .getBinlogHandoffMaxSize()
+                                .getBytes(),
+                        spool);
         final MySqlOffsetContext mySqlOffsetContext = statefulTaskContext.getOffsetContext();
         this.binlogSplitReadTask =
                 new MySqlBinlogSplitReadTask(
@@ -103,7 +195,9 @@ public class BinlogSplitReader implements DebeziumReader<SourceRecord, MySqlSpli
                         (MySqlStreamingChangeEventSourceMetrics)
                                 statefulTaskContext.getStreamingChangeEventSourceMetrics(),
                         statefulTaskContext.getTopicSelector().getPrimaryTopic(),
-                        currentBinlogSplit);
+                        currentBinlogSplit,
+                        createLazySchema(),
+                        recordHandoff);
 
         executor.submit(
                 () -> {
@@ -121,6 +215,41 @@ public class BinlogSplitReader implements DebeziumReader<SourceRecord, MySqlSpli
                 });
     }
 
+    /** Creates the spool the handoff spills the records to while it's full. */
+    private BinlogRecordSpool createSpool() {
+        final MySqlSourceConfig sourceConfig = statefulTaskContext.getSourceConfig();
+        final File spoolDir =
+                new File(
+                        sourceConfig.getBinlogSpoolDir() == null
+                                ? System.getProperty("java.io.tmpdir")
+                                : sourceConfig.getBinlogSpoolDir());
+        final BinlogRecordSpool binlogRecordSpool;
+        try {
+            binlogRecordSpool =
+                    new BinlogRecordSpool(
+                            spoolDir,
+                            sourceConfig.getBinlogSpoolMaxSize().getBytes(),
+                            sourceConfig.getBinlogSpoolSegmentSize().getBytes());
+        } catch (IOException e) {
+            throw new FlinkRuntimeException("Failed to create the binlog spool in " + spoolDir, e);
+        }
+        LOG.info(
+                "Spool the records of binlog split {} in {} while the reader is back-pressured.",
+                currentBinlogSplit.splitId(),
+                binlogRecordSpool.getDirectory());
+        return binlogRecordSpool;
+    }
+
+    @Nullable
+    private MySqlSchema createLazySchema() {
+        final MySqlSourceConfig sourceConfig = statefulTaskContext.getSourceConfig();
+        if (!sourceConfig.isLazySchemaLoadingEnabled()) {
+            return null;
+        }
+        return new MySqlSchema(
+                sourceConfig, statefulTaskContext.getConnection().isTableIdCaseSensitive());
+    }
+
     private class BinlogSplitChangeEventSourceContextImpl
             implements ChangeEventSource.ChangeEventSourceContext {
         @Override
@@ -140,10 +269,15 @@ public class BinlogSplitReader implements DebeziumReader<SourceRecord, MySqlSpli
         checkReadException();
         final List<SourceRecord> sourceRecords = new ArrayList<>();
         if (currentTaskRunning) {
-            List<DataChangeEvent> batch = queue.poll();
-            for (DataChangeEvent event : batch) {
-                if (shouldEmit(event.getRecord())) {
-                    sourceRecords.add(event.getRecord());
+            if (fenced || !heldBackRecords.isEmpty()) {
+                return pollFencedRecords();
+            }
+            for (SourceRecord sourceRecord : pollRecords()) {
+                if (reachStopping(sourceRecord)) {
+                    break;
+                }
+                if (shouldEmit(sourceRecord)) {
+                    sourceRecords.add(sourceRecord);
                 }
             }
             return sourceRecords.iterator();
@@ -152,6 +286,227 @@ public class BinlogSplitReader implements DebeziumReader<SourceRecord, MySqlSpli
         }
     }
 
+    /**
+     * Polls the records not after the fence offset. The records of fenced tables after the fence
+     * offset are held back with the records following them and the handoff is not polled until
+     * they are released, thus the binlog reading is back-pressured by the handoff when the fence
+     * doesn't move.
+     */
+    private Iterator<SourceRecord> pollFencedRecords() throws InterruptedException {
+        if (heldBackRecords.isEmpty()) {
+            heldBackRecords.addAll(pollRecords());
+        }
+        final List<SourceRecord> sourceRecords = new ArrayList<>();
+        while (!heldBackRecords.isEmpty()) {
+            SourceRecord sourceRecord = heldBackRecords.peek();
+            if (reachStopping(sourceRecord)) {
+                heldBackRecords.clear();
+                break;
+            }
+            if (isHeldBack(sourceRecord)) {
+                break;
+            }
+            heldBackRecords.poll();
+            if (shouldEmit(sourceRecord)) {
+                sourceRecords.add(sourceRecord);
+            }
+        }
+        // an empty batch is returned if all records are held back, the fetcher polls again with
+        // the fence updated in the meantime, without blocking its thread
+        return sourceRecords.iterator();
+    }
+
+    /**
+     * Polls the records from the handoff, which polls the spilled records from the spool if any.
+     * It returns an empty list if no record is available within the poll interval, otherwise the
+     * records are batched by the {@link AdaptiveBatchSizer}: the poll waits for more records until
+     * the batch is full or the first record has waited for the target latency.
+     */
+    private List<SourceRecord> pollRecords() throws InterruptedException {
+        final MySqlConnectorConfig connectorConfig = statefulTaskContext.getConnectorConfig();
+        final int batchSize = batchSizer.getBatchSize();
+        final List<SourceRecord> records =
+                lingerForBatch(
+                        recordHandoff.poll(batchSize, connectorConfig.getPollInterval().toMillis()),
+                        batchSize);
+        // the arrival is timed by the handoff, the time spent downstream is not observed
+        batchSizer.update(records.size(), recordHandoff.getLastArrivalNanos());
+        if (records.isEmpty()) {
+            checkProducerException();
+        }
+        return records;
+    }
+
+    /** Polls more records into the first polled ones until the batch size or the latency bound. */
+    private List<SourceRecord> lingerForBatch(List<SourceRecord> firstRecords, int batchSize)
+            throws InterruptedException {
+        if (firstRecords.isEmpty() || firstRecords.size() >= batchSize) {
+            return firstRecords;
+        }
+        final List<SourceRecord> records = new ArrayList<>(batchSize);
+        records.addAll(firstRecords);
+        final long deadline = System.nanoTime() + batchSizer.getTargetLatencyNanos();
+        while (records.size() < batchSize) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            final List<SourceRecord> moreRecords =
+                    recordHandoff.poll(
+                            batchSize - records.size(), remaining, TimeUnit.NANOSECONDS);
+            if (moreRecords.isEmpty()) {
+                break;
+            }
+            records.addAll(moreRecords);
+        }
+        return records;
+    }
+
+    /** Fails if the binlog reading failed, which is reported to the error handler. */
+    private void checkProducerException() {
+        final Throwable producerThrowable =
+                statefulTaskContext.getErrorHandler().getProducerThrowable();
+        if (producerThrowable != null) {
+            throw new FlinkRuntimeException(
+                    "An exception occurred in the change event producer.", producerThrowable);
+        }
+    }
+
+    /**
+     * Checks whether the bounded binlog split reaches its stopping offset or stop timestamp at the
+     * record, the binlog read task is stopped then and the split finishes at the next poll.
+     */
+    private boolean reachStopping(SourceRecord sourceRecord) {
+        if (stoppingOffset == null && stopTimestampMillis == null) {
+            return false;
+        }
+        BinlogOffset position = RecordUtils.getBinlogPosition(sourceRecord);
+        boolean reached;
+        if (stopTimestampMillis != null) {
+            Long timestamp =
+                    RecordUtils.isHeartbeatEvent(sourceRecord)
+                            ? RecordUtils.getFetchTimestamp(sourceRecord)
+                            : Long.valueOf(position.getTimestamp() * 1000L);
+            reached = timestamp != null && timestamp >= stopTimestampMillis;
+        } else if (stoppingGtidSet != null) {
+            // the GTID set of the record position is the transactions completed before it
+            String gtidSet = position.getGtidSet();
+            reached =
+                    StringUtils.isNotEmpty(gtidSet)
+                            && stoppingGtidSet.isContainedWithin(new GtidSet(gtidSet));
+        } else {
+            reached =
+                    new BinlogOffset(position.getFilename(), position.getPosition())
+                            .isAtOrAfter(stoppingOffset);
+        }
+        if (reached) {
+            LOG.info(
+                    "Binlog split {} reaches the stopping offset at {}, finish reading it.",
+                    currentBinlogSplit.splitId(),
+                    position);
+            stopBinlogReadTask();
+        }
+        return reached;
+    }
+
+    private void configureStopping() {
+        StopOptions stopOptions = statefulTaskContext.getSourceConfig().getStopOptions();
+        BinlogOffset endingOffset = currentBinlogSplit.getEndingOffset();
+        this.stoppingOffset = null;
+        this.stoppingGtidSet = null;
+        this.stopTimestampMillis = null;
+        if (stopOptions.stopMode == StopMode.TIMESTAMP) {
+            this.stopTimestampMillis = stopOptions.stopTimestampMillis;
+        } else if (!BinlogOffset.NO_STOPPING_OFFSET.equals(endingOffset)) {
+            // the offset without GTIDs is compared by the binlog file and position only
+            this.stoppingOffset =
+                    new BinlogOffset(endingOffset.getFilename(), endingOffset.getPosition());
+            if (StringUtils.isNotEmpty(endingOffset.getGtidSet())) {
+                this.stoppingGtidSet = new GtidSet(endingOffset.getGtidSet());
+            }
+        }
+    }
+
+    private void configureStartupTimestamp() {
+        StartupOptions startupOptions = statefulTaskContext.getSourceConfig().getStartupOptions();
+        this.startupTimestampMillis =
+                startupOptions.startupMode == StartupMode.TIMESTAMP
+                        ? startupOptions.startupTimestampMillis
+                        : null;
+    }
+
+    private boolean isBeforeStartupTimestamp(BinlogOffset position) {
+        if (startupTimestampMillis == null) {
+            return false;
+        }
+        if (position.getTimestamp() * 1000L < startupTimestampMillis) {
+            return true;
+        }
+        LOG.info(
+                "Binlog split {} reaches the startup timestamp {} at {}.",
+                currentBinlogSplit.splitId(),
+                startupTimestampMillis,
+                position);
+        startupTimestampMillis = null;
+        return false;
+    }
+
+    private boolean isHeldBack(SourceRecord sourceRecord) {
+        if (!fenced || !RecordUtils.getBinlogPosition(sourceRecord).isAfter(fenceOffset)) {
+            return false;
+        }
+        return !RecordUtils.isDataChangeRecord(sourceRecord)
+                || isTableFenced(tableDescriptorCache.get(sourceRecord).getTableId());
+    }
+
+    private boolean isTableFenced(TableId tableId) {
+        return fenced && (fencedTables == null || fencedTables.contains(tableId));
+    }
+
+    /**
+     * Updates the fence of the fenced binlog split with the newly finished snapshot splits, the
+     * fence offset and the fenced tables received from the enumerator, the fenced tables are
+     * valid only with the fence offset.
+     */
+    public void updateFence(
+            List<FinishedSnapshotSplitInfo> finishedSplitInfos,
+            @Nullable BinlogOffset fenceOffset,
+            @Nullable List<TableId> fencedTables,
+            boolean fenceRemoved) {
+        if (!fenced) {
+            return;
+        }
+        receivedFinishedSplitInfos.addAll(finishedSplitInfos);
+        for (FinishedSnapshotSplitInfo finishedSplitInfo : finishedSplitInfos) {
+            TableId tableId = finishedSplitInfo.getTableId();
+            finishedSplitsInfo
+                    .computeIfAbsent(tableId, k -> new ArrayList<>())
+                    .add(finishedSplitInfo);
+            BinlogOffset highWatermark = finishedSplitInfo.getHighWatermark();
+            BinlogOffset maxHighWatermark = maxSplitHighWatermarkMap.get(tableId);
+            if (maxHighWatermark == null || highWatermark.isAfter(maxHighWatermark)) {
+                maxSplitHighWatermarkMap.put(tableId, highWatermark);
+            }
+        }
+        if (fenceOffset != null) {
+            if (fenceOffset.isAfter(this.fenceOffset)) {
+                this.fenceOffset = fenceOffset;
+            }
+            if (fencedTables != fencedTableList) {
+                this.fencedTableList = fencedTables;
+                this.fencedTables = fencedTables == null ? null : new HashSet<>(fencedTables);
+            }
+        }
+        if (fenceRemoved) {
+            LOG.info(
+                    "The fence of binlog split {} is removed at offset {}.",
+                    currentBinlogSplit.splitId(),
+                    this.fenceOffset);
+            this.fenced = false;
+            configureFilter(receivedFinishedSplitInfos);
+        }
+    }
+
     private void checkReadException() {
         if (readException != null) {
             throw new FlinkRuntimeException(
@@ -165,6 +520,14 @@ public class BinlogSplitReader implements DebeziumReader<SourceRecord, MySqlSpli
     @Override
     public void close() {
         try {
+            if (recordHandoff != null) {
+                // releases the binlog reading blocked by the full handoff
+                recordHandoff.close();
+            }
+            if (spool != null) {
+                // releases the binlog reading blocked by the full spool
+                spool.close();
+            }
             if (statefulTaskContext.getConnection() != null) {
                 statefulTaskContext.getConnection().close();
             }
@@ -190,26 +553,31 @@ public class BinlogSplitReader implements DebeziumReader<SourceRecord, MySqlSpli
      *  only the binlog event belong to [0,    1024) and offset is after highWatermark0 should send,
      *  only the binlog event belong to [1024, 2048) and offset is after highWatermark1 should send.
      * </pre>
+     *
+     * <p>The fenced binlog split only receives part of the finished snapshot splits of the fenced
+     * tables before the fence is removed, the binlog event that doesn't belong to them is read by
+     * the unfinished snapshot splits, see {@code MySqlHybridSplitAssigner#getBinlogFenceOffset()}.
      */
     private boolean shouldEmit(SourceRecord sourceRecord) {
         if (RecordUtils.isDataChangeRecord(sourceRecord)) {
-            TableId tableId = RecordUtils.getTableId(sourceRecord);
+            TableDescriptor table = tableDescriptorCache.get(sourceRecord);
+            if (!table.isInTableGroup()) {
+                return false;
+            }
+            TableId tableId = table.getTableId();
             BinlogOffset position = RecordUtils.getBinlogPosition(sourceRecord);
-            if (hasEnterPureBinlogPhase(tableId, position)) {
+            if (isBeforeStartupTimestamp(position)) {
+                return false;
+            }
+            if (!isTableFenced(tableId) && hasEnterPureBinlogPhase(table, position)) {
                 return true;
             }
             // only the table who captured snapshot splits need to filter
             if (finishedSplitsInfo.containsKey(tableId)) {
-                RowType splitKeyType =
-                        ChunkUtils.getSplitType(
-                                statefulTaskContext.getDatabaseSchema().tableFor(tableId));
-                Object[] key =
-                        RecordUtils.getSplitKey(
-                                splitKeyType,
-                                sourceRecord,
-                                statefulTaskContext.getSchemaNameAdjuster());
+                Object key = table.getSplitKey(sourceRecord);
+                SplitKeyComparator splitKeyComparator = table.getSplitKeyComparator();
                 for (FinishedSnapshotSplitInfo splitInfo : finishedSplitsInfo.get(tableId)) {
-                    if (RecordUtils.splitKeyRangeContains(
+                    if (splitKeyComparator.rangeContains(
                                     key, splitInfo.getSplitStart(), splitInfo.getSplitEnd())
                             && position.isAfter(splitInfo.getHighWatermark())) {
                         return true;
@@ -219,12 +587,58 @@ public class BinlogSplitReader implements DebeziumReader<SourceRecord, MySqlSpli
             // not in the monitored splits scope, do not emit
             return false;
         }
+        if (RecordUtils.isSchemaChangeEvent(sourceRecord)) {
+            // the tables are resolved again after the DDL
+            tableDescriptorCache.invalidate();
+        }
+        if (!isInTableGroup(sourceRecord)) {
+            return false;
+        }
         // always send the schema change event and signal event
         // we need record them to state of Flink
         return true;
     }
 
-    private boolean hasEnterPureBinlogPhase(TableId tableId, BinlogOffset position) {
+    /**
+     * Returns whether the record other than the data change record belongs to the table group of
+     * the binlog split. The schema change is emitted by the splits of the changed tables, the one
+     * without changed table is emitted by the split of the first group only.
+     */
+    private boolean isInTableGroup(SourceRecord sourceRecord) {
+        if (binlogSplitNumber <= 1) {
+            return true;
+        }
+        if (RecordUtils.isSchemaChangeEvent(sourceRecord)) {
+            final Array tableChanges;
+            try {
+                tableChanges =
+                        RecordUtils.getHistoryRecord(sourceRecord)
+                                .document()
+                                .getArray(HistoryRecord.Fields.TABLE_CHANGES);
+            } catch (IOException e) {
+                throw new FlinkRuntimeException("Failed to read the schema change record", e);
+            }
+            if (tableChanges == null || tableChanges.isEmpty()) {
+                return binlogSplitGroup == 0;
+            }
+            for (Array.Entry entry : tableChanges) {
+                String id = entry.getValue().asDocument().getString("id");
+                if (isInTableGroup(TableId.parse(id, true))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isInTableGroup(TableId tableId) {
+        return binlogSplitNumber <= 1
+                || MySqlBinlogSplit.tableGroup(tableId, binlogSplitNumber) == binlogSplitGroup;
+    }
+
+    private boolean hasEnterPureBinlogPhase(TableDescriptor table, BinlogOffset position) {
+        TableId tableId = table.getTableId();
         // the existed tables those have finished snapshot reading
         if (maxSplitHighWatermarkMap.containsKey(tableId)
                 && position.isAtOrAfter(maxSplitHighWatermarkMap.get(tableId))) {
@@ -236,16 +650,14 @@ public class BinlogSplitReader implements DebeziumReader<SourceRecord, MySqlSpli
         //  and before the lowest binlog offset of all table splits. This interval should be
         //  very short, so we don't support it for now.
         return !maxSplitHighWatermarkMap.containsKey(tableId)
-                && capturedTableFilter.isIncluded(tableId);
+                && table.isCaptured();
     }
 
-    private void configureFilter() {
-        List<FinishedSnapshotSplitInfo> finishedSplitInfos =
-                currentBinlogSplit.getFinishedSnapshotSplitInfos();
+    private void configureFilter(List<FinishedSnapshotSplitInfo> finishedSplitInfos) {
         Map<TableId, List<FinishedSnapshotSplitInfo>> splitsInfoMap = new HashMap<>();
         Map<TableId, BinlogOffset> tableIdBinlogPositionMap = new HashMap<>();
         // latest-offset mode
-        if (finishedSplitInfos.isEmpty()) {
+        if (finishedSplitInfos.isEmpty() && !fenced) {
             for (TableId tableId : currentBinlogSplit.getTableSchemas().keySet()) {
                 tableIdBinlogPositionMap.put(tableId, currentBinlogSplit.getStartingOffset());
             }
@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium.reader;
+
+import org.apache.flink.annotation.VisibleForTesting;
+
+import com.github.shyiko.mysql.binlog.BinaryLogClient;
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventHeader;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.QueryEventData;
+import com.github.shyiko.mysql.binlog.event.RotateEventData;
+import com.github.shyiko.mysql.binlog.event.TableMapEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.EventDeserializer;
+import com.github.shyiko.mysql.binlog.event.deserialization.NullEventDataDeserializer;
+import com.github.shyiko.mysql.binlog.network.SSLMode;
+import io.debezium.connector.mysql.MySqlConnectorConfig;
+import io.debezium.relational.TableId;
+import io.debezium.relational.Tables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cn.tenmg.cdc.log.connectors.mysql.debezium.DebeziumUtils;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
+import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
+
+import javax.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Tracks the captured tables changed in the binlog, so the snapshot split reader can skip the
+ * backfill binlog read of a split whose table has no changes between its low and high watermark.
+ *
+ * <p>The tracker follows the binlog from the low watermark of the first checked split by its own
+ * binlog client, which uses a server id above the range of the reader server ids, see {@link
+ * DebeziumUtils#createAuxiliaryServerId()}. Only the table map and query events are decoded, the
+ * row events are skipped. A table map event of a captured table is tracked as a change of the
+ * table, a statement other than a transaction boundary, e.g. a DDL, or a compressed transaction
+ * payload is tracked as a change of every table.
+ *
+ * <p>The check is conservative, a table may have changes if the tracked binlog doesn't cover the
+ * whole window in time or the tracking failed.
+ */
+public class BinlogTableChangeTracker
+        implements BinaryLogClient.EventListener, BinaryLogClient.LifecycleListener, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinlogTableChangeTracker.class);
+
+    // the max number of tracked changes, the oldest changes are dropped beyond it
+    @VisibleForTesting static final int MAX_TRACKED_CHANGES = 100_000;
+
+    // the max time to wait for the tracked binlog to reach the high watermark
+    private static final long MAX_WAIT_MILLIS = 1000L;
+
+    private final BinaryLogClient client;
+    private final Tables.TableFilter tableFilter;
+    private final long connectTimeoutMillis;
+
+    // the changes ordered by their positions, guarded by this
+    private final ArrayDeque<Change> changes = new ArrayDeque<>();
+    // the changes at or after this position are all tracked
+    @Nullable private String trackedSinceFilename;
+    private long trackedSincePosition;
+    // the position the binlog has been tracked to
+    @Nullable private String filename;
+    private long position;
+    private boolean failed;
+
+    public BinlogTableChangeTracker(MySqlSourceConfig sourceConfig) {
+        this(DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration()), sourceConfig);
+    }
+
+    @VisibleForTesting
+    BinlogTableChangeTracker(BinaryLogClient client, MySqlSourceConfig sourceConfig) {
+        final MySqlConnectorConfig connectorConfig = sourceConfig.getMySqlConnectorConfig();
+        this.client = client;
+        this.tableFilter = connectorConfig.getTableFilters().dataCollectionFilter();
+        this.connectTimeoutMillis = sourceConfig.getConnectTimeout().toMillis();
+        client.setServerId(DebeziumUtils.createAuxiliaryServerId());
+        client.setSSLMode(SSLMode.valueOf(connectorConfig.sslMode().name()));
+        client.setEventDeserializer(createEventDeserializer());
+        client.registerEventListener(this);
+        client.registerLifecycleListener(this);
+    }
+
+    /** Whether the tracker has started to follow the binlog. */
+    public synchronized boolean isStarted() {
+        return trackedSinceFilename != null;
+    }
+
+    /** Starts following the binlog from the given offset. */
+    public void start(BinlogOffset startingOffset) {
+        synchronized (this) {
+            trackedSinceFilename = startingOffset.getFilename();
+            trackedSincePosition = startingOffset.getPosition();
+            filename = startingOffset.getFilename();
+            position = startingOffset.getPosition();
+        }
+        client.setBinlogFilename(startingOffset.getFilename());
+        client.setBinlogPosition(startingOffset.getPosition());
+        try {
+            client.connect(connectTimeoutMillis);
+            LOG.info(
+                    "Started to track the table changes from {} with server id {}.",
+                    startingOffset,
+                    client.getServerId());
+        } catch (Exception e) {
+            LOG.warn("Failed to track the table changes from {}.", startingOffset, e);
+            synchronized (this) {
+                failed = true;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the given table may have changes between the given binlog offsets, it waits
+     * for the tracked binlog to reach the ending offset for a while. The changes before the
+     * starting offset are dropped, the offsets of the checks must not go backwards.
+     */
+    public synchronized boolean mayHaveTableChanges(
+            TableId tableId, BinlogOffset startingOffset, BinlogOffset endingOffset)
+            throws InterruptedException {
+        if (trackedSinceFilename == null
+                || compare(
+                                startingOffset.getFilename(),
+                                startingOffset.getPosition(),
+                                trackedSinceFilename,
+                                trackedSincePosition)
+                        < 0) {
+            return true;
+        }
+        final long deadline = System.currentTimeMillis() + MAX_WAIT_MILLIS;
+        while (!failed
+                && compare(
+                                filename,
+                                position,
+                                endingOffset.getFilename(),
+                                endingOffset.getPosition())
+                        < 0) {
+            final long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                LOG.debug(
+                        "The tracked binlog at {}:{} doesn't reach {} in time.",
+                        filename,
+                        position,
+                        endingOffset);
+                return true;
+            }
+            wait(remaining);
+        }
+        if (failed) {
+            return true;
+        }
+        final Iterator<Change> iterator = changes.iterator();
+        while (iterator.hasNext()) {
+            final Change change = iterator.next();
+            if (change.isBefore(startingOffset.getFilename(), startingOffset.getPosition())) {
+                iterator.remove();
+                trackedSinceFilename = startingOffset.getFilename();
+                trackedSincePosition = startingOffset.getPosition();
+            } else if (!change.isBefore(
+                    endingOffset.getFilename(), endingOffset.getPosition())) {
+                return false;
+            } else if (change.tableId == null
+                    || change.tableId.identifier().equalsIgnoreCase(tableId.identifier())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        final EventHeader header = event.getHeader();
+        final EventType eventType = header.getEventType();
+        final long eventPosition =
+                header instanceof EventHeaderV4 ? ((EventHeaderV4) header).getPosition() : 0L;
+        synchronized (this) {
+            if (eventType == EventType.ROTATE) {
+                final RotateEventData rotateEventData = event.getData();
+                filename = rotateEventData.getBinlogFilename();
+                position = rotateEventData.getBinlogPosition();
+            } else {
+                if (eventType == EventType.TABLE_MAP) {
+                    final TableMapEventData tableMapEventData = event.getData();
+                    final TableId tableId =
+                            new TableId(
+                                    tableMapEventData.getDatabase(),
+                                    null,
+                                    tableMapEventData.getTable());
+                    if (tableFilter.isIncluded(tableId)) {
+                        addChange(eventPosition, tableId);
+                    }
+                } else if (eventType == EventType.QUERY) {
+                    final QueryEventData queryEventData = event.getData();
+                    if (!isTransactionBoundary(queryEventData.getSql())) {
+                        addChange(eventPosition, null);
+                    }
+                } else if ("TRANSACTION_PAYLOAD".equals(eventType.name())) {
+                    // the table map events are compressed in the payload
+                    addChange(eventPosition, null);
+                }
+                if (header instanceof EventHeaderV4
+                        && ((EventHeaderV4) header).getNextPosition() > 0) {
+                    position = ((EventHeaderV4) header).getNextPosition();
+                }
+            }
+            notifyAll();
+        }
+    }
+
+    private void addChange(long eventPosition, @Nullable TableId tableId) {
+        if (changes.size() >= MAX_TRACKED_CHANGES) {
+            final Change dropped = changes.removeFirst();
+            trackedSinceFilename = dropped.filename;
+            trackedSincePosition = dropped.position + 1;
+        }
+        changes.addLast(new Change(filename, eventPosition, tableId));
+    }
+
+    @Override
+    public void onConnect(BinaryLogClient client) {}
+
+    @Override
+    public void onCommunicationFailure(BinaryLogClient client, Exception ex) {
+        // the client reconnects from the tracked position by its keep alive thread
+        LOG.warn("Communication failure of the table change tracker.", ex);
+    }
+
+    @Override
+    public void onEventDeserializationFailure(BinaryLogClient client, Exception ex) {
+        LOG.warn("Failed to deserialize the event of the table change tracker.", ex);
+        synchronized (this) {
+            failed = true;
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void onDisconnect(BinaryLogClient client) {}
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            failed = true;
+            changes.clear();
+            notifyAll();
+        }
+        client.disconnect();
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private static EventDeserializer createEventDeserializer() {
+        final EventDeserializer eventDeserializer = new EventDeserializer();
+        // the rows are never read, only the table map events before them are
+        for (EventType eventType :
+                new EventType[] {
+                    EventType.PRE_GA_WRITE_ROWS,
+                    EventType.PRE_GA_UPDATE_ROWS,
+                    EventType.PRE_GA_DELETE_ROWS,
+                    EventType.WRITE_ROWS,
+                    EventType.UPDATE_ROWS,
+                    EventType.DELETE_ROWS,
+                    EventType.EXT_WRITE_ROWS,
+                    EventType.EXT_UPDATE_ROWS,
+                    EventType.EXT_DELETE_ROWS,
+                    EventType.ROWS_QUERY
+                }) {
+            eventDeserializer.setEventDataDeserializer(
+                    eventType, new NullEventDataDeserializer());
+        }
+        return eventDeserializer;
+    }
+
+    private static boolean isTransactionBoundary(String sql) {
+        return "BEGIN".equalsIgnoreCase(sql) || "COMMIT".equalsIgnoreCase(sql);
+    }
+
+    private static int compare(
+            String filename, long position, String thatFilename, long thatPosition) {
+        final int compared = filename.compareToIgnoreCase(thatFilename);
+        return compared != 0 ? compared : Long.compare(position, thatPosition);
+    }
+
+    /** A change of a table, or of every table if the table id is null, at a binlog position. */
+    private static final class Change {
+        private final String filename;
+        private final long position;
+        @Nullable private final TableId tableId;
+
+        private Change(String filename, long position, @Nullable TableId tableId) {
+            this.filename = filename;
+            this.position = position;
+            this.tableId = tableId;
+        }
+
+        private boolean isBefore(String thatFilename, long thatPosition) {
+            return compare(filename, position, thatFilename, thatPosition) < 0;
+        }
+    }
+}
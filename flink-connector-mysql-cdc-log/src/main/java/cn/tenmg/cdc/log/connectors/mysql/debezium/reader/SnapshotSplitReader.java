@@ -31,6 +31,7 @@ import io.debezium.heartbeat.Heartbeat;
 import io.debezium.pipeline.DataChangeEvent;
 import io.debezium.pipeline.source.spi.ChangeEventSource;
 import io.debezium.pipeline.spi.SnapshotResult;
+import io.debezium.relational.TableId;
 import io.debezium.util.SchemaNameAdjuster;
 import org.apache.kafka.connect.source.SourceRecord;
 import org.slf4j.Logger;
@@ -49,12 +50,15 @@ import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
 import javax.annotation.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * A snapshot reader that reads data from Table in split level, the split is assigned by primary key
@@ -63,6 +67,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class SnapshotSplitReader implements DebeziumReader<SourceRecord, MySqlSplit> {
 
     private static final Logger LOG = LoggerFactory.getLogger(SnapshotSplitReader.class);
+    // the min time to wait for the records to be queued, which avoids spinning
+    private static final long MIN_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
     private final StatefulTaskContext statefulTaskContext;
     private final ExecutorService executor;
 
@@ -74,11 +80,30 @@ public class SnapshotSplitReader implements DebeziumReader<SourceRecord, MySqlSp
     private MySqlSnapshotSplitReadTask splitSnapshotReadTask;
     private MySqlSnapshotSplit currentSnapshotSplit;
     private SchemaNameAdjuster nameAdjuster;
+    // connector config of the backfill binlog task, which only captures the table of split
+    private TableId backfillTableId;
+    private MySqlConnectorConfig backfillConnectorConfig;
+    // tracks the table changes for the backfill skip check, created by the first check
+    @Nullable private BinlogTableChangeTracker tableChangeTracker;
     public AtomicBoolean hasNextElement;
     public AtomicBoolean reachEnd;
+    private final AdaptiveBatchSizer batchSizer;
 
     public SnapshotSplitReader(StatefulTaskContext statefulTaskContext, int subtaskId) {
+        this(
+                statefulTaskContext,
+                subtaskId,
+                new AdaptiveBatchSizer(
+                        statefulTaskContext.getConnectorConfig().getMaxBatchSize(),
+                        statefulTaskContext.getSourceConfig().getBatchTargetLatency()));
+    }
+
+    public SnapshotSplitReader(
+            StatefulTaskContext statefulTaskContext,
+            int subtaskId,
+            AdaptiveBatchSizer batchSizer) {
         this.statefulTaskContext = statefulTaskContext;
+        this.batchSizer = batchSizer;
         ThreadFactory threadFactory =
                 new ThreadFactoryBuilder().setNameFormat("debezium-reader-" + subtaskId).build();
         this.executor = Executors.newSingleThreadExecutor(threadFactory);
@@ -96,6 +121,7 @@ public class SnapshotSplitReader implements DebeziumReader<SourceRecord, MySqlSp
         this.reachEnd.set(false);
         this.splitSnapshotReadTask =
                 new MySqlSnapshotSplitReadTask(
+                        statefulTaskContext.getSourceConfig(),
                         statefulTaskContext.getConnectorConfig(),
                         statefulTaskContext.getOffsetContext(),
                         statefulTaskContext.getSnapshotChangeEventSourceMetrics(),
@@ -118,11 +144,12 @@ public class SnapshotSplitReader implements DebeziumReader<SourceRecord, MySqlSp
                         final MySqlBinlogSplit backfillBinlogSplit =
                                 createBackfillBinlogSplit(sourceContext);
                         // optimization that skip the binlog read when the low watermark equals high
-                        // watermark
+                        // watermark or the table has no changes between them
                         final boolean binlogBackfillRequired =
                                 backfillBinlogSplit
-                                        .getEndingOffset()
-                                        .isAfter(backfillBinlogSplit.getStartingOffset());
+                                                .getEndingOffset()
+                                                .isAfter(backfillBinlogSplit.getStartingOffset())
+                                        && mayHaveTableChanges(backfillBinlogSplit);
                         if (!binlogBackfillRequired) {
                             dispatchBinlogEndEvent(backfillBinlogSplit);
                             currentTaskRunning = false;
@@ -165,6 +192,32 @@ public class SnapshotSplitReader implements DebeziumReader<SourceRecord, MySqlSp
                 0);
     }
 
+    private boolean mayHaveTableChanges(MySqlBinlogSplit backfillBinlogSplit)
+            throws InterruptedException {
+        if (!statefulTaskContext.getSourceConfig().isBackfillSkipCheckEnabled()) {
+            return true;
+        }
+        if (tableChangeTracker == null) {
+            tableChangeTracker =
+                    new BinlogTableChangeTracker(statefulTaskContext.getSourceConfig());
+            tableChangeTracker.start(backfillBinlogSplit.getStartingOffset());
+        }
+        final boolean mayHaveTableChanges =
+                tableChangeTracker.mayHaveTableChanges(
+                        currentSnapshotSplit.getTableId(),
+                        backfillBinlogSplit.getStartingOffset(),
+                        backfillBinlogSplit.getEndingOffset());
+        if (!mayHaveTableChanges) {
+            LOG.debug(
+                    "Skip the backfill binlog read for split {} as table {} has no changes between {} and {}",
+                    currentSnapshotSplit.splitId(),
+                    currentSnapshotSplit.getTableId(),
+                    backfillBinlogSplit.getStartingOffset(),
+                    backfillBinlogSplit.getEndingOffset());
+        }
+        return mayHaveTableChanges;
+    }
+
     private MySqlBinlogSplitReadTask createBackfillBinlogReadTask(
             MySqlBinlogSplit backfillBinlogSplit) {
         final MySqlOffsetContext.Loader loader =
@@ -172,20 +225,9 @@ public class SnapshotSplitReader implements DebeziumReader<SourceRecord, MySqlSp
         final MySqlOffsetContext mySqlOffsetContext =
                 (MySqlOffsetContext)
                         loader.load(backfillBinlogSplit.getStartingOffset().getOffset());
-        // we should only capture events for the current table,
-        // otherwise, we may can't find corresponding schema
-        Configuration dezConf =
-                statefulTaskContext
-                        .getSourceConfig()
-                        .getDbzConfiguration()
-                        .edit()
-                        .with("table.include.list", currentSnapshotSplit.getTableId().toString())
-                        // Disable heartbeat event in snapshot split reader
-                        .with(Heartbeat.HEARTBEAT_INTERVAL, 0)
-                        .build();
         // task to read binlog and backfill for current split
         return new MySqlBinlogSplitReadTask(
-                new MySqlConnectorConfig(dezConf),
+                getBackfillConnectorConfig(currentSnapshotSplit.getTableId()),
                 mySqlOffsetContext,
                 statefulTaskContext.getConnection(),
                 statefulTaskContext.getDispatcher(),
@@ -198,6 +240,25 @@ public class SnapshotSplitReader implements DebeziumReader<SourceRecord, MySqlSp
                 backfillBinlogSplit);
     }
 
+    private MySqlConnectorConfig getBackfillConnectorConfig(TableId tableId) {
+        if (!tableId.equals(backfillTableId)) {
+            // we should only capture events for the current table,
+            // otherwise, we may can't find corresponding schema
+            Configuration dezConf =
+                    statefulTaskContext
+                            .getSourceConfig()
+                            .getDbzConfiguration()
+                            .edit()
+                            .with("table.include.list", tableId.toString())
+                            // Disable heartbeat event in snapshot split reader
+                            .with(Heartbeat.HEARTBEAT_INTERVAL, 0)
+                            .build();
+            this.backfillConnectorConfig = new MySqlConnectorConfig(dezConf);
+            this.backfillTableId = tableId;
+        }
+        return backfillConnectorConfig;
+    }
+
     private void dispatchBinlogEndEvent(MySqlBinlogSplit backFillBinlogSplit)
             throws InterruptedException {
         final SignalEventDispatcher signalEventDispatcher =
@@ -230,7 +291,7 @@ public class SnapshotSplitReader implements DebeziumReader<SourceRecord, MySqlSp
             final List<SourceRecord> sourceRecords = new ArrayList<>();
             while (!reachBinlogEnd) {
                 checkReadException();
-                List<DataChangeEvent> batch = queue.poll();
+                List<DataChangeEvent> batch = pollQueue();
                 for (DataChangeEvent event : batch) {
                     sourceRecords.add(event.getRecord());
                     if (RecordUtils.isEndWatermarkEvent(event.getRecord())) {
@@ -250,6 +311,52 @@ public class SnapshotSplitReader implements DebeziumReader<SourceRecord, MySqlSp
         return null;
     }
 
+    /**
+     * Polls the queue by the batches chosen by the {@link AdaptiveBatchSizer}. Polling the empty
+     * Debezium queue sleeps by the fixed poll interval, instead the queue is only polled when the
+     * batch is queued or the queued records have waited for the target latency. It returns an
+     * empty list if no record is queued within the poll interval.
+     */
+    private List<DataChangeEvent> pollQueue() throws InterruptedException {
+        final int batchSize = batchSizer.getBatchSize();
+        final long targetLatency = batchSizer.getTargetLatencyNanos();
+        final long pollInterval =
+                statefulTaskContext.getConnectorConfig().getPollInterval().toNanos();
+        final long start = System.nanoTime();
+        boolean queuedAny = false;
+        long firstQueuedTime = 0L;
+        while (true) {
+            final int queued = queue.totalCapacity() - queue.remainingCapacity();
+            final long now = System.nanoTime();
+            if (queued > 0 && !queuedAny) {
+                queuedAny = true;
+                firstQueuedTime = now;
+            }
+            if (queued >= batchSize || (queuedAny && now - firstQueuedTime >= targetLatency)) {
+                final List<DataChangeEvent> batch = queue.poll();
+                // the queue doesn't time the arrivals, the batch arrived by the time it's seen
+                batchSizer.update(batch.size(), now);
+                return batch;
+            }
+            final long waitTime;
+            if (queuedAny) {
+                waitTime =
+                        Math.min(
+                                batchSizer.getWaitNanos(batchSize - queued),
+                                firstQueuedTime + targetLatency - now);
+            } else if (now - start >= pollInterval) {
+                return Collections.emptyList();
+            } else {
+                waitTime =
+                        Math.min(batchSizer.getWaitNanos(batchSize), start + pollInterval - now);
+            }
+            LockSupport.parkNanos(this, Math.max(waitTime, MIN_WAIT_NANOS));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
     private void checkReadException() {
         if (readException != null) {
             throw new FlinkRuntimeException(
@@ -263,6 +370,9 @@ public class SnapshotSplitReader implements DebeziumReader<SourceRecord, MySqlSp
     @Override
     public void close() {
         try {
+            if (tableChangeTracker != null) {
+                tableChangeTracker.close();
+            }
             if (statefulTaskContext.getConnection() != null) {
                 statefulTaskContext.getConnection().close();
             }
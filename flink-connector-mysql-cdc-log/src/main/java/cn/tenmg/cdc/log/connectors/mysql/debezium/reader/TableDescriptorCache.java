@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium.reader;
+
+import org.apache.flink.table.types.logical.RowType;
+
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import io.debezium.relational.Tables;
+import io.debezium.util.SchemaNameAdjuster;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.ChunkUtils;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.SplitKeyComparator;
+
+import javax.annotation.Nullable;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Caches the per-table facts needed by the binlog reader for each data change record, which are
+ * resolved once per table and schema version rather than for every record.
+ *
+ * <p>The descriptors are looked up by the identity of the value schema of the record, which
+ * Debezium creates once per table schema version, thus a DDL changing the table leads to a new
+ * descriptor. The cache is also cleared on the DDL so the descriptors of the old versions are
+ * dropped, and when it grows too large, as the records read from the spool don't always share
+ * their schemas.
+ */
+public final class TableDescriptorCache {
+
+    private static final int MAX_SIZE = 4096;
+
+    private final Tables.TableFilter capturedTableFilter;
+    private final Predicate<TableId> tableGroupFilter;
+    private final Function<TableId, Table> tableResolver;
+    private final SchemaNameAdjuster nameAdjuster;
+    private final Map<Schema, TableDescriptor> descriptors = new IdentityHashMap<>();
+
+    public TableDescriptorCache(
+            Tables.TableFilter capturedTableFilter,
+            Predicate<TableId> tableGroupFilter,
+            Function<TableId, Table> tableResolver,
+            SchemaNameAdjuster nameAdjuster) {
+        this.capturedTableFilter = capturedTableFilter;
+        this.tableGroupFilter = tableGroupFilter;
+        this.tableResolver = tableResolver;
+        this.nameAdjuster = nameAdjuster;
+    }
+
+    /** Returns the descriptor of the table of the data change record. */
+    public TableDescriptor get(SourceRecord dataRecord) {
+        final Schema valueSchema = dataRecord.valueSchema();
+        TableDescriptor descriptor = descriptors.get(valueSchema);
+        if (descriptor == null) {
+            if (descriptors.size() >= MAX_SIZE) {
+                descriptors.clear();
+            }
+            descriptor = new TableDescriptor(RecordUtils.getTableId(dataRecord));
+            descriptors.put(valueSchema, descriptor);
+        }
+        return descriptor;
+    }
+
+    /** Drops all the descriptors, which is called when the schema of any table changes. */
+    public void invalidate() {
+        descriptors.clear();
+    }
+
+    public int size() {
+        return descriptors.size();
+    }
+
+    /** The facts of a table resolved for a schema version. */
+    public final class TableDescriptor {
+
+        private final TableId tableId;
+        private final boolean captured;
+        private final boolean inTableGroup;
+        // resolved on demand, only the tables of the finished snapshot splits need the split key
+        @Nullable private String splitKeyFieldName;
+        @Nullable private SplitKeyComparator splitKeyComparator;
+        // the split key field of the key schema it's looked up from
+        @Nullable private Schema splitKeySchema;
+        @Nullable private Field splitKeyField;
+
+        private TableDescriptor(TableId tableId) {
+            this.tableId = tableId;
+            this.captured = capturedTableFilter.isIncluded(tableId);
+            this.inTableGroup = tableGroupFilter.test(tableId);
+        }
+
+        public TableId getTableId() {
+            return tableId;
+        }
+
+        /** Returns whether the table is captured by the table filter of the connector. */
+        public boolean isCaptured() {
+            return captured;
+        }
+
+        /** Returns whether the table belongs to the table group of the binlog split. */
+        public boolean isInTableGroup() {
+            return inTableGroup;
+        }
+
+        /**
+         * Returns the split key of the data change record of the table, the split key contains
+         * single field now.
+         */
+        public Object getSplitKey(SourceRecord dataRecord) {
+            resolveSplitKey();
+            final Schema keySchema = dataRecord.keySchema();
+            if (keySchema != splitKeySchema) {
+                splitKeyField = keySchema.field(splitKeyFieldName);
+                splitKeySchema = keySchema;
+            }
+            final Struct key = (Struct) dataRecord.key();
+            return splitKeyField == null ? key.get(splitKeyFieldName) : key.get(splitKeyField);
+        }
+
+        /** Returns the comparator of the split key with the split boundaries. */
+        public SplitKeyComparator getSplitKeyComparator() {
+            resolveSplitKey();
+            return splitKeyComparator;
+        }
+
+        private void resolveSplitKey() {
+            if (splitKeyFieldName == null) {
+                final RowType splitKeyType = ChunkUtils.getSplitType(tableResolver.apply(tableId));
+                splitKeyComparator = SplitKeyComparator.of(splitKeyType);
+                splitKeyFieldName = nameAdjuster.adjust(splitKeyType.getFieldNames().get(0));
+            }
+        }
+    }
+}
@@ -19,26 +19,47 @@
 package cn.tenmg.cdc.log.connectors.mysql.debezium.task;
 
 import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventData;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.TableMapEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.EventDeserializer;
 
+import cn.tenmg.cdc.log.connectors.mysql.debezium.RowImageReconstructor;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.dispatcher.EventDispatcherImpl;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.dispatcher.SignalEventDispatcher;
+import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.BinlogRecordHandoff;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.SnapshotSplitReader;
+import cn.tenmg.cdc.log.connectors.mysql.schema.MySqlSchema;
+import cn.tenmg.cdc.log.connectors.mysql.schema.TableMapSchemaChecker;
 import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit;
 import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
 import io.debezium.DebeziumException;
+import io.debezium.connector.base.ChangeEventQueue;
 import io.debezium.connector.mysql.MySqlConnection;
 import io.debezium.connector.mysql.MySqlConnectorConfig;
 import io.debezium.connector.mysql.MySqlOffsetContext;
 import io.debezium.connector.mysql.MySqlStreamingChangeEventSource;
 import io.debezium.connector.mysql.MySqlStreamingChangeEventSourceMetrics;
 import io.debezium.connector.mysql.MySqlTaskContext;
+import io.debezium.pipeline.DataChangeEvent;
 import io.debezium.pipeline.ErrorHandler;
 import io.debezium.relational.TableId;
+import io.debezium.relational.Tables;
+import io.debezium.relational.history.TableChanges.TableChange;
+import io.debezium.schema.SchemaChangeEvent;
 import io.debezium.util.Clock;
+import org.apache.kafka.connect.source.SourceRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
+import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_BINLOG_LAZY_SCHEMA_LOADING_ENABLED;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Task to read all binlog for table and also supports read bounded (from lowWatermark to
  * highWatermark) binlog.
@@ -46,11 +67,21 @@ import org.slf4j.LoggerFactory;
 public class MySqlBinlogSplitReadTask extends MySqlStreamingChangeEventSource {
 
     private static final Logger LOG = LoggerFactory.getLogger(MySqlBinlogSplitReadTask.class);
+
+    // compared by name, the event type is not known by every version of the binlog client
+    private static final String TRANSACTION_PAYLOAD = "TRANSACTION_PAYLOAD";
     private final MySqlBinlogSplit binlogSplit;
     private final MySqlOffsetContext offsetContext;
     private final EventDispatcherImpl<TableId> eventDispatcher;
     private final SignalEventDispatcher signalEventDispatcher;
     private final ErrorHandler errorHandler;
+    private final MySqlConnection connection;
+    private final MySqlTaskContext taskContext;
+    private final Tables.TableFilter capturedTableFilter;
+    // loads the schemas of the captured tables on demand, null if the schemas are loaded up front
+    @Nullable private final MySqlSchema lazySchema;
+    // hands off the records of each event to the reader, null if the reader polls the queue
+    @Nullable private final BinlogRecordHandoff recordHandoff;
     private ChangeEventSourceContext context;
 
     public MySqlBinlogSplitReadTask(
@@ -64,6 +95,60 @@ public class MySqlBinlogSplitReadTask extends MySqlStreamingChangeEventSource {
             MySqlStreamingChangeEventSourceMetrics metrics,
             String topic,
             MySqlBinlogSplit binlogSplit) {
+        this(
+                connectorConfig,
+                offsetContext,
+                connection,
+                dispatcher,
+                errorHandler,
+                clock,
+                taskContext,
+                metrics,
+                topic,
+                binlogSplit,
+                null);
+    }
+
+    public MySqlBinlogSplitReadTask(
+            MySqlConnectorConfig connectorConfig,
+            MySqlOffsetContext offsetContext,
+            MySqlConnection connection,
+            EventDispatcherImpl<TableId> dispatcher,
+            ErrorHandler errorHandler,
+            Clock clock,
+            MySqlTaskContext taskContext,
+            MySqlStreamingChangeEventSourceMetrics metrics,
+            String topic,
+            MySqlBinlogSplit binlogSplit,
+            @Nullable MySqlSchema lazySchema) {
+        this(
+                connectorConfig,
+                offsetContext,
+                connection,
+                dispatcher,
+                errorHandler,
+                clock,
+                taskContext,
+                metrics,
+                topic,
+                binlogSplit,
+                lazySchema,
+                null);
+    }
+
+    public MySqlBinlogSplitReadTask(
+            MySqlConnectorConfig connectorConfig,
+            MySqlOffsetContext offsetContext,
+            MySqlConnection connection,
+            EventDispatcherImpl<TableId> dispatcher,
+            ErrorHandler errorHandler,
+            Clock clock,
+            MySqlTaskContext taskContext,
+            MySqlStreamingChangeEventSourceMetrics metrics,
+            String topic,
+            MySqlBinlogSplit binlogSplit,
+            @Nullable MySqlSchema lazySchema,
+            @Nullable BinlogRecordHandoff recordHandoff) {
         super(
                 connectorConfig,
                 offsetContext,
@@ -77,6 +162,11 @@ public class MySqlBinlogSplitReadTask extends MySqlStreamingChangeEventSource {
         this.eventDispatcher = dispatcher;
         this.offsetContext = offsetContext;
         this.errorHandler = errorHandler;
+        this.connection = connection;
+        this.taskContext = taskContext;
+        this.capturedTableFilter = connectorConfig.getTableFilters().dataCollectionFilter();
+        this.lazySchema = lazySchema;
+        this.recordHandoff = recordHandoff;
         this.signalEventDispatcher =
                 new SignalEventDispatcher(
                         offsetContext.getPartition(), topic, eventDispatcher.getQueue());
@@ -90,7 +180,31 @@ public class MySqlBinlogSplitReadTask extends MySqlStreamingChangeEventSource {
 
     @Override
     protected void handleEvent(Event event) {
-        super.handleEvent(event);
+        if (TRANSACTION_PAYLOAD.equals(event.getHeader().getEventType().name())) {
+            // the session of the writer may enable the compression though it's OFF globally
+            errorHandler.setProducerThrowable(
+                    new DebeziumException(
+                            String.format(
+                                    "Can't read the compressed transaction payload at %s of the binlog, the changes in it would be skipped. "
+                                            + "Disable binlog_transaction_compression of the MySQL server and the sessions writing the captured tables.",
+                                    RecordUtils.getBinlogPosition(offsetContext.getOffset()))));
+            return;
+        }
+        if (lazySchema != null) {
+            loadTableSchemaIfNeeded(event);
+        }
+        final RowImageReconstructor rowImageReconstructor =
+                eventDispatcher.getRowImageReconstructor();
+        if (rowImageReconstructor == null) {
+            super.handleEvent(event);
+        } else {
+            rowImageReconstructor.reconstruct(event, taskContext.getSchema());
+            try {
+                super.handleEvent(event);
+            } finally {
+                rowImageReconstructor.clear();
+            }
+        }
         // check do we need to stop for read binlog for snapshot split.
         if (isBoundedRead()) {
             final BinlogOffset currentBinlogOffset =
@@ -113,9 +227,113 @@ public class MySqlBinlogSplitReadTask extends MySqlStreamingChangeEventSource {
                         .finished();
             }
         }
+        if (recordHandoff != null) {
+            handOffRecords(event);
+        }
+    }
+
+    /**
+     * Hands off the records dispatched for the event to the reader, the queue only stages the
+     * records of one event then, and it's never polled while it's empty, which would sleep by the
+     * poll interval. The records share the bytes of the event as their approximate size.
+     */
+    private void handOffRecords(Event event) {
+        final ChangeEventQueue<DataChangeEvent> queue = eventDispatcher.getQueue();
+        try {
+            final List<SourceRecord> records = new ArrayList<>();
+            while (queue.remainingCapacity() < queue.totalCapacity()) {
+                for (DataChangeEvent dataChangeEvent : queue.poll()) {
+                    records.add(dataChangeEvent.getRecord());
+                }
+            }
+            if (records.isEmpty()) {
+                return;
+            }
+            final long eventBytes =
+                    event.getHeader() instanceof EventHeaderV4
+                            ? ((EventHeaderV4) event.getHeader()).getEventLength() / records.size()
+                            : 0L;
+            for (SourceRecord record : records) {
+                if (!recordHandoff.put(record, eventBytes)) {
+                    // the reader is closed
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errorHandler.setProducerThrowable(
+                    new DebeziumException("Interrupted while handing off binlog records", e));
+        }
+    }
+
+    /**
+     * Loads the schema of a captured table by its first table map event, the table map event
+     * precedes the row events of the table. The loaded schema is dispatched to be recorded in the
+     * split state, thus the table is not described again after restoring from a checkpoint.
+     */
+    private void loadTableSchemaIfNeeded(Event event) {
+        EventData data = event.getData();
+        if (data instanceof EventDeserializer.EventDataWrapper) {
+            data = ((EventDeserializer.EventDataWrapper) data).getInternal();
+        }
+        if (!(data instanceof TableMapEventData)) {
+            return;
+        }
+        TableMapEventData metadata = (TableMapEventData) data;
+        TableId tableId = new TableId(metadata.getDatabase(), null, metadata.getTable());
+        if (!capturedTableFilter.isIncluded(tableId)
+                || taskContext.getSchema().tableFor(tableId) != null) {
+            return;
+        }
+        final TableChange tableChange;
+        try {
+            tableChange = lazySchema.getTableSchema(connection, tableId);
+        } catch (Exception e) {
+            // the table may have been dropped, handled as an unknown table by the binlog reading
+            LOG.warn("Failed to load the schema of table {} on demand.", tableId, e);
+            return;
+        }
+        // the current schema doesn't describe the rows if the table was altered after the event
+        final String mismatch = TableMapSchemaChecker.checkSchema(tableChange.getTable(), metadata);
+        if (mismatch != null) {
+            errorHandler.setProducerThrowable(
+                    new DebeziumException(
+                            String.format(
+                                    "The schema of table %s loaded on demand doesn't match its binlog event at %s, %s."
+                                            + " The table may have been altered after the event, disable '%s' to read the schemas"
+                                            + " before the binlog reading starts.",
+                                    tableId,
+                                    RecordUtils.getBinlogPosition(offsetContext.getOffset()),
+                                    mismatch,
+                                    SCAN_BINLOG_LAZY_SCHEMA_LOADING_ENABLED.key())));
+            return;
+        }
+        LOG.info("Loaded the schema of table {} on demand.", tableId);
+        taskContext.getSchema().refresh(tableChange.getTable());
+        try {
+            eventDispatcher.dispatchLoadedTableSchema(
+                    new SchemaChangeEvent(
+                            offsetContext.getPartition(),
+                            offsetContext.getOffset(),
+                            offsetContext.getSourceInfo(),
+                            tableId.catalog(),
+                            null,
+                            "",
+                            tableChange.getTable(),
+                            SchemaChangeEvent.SchemaChangeEventType.CREATE,
+                            false));
+        } catch (InterruptedException e) {
+            LOG.error("Send the loaded table schema error.", e);
+            errorHandler.setProducerThrowable(
+                    new DebeziumException("Error dispatching the loaded table schema", e));
+        }
     }
 
     private boolean isBoundedRead() {
-        return !BinlogOffset.NO_STOPPING_OFFSET.equals(binlogSplit.getEndingOffset());
+        // the stopping offset of a bounded binlog split is checked by the binlog split reader, the
+        // task only finishes the backfill reading of a snapshot split by itself
+        return context
+                        instanceof SnapshotSplitReader.SnapshotBinlogSplitChangeEventSourceContextImpl
+                && !BinlogOffset.NO_STOPPING_OFFSET.equals(binlogSplit.getEndingOffset());
     }
 }
@@ -18,6 +18,8 @@
 
 package cn.tenmg.cdc.log.connectors.mysql.debezium.task;
 
+import org.apache.flink.table.types.logical.RowType;
+
 import io.debezium.DebeziumException;
 import io.debezium.connector.mysql.MySqlConnection;
 import io.debezium.connector.mysql.MySqlConnectorConfig;
@@ -48,9 +50,11 @@ import cn.tenmg.cdc.log.connectors.mysql.debezium.DebeziumUtils;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.dispatcher.EventDispatcherImpl;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.dispatcher.SignalEventDispatcher;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.SnapshotSplitReader;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
 import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSnapshotSplit;
 import cn.tenmg.cdc.log.connectors.mysql.source.utils.StatementUtils;
+import cn.tenmg.cdc.log.connectors.mysql.table.StartupMode;
 
 import java.io.UnsupportedEncodingException;
 import java.sql.Blob;
@@ -59,7 +63,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.List;
 
 /** Task to read snapshot split of table. */
 public class MySqlSnapshotSplitReadTask extends AbstractSnapshotChangeEventSource {
@@ -69,6 +75,7 @@ public class MySqlSnapshotSplitReadTask extends AbstractSnapshotChangeEventSourc
     /** Interval for showing a log statement with the progress while scanning a single table. */
     private static final Duration LOG_INTERVAL = Duration.ofMillis(10_000);
 
+    private final MySqlSourceConfig sourceConfig;
     private final MySqlConnectorConfig connectorConfig;
     private final MySqlDatabaseSchema databaseSchema;
     private final MySqlConnection jdbcConnection;
@@ -80,6 +87,7 @@ public class MySqlSnapshotSplitReadTask extends AbstractSnapshotChangeEventSourc
     private final SnapshotProgressListener snapshotProgressListener;
 
     public MySqlSnapshotSplitReadTask(
+            MySqlSourceConfig sourceConfig,
             MySqlConnectorConfig connectorConfig,
             MySqlOffsetContext previousOffset,
             SnapshotProgressListener snapshotProgressListener,
@@ -91,6 +99,7 @@ public class MySqlSnapshotSplitReadTask extends AbstractSnapshotChangeEventSourc
             MySqlSnapshotSplit snapshotSplit) {
         super(connectorConfig, previousOffset, snapshotProgressListener);
         this.offsetContext = previousOffset;
+        this.sourceConfig = sourceConfig;
         this.connectorConfig = connectorConfig;
         this.databaseSchema = databaseSchema;
         this.jdbcConnection = jdbcConnection;
@@ -136,7 +145,14 @@ public class MySqlSnapshotSplitReadTask extends AbstractSnapshotChangeEventSourc
                         topicSelector.topicNameFor(snapshotSplit.getTableId()),
                         dispatcher.getQueue());
 
-        final BinlogOffset lowWatermark = DebeziumUtils.currentBinlogOffset(jdbcConnection);
+        // the bounded snapshot without backfill never uses the watermarks
+        final boolean skipSnapshotBackfill = sourceConfig.isSkipSnapshotBackfill();
+        final BinlogOffset lowWatermark =
+                skipSnapshotBackfill
+                                && sourceConfig.getStartupOptions().startupMode
+                                        == StartupMode.SNAPSHOT
+                        ? BinlogOffset.INITIAL_OFFSET
+                        : DebeziumUtils.currentBinlogOffset(jdbcConnection);
         LOG.info(
                 "Snapshot step 1 - Determining low watermark {} for split {}",
                 lowWatermark,
@@ -149,7 +165,12 @@ public class MySqlSnapshotSplitReadTask extends AbstractSnapshotChangeEventSourc
         LOG.info("Snapshot step 2 - Snapshotting data");
         createDataEvents(ctx, snapshotSplit.getTableId());
 
-        final BinlogOffset highWatermark = DebeziumUtils.currentBinlogOffset(jdbcConnection);
+        // the changes happened while scanning are not backfilled if the high watermark is the same
+        // as the low watermark
+        final BinlogOffset highWatermark =
+                skipSnapshotBackfill
+                        ? lowWatermark
+                        : DebeziumUtils.currentBinlogOffset(jdbcConnection);
         LOG.info(
                 "Snapshot step 3 - Determining high watermark {} for split {}",
                 highWatermark,
@@ -188,11 +209,28 @@ public class MySqlSnapshotSplitReadTask extends AbstractSnapshotChangeEventSourc
         EventDispatcher.SnapshotReceiver snapshotReceiver =
                 dispatcher.getSnapshotChangeEventReceiver();
         LOG.debug("Snapshotting table {}", tableId);
-        createDataEventsForTable(
-                snapshotContext, snapshotReceiver, databaseSchema.tableFor(tableId));
+        final Table table = databaseSchema.tableFor(tableId);
+        if (sourceConfig.getChunkPageSize() > 0 && isPageable(table)) {
+            createDataEventsForTableByPages(snapshotContext, snapshotReceiver, table);
+        } else {
+            createDataEventsForTable(snapshotContext, snapshotReceiver, table);
+        }
         snapshotReceiver.completeSnapshot();
     }
 
+    /**
+     * Returns whether the split can be scanned by keyset pages, which are ordered by the primary key
+     * of the table starting with the single split key column.
+     */
+    private boolean isPageable(Table table) {
+        final List<String> primaryKeyNames = table.primaryKeyColumnNames();
+        return snapshotSplit.getSplitKeyType().getFieldCount() == 1
+                && !primaryKeyNames.isEmpty()
+                && primaryKeyNames
+                        .get(0)
+                        .equals(snapshotSplit.getSplitKeyType().getFieldNames().get(0));
+    }
+
     /** Dispatches the data change events for the records of a single table. */
     private void createDataEventsForTable(
             RelationalSnapshotChangeEventSource.RelationalSnapshotContext snapshotContext,
@@ -264,6 +302,133 @@ public class MySqlSnapshotSplitReadTask extends AbstractSnapshotChangeEventSourc
         }
     }
 
+    /**
+     * Dispatches the data change events for the records of a single table by a series of bounded
+     * keyset pages. All pages are read between the low and high watermark of the split, so the
+     * binlog backfill still normalizes the changes happened while scanning. The pages are ordered
+     * by the whole primary key, so the rows sharing the split key are never skipped at a page
+     * boundary. Every page is committed once it is read out, and a failed page is rescanned from
+     * the primary key of the last dispatched row.
+     */
+    private void createDataEventsForTableByPages(
+            RelationalSnapshotChangeEventSource.RelationalSnapshotContext snapshotContext,
+            EventDispatcher.SnapshotReceiver snapshotReceiver,
+            Table table)
+            throws InterruptedException {
+
+        long exportStart = clock.currentTimeInMillis();
+        LOG.info(
+                "Exporting data from split '{}' of table {} by pages of {} rows",
+                snapshotSplit.splitId(),
+                table.id(),
+                sourceConfig.getChunkPageSize());
+
+        final RowType splitKeyType = snapshotSplit.getSplitKeyType();
+        final List<String> pageKeyNames = table.primaryKeyColumnNames();
+        final Object upperBound =
+                snapshotSplit.getSplitEnd() == null ? null : snapshotSplit.getSplitEnd()[0];
+        Object[] lowerBound =
+                snapshotSplit.getSplitStart() == null
+                        ? null
+                        : new Object[] {snapshotSplit.getSplitStart()[0]};
+        boolean isInclusiveLowerBound = true;
+        long rows = 0;
+        int pages = 0;
+        int retries = 0;
+        Threads.Timer logTimer = getTableScanLogTimer();
+
+        while (true) {
+            final String selectSql =
+                    StatementUtils.buildSplitPageScanQuery(
+                            snapshotSplit.getTableId(),
+                            splitKeyType,
+                            pageKeyNames,
+                            lowerBound != null,
+                            isInclusiveLowerBound,
+                            upperBound != null,
+                            sourceConfig.getChunkPageSize());
+            int pageRows = 0;
+            try (PreparedStatement selectStatement =
+                            StatementUtils.readTableSplitPageStatement(
+                                    jdbcConnection,
+                                    selectSql,
+                                    lowerBound,
+                                    upperBound,
+                                    connectorConfig.getQueryFetchSize());
+                    ResultSet rs = selectStatement.executeQuery()) {
+
+                ColumnUtils.ColumnArray columnArray = ColumnUtils.toArray(rs, table);
+                while (rs.next()) {
+                    final Object[] row = new Object[columnArray.getGreatestColumnPosition()];
+                    for (int i = 0; i < columnArray.getColumns().length; i++) {
+                        Column actualColumn = table.columns().get(i);
+                        row[columnArray.getColumns()[i].position() - 1] =
+                                readField(rs, i + 1, actualColumn, table);
+                    }
+                    dispatcher.dispatchSnapshotEvent(
+                            table.id(),
+                            getChangeRecordEmitter(snapshotContext, table.id(), row),
+                            snapshotReceiver);
+                    // the next page (or the retry of this page) starts after the dispatched key
+                    lowerBound = new Object[pageKeyNames.size()];
+                    for (int i = 0; i < lowerBound.length; i++) {
+                        lowerBound[i] = rs.getObject(pageKeyNames.get(i));
+                    }
+                    isInclusiveLowerBound = false;
+                    pageRows++;
+                    rows++;
+                    if (logTimer.expired()) {
+                        LOG.info(
+                                "Exported {} records in {} pages for split '{}' after {}",
+                                rows,
+                                pages,
+                                snapshotSplit.splitId(),
+                                Strings.duration(clock.currentTimeInMillis() - exportStart));
+                        snapshotProgressListener.rowsScanned(table.id(), rows);
+                        logTimer = getTableScanLogTimer();
+                    }
+                }
+                // release the read view of this page, the pages needn't a consistent snapshot
+                jdbcConnection.commit();
+            } catch (SQLException e) {
+                if (retries++ >= sourceConfig.getConnectMaxRetries()) {
+                    throw new ConnectException(
+                            "Snapshotting of table " + table.id() + " failed", e);
+                }
+                LOG.warn(
+                        "Failed to read page {} of split '{}', retrying from key {} ({}/{})",
+                        pages,
+                        snapshotSplit.splitId(),
+                        Arrays.toString(lowerBound),
+                        retries,
+                        sourceConfig.getConnectMaxRetries(),
+                        e);
+                closeQuietly(jdbcConnection);
+                continue;
+            }
+            pages++;
+            retries = 0;
+            if (pageRows < sourceConfig.getChunkPageSize()) {
+                break;
+            }
+        }
+        LOG.info(
+                "Finished exporting {} records in {} pages for split '{}', total duration '{}'",
+                rows,
+                pages,
+                snapshotSplit.splitId(),
+                Strings.duration(clock.currentTimeInMillis() - exportStart));
+    }
+
+    /** Closes the connection so that it will be reopened by the next statement. */
+    private static void closeQuietly(MySqlConnection jdbcConnection) {
+        try {
+            jdbcConnection.close();
+        } catch (SQLException e) {
+            LOG.warn("Failed to close the connection before retrying", e);
+        }
+    }
+
     protected ChangeRecordEmitter getChangeRecordEmitter(
             SnapshotContext snapshotContext, TableId tableId, Object[] row) {
         snapshotContext.offset.event(tableId, clock.currentTime());
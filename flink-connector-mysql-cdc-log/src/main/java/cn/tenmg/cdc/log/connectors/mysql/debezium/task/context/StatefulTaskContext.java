@@ -22,6 +22,7 @@ import com.github.shyiko.mysql.binlog.BinaryLogClient;
 
 import cn.tenmg.cdc.log.connectors.mysql.debezium.DebeziumUtils;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.EmbeddedFlinkDatabaseHistory;
+import cn.tenmg.cdc.log.connectors.mysql.debezium.RowImageReconstructor;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.dispatcher.EventDispatcherImpl;
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
 import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
@@ -43,7 +44,9 @@ import io.debezium.pipeline.metrics.SnapshotChangeEventSourceMetrics;
 import io.debezium.pipeline.metrics.StreamingChangeEventSourceMetrics;
 import io.debezium.pipeline.source.spi.EventMetadataProvider;
 import io.debezium.pipeline.spi.OffsetContext;
+import io.debezium.relational.Table;
 import io.debezium.relational.TableId;
+import io.debezium.relational.history.TableChanges.TableChange;
 import io.debezium.schema.DataCollectionId;
 import io.debezium.schema.TopicSelector;
 import io.debezium.util.Clock;
@@ -54,6 +57,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -84,6 +88,7 @@ public class StatefulTaskContext {
     private EventDispatcherImpl<TableId> dispatcher;
     private ChangeEventQueue<DataChangeEvent> queue;
     private ErrorHandler errorHandler;
+    private boolean configuredForSnapshotSplit;
 
     public StatefulTaskContext(
             MySqlSourceConfig sourceConfig,
@@ -98,6 +103,11 @@ public class StatefulTaskContext {
     }
 
     public void configure(MySqlSplit mySqlSplit) {
+        unregisterBinaryLogClientListeners();
+        if (mySqlSplit.isSnapshotSplit() && isReusableForSnapshotSplit(mySqlSplit)) {
+            resetForSnapshotSplit(mySqlSplit);
+            return;
+        }
         // initial stateful objects
         final boolean tableIdCaseInsensitive = connection.isTableIdCaseSensitive();
         this.topicSelector = MySqlTopicSelector.defaultSelector(connectorConfig);
@@ -114,16 +124,17 @@ public class StatefulTaskContext {
 
         this.taskContext =
                 new MySqlTaskContextImpl(connectorConfig, databaseSchema, binaryLogClient);
-        final int queueSize =
-                mySqlSplit.isSnapshotSplit()
-                        ? Integer.MAX_VALUE
-                        : connectorConfig.getMaxQueueSize();
+        // the queue of the binlog split only stages the records of one binlog event, they're
+        // handed off to the reader by the binlog reading thread, see BinlogRecordHandoff, thus
+        // the queue must never block the binlog reading
+        final long queueSizeInBytes =
+                mySqlSplit.isSnapshotSplit() ? connectorConfig.getMaxQueueSizeInBytes() : 0L;
         this.queue =
                 new ChangeEventQueue.Builder<DataChangeEvent>()
                         .pollInterval(connectorConfig.getPollInterval())
                         .maxBatchSize(connectorConfig.getMaxBatchSize())
-                        .maxQueueSize(queueSize)
-                        .maxQueueSizeInBytes(connectorConfig.getMaxQueueSizeInBytes())
+                        .maxQueueSize(Integer.MAX_VALUE)
+                        .maxQueueSizeInBytes(queueSizeInBytes)
                         .loggingContextSupplier(
                                 () ->
                                         taskContext.configureLoggingContext(
@@ -140,7 +151,11 @@ public class StatefulTaskContext {
                         connectorConfig.getTableFilters().dataCollectionFilter(),
                         DataChangeEvent::new,
                         metadataProvider,
-                        schemaNameAdjuster);
+                        schemaNameAdjuster,
+                        sourceConfig.isMinimalRowImageEnabled()
+                                ? new RowImageReconstructor(
+                                        sourceConfig.getMinimalRowImageCacheSize())
+                                : null);
 
         final MySqlChangeEventSourceMetricsFactory changeEventSourceMetricsFactory =
                 new MySqlChangeEventSourceMetricsFactory(
@@ -154,6 +169,58 @@ public class StatefulTaskContext {
                         taskContext, queue, metadataProvider);
         this.errorHandler =
                 new MySqlErrorHandler(connectorConfig.getLogicalName(), queue, taskContext);
+        this.configuredForSnapshotSplit = mySqlSplit.isSnapshotSplit();
+    }
+
+    /**
+     * Checks whether the stateful objects configured for previous snapshot split can be reused by
+     * the given snapshot split, i.e. the database schema has already contained the same table
+     * schemas the split carried.
+     */
+    private boolean isReusableForSnapshotSplit(MySqlSplit mySqlSplit) {
+        if (!configuredForSnapshotSplit) {
+            return false;
+        }
+        for (Map.Entry<TableId, TableChange> entry : mySqlSplit.getTableSchemas().entrySet()) {
+            final Table table = databaseSchema.tableFor(entry.getKey());
+            if (table == null || !table.equals(entry.getValue().getTable())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resets the split scoped state only, the database schema, queue, dispatcher and connections
+     * are kept for the given snapshot split.
+     */
+    private void resetForSnapshotSplit(MySqlSplit mySqlSplit) {
+        // the snapshot splits always start from the initial offset which has been checked by the
+        // first split, there's no need to check the binlog availability again
+        this.offsetContext =
+                (MySqlOffsetContext)
+                        new MySqlOffsetContext.Loader(connectorConfig)
+                                .load(BinlogOffset.INITIAL_OFFSET.getOffset());
+    }
+
+    /**
+     * Unregisters the listeners of the binlog client registered by the read task of the previous
+     * split, the client is reused by the read task of the next split, which registers its own.
+     */
+    private void unregisterBinaryLogClientListeners() {
+        if (binaryLogClient.getEventListeners().isEmpty()
+                && binaryLogClient.getLifecycleListeners().isEmpty()) {
+            // no read task has run since, e.g. the backfill of the previous split is skipped
+            return;
+        }
+        for (BinaryLogClient.EventListener listener :
+                new ArrayList<>(binaryLogClient.getEventListeners())) {
+            binaryLogClient.unregisterEventListener(listener);
+        }
+        for (BinaryLogClient.LifecycleListener listener :
+                new ArrayList<>(binaryLogClient.getLifecycleListeners())) {
+            binaryLogClient.unregisterLifecycleListener(listener);
+        }
     }
 
     private void validateAndLoadDatabaseHistory(
@@ -0,0 +1,459 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.schema;
+
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.StatementUtils;
+import io.debezium.jdbc.JdbcConnection;
+import io.debezium.relational.TableId;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nullable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the definitions of many tables from information_schema in a few queries and renders them
+ * as the DDL 'SHOW CREATE TABLE' returns, i.e. the columns with their character sets, defaults,
+ * generated expressions and comments and the keys in the order of the server, where the primary
+ * key comes first, followed by the unique keys without nullable columns, the other unique keys and
+ * the non-unique keys. The key order matters, the first unique key without nullable columns is
+ * the primary key of a table without one.
+ */
+class MySqlInformationSchema {
+
+    private static final String TABLES_QUERY =
+            "SELECT TABLE_SCHEMA, TABLE_NAME, TABLE_COLLATION, TABLE_COMMENT"
+                    + " FROM information_schema.TABLES WHERE TABLE_SCHEMA IN (%s)";
+    private static final String COLUMNS_QUERY =
+            "SELECT TABLE_SCHEMA, TABLE_NAME, COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE,"
+                    + " COLUMN_DEFAULT, EXTRA, CHARACTER_SET_NAME, COLUMN_COMMENT,"
+                    + " GENERATION_EXPRESSION FROM information_schema.COLUMNS"
+                    + " WHERE TABLE_SCHEMA IN (%s) ORDER BY TABLE_SCHEMA, TABLE_NAME,"
+                    + " ORDINAL_POSITION";
+    private static final String INDEXES_QUERY =
+            "SELECT TABLE_SCHEMA, TABLE_NAME, INDEX_NAME, NON_UNIQUE, SEQ_IN_INDEX, COLUMN_NAME,"
+                    + " SUB_PART, NULLABLE, INDEX_TYPE FROM information_schema.STATISTICS"
+                    + " WHERE TABLE_SCHEMA IN (%s)";
+    private static final String VERSION_QUERY = "SELECT VERSION()";
+    private static final String PRIMARY_KEY_NAME = "PRIMARY";
+
+    private static final Pattern CURRENT_TIMESTAMP =
+            Pattern.compile(
+                    "(CURRENT_TIMESTAMP|NOW|LOCALTIME|LOCALTIMESTAMP)(\\(\\d*\\))?",
+                    Pattern.CASE_INSENSITIVE);
+    private static final Pattern ON_UPDATE =
+            Pattern.compile("on update (\\S+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern HEX_LITERAL = Pattern.compile("0x([0-9a-fA-F]{2})*");
+    private static final Pattern BINARY_TYPES =
+            Pattern.compile("binary|varbinary", Pattern.CASE_INSENSITIVE);
+    // the column defaults are SQL literals or expressions in information_schema since 10.2.7
+    private static final Pattern MARIADB_QUOTED_DEFAULT_VERSION =
+            Pattern.compile("(\\d+)\\.(\\d+)\\.(\\d+).*MariaDB.*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NO_DEFAULT_NULL_TYPES =
+            Pattern.compile(
+                    "(tiny|medium|long)?(blob|text)|json|geometry|point|linestring|polygon"
+                            + "|multipoint|multilinestring|multipolygon|geometrycollection",
+                    Pattern.CASE_INSENSITIVE);
+
+    private MySqlInformationSchema() {}
+
+    /**
+     * Reads the DDLs of the given tables, the tables not found in information_schema are absent
+     * in the returned map.
+     */
+    static Map<TableId, String> readTableDdls(JdbcConnection jdbc, Collection<TableId> tableIds)
+            throws SQLException {
+        final Map<TableId, TableDefinition> definitions = new HashMap<>();
+        for (TableId tableId : tableIds) {
+            definitions.put(tableId, new TableDefinition());
+        }
+        final Set<String> databases = new LinkedHashSet<>();
+        for (TableId tableId : tableIds) {
+            databases.add(tableId.catalog());
+        }
+        if (databases.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final List<String> databaseList = new ArrayList<>(databases);
+        final String placeholders =
+                databaseList.stream().map(database -> "?").collect(Collectors.joining(","));
+        final boolean quotedDefaults = hasQuotedDefaults(jdbc);
+
+        query(
+                jdbc,
+                String.format(TABLES_QUERY, placeholders),
+                databaseList,
+                rs -> {
+                    while (rs.next()) {
+                        TableDefinition definition =
+                                definitions.get(
+                                        new TableId(rs.getString(1), null, rs.getString(2)));
+                        if (definition != null) {
+                            definition.charset = charsetOf(rs.getString(3));
+                            definition.comment = rs.getString(4);
+                        }
+                    }
+                });
+        query(
+                jdbc,
+                String.format(COLUMNS_QUERY, placeholders),
+                databaseList,
+                rs -> {
+                    while (rs.next()) {
+                        TableDefinition definition =
+                                definitions.get(
+                                        new TableId(rs.getString(1), null, rs.getString(2)));
+                        if (definition != null) {
+                            definition.columns.add(
+                                    columnDefinition(
+                                            rs.getString(3),
+                                            rs.getString(4),
+                                            "YES".equalsIgnoreCase(rs.getString(5)),
+                                            rs.getString(6),
+                                            StringUtils.defaultString(rs.getString(7)),
+                                            rs.getString(8),
+                                            rs.getString(9),
+                                            rs.getString(10),
+                                            definition.charset,
+                                            quotedDefaults));
+                        }
+                    }
+                });
+        query(
+                jdbc,
+                String.format(INDEXES_QUERY, placeholders),
+                databaseList,
+                rs -> {
+                    while (rs.next()) {
+                        TableDefinition definition =
+                                definitions.get(
+                                        new TableId(rs.getString(1), null, rs.getString(2)));
+                        if (definition != null) {
+                            final boolean unique = rs.getInt(4) == 0;
+                            final String indexType = rs.getString(9);
+                            definition
+                                    .indexes
+                                    .computeIfAbsent(
+                                            rs.getString(3),
+                                            name ->
+                                                    new IndexDefinition(
+                                                            name,
+                                                            definition.indexes.size(),
+                                                            unique,
+                                                            indexType))
+                                    .addPart(
+                                            rs.getInt(5),
+                                            rs.getString(6),
+                                            rs.getString(7),
+                                            "YES".equalsIgnoreCase(rs.getString(8)));
+                        }
+                    }
+                });
+
+        final Map<TableId, String> ddls = new HashMap<>();
+        for (Map.Entry<TableId, TableDefinition> entry : definitions.entrySet()) {
+            if (!entry.getValue().columns.isEmpty()) {
+                ddls.put(entry.getKey(), entry.getValue().toDdl(entry.getKey()));
+            }
+        }
+        return ddls;
+    }
+
+    /** Whether the column defaults in information_schema are SQL literals, i.e. MariaDB 10.2.7+. */
+    private static boolean hasQuotedDefaults(JdbcConnection jdbc) throws SQLException {
+        final String version =
+                jdbc.queryAndMap(VERSION_QUERY, rs -> rs.next() ? rs.getString(1) : null);
+        if (version == null) {
+            return false;
+        }
+        final Matcher matcher = MARIADB_QUOTED_DEFAULT_VERSION.matcher(version);
+        if (!matcher.matches()) {
+            return false;
+        }
+        final int major = Integer.parseInt(matcher.group(1));
+        final int minor = Integer.parseInt(matcher.group(2));
+        final int patch = Integer.parseInt(matcher.group(3));
+        return major > 10 || (major == 10 && (minor > 2 || (minor == 2 && patch >= 7)));
+    }
+
+    private static void query(
+            JdbcConnection jdbc,
+            String sql,
+            List<String> databases,
+            JdbcConnection.ResultSetConsumer resultSetConsumer)
+            throws SQLException {
+        jdbc.prepareQuery(
+                sql,
+                statement -> {
+                    for (int i = 0; i < databases.size(); i++) {
+                        statement.setString(i + 1, databases.get(i));
+                    }
+                },
+                resultSetConsumer);
+    }
+
+    private static String columnDefinition(
+            String columnName,
+            String columnType,
+            boolean nullable,
+            String defaultValue,
+            String extra,
+            String charset,
+            String comment,
+            String generationExpression,
+            String tableCharset,
+            boolean quotedDefaults) {
+        final StringBuilder ddl = new StringBuilder();
+        ddl.append(StatementUtils.quote(columnName)).append(' ').append(columnType);
+        if (StringUtils.isNotEmpty(charset) && !charset.equalsIgnoreCase(tableCharset)) {
+            ddl.append(" CHARACTER SET ").append(charset);
+        }
+        final boolean stored = StringUtils.containsIgnoreCase(extra, "STORED GENERATED");
+        final boolean generated =
+                (stored || StringUtils.containsIgnoreCase(extra, "VIRTUAL GENERATED"))
+                        && StringUtils.isNotEmpty(generationExpression);
+        if (generated) {
+            ddl.append(" GENERATED ALWAYS AS (").append(generationExpression).append(')');
+            ddl.append(stored ? " STORED" : " VIRTUAL");
+        }
+        ddl.append(nullable ? " NULL" : " NOT NULL");
+        if (!generated) {
+            ddl.append(
+                    quotedDefaults
+                            ? quotedDefaultDefinition(columnType, nullable, defaultValue)
+                            : defaultDefinition(columnType, nullable, defaultValue, extra));
+        }
+        if (StringUtils.containsIgnoreCase(extra, "auto_increment")) {
+            ddl.append(" AUTO_INCREMENT");
+        }
+        final Matcher onUpdate = ON_UPDATE.matcher(extra);
+        if (onUpdate.find()) {
+            ddl.append(" ON UPDATE ").append(onUpdate.group(1));
+        }
+        if (StringUtils.isNotEmpty(comment)) {
+            ddl.append(" COMMENT ").append(literal(comment));
+        }
+        return ddl.toString();
+    }
+
+    private static String defaultDefinition(
+            String columnType, boolean nullable, String defaultValue, String extra) {
+        if (defaultValue == null) {
+            // 'SHOW CREATE TABLE' shows no default of the blob, text, json and spatial columns
+            return nullable && !NO_DEFAULT_NULL_TYPES.matcher(baseType(columnType)).matches()
+                    ? " DEFAULT NULL"
+                    : "";
+        }
+        if (CURRENT_TIMESTAMP.matcher(defaultValue).matches()) {
+            return " DEFAULT " + defaultValue;
+        }
+        if (StringUtils.containsIgnoreCase(extra, "DEFAULT_GENERATED")) {
+            // the expression default since MySQL 8.0.13
+            return " DEFAULT (" + defaultValue + ")";
+        }
+        if ("bit".equalsIgnoreCase(baseType(columnType)) && defaultValue.startsWith("b'")) {
+            return " DEFAULT " + defaultValue;
+        }
+        if (BINARY_TYPES.matcher(baseType(columnType)).matches()
+                && HEX_LITERAL.matcher(defaultValue).matches()) {
+            // MySQL 8.0 shows the default of a binary column in hex
+            return " DEFAULT " + literal(decodeHex(defaultValue.substring(2)));
+        }
+        return " DEFAULT " + literal(defaultValue);
+    }
+
+    /** The default of MariaDB 10.2.7+ is a literal, an expression or 'NULL' as it is in the DDL. */
+    private static String quotedDefaultDefinition(
+            String columnType, boolean nullable, String defaultValue) {
+        if (defaultValue == null || "NULL".equalsIgnoreCase(defaultValue)) {
+            return defaultDefinition(columnType, nullable, null, "");
+        }
+        return " DEFAULT " + defaultValue;
+    }
+
+    private static String decodeHex(String hex) {
+        final StringBuilder decoded = new StringBuilder(hex.length() / 2);
+        for (int i = 0; i < hex.length(); i += 2) {
+            decoded.append((char) Integer.parseInt(hex.substring(i, i + 2), 16));
+        }
+        return decoded.toString();
+    }
+
+    private static String baseType(String columnType) {
+        int end = 0;
+        while (end < columnType.length() && Character.isLetter(columnType.charAt(end))) {
+            end++;
+        }
+        return columnType.substring(0, end);
+    }
+
+    /** The charset of a collation is its name before the first '_', e.g. utf8mb4_general_ci. */
+    private static String charsetOf(String collation) {
+        if (collation == null) {
+            return null;
+        }
+        int index = collation.indexOf('_');
+        return index < 0 ? collation : collation.substring(0, index);
+    }
+
+    /** Quotes the value as 'SHOW CREATE TABLE' does, the control characters are escaped. */
+    private static String literal(String value) {
+        final StringBuilder literal = new StringBuilder(value.length() + 2).append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '\0':
+                    literal.append("\\0");
+                    break;
+                case '\032':
+                    literal.append("\\Z");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\'':
+                    literal.append("''");
+                    break;
+                default:
+                    literal.append(c);
+            }
+        }
+        return literal.append('\'').toString();
+    }
+
+    /** The definition of a table read from information_schema. */
+    private static class TableDefinition {
+        private String charset;
+        private String comment;
+        private final List<String> columns = new ArrayList<>();
+        private final Map<String, IndexDefinition> indexes = new LinkedHashMap<>();
+
+        private String toDdl(TableId tableId) {
+            final List<String> definitions = new ArrayList<>(columns);
+            indexes.values().stream()
+                    .filter(IndexDefinition::isRenderable)
+                    .sorted(
+                            Comparator.comparingInt(IndexDefinition::rank)
+                                    .thenComparingInt(index -> index.order))
+                    .forEach(index -> definitions.add(index.toDdl()));
+            final StringBuilder ddl = new StringBuilder();
+            ddl.append("CREATE TABLE ")
+                    .append(StatementUtils.quote(tableId))
+                    .append(" (\n\t")
+                    .append(String.join(",\n\t", definitions))
+                    .append("\n)");
+            if (StringUtils.isNotEmpty(charset)) {
+                ddl.append(" DEFAULT CHARSET=").append(charset);
+            }
+            if (StringUtils.isNotEmpty(comment)) {
+                ddl.append(" COMMENT=").append(literal(comment));
+            }
+            return ddl.toString();
+        }
+    }
+
+    /** The definition of an index read from information_schema. */
+    private static class IndexDefinition {
+        private final String name;
+        // the order the index is read in, which is the order of the server within a rank
+        private final int order;
+        private final boolean unique;
+        @Nullable private final String indexType;
+        private final TreeMap<Integer, String> parts = new TreeMap<>();
+        private boolean nullable;
+        // the functional key parts have no column, they are not rendered
+        private boolean functional;
+
+        private IndexDefinition(String name, int order, boolean unique, String indexType) {
+            this.name = name;
+            this.order = order;
+            this.unique = unique;
+            this.indexType = indexType;
+        }
+
+        private void addPart(
+                int sequence,
+                @Nullable String columnName,
+                @Nullable String subPart,
+                boolean nullable) {
+            if (columnName == null) {
+                functional = true;
+                return;
+            }
+            this.nullable |= nullable;
+            parts.put(
+                    sequence,
+                    subPart == null
+                            ? StatementUtils.quote(columnName)
+                            : StatementUtils.quote(columnName) + "(" + subPart + ")");
+        }
+
+        private boolean isRenderable() {
+            return !functional && !parts.isEmpty();
+        }
+
+        private int rank() {
+            if (PRIMARY_KEY_NAME.equals(name)) {
+                return 0;
+            } else if (unique) {
+                return nullable ? 2 : 1;
+            } else {
+                return "FULLTEXT".equalsIgnoreCase(indexType) ? 4 : 3;
+            }
+        }
+
+        private String toDdl() {
+            final String columns = "(" + String.join(",", parts.values()) + ")";
+            if (PRIMARY_KEY_NAME.equals(name)) {
+                return "PRIMARY KEY " + columns;
+            }
+            final String prefix;
+            if (unique) {
+                prefix = "UNIQUE KEY ";
+            } else if ("FULLTEXT".equalsIgnoreCase(indexType)) {
+                prefix = "FULLTEXT KEY ";
+            } else if ("SPATIAL".equalsIgnoreCase(indexType)) {
+                prefix = "SPATIAL KEY ";
+            } else {
+                prefix = "KEY ";
+            }
+            return prefix + StatementUtils.quote(name) + " " + columns;
+        }
+    }
+}
@@ -31,6 +31,8 @@ import io.debezium.relational.TableId;
 import io.debezium.relational.history.TableChanges.TableChange;
 import io.debezium.schema.SchemaChangeEvent;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.time.Instant;
@@ -41,6 +43,7 @@ import java.util.Map;
 
 /** A component used to get schema by table path. */
 public class MySqlSchema {
+    private static final Logger LOG = LoggerFactory.getLogger(MySqlSchema.class);
     private static final String SHOW_CREATE_TABLE = "SHOW CREATE TABLE ";
     private static final String DESC_TABLE = "DESC ";
 
@@ -69,6 +72,28 @@ public class MySqlSchema {
         return schema;
     }
 
+    /**
+     * Gets table schemas for the given table paths. The schemas missed in cache are read from
+     * information_schema in bulk, and fallback to {@link #getTableSchema(JdbcConnection, TableId)}
+     * for the tables can't be read in this way.
+     */
+    public Map<TableId, TableChange> getTableSchemas(JdbcConnection jdbc, List<TableId> tableIds) {
+        final List<TableId> missedTableIds = new ArrayList<>();
+        for (TableId tableId : tableIds) {
+            if (!schemasByTableId.containsKey(tableId)) {
+                missedTableIds.add(tableId);
+            }
+        }
+        if (!missedTableIds.isEmpty()) {
+            buildSchemasByInformationSchema(jdbc, missedTableIds);
+        }
+        final Map<TableId, TableChange> schemas = new HashMap<>();
+        for (TableId tableId : tableIds) {
+            schemas.put(tableId, getTableSchema(jdbc, tableId));
+        }
+        return schemas;
+    }
+
     // ------------------------------------------------------------------------------------------
     // Helpers
     // ------------------------------------------------------------------------------------------
@@ -110,6 +135,24 @@ public class MySqlSchema {
         }
     }
 
+    private void buildSchemasByInformationSchema(JdbcConnection jdbc, List<TableId> tableIds) {
+        final Map<TableId, String> ddls;
+        try {
+            ddls = MySqlInformationSchema.readTableDdls(jdbc, tableIds);
+        } catch (SQLException e) {
+            LOG.warn(
+                    "Failed to read schemas of {} tables from information_schema, fallback to read them one by one",
+                    tableIds.size(),
+                    e);
+            return;
+        }
+        final Map<TableId, TableChange> tableChangeMap = new HashMap<>();
+        for (Map.Entry<TableId, String> ddl : ddls.entrySet()) {
+            parseSchemaByDdl(ddl.getValue(), ddl.getKey(), tableChangeMap);
+        }
+        schemasByTableId.putAll(tableChangeMap);
+    }
+
     private void parseSchemaByDdl(
             String ddl, TableId tableId, Map<TableId, TableChange> tableChangeMap) {
         final MySqlOffsetContext offsetContext = MySqlOffsetContext.initial(connectorConfig);
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.schema;
+
+import com.github.shyiko.mysql.binlog.event.TableMapEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.ColumnType;
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+
+import javax.annotation.Nullable;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks a table schema read from the server against the columns of a table map event in the
+ * binlog. The schema read by 'SHOW CREATE TABLE' is the current schema of the table, which doesn't
+ * describe the rows of an earlier binlog event if the table was altered after the event.
+ */
+public class TableMapSchemaChecker {
+
+    /** The binlog column types of the column type names, the other types are not checked. */
+    private static final Map<String, Set<ColumnType>> BINLOG_COLUMN_TYPES = new HashMap<>();
+
+    static {
+        register(EnumSet.of(ColumnType.TINY), "BOOL", "BOOLEAN", "TINYINT");
+        register(EnumSet.of(ColumnType.SHORT), "SMALLINT");
+        register(EnumSet.of(ColumnType.INT24), "MEDIUMINT");
+        register(EnumSet.of(ColumnType.LONG), "INT", "INTEGER");
+        register(EnumSet.of(ColumnType.LONGLONG), "BIGINT", "SERIAL");
+        // the precision of a float column may make it a double one
+        register(EnumSet.of(ColumnType.FLOAT, ColumnType.DOUBLE), "FLOAT", "DOUBLE", "REAL");
+        register(
+                EnumSet.of(ColumnType.NEWDECIMAL, ColumnType.DECIMAL),
+                "DECIMAL",
+                "NUMERIC",
+                "DEC",
+                "FIXED");
+        register(EnumSet.of(ColumnType.DATE, ColumnType.NEWDATE), "DATE");
+        register(EnumSet.of(ColumnType.TIME, ColumnType.TIME_V2), "TIME");
+        register(EnumSet.of(ColumnType.DATETIME, ColumnType.DATETIME_V2), "DATETIME");
+        register(EnumSet.of(ColumnType.TIMESTAMP, ColumnType.TIMESTAMP_V2), "TIMESTAMP");
+        register(EnumSet.of(ColumnType.YEAR), "YEAR");
+        register(EnumSet.of(ColumnType.BIT), "BIT");
+        // the enum and set columns are written as string columns
+        register(
+                EnumSet.of(
+                        ColumnType.STRING, ColumnType.VAR_STRING, ColumnType.ENUM, ColumnType.SET),
+                "CHAR",
+                "NCHAR",
+                "BINARY",
+                "ENUM",
+                "SET");
+        register(
+                EnumSet.of(ColumnType.VARCHAR, ColumnType.VAR_STRING),
+                "VARCHAR",
+                "NVARCHAR",
+                "VARBINARY");
+        register(
+                EnumSet.of(
+                        ColumnType.BLOB,
+                        ColumnType.TINY_BLOB,
+                        ColumnType.MEDIUM_BLOB,
+                        ColumnType.LONG_BLOB),
+                "TINYBLOB",
+                "BLOB",
+                "MEDIUMBLOB",
+                "LONGBLOB",
+                "TINYTEXT",
+                "TEXT",
+                "MEDIUMTEXT",
+                "LONGTEXT");
+        // the json column of MariaDB is a text column
+        register(EnumSet.of(ColumnType.JSON, ColumnType.BLOB), "JSON");
+        register(
+                EnumSet.of(ColumnType.GEOMETRY),
+                "GEOMETRY",
+                "POINT",
+                "LINESTRING",
+                "POLYGON",
+                "MULTIPOINT",
+                "MULTILINESTRING",
+                "MULTIPOLYGON",
+                "GEOMETRYCOLLECTION",
+                "GEOMCOLLECTION");
+    }
+
+    private TableMapSchemaChecker() {}
+
+    /**
+     * Returns the mismatch of the table schema and the table map event, null if the columns of the
+     * schema match the columns of the event by their number and types.
+     */
+    @Nullable
+    public static String checkSchema(Table table, TableMapEventData tableMap) {
+        final List<Column> columns = table.columns();
+        final byte[] columnTypes = tableMap.getColumnTypes();
+        if (columns.size() != columnTypes.length) {
+            return String.format(
+                    "the schema has %d columns but the binlog event has %d columns",
+                    columns.size(), columnTypes.length);
+        }
+        for (int i = 0; i < columnTypes.length; i++) {
+            final Column column = columns.get(i);
+            final Set<ColumnType> expectedTypes =
+                    BINLOG_COLUMN_TYPES.get(baseTypeName(column.typeName()));
+            final ColumnType columnType = ColumnType.byCode(columnTypes[i] & 0xFF);
+            if (expectedTypes != null && !expectedTypes.contains(columnType)) {
+                return String.format(
+                        "the column %s is %s in the schema but %s in the binlog event",
+                        column.name(), column.typeName(), columnType);
+            }
+        }
+        return null;
+    }
+
+    private static String baseTypeName(String typeName) {
+        String baseTypeName = typeName.trim().toUpperCase(Locale.ROOT);
+        for (int i = 0; i < baseTypeName.length(); i++) {
+            final char c = baseTypeName.charAt(i);
+            if (c == ' ' || c == '(') {
+                return baseTypeName.substring(0, i);
+            }
+        }
+        return baseTypeName;
+    }
+
+    private static void register(Set<ColumnType> columnTypes, String... typeNames) {
+        for (String typeName : typeNames) {
+            BINLOG_COLUMN_TYPES.put(typeName, columnTypes);
+        }
+    }
+}
@@ -40,11 +40,13 @@ import cn.tenmg.cdc.log.connectors.mysql.MySqlValidator;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.DebeziumUtils;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.MySqlBinlogSplitAssigner;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.MySqlHybridSplitAssigner;
+import cn.tenmg.cdc.log.connectors.mysql.source.assigners.MySqlSnapshotSplitAssigner;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.MySqlSplitAssigner;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.state.BinlogPendingSplitsState;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.state.HybridPendingSplitsState;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.state.PendingSplitsState;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.state.PendingSplitsStateSerializer;
+import cn.tenmg.cdc.log.connectors.mysql.source.assigners.state.SnapshotPendingSplitsState;
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfigFactory;
 import cn.tenmg.cdc.log.connectors.mysql.source.enumerator.MySqlSourceEnumerator;
@@ -53,6 +55,7 @@ import cn.tenmg.cdc.log.connectors.mysql.source.reader.MySqlRecordEmitter;
 import cn.tenmg.cdc.log.connectors.mysql.source.reader.MySqlSourceReader;
 import cn.tenmg.cdc.log.connectors.mysql.source.reader.MySqlSourceReaderContext;
 import cn.tenmg.cdc.log.connectors.mysql.source.reader.MySqlSplitReader;
+import cn.tenmg.cdc.log.connectors.mysql.source.reader.ParallelRecordDeserializer;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplit;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplitSerializer;
 import cn.tenmg.cdc.log.connectors.mysql.table.StartupMode;
@@ -100,6 +103,7 @@ public class MySqlSource<T>
 
     private final MySqlSourceConfigFactory configFactory;
     private final DebeziumDeserializationSchema<T> deserializationSchema;
+    private final Boundedness boundedness;
 
     /**
      * Get a MySqlParallelSourceBuilder to build a {@link MySqlSource}.
@@ -116,6 +120,14 @@ public class MySqlSource<T>
             DebeziumDeserializationSchema<T> deserializationSchema) {
         this.configFactory = configFactory;
         this.deserializationSchema = deserializationSchema;
+        // the snapshot startup mode finishes once all snapshot splits are read, the bounded binlog
+        // split finishes at the stopping offset
+        MySqlSourceConfig sourceConfig = configFactory.createConfig(0);
+        this.boundedness =
+                sourceConfig.getStartupOptions().startupMode == StartupMode.SNAPSHOT
+                                || sourceConfig.getStopOptions().isBounded()
+                        ? Boundedness.BOUNDED
+                        : Boundedness.CONTINUOUS_UNBOUNDED;
     }
 
     public MySqlSourceConfigFactory getConfigFactory() {
@@ -124,7 +136,7 @@ public class MySqlSource<T>
 
     @Override
     public Boundedness getBoundedness() {
-        return Boundedness.CONTINUOUS_UNBOUNDED;
+        return boundedness;
     }
 
     @Override
@@ -145,12 +157,21 @@ public class MySqlSource<T>
         sourceReaderMetrics.registerMetrics();
         MySqlSourceReaderContext mySqlSourceReaderContext =
                 new MySqlSourceReaderContext(readerContext);
+        final ParallelRecordDeserializer<T> recordDeserializer =
+                sourceConfig.getDeserializationParallelism() > 1
+                        ? new ParallelRecordDeserializer<>(
+                                deserializationSchema,
+                                sourceConfig.getDeserializationParallelism(),
+                                readerContext.getIndexOfSubtask())
+                        : null;
         Supplier<MySqlSplitReader> splitReaderSupplier =
                 () ->
                         new MySqlSplitReader(
                                 sourceConfig,
                                 readerContext.getIndexOfSubtask(),
-                                mySqlSourceReaderContext);
+                                mySqlSourceReaderContext,
+                                recordDeserializer,
+                                sourceReaderMetrics);
         return new MySqlSourceReader<>(
                 elementsQueue,
                 splitReaderSupplier,
@@ -172,17 +193,28 @@ public class MySqlSource<T>
         validator.validate();
 
         final MySqlSplitAssigner splitAssigner;
-        if (sourceConfig.getStartupOptions().startupMode == StartupMode.INITIAL) {
+        final StartupMode startupMode = sourceConfig.getStartupOptions().startupMode;
+        if (startupMode == StartupMode.INITIAL || startupMode == StartupMode.SNAPSHOT) {
             try (JdbcConnection jdbc = DebeziumUtils.openJdbcConnection(sourceConfig)) {
                 final List<TableId> remainingTables =
                         DebeziumUtils.discoverCapturedTables(jdbc, sourceConfig);
                 boolean isTableIdCaseSensitive = DebeziumUtils.isTableIdCaseSensitive(jdbc);
-                splitAssigner =
-                        new MySqlHybridSplitAssigner(
-                                sourceConfig,
-                                enumContext.currentParallelism(),
-                                remainingTables,
-                                isTableIdCaseSensitive);
+                if (startupMode == StartupMode.SNAPSHOT) {
+                    // no binlog split is needed for the bounded snapshot
+                    splitAssigner =
+                            new MySqlSnapshotSplitAssigner(
+                                    sourceConfig,
+                                    enumContext.currentParallelism(),
+                                    remainingTables,
+                                    isTableIdCaseSensitive);
+                } else {
+                    splitAssigner =
+                            new MySqlHybridSplitAssigner(
+                                    sourceConfig,
+                                    enumContext.currentParallelism(),
+                                    remainingTables,
+                                    isTableIdCaseSensitive);
+                }
             } catch (Exception e) {
                 throw new FlinkRuntimeException(
                         "Failed to discover captured tables for enumerator", e);
@@ -206,6 +238,12 @@ public class MySqlSource<T>
                             sourceConfig,
                             enumContext.currentParallelism(),
                             (HybridPendingSplitsState) checkpoint);
+        } else if (checkpoint instanceof SnapshotPendingSplitsState) {
+            splitAssigner =
+                    new MySqlSnapshotSplitAssigner(
+                            sourceConfig,
+                            enumContext.currentParallelism(),
+                            (SnapshotPendingSplitsState) checkpoint);
         } else if (checkpoint instanceof BinlogPendingSplitsState) {
             splitAssigner =
                     new MySqlBinlogSplitAssigner(
@@ -19,11 +19,13 @@
 package cn.tenmg.cdc.log.connectors.mysql.source;
 
 import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.configuration.MemorySize;
 
 import cn.tenmg.cdc.log.debezium.DebeziumDeserializationSchema;
 
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfigFactory;
 import cn.tenmg.cdc.log.connectors.mysql.table.StartupOptions;
+import cn.tenmg.cdc.log.connectors.mysql.table.StopOptions;
 
 import java.time.Duration;
 import java.util.Properties;
@@ -140,6 +142,157 @@ public class MySqlSourceBuilder<T> {
         return this;
     }
 
+    /**
+     * The page size (number of rows) used to scan a split by keyset pagination, the split is read
+     * by a series of bounded queries between its low and high watermark. A non-positive value
+     * means the split is read by a single query.
+     */
+    public MySqlSourceBuilder<T> chunkPageSize(int chunkPageSize) {
+        this.configFactory.chunkPageSize(chunkPageSize);
+        return this;
+    }
+
+    /**
+     * Whether to check the table of a snapshot split has changes between its low and high
+     * watermark by the table map events tracked from the binlog, the backfill binlog read is
+     * skipped for the split when there is no change.
+     */
+    public MySqlSourceBuilder<T> backfillSkipCheckEnabled(boolean backfillSkipCheckEnabled) {
+        this.configFactory.backfillSkipCheckEnabled(backfillSkipCheckEnabled);
+        return this;
+    }
+
+    /**
+     * The max number of snapshot splits assigned to a reader at the same time, the reader queues
+     * the splits locally and needn't wait for the enumerator after a split finished.
+     */
+    public MySqlSourceBuilder<T> chunkPrefetchSize(int chunkPrefetchSize) {
+        this.configFactory.chunkPrefetchSize(chunkPrefetchSize);
+        return this;
+    }
+
+    /**
+     * Whether to start reading the binlog before all snapshot splits are finished, the changes of
+     * a snapshot split are emitted once the split is finished and confirmed by a checkpoint. It
+     * takes effect only when the source parallelism is greater than 1.
+     */
+    public MySqlSourceBuilder<T> binlogEarlyStartEnabled(boolean binlogEarlyStartEnabled) {
+        this.configFactory.binlogEarlyStartEnabled(binlogEarlyStartEnabled);
+        return this;
+    }
+
+    /**
+     * Whether to skip the binlog backfill of snapshot splits, the changes happened while scanning
+     * a split are read by the binlog split later, or never read in snapshot startup mode.
+     */
+    public MySqlSourceBuilder<T> skipSnapshotBackfill(boolean skipSnapshotBackfill) {
+        this.configFactory.skipSnapshotBackfill(skipSnapshotBackfill);
+        return this;
+    }
+
+    /**
+     * Whether to load the table schemas of the binlog split on demand, i.e. when the first binlog
+     * event of a table arrives, rather than discovering all captured tables up front.
+     */
+    public MySqlSourceBuilder<T> lazySchemaLoadingEnabled(boolean lazySchemaLoadingEnabled) {
+        this.configFactory.lazySchemaLoadingEnabled(lazySchemaLoadingEnabled);
+        return this;
+    }
+
+    /**
+     * Whether to discover the captured tables and their schemas from information_schema in bulk,
+     * rather than describing the databases and tables one by one.
+     */
+    public MySqlSourceBuilder<T> bulkTableDiscoveryEnabled(boolean bulkTableDiscoveryEnabled) {
+        this.configFactory.bulkTableDiscoveryEnabled(bulkTableDiscoveryEnabled);
+        return this;
+    }
+
+    /**
+     * The number of threads of a reader to deserialize the change records ahead of the emission,
+     * the records are still emitted in the binlog order.
+     */
+    public MySqlSourceBuilder<T> deserializationParallelism(int deserializationParallelism) {
+        this.configFactory.deserializationParallelism(deserializationParallelism);
+        return this;
+    }
+
+    /**
+     * The number of binlog splits, each split reads the changes of one hash group of the captured
+     * tables by its own binlog client and server id.
+     */
+    public MySqlSourceBuilder<T> binlogSplitNumber(int binlogSplitNumber) {
+        this.configFactory.binlogSplitNumber(binlogSplitNumber);
+        return this;
+    }
+
+    /**
+     * Whether to share one binlog connection among the binlog split readers of the same MySQL
+     * instance in a TaskManager, which start from the same binlog position.
+     */
+    public MySqlSourceBuilder<T> sharedBinlogConnectionEnabled(
+            boolean sharedBinlogConnectionEnabled) {
+        this.configFactory.sharedBinlogConnectionEnabled(sharedBinlogConnectionEnabled);
+        return this;
+    }
+
+    /**
+     * Whether to spool the binlog records to the local disk while the binlog reader is
+     * back-pressured, so the binlog keeps being read at full speed.
+     */
+    public MySqlSourceBuilder<T> binlogSpoolEnabled(boolean binlogSpoolEnabled) {
+        this.configFactory.binlogSpoolEnabled(binlogSpoolEnabled);
+        return this;
+    }
+
+    /** The local directory of the binlog spool, the temporary directory of the JVM by default. */
+    public MySqlSourceBuilder<T> binlogSpoolDir(String binlogSpoolDir) {
+        this.configFactory.binlogSpoolDir(binlogSpoolDir);
+        return this;
+    }
+
+    /** The max size of the binlog spool, the binlog reading is back-pressured beyond it. */
+    public MySqlSourceBuilder<T> binlogSpoolMaxSize(MemorySize binlogSpoolMaxSize) {
+        this.configFactory.binlogSpoolMaxSize(binlogSpoolMaxSize);
+        return this;
+    }
+
+    /** The size of a segment file of the binlog spool, a drained segment is deleted. */
+    public MySqlSourceBuilder<T> binlogSpoolSegmentSize(MemorySize binlogSpoolSegmentSize) {
+        this.configFactory.binlogSpoolSegmentSize(binlogSpoolSegmentSize);
+        return this;
+    }
+
+    /** The max size of the binlog records handed off to the reader but not polled yet. */
+    public MySqlSourceBuilder<T> binlogHandoffMaxSize(MemorySize binlogHandoffMaxSize) {
+        this.configFactory.binlogHandoffMaxSize(binlogHandoffMaxSize);
+        return this;
+    }
+
+    /**
+     * The target latency bound of batching the change records polled by the reader, the batch
+     * size follows the arrival rate of the records within it.
+     */
+    public MySqlSourceBuilder<T> batchTargetLatency(Duration batchTargetLatency) {
+        this.configFactory.batchTargetLatency(batchTargetLatency);
+        return this;
+    }
+
+    /**
+     * Whether to capture the MySQL server configured with binlog_row_image=MINIMAL or NOBLOB, the
+     * columns absent from the row images are marked rather than mistaken for nulls.
+     */
+    public MySqlSourceBuilder<T> minimalRowImageEnabled(boolean minimalRowImageEnabled) {
+        this.configFactory.minimalRowImageEnabled(minimalRowImageEnabled);
+        return this;
+    }
+
+    /** The max number of the last full row images merged into the partial row images. */
+    public MySqlSourceBuilder<T> minimalRowImageCacheSize(int minimalRowImageCacheSize) {
+        this.configFactory.minimalRowImageCacheSize(minimalRowImageCacheSize);
+        return this;
+    }
+
     /**
      * The upper bound of split key evenly distribution factor, the factor is used to determine
      * whether the table is evenly distribution or not.
@@ -203,6 +356,14 @@ public class MySqlSourceBuilder<T> {
         return this;
     }
 
+    /**
+     * Specifies the stop options, the {@link MySqlSource} is bounded unless the stop mode is never.
+     */
+    public MySqlSourceBuilder<T> stopOptions(StopOptions stopOptions) {
+        this.configFactory.stopOptions(stopOptions);
+        return this;
+    }
+
     /** Custom properties that will overwrite the default JDBC connection URL. */
     public MySqlSourceBuilder<T> jdbcProperties(Properties jdbcProperties) {
         this.configFactory.jdbcProperties(jdbcProperties);
@@ -24,6 +24,7 @@ import io.debezium.jdbc.JdbcConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import cn.tenmg.cdc.log.connectors.mysql.debezium.BinlogTimestampSeeker;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.DebeziumUtils;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.state.BinlogPendingSplitsState;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.state.PendingSplitsState;
@@ -32,38 +33,60 @@ import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.FinishedSnapshotSplitInfo;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplit;
+import cn.tenmg.cdc.log.connectors.mysql.table.StartupMode;
+import cn.tenmg.cdc.log.connectors.mysql.table.StartupOptions;
+
+import static cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit.binlogSplitId;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /** A {@link MySqlSplitAssigner} which only read binlog from current binlog position. */
 public class MySqlBinlogSplitAssigner implements MySqlSplitAssigner {
 
     private static final Logger LOG = LoggerFactory.getLogger(MySqlBinlogSplitAssigner.class);
-    private static final String BINLOG_SPLIT_ID = "binlog-split";
 
     private final MySqlSourceConfig sourceConfig;
+    private final int binlogSplitNumber;
 
-    private boolean isBinlogSplitAssigned;
+    // the ids of the binlog splits of the table groups which are assigned
+    private final Set<String> assignedBinlogSplits;
+    // the starting offset shared by the binlog splits of the table groups
+    private BinlogOffset startingOffset;
 
     public MySqlBinlogSplitAssigner(MySqlSourceConfig sourceConfig) {
-        this(sourceConfig, false);
+        this(sourceConfig, false, Collections.emptySet());
     }
 
     public MySqlBinlogSplitAssigner(
             MySqlSourceConfig sourceConfig, BinlogPendingSplitsState checkpoint) {
-        this(sourceConfig, checkpoint.isBinlogSplitAssigned());
+        this(
+                sourceConfig,
+                checkpoint.isBinlogSplitAssigned(),
+                checkpoint.getAssignedBinlogSplits());
     }
 
     private MySqlBinlogSplitAssigner(
-            MySqlSourceConfig sourceConfig, boolean isBinlogSplitAssigned) {
+            MySqlSourceConfig sourceConfig,
+            boolean isBinlogSplitAssigned,
+            Set<String> assignedBinlogSplits) {
         this.sourceConfig = sourceConfig;
-        this.isBinlogSplitAssigned = isBinlogSplitAssigned;
+        this.binlogSplitNumber = sourceConfig.getBinlogSplitNumber();
+        this.assignedBinlogSplits = new HashSet<>();
+        if (isBinlogSplitAssigned) {
+            for (int group = 0; group < binlogSplitNumber; group++) {
+                this.assignedBinlogSplits.add(binlogSplitId(group));
+            }
+        } else {
+            this.assignedBinlogSplits.addAll(assignedBinlogSplits);
+        }
     }
 
     @Override
@@ -71,12 +94,13 @@ public class MySqlBinlogSplitAssigner implements MySqlSplitAssigner {
 
     @Override
     public Optional<MySqlSplit> getNext() {
-        if (isBinlogSplitAssigned) {
-            return Optional.empty();
-        } else {
-            isBinlogSplitAssigned = true;
-            return Optional.of(createBinlogSplit());
+        for (int group = 0; group < binlogSplitNumber; group++) {
+            final String splitId = binlogSplitId(group);
+            if (assignedBinlogSplits.add(splitId)) {
+                return Optional.of(createBinlogSplit(splitId));
+            }
         }
+        return Optional.empty();
     }
 
     @Override
@@ -84,6 +108,11 @@ public class MySqlBinlogSplitAssigner implements MySqlSplitAssigner {
         return false;
     }
 
+    @Override
+    public boolean noMoreSplits() {
+        return isBinlogSplitAssigned();
+    }
+
     @Override
     public List<FinishedSnapshotSplitInfo> getFinishedSplitInfos() {
         return Collections.EMPTY_LIST;
@@ -97,12 +126,16 @@ public class MySqlBinlogSplitAssigner implements MySqlSplitAssigner {
     @Override
     public void addSplits(Collection<MySqlSplit> splits) {
         // we don't store the split, but will re-create binlog split later
-        isBinlogSplitAssigned = false;
+        for (MySqlSplit split : splits) {
+            assignedBinlogSplits.remove(split.splitId());
+        }
     }
 
     @Override
     public PendingSplitsState snapshotState(long checkpointId) {
-        return new BinlogPendingSplitsState(isBinlogSplitAssigned);
+        return isBinlogSplitAssigned()
+                ? new BinlogPendingSplitsState(true)
+                : new BinlogPendingSplitsState(false, new HashSet<>(assignedBinlogSplits));
     }
 
     @Override
@@ -126,12 +159,25 @@ public class MySqlBinlogSplitAssigner implements MySqlSplitAssigner {
 
     // ------------------------------------------------------------------------------------------
 
-    private MySqlBinlogSplit createBinlogSplit() {
+    private boolean isBinlogSplitAssigned() {
+        return assignedBinlogSplits.size() >= binlogSplitNumber;
+    }
+
+    private MySqlBinlogSplit createBinlogSplit(String splitId) {
+        final StartupOptions startupOptions = sourceConfig.getStartupOptions();
         try (JdbcConnection jdbc = DebeziumUtils.openJdbcConnection(sourceConfig)) {
+            // the binlog splits of the table groups start from the same offset
+            if (startingOffset == null) {
+                startingOffset =
+                        startupOptions.startupMode == StartupMode.TIMESTAMP
+                                ? BinlogTimestampSeeker.seek(
+                                        sourceConfig, jdbc, startupOptions.startupTimestampMillis)
+                                : DebeziumUtils.currentBinlogOffset(jdbc);
+            }
             return new MySqlBinlogSplit(
-                    BINLOG_SPLIT_ID,
-                    DebeziumUtils.currentBinlogOffset(jdbc),
-                    BinlogOffset.NO_STOPPING_OFFSET,
+                    splitId,
+                    startingOffset,
+                    DebeziumUtils.stoppingBinlogOffset(sourceConfig),
                     new ArrayList<>(),
                     new HashMap<>(),
                     0);
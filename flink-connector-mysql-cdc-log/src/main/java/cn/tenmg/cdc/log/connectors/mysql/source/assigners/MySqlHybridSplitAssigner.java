@@ -18,12 +18,17 @@
 
 package cn.tenmg.cdc.log.connectors.mysql.source.assigners;
 
+import org.apache.flink.util.FlinkRuntimeException;
+
+import io.debezium.jdbc.JdbcConnection;
 import io.debezium.relational.TableId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import cn.tenmg.cdc.log.connectors.mysql.debezium.DebeziumUtils;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.state.HybridPendingSplitsState;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.state.PendingSplitsState;
+import cn.tenmg.cdc.log.connectors.mysql.source.assigners.state.SnapshotPendingSplitsState;
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
 import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.FinishedSnapshotSplitInfo;
@@ -31,17 +36,28 @@ import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSnapshotSplit;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplit;
 
+import javax.annotation.Nullable;
+
+import static cn.tenmg.cdc.log.connectors.mysql.source.assigners.AssignerStatus.INITIAL_ASSIGNING;
+import static cn.tenmg.cdc.log.connectors.mysql.source.assigners.AssignerStatus.NEWLY_ADDED_ASSIGNING;
 import static cn.tenmg.cdc.log.connectors.mysql.source.assigners.AssignerStatus.isInitialAssigningFinished;
 import static cn.tenmg.cdc.log.connectors.mysql.source.assigners.AssignerStatus.isNewlyAddedAssigningFinished;
 import static cn.tenmg.cdc.log.connectors.mysql.source.assigners.AssignerStatus.isSuspended;
+import static cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit.binlogSplitId;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -51,14 +67,47 @@ import java.util.stream.Collectors;
 public class MySqlHybridSplitAssigner implements MySqlSplitAssigner {
 
     private static final Logger LOG = LoggerFactory.getLogger(MySqlHybridSplitAssigner.class);
-    private static final String BINLOG_SPLIT_ID = "binlog-split";
+
+    private final MySqlSourceConfig sourceConfig;
 
     private final int splitMetaGroupSize;
 
-    private boolean isBinlogSplitAssigned;
+    private final int binlogSplitNumber;
+
+    /** The ids of the assigned binlog splits, one for each table group. */
+    private final Set<String> assignedBinlogSplits;
 
     private final MySqlSnapshotSplitAssigner snapshotSplitAssigner;
 
+    /** Whether the binlog split is assigned before the snapshot splits are finished. */
+    private final boolean isBinlogEarlyStartEnabled;
+
+    // --------------------------------------------------------------------------------------------
+    // The fields below are used to fence the binlog split. They are not stored in the
+    // checkpoint, all readers are restarted from the checkpoint on global failover and the
+    // splits which are not finished are re-read with new watermarks.
+    // --------------------------------------------------------------------------------------------
+
+    /** The latest binlog offset read by the enumerator, see {@link #readCurrentBinlogOffset()}. */
+    private BinlogOffset latestBinlogOffset;
+
+    /** The connection to read the binlog offset periodically, reopened after a failure. */
+    @Nullable private JdbcConnection binlogOffsetConnection;
+
+    /**
+     * The binlog offset read before each unfinished snapshot split was assigned, which is not
+     * after the low watermark of the split.
+     */
+    private final Map<String, BinlogOffset> splitAssignedOffsets = new HashMap<>();
+
+    /** The finished splits which have been confirmed by a complete checkpoint. */
+    private final List<FinishedSnapshotSplitInfo> visibleFinishedSplitInfos = new ArrayList<>();
+
+    private final Set<String> visibleFinishedSplits = new HashSet<>();
+
+    /** The finished splits to be visible once the checkpoint of the key is completed. */
+    private final TreeMap<Long, List<String>> finishedSplitsToBeVisible = new TreeMap<>();
+
     public MySqlHybridSplitAssigner(
             MySqlSourceConfig sourceConfig,
             int currentParallelism,
@@ -67,8 +116,10 @@ public class MySqlHybridSplitAssigner implements MySqlSplitAssigner {
         this(
                 new MySqlSnapshotSplitAssigner(
                         sourceConfig, currentParallelism, remainingTables, isTableIdCaseSensitive),
+                sourceConfig,
+                currentParallelism,
                 false,
-                sourceConfig.getSplitMetaGroupSize());
+                Collections.emptySet());
     }
 
     public MySqlHybridSplitAssigner(
@@ -78,22 +129,39 @@ public class MySqlHybridSplitAssigner implements MySqlSplitAssigner {
         this(
                 new MySqlSnapshotSplitAssigner(
                         sourceConfig, currentParallelism, checkpoint.getSnapshotPendingSplits()),
+                sourceConfig,
+                currentParallelism,
                 checkpoint.isBinlogSplitAssigned(),
-                sourceConfig.getSplitMetaGroupSize());
+                checkpoint.getAssignedBinlogSplits());
     }
 
     private MySqlHybridSplitAssigner(
             MySqlSnapshotSplitAssigner snapshotSplitAssigner,
+            MySqlSourceConfig sourceConfig,
+            int currentParallelism,
             boolean isBinlogSplitAssigned,
-            int splitMetaGroupSize) {
+            Set<String> assignedBinlogSplits) {
         this.snapshotSplitAssigner = snapshotSplitAssigner;
-        this.isBinlogSplitAssigned = isBinlogSplitAssigned;
-        this.splitMetaGroupSize = splitMetaGroupSize;
+        this.sourceConfig = sourceConfig;
+        this.binlogSplitNumber = sourceConfig.getBinlogSplitNumber();
+        this.assignedBinlogSplits = new HashSet<>(assignedBinlogSplits);
+        if (isBinlogSplitAssigned) {
+            markBinlogSplitsAssigned();
+        }
+        this.splitMetaGroupSize = sourceConfig.getSplitMetaGroupSize();
+        // the reader holding the early started binlog split can't read snapshot splits anymore
+        this.isBinlogEarlyStartEnabled =
+                sourceConfig.isBinlogEarlyStartEnabled() && currentParallelism > 1;
     }
 
     @Override
     public void open() {
         snapshotSplitAssigner.open();
+        // the finished splits in the restored state have been confirmed by the checkpoint
+        makeFinishedSplitsVisible(snapshotSplitAssigner.getSplitFinishedOffsets().keySet());
+        if (isBinlogEarlyStartEnabled) {
+            onLatestBinlogOffset(readCurrentBinlogOffset());
+        }
     }
 
     @Override
@@ -102,20 +170,29 @@ public class MySqlHybridSplitAssigner implements MySqlSplitAssigner {
             // do not assign split until the assigner received SuspendBinlogReaderAckEvent
             return Optional.empty();
         }
+        if (isBinlogEarlyStarting()) {
+            markBinlogSplitsAssigned();
+            return Optional.of(createEarlyStartedBinlogSplit());
+        }
         if (snapshotSplitAssigner.noMoreSplits()) {
             // binlog split assigning
-            if (isBinlogSplitAssigned) {
+            if (isBinlogSplitAssigned()) {
                 // no more splits for the assigner
                 return Optional.empty();
             } else if (isInitialAssigningFinished(snapshotSplitAssigner.getAssignerStatus())) {
                 // we need to wait snapshot-assigner to be finished before
                 // assigning the binlog split. Otherwise, records emitted from binlog split
                 // might be out-of-order in terms of same primary key with snapshot splits.
-                isBinlogSplitAssigned = true;
-                return Optional.of(createBinlogSplit());
+                for (int group = 0; group < binlogSplitNumber; group++) {
+                    final String splitId = binlogSplitId(group);
+                    if (assignedBinlogSplits.add(splitId)) {
+                        return Optional.of(createBinlogSplit(splitId));
+                    }
+                }
+                return Optional.empty();
             } else if (isNewlyAddedAssigningFinished(snapshotSplitAssigner.getAssignerStatus())) {
                 // do not need to create binlog, but send event to wake up the binlog reader
-                isBinlogSplitAssigned = true;
+                markBinlogSplitsAssigned();
                 return Optional.empty();
             } else {
                 // binlog split is not ready by now
@@ -123,7 +200,11 @@ public class MySqlHybridSplitAssigner implements MySqlSplitAssigner {
             }
         } else {
             // snapshot assigner still have remaining splits, assign split from it
-            return snapshotSplitAssigner.getNext();
+            Optional<MySqlSplit> split = snapshotSplitAssigner.getNext();
+            if (latestBinlogOffset != null && split.isPresent()) {
+                splitAssignedOffsets.put(split.get().splitId(), latestBinlogOffset);
+            }
+            return split;
         }
     }
 
@@ -132,6 +213,11 @@ public class MySqlHybridSplitAssigner implements MySqlSplitAssigner {
         return snapshotSplitAssigner.waitingForFinishedSplits();
     }
 
+    @Override
+    public boolean noMoreSplits() {
+        return isBinlogSplitAssigned() && snapshotSplitAssigner.noMoreSplits();
+    }
+
     @Override
     public List<FinishedSnapshotSplitInfo> getFinishedSplitInfos() {
         return snapshotSplitAssigner.getFinishedSplitInfos();
@@ -140,6 +226,10 @@ public class MySqlHybridSplitAssigner implements MySqlSplitAssigner {
     @Override
     public void onFinishedSplits(Map<String, BinlogOffset> splitFinishedOffsets) {
         snapshotSplitAssigner.onFinishedSplits(splitFinishedOffsets);
+        if (sourceConfig.getStopOptions().isBounded()) {
+            // the bounded source may run without checkpoints, the fence must move without them
+            makeFinishedSplitsVisible(splitFinishedOffsets.keySet());
+        }
     }
 
     @Override
@@ -150,21 +240,47 @@ public class MySqlHybridSplitAssigner implements MySqlSplitAssigner {
                 snapshotSplits.add(split);
             } else {
                 // we don't store the split, but will re-create binlog split later
-                isBinlogSplitAssigned = false;
+                assignedBinlogSplits.remove(split.splitId());
             }
         }
         snapshotSplitAssigner.addSplits(snapshotSplits);
+        for (MySqlSplit split : snapshotSplits) {
+            splitAssignedOffsets.remove(split.splitId());
+        }
     }
 
     @Override
     public PendingSplitsState snapshotState(long checkpointId) {
-        return new HybridPendingSplitsState(
-                snapshotSplitAssigner.snapshotState(checkpointId), isBinlogSplitAssigned);
+        if (isBinlogSplitFenced()) {
+            List<String> finishedSplits = new ArrayList<>();
+            for (String splitId : snapshotSplitAssigner.getSplitFinishedOffsets().keySet()) {
+                if (!visibleFinishedSplits.contains(splitId)) {
+                    finishedSplits.add(splitId);
+                }
+            }
+            finishedSplitsToBeVisible.put(checkpointId, finishedSplits);
+        }
+        final SnapshotPendingSplitsState snapshotState =
+                snapshotSplitAssigner.snapshotState(checkpointId);
+        return isBinlogSplitAssigned()
+                ? new HybridPendingSplitsState(snapshotState, true)
+                : new HybridPendingSplitsState(
+                        snapshotState, false, new HashSet<>(assignedBinlogSplits));
     }
 
     @Override
     public void notifyCheckpointComplete(long checkpointId) {
         snapshotSplitAssigner.notifyCheckpointComplete(checkpointId);
+        if (!finishedSplitsToBeVisible.isEmpty()) {
+            // the records of the splits finished before the checkpoint have been processed by
+            // the downstream, their binlog records can be emitted without breaking the order
+            Iterator<Map.Entry<Long, List<String>>> iterator =
+                    finishedSplitsToBeVisible.headMap(checkpointId, true).entrySet().iterator();
+            while (iterator.hasNext()) {
+                makeFinishedSplitsVisible(iterator.next().getValue());
+                iterator.remove();
+            }
+        }
     }
 
     @Override
@@ -185,11 +301,170 @@ public class MySqlHybridSplitAssigner implements MySqlSplitAssigner {
     @Override
     public void close() {
         snapshotSplitAssigner.close();
+        closeBinlogOffsetConnection();
     }
 
     // --------------------------------------------------------------------------------------------
+    // Methods for the fenced binlog split, see MySqlBinlogSplit#isFenced()
+    // --------------------------------------------------------------------------------------------
+
+    public boolean isBinlogEarlyStartEnabled() {
+        return isBinlogEarlyStartEnabled;
+    }
+
+    /**
+     * Returns whether the binlog split is fenced by the snapshot splits being read. The
+     * finished splits are tracked even if the early start is disabled, because the binlog split
+     * restored from the checkpoint may be started early by the previous execution.
+     */
+    public boolean isBinlogSplitFenced() {
+        final AssignerStatus assignerStatus = getAssignerStatus();
+        return assignerStatus == INITIAL_ASSIGNING
+                || (assignerStatus == NEWLY_ADDED_ASSIGNING && isBinlogEarlyStartEnabled);
+    }
+
+    /**
+     * Returns the tables fenced by the fence offset, i.e. the tables that have snapshot splits
+     * unassigned or not visible yet. The binlog split keeps reading the other tables, including
+     * the tables created after the captured tables were discovered, which have no snapshot split
+     * and are read from the binlog only.
+     */
+    public List<TableId> getFencedTables() {
+        final Set<TableId> fencedTables = snapshotSplitAssigner.getUnassignedTables();
+        for (MySqlSnapshotSplit split : snapshotSplitAssigner.getAssignedSplits().values()) {
+            if (!visibleFinishedSplits.contains(split.splitId())) {
+                fencedTables.add(split.getTableId());
+            }
+        }
+        return new ArrayList<>(fencedTables);
+    }
+
+    /**
+     * Reads the current binlog offset of the server, the snapshot splits assigned after that have
+     * their low watermarks not before the offset. It's safe to be called from other threads, the
+     * connection is kept for the following calls and reopened by the next call after a failure.
+     */
+    public synchronized BinlogOffset readCurrentBinlogOffset() {
+        try {
+            if (binlogOffsetConnection == null) {
+                binlogOffsetConnection = DebeziumUtils.openJdbcConnection(sourceConfig);
+            }
+            return DebeziumUtils.currentBinlogOffset(binlogOffsetConnection);
+        } catch (Exception e) {
+            closeBinlogOffsetConnection();
+            throw new FlinkRuntimeException("Read the binlog offset error", e);
+        }
+    }
+
+    private synchronized void closeBinlogOffsetConnection() {
+        if (binlogOffsetConnection != null) {
+            try {
+                binlogOffsetConnection.close();
+            } catch (Exception e) {
+                LOG.warn("Failed to close the connection reading the binlog offset", e);
+            }
+            binlogOffsetConnection = null;
+        }
+    }
+
+    public void onLatestBinlogOffset(BinlogOffset binlogOffset) {
+        if (latestBinlogOffset == null || binlogOffset.isAfter(latestBinlogOffset)) {
+            latestBinlogOffset = binlogOffset;
+        }
+    }
+
+    /**
+     * Returns the finished splits confirmed by a complete checkpoint, in the order they became
+     * visible. The splits confirmed by the same checkpoint are ordered by their high watermarks.
+     */
+    public List<FinishedSnapshotSplitInfo> getVisibleFinishedSplitInfos() {
+        return visibleFinishedSplitInfos;
+    }
+
+    /**
+     * Returns the fence offset of the fenced binlog split. A binlog event not after the
+     * fence offset is either covered by the visible finished splits or read by a snapshot split
+     * which is not visible yet, because such a split is unassigned or was assigned after the
+     * event, i.e. its low watermark is not before the event.
+     */
+    @Nullable
+    public BinlogOffset getBinlogFenceOffset() {
+        if (latestBinlogOffset == null) {
+            // the binlog offset is not read if the early start is disabled
+            return null;
+        }
+        BinlogOffset fenceOffset = latestBinlogOffset;
+        for (String splitId : snapshotSplitAssigner.getAssignedSplits().keySet()) {
+            if (!visibleFinishedSplits.contains(splitId)) {
+                // the splits restored from checkpoint are re-read after the assigner opened
+                BinlogOffset assignedOffset =
+                        splitAssignedOffsets.getOrDefault(splitId, latestBinlogOffset);
+                if (assignedOffset.isBefore(fenceOffset)) {
+                    fenceOffset = assignedOffset;
+                }
+            }
+        }
+        return fenceOffset;
+    }
+
+    private boolean isBinlogEarlyStarting() {
+        return isBinlogEarlyStartEnabled && !isBinlogSplitAssigned() && isBinlogSplitFenced();
+    }
+
+    private boolean isBinlogSplitAssigned() {
+        return assignedBinlogSplits.size() >= binlogSplitNumber;
+    }
+
+    private void markBinlogSplitsAssigned() {
+        for (int group = 0; group < binlogSplitNumber; group++) {
+            assignedBinlogSplits.add(binlogSplitId(group));
+        }
+    }
+
+    private void makeFinishedSplitsVisible(Collection<String> finishedSplits) {
+        final Map<String, MySqlSnapshotSplit> assignedSplits =
+                snapshotSplitAssigner.getAssignedSplits();
+        final Map<String, BinlogOffset> splitFinishedOffsets =
+                snapshotSplitAssigner.getSplitFinishedOffsets();
+        finishedSplits.stream()
+                .filter(splitId -> !visibleFinishedSplits.contains(splitId))
+                .filter(splitFinishedOffsets::containsKey)
+                .sorted(
+                        Comparator.comparing((String splitId) -> splitFinishedOffsets.get(splitId))
+                                .thenComparing(Comparator.naturalOrder()))
+                .map(assignedSplits::get)
+                .filter(Objects::nonNull)
+                .forEach(
+                        split -> {
+                            visibleFinishedSplits.add(split.splitId());
+                            splitAssignedOffsets.remove(split.splitId());
+                            visibleFinishedSplitInfos.add(
+                                    new FinishedSnapshotSplitInfo(
+                                            split.getTableId(),
+                                            split.splitId(),
+                                            split.getSplitStart(),
+                                            split.getSplitEnd(),
+                                            splitFinishedOffsets.get(split.splitId())));
+                        });
+    }
+
+    private MySqlBinlogSplit createEarlyStartedBinlogSplit() {
+        // start from the fence offset, it's not after the high watermark of any unfinished split
+        BinlogOffset startingOffset = getBinlogFenceOffset();
+        for (BinlogOffset highWatermark :
+                snapshotSplitAssigner.getSplitFinishedOffsets().values()) {
+            if (highWatermark.isBefore(startingOffset)) {
+                startingOffset = highWatermark;
+            }
+        }
+        LOG.info("Assign the early started binlog split from offset {}.", startingOffset);
+        return MySqlBinlogSplit.createFencedBinlogSplit(
+                binlogSplitId(0),
+                startingOffset,
+                DebeziumUtils.stoppingBinlogOffset(sourceConfig));
+    }
 
-    private MySqlBinlogSplit createBinlogSplit() {
+    private MySqlBinlogSplit createBinlogSplit(String splitId) {
         final List<MySqlSnapshotSplit> assignedSnapshotSplit =
                 snapshotSplitAssigner.getAssignedSplits().values().stream()
                         .sorted(Comparator.comparing(MySqlSplit::splitId))
@@ -220,9 +495,9 @@ public class MySqlHybridSplitAssigner implements MySqlSplitAssigner {
 
         boolean divideMetaToGroups = finishedSnapshotSplitInfos.size() > splitMetaGroupSize;
         return new MySqlBinlogSplit(
-                BINLOG_SPLIT_ID,
+                splitId,
                 minBinlogOffset == null ? BinlogOffset.INITIAL_OFFSET : minBinlogOffset,
-                BinlogOffset.NO_STOPPING_OFFSET,
+                DebeziumUtils.stoppingBinlogOffset(sourceConfig),
                 divideMetaToGroups ? new ArrayList<>() : finishedSnapshotSplitInfos,
                 new HashMap<>(),
                 finishedSnapshotSplitInfos.size());
@@ -47,10 +47,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -181,6 +183,13 @@ public class MySqlSnapshotSplitAssigner implements MySqlSplitAssigner {
                         LOG.info(
                                 "Found newly added tables, start capture newly added tables process under binlog reading phase");
                         this.suspend();
+                        if (sourceConfig.isBinlogEarlyStartEnabled() && currentParallelism > 1) {
+                            // the binlog split keeps running and is fenced by the newly added
+                            // tables, needn't wait for the binlog reader to be suspended
+                            LOG.info(
+                                    "Capture newly added tables without suspending the binlog reader");
+                            this.wakeup();
+                        }
                     }
                 }
             } catch (Exception e) {
@@ -271,6 +280,12 @@ public class MySqlSnapshotSplitAssigner implements MySqlSplitAssigner {
                 assignerStatus = assignerStatus.onFinish();
                 LOG.info(
                         "Snapshot split assigner received all splits finished and the job parallelism is 1, snapshot split assigner is turn into finished status.");
+            } else if (sourceConfig.getStopOptions().isBounded()) {
+                // a bounded source may run without checkpoints, e.g. in batch execution mode,
+                // the binlog split would never be assigned if it waited for a checkpoint
+                assignerStatus = assignerStatus.onFinish();
+                LOG.info(
+                        "Snapshot split assigner received all splits finished and the source is bounded, snapshot split assigner is turn into finished status.");
             } else {
                 LOG.info(
                         "Snapshot split assigner received all splits finished, waiting for a complete checkpoint to mark the assigner finished.");
@@ -362,10 +377,22 @@ public class MySqlSnapshotSplitAssigner implements MySqlSplitAssigner {
     }
 
     /** Indicates there is no more splits available in this assigner. */
+    @Override
     public boolean noMoreSplits() {
         return remainingTables.isEmpty() && remainingSplits.isEmpty();
     }
 
+    /** Returns the tables which have splits not assigned yet or are waiting to be split. */
+    public Set<TableId> getUnassignedTables() {
+        synchronized (lock) {
+            final Set<TableId> unassignedTables = new HashSet<>(remainingTables);
+            for (MySqlSnapshotSplit split : remainingSplits) {
+                unassignedTables.add(split.getTableId());
+            }
+            return unassignedTables;
+        }
+    }
+
     public Map<String, MySqlSnapshotSplit> getAssignedSplits() {
         return assignedSplits;
     }
@@ -55,6 +55,12 @@ public interface MySqlSplitAssigner {
      */
     boolean waitingForFinishedSplits();
 
+    /**
+     * Whether all the splits have been assigned by this assigner. The readers of a bounded source
+     * finish after reading their assigned splits then.
+     */
+    boolean noMoreSplits();
+
     /**
      * Gets the finished splits information. This is useful meta data to generate a binlog split
      * that considering finished snapshot splits.
@@ -18,21 +18,39 @@
 
 package cn.tenmg.cdc.log.connectors.mysql.source.assigners.state;
 
+import java.util.Collections;
 import java.util.Objects;
+import java.util.Set;
 
 /** A {@link PendingSplitsState} for pending binlog splits. */
 public class BinlogPendingSplitsState extends PendingSplitsState {
 
     private final boolean isBinlogSplitAssigned;
 
+    /**
+     * The ids of the binlog splits assigned already when the binlog phase is split into several
+     * table groups and not all of them are assigned, empty otherwise.
+     */
+    private final Set<String> assignedBinlogSplits;
+
     public BinlogPendingSplitsState(boolean isBinlogSplitAssigned) {
+        this(isBinlogSplitAssigned, Collections.emptySet());
+    }
+
+    public BinlogPendingSplitsState(
+            boolean isBinlogSplitAssigned, Set<String> assignedBinlogSplits) {
         this.isBinlogSplitAssigned = isBinlogSplitAssigned;
+        this.assignedBinlogSplits = assignedBinlogSplits;
     }
 
     public boolean isBinlogSplitAssigned() {
         return isBinlogSplitAssigned;
     }
 
+    public Set<String> getAssignedBinlogSplits() {
+        return assignedBinlogSplits;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -42,16 +60,22 @@ public class BinlogPendingSplitsState extends PendingSplitsState {
             return false;
         }
         BinlogPendingSplitsState that = (BinlogPendingSplitsState) o;
-        return isBinlogSplitAssigned == that.isBinlogSplitAssigned;
+        return isBinlogSplitAssigned == that.isBinlogSplitAssigned
+                && Objects.equals(assignedBinlogSplits, that.assignedBinlogSplits);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(isBinlogSplitAssigned);
+        return Objects.hash(isBinlogSplitAssigned, assignedBinlogSplits);
     }
 
     @Override
     public String toString() {
-        return "BinlogPendingSplitsState{" + "isBinlogSplitAssigned=" + isBinlogSplitAssigned + '}';
+        return "BinlogPendingSplitsState{"
+                + "isBinlogSplitAssigned="
+                + isBinlogSplitAssigned
+                + ", assignedBinlogSplits="
+                + assignedBinlogSplits
+                + '}';
     }
 }
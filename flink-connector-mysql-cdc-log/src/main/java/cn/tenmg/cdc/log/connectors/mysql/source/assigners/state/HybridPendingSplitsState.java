@@ -18,17 +18,28 @@
 
 package cn.tenmg.cdc.log.connectors.mysql.source.assigners.state;
 
+import java.util.Collections;
 import java.util.Objects;
+import java.util.Set;
 
 /** A {@link PendingSplitsState} for pending hybrid (snapshot & binlog) splits. */
 public class HybridPendingSplitsState extends PendingSplitsState {
     private final SnapshotPendingSplitsState snapshotPendingSplits;
     private final boolean isBinlogSplitAssigned;
+    private final Set<String> assignedBinlogSplits;
 
     public HybridPendingSplitsState(
             SnapshotPendingSplitsState snapshotPendingSplits, boolean isBinlogSplitAssigned) {
+        this(snapshotPendingSplits, isBinlogSplitAssigned, Collections.emptySet());
+    }
+
+    public HybridPendingSplitsState(
+            SnapshotPendingSplitsState snapshotPendingSplits,
+            boolean isBinlogSplitAssigned,
+            Set<String> assignedBinlogSplits) {
         this.snapshotPendingSplits = snapshotPendingSplits;
         this.isBinlogSplitAssigned = isBinlogSplitAssigned;
+        this.assignedBinlogSplits = assignedBinlogSplits;
     }
 
     public SnapshotPendingSplitsState getSnapshotPendingSplits() {
@@ -39,6 +50,14 @@ public class HybridPendingSplitsState extends PendingSplitsState {
         return isBinlogSplitAssigned;
     }
 
+    /**
+     * Returns the ids of the binlog splits assigned already when the binlog phase is split into
+     * several table groups and not all of them are assigned, empty otherwise.
+     */
+    public Set<String> getAssignedBinlogSplits() {
+        return assignedBinlogSplits;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -49,12 +68,13 @@ public class HybridPendingSplitsState extends PendingSplitsState {
         }
         HybridPendingSplitsState that = (HybridPendingSplitsState) o;
         return isBinlogSplitAssigned == that.isBinlogSplitAssigned
-                && Objects.equals(snapshotPendingSplits, that.snapshotPendingSplits);
+                && Objects.equals(snapshotPendingSplits, that.snapshotPendingSplits)
+                && Objects.equals(assignedBinlogSplits, that.assignedBinlogSplits);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(snapshotPendingSplits, isBinlogSplitAssigned);
+        return Objects.hash(snapshotPendingSplits, isBinlogSplitAssigned, assignedBinlogSplits);
     }
 
     @Override
@@ -64,6 +84,8 @@ public class HybridPendingSplitsState extends PendingSplitsState {
                 + snapshotPendingSplits
                 + ", isBinlogSplitAssigned="
                 + isBinlogSplitAssigned
+                + ", assignedBinlogSplits="
+                + assignedBinlogSplits
                 + '}';
     }
 }
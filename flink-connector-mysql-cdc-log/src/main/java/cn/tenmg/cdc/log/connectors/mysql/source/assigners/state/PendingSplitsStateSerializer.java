@@ -34,9 +34,12 @@ import static cn.tenmg.cdc.log.connectors.mysql.source.utils.SerializerUtils.wri
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The {@link SimpleVersionedSerializer Serializer} for the {@link PendingSplitsState} of MySQL CDC
@@ -44,7 +47,7 @@ import java.util.Map;
  */
 public class PendingSplitsStateSerializer implements SimpleVersionedSerializer<PendingSplitsState> {
 
-    private static final int VERSION = 3;
+    private static final int VERSION = 5;
     private static final ThreadLocal<DataOutputSerializer> SERIALIZER_CACHE =
             ThreadLocal.withInitial(() -> new DataOutputSerializer(64));
 
@@ -103,7 +106,8 @@ public class PendingSplitsStateSerializer implements SimpleVersionedSerializer<P
                 return deserializeLegacyPendingSplitsState(serialized);
             case 3:
             case 4:
-                return deserializePendingSplitsState(serialized);
+            case 5:
+                return deserializePendingSplitsState(version, serialized);
             default:
                 throw new IOException("Unknown version: " + version);
         }
@@ -127,15 +131,20 @@ public class PendingSplitsStateSerializer implements SimpleVersionedSerializer<P
     }
 
     public PendingSplitsState deserializePendingSplitsState(byte[] serialized) throws IOException {
+        return deserializePendingSplitsState(VERSION, serialized);
+    }
+
+    public PendingSplitsState deserializePendingSplitsState(int version, byte[] serialized)
+            throws IOException {
         final DataInputDeserializer in = new DataInputDeserializer(serialized);
         final int splitVersion = in.readInt();
         final int stateFlag = in.readInt();
         if (stateFlag == SNAPSHOT_PENDING_SPLITS_STATE_FLAG) {
             return deserializeSnapshotPendingSplitsState(splitVersion, in);
         } else if (stateFlag == HYBRID_PENDING_SPLITS_STATE_FLAG) {
-            return deserializeHybridPendingSplitsState(splitVersion, in);
+            return deserializeHybridPendingSplitsState(version, splitVersion, in);
         } else if (stateFlag == BINLOG_PENDING_SPLITS_STATE_FLAG) {
-            return deserializeBinlogPendingSplitsState(in);
+            return deserializeBinlogPendingSplitsState(version, in);
         } else {
             throw new IOException(
                     "Unsupported to deserialize PendingSplitsState flag: " + stateFlag);
@@ -161,11 +170,13 @@ public class PendingSplitsStateSerializer implements SimpleVersionedSerializer<P
             HybridPendingSplitsState state, DataOutputSerializer out) throws IOException {
         serializeSnapshotPendingSplitsState(state.getSnapshotPendingSplits(), out);
         out.writeBoolean(state.isBinlogSplitAssigned());
+        writeSplitIds(state.getAssignedBinlogSplits(), out);
     }
 
     private void serializeBinlogPendingSplitsState(
             BinlogPendingSplitsState state, DataOutputSerializer out) throws IOException {
         out.writeBoolean(state.isBinlogSplitAssigned());
+        writeSplitIds(state.getAssignedBinlogSplits(), out);
     }
 
     // ------------------------------------------------------------------------------------------
@@ -238,11 +249,14 @@ public class PendingSplitsStateSerializer implements SimpleVersionedSerializer<P
     }
 
     private HybridPendingSplitsState deserializeHybridPendingSplitsState(
-            int splitVersion, DataInputDeserializer in) throws IOException {
+            int version, int splitVersion, DataInputDeserializer in) throws IOException {
         SnapshotPendingSplitsState snapshotPendingSplitsState =
                 deserializeSnapshotPendingSplitsState(splitVersion, in);
         boolean isBinlogSplitAssigned = in.readBoolean();
-        return new HybridPendingSplitsState(snapshotPendingSplitsState, isBinlogSplitAssigned);
+        Set<String> assignedBinlogSplits =
+                version >= 5 ? readSplitIds(in) : Collections.emptySet();
+        return new HybridPendingSplitsState(
+                snapshotPendingSplitsState, isBinlogSplitAssigned, assignedBinlogSplits);
     }
 
     private BinlogPendingSplitsState deserializeBinlogPendingSplitsState(DataInputDeserializer in)
@@ -250,6 +264,14 @@ public class PendingSplitsStateSerializer implements SimpleVersionedSerializer<P
         return new BinlogPendingSplitsState(in.readBoolean());
     }
 
+    private BinlogPendingSplitsState deserializeBinlogPendingSplitsState(
+            int version, DataInputDeserializer in) throws IOException {
+        boolean isBinlogSplitAssigned = in.readBoolean();
+        Set<String> assignedBinlogSplits =
+                version >= 5 ? readSplitIds(in) : Collections.emptySet();
+        return new BinlogPendingSplitsState(isBinlogSplitAssigned, assignedBinlogSplits);
+    }
+
     // ------------------------------------------------------------------------------------------
     // Utilities
     // ------------------------------------------------------------------------------------------
@@ -331,6 +353,23 @@ public class PendingSplitsStateSerializer implements SimpleVersionedSerializer<P
         return splitSerializer.deserialize(splitVersion, splitBytes);
     }
 
+    private void writeSplitIds(Collection<String> splitIds, DataOutputSerializer out)
+            throws IOException {
+        out.writeInt(splitIds.size());
+        for (String splitId : splitIds) {
+            out.writeUTF(splitId);
+        }
+    }
+
+    private Set<String> readSplitIds(DataInputDeserializer in) throws IOException {
+        Set<String> splitIds = new HashSet<>();
+        final int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            splitIds.add(in.readUTF());
+        }
+        return splitIds;
+    }
+
     private void writeTableIds(Collection<TableId> tableIds, DataOutputSerializer out)
             throws IOException {
         final int size = tableIds.size();
@@ -18,6 +18,8 @@
 
 package cn.tenmg.cdc.log.connectors.mysql.source.config;
 
+import org.apache.flink.configuration.MemorySize;
+
 import io.debezium.config.Configuration;
 import io.debezium.connector.mysql.MySqlConnectorConfig;
 import io.debezium.relational.RelationalTableFilters;
@@ -26,6 +28,7 @@ import javax.annotation.Nullable;
 
 import cn.tenmg.cdc.log.connectors.mysql.source.MySqlSource;
 import cn.tenmg.cdc.log.connectors.mysql.table.StartupOptions;
+import cn.tenmg.cdc.log.connectors.mysql.table.StopOptions;
 
 import java.io.Serializable;
 import java.time.Duration;
@@ -46,8 +49,27 @@ public class MySqlSourceConfig implements Serializable {
     private final List<String> tableList;
     @Nullable private final ServerIdRange serverIdRange;
     private final StartupOptions startupOptions;
+    private final StopOptions stopOptions;
     private final int splitSize;
     private final int splitMetaGroupSize;
+    private final int chunkPageSize;
+    private final boolean backfillSkipCheckEnabled;
+    private final int chunkPrefetchSize;
+    private final boolean binlogEarlyStartEnabled;
+    private final boolean skipSnapshotBackfill;
+    private final boolean lazySchemaLoadingEnabled;
+    private final boolean bulkTableDiscoveryEnabled;
+    private final int deserializationParallelism;
+    private final int binlogSplitNumber;
+    private final boolean sharedBinlogConnectionEnabled;
+    private final boolean binlogSpoolEnabled;
+    @Nullable private final String binlogSpoolDir;
+    private final MemorySize binlogSpoolMaxSize;
+    private final MemorySize binlogSpoolSegmentSize;
+    private final MemorySize binlogHandoffMaxSize;
+    private final Duration batchTargetLatency;
+    private final boolean minimalRowImageEnabled;
+    private final int minimalRowImageCacheSize;
     private final int fetchSize;
     private final String serverTimeZone;
     private final Duration connectTimeout;
@@ -75,8 +97,27 @@ public class MySqlSourceConfig implements Serializable {
             List<String> tableList,
             @Nullable ServerIdRange serverIdRange,
             StartupOptions startupOptions,
+            StopOptions stopOptions,
             int splitSize,
             int splitMetaGroupSize,
+            int chunkPageSize,
+            boolean backfillSkipCheckEnabled,
+            int chunkPrefetchSize,
+            boolean binlogEarlyStartEnabled,
+            boolean skipSnapshotBackfill,
+            boolean lazySchemaLoadingEnabled,
+            boolean bulkTableDiscoveryEnabled,
+            int deserializationParallelism,
+            int binlogSplitNumber,
+            boolean sharedBinlogConnectionEnabled,
+            boolean binlogSpoolEnabled,
+            @Nullable String binlogSpoolDir,
+            MemorySize binlogSpoolMaxSize,
+            MemorySize binlogSpoolSegmentSize,
+            MemorySize binlogHandoffMaxSize,
+            Duration batchTargetLatency,
+            boolean minimalRowImageEnabled,
+            int minimalRowImageCacheSize,
             int fetchSize,
             String serverTimeZone,
             Duration connectTimeout,
@@ -96,8 +137,27 @@ public class MySqlSourceConfig implements Serializable {
         this.tableList = checkNotNull(tableList);
         this.serverIdRange = serverIdRange;
         this.startupOptions = checkNotNull(startupOptions);
+        this.stopOptions = checkNotNull(stopOptions);
         this.splitSize = splitSize;
         this.splitMetaGroupSize = splitMetaGroupSize;
+        this.chunkPageSize = chunkPageSize;
+        this.backfillSkipCheckEnabled = backfillSkipCheckEnabled;
+        this.chunkPrefetchSize = chunkPrefetchSize;
+        this.binlogEarlyStartEnabled = binlogEarlyStartEnabled;
+        this.skipSnapshotBackfill = skipSnapshotBackfill;
+        this.lazySchemaLoadingEnabled = lazySchemaLoadingEnabled;
+        this.bulkTableDiscoveryEnabled = bulkTableDiscoveryEnabled;
+        this.deserializationParallelism = deserializationParallelism;
+        this.binlogSplitNumber = binlogSplitNumber;
+        this.sharedBinlogConnectionEnabled = sharedBinlogConnectionEnabled;
+        this.binlogSpoolEnabled = binlogSpoolEnabled;
+        this.binlogSpoolDir = binlogSpoolDir;
+        this.binlogSpoolMaxSize = checkNotNull(binlogSpoolMaxSize);
+        this.binlogSpoolSegmentSize = checkNotNull(binlogSpoolSegmentSize);
+        this.binlogHandoffMaxSize = checkNotNull(binlogHandoffMaxSize);
+        this.batchTargetLatency = checkNotNull(batchTargetLatency);
+        this.minimalRowImageEnabled = minimalRowImageEnabled;
+        this.minimalRowImageCacheSize = minimalRowImageCacheSize;
         this.fetchSize = fetchSize;
         this.serverTimeZone = checkNotNull(serverTimeZone);
         this.connectTimeout = checkNotNull(connectTimeout);
@@ -146,6 +206,10 @@ public class MySqlSourceConfig implements Serializable {
         return startupOptions;
     }
 
+    public StopOptions getStopOptions() {
+        return stopOptions;
+    }
+
     public int getSplitSize() {
         return splitSize;
     }
@@ -154,6 +218,79 @@ public class MySqlSourceConfig implements Serializable {
         return splitMetaGroupSize;
     }
 
+    public int getChunkPageSize() {
+        return chunkPageSize;
+    }
+
+    public boolean isBackfillSkipCheckEnabled() {
+        return backfillSkipCheckEnabled;
+    }
+
+    public int getChunkPrefetchSize() {
+        return chunkPrefetchSize;
+    }
+
+    public boolean isBinlogEarlyStartEnabled() {
+        return binlogEarlyStartEnabled;
+    }
+
+    public boolean isSkipSnapshotBackfill() {
+        return skipSnapshotBackfill;
+    }
+
+    public boolean isLazySchemaLoadingEnabled() {
+        return lazySchemaLoadingEnabled;
+    }
+
+    public boolean isBulkTableDiscoveryEnabled() {
+        return bulkTableDiscoveryEnabled;
+    }
+
+    public int getDeserializationParallelism() {
+        return deserializationParallelism;
+    }
+
+    public int getBinlogSplitNumber() {
+        return binlogSplitNumber;
+    }
+
+    public boolean isSharedBinlogConnectionEnabled() {
+        return sharedBinlogConnectionEnabled;
+    }
+
+    public boolean isBinlogSpoolEnabled() {
+        return binlogSpoolEnabled;
+    }
+
+    @Nullable
+    public String getBinlogSpoolDir() {
+        return binlogSpoolDir;
+    }
+
+    public MemorySize getBinlogSpoolMaxSize() {
+        return binlogSpoolMaxSize;
+    }
+
+    public MemorySize getBinlogSpoolSegmentSize() {
+        return binlogSpoolSegmentSize;
+    }
+
+    public MemorySize getBinlogHandoffMaxSize() {
+        return binlogHandoffMaxSize;
+    }
+
+    public Duration getBatchTargetLatency() {
+        return batchTargetLatency;
+    }
+
+    public boolean isMinimalRowImageEnabled() {
+        return minimalRowImageEnabled;
+    }
+
+    public int getMinimalRowImageCacheSize() {
+        return minimalRowImageCacheSize;
+    }
+
     public double getDistributionFactorUpper() {
         return distributionFactorUpper;
     }
@@ -19,10 +19,13 @@
 package cn.tenmg.cdc.log.connectors.mysql.source.config;
 
 import org.apache.flink.annotation.Internal;
+import org.apache.flink.configuration.MemorySize;
 
 import cn.tenmg.cdc.log.connectors.mysql.debezium.EmbeddedFlinkDatabaseHistory;
 import cn.tenmg.cdc.log.connectors.mysql.source.MySqlSource;
 import cn.tenmg.cdc.log.connectors.mysql.table.StartupOptions;
+import cn.tenmg.cdc.log.connectors.mysql.table.StopMode;
+import cn.tenmg.cdc.log.connectors.mysql.table.StopOptions;
 
 import java.io.Serializable;
 import java.time.Duration;
@@ -31,6 +34,7 @@ import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
 
+import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 
 /** A factory to construct {@link MySqlSourceConfig}. */
@@ -48,8 +52,43 @@ public class MySqlSourceConfigFactory implements Serializable {
     private List<String> tableList;
     private String serverTimeZone = MySqlSourceOptions.SERVER_TIME_ZONE.defaultValue();
     private StartupOptions startupOptions = StartupOptions.initial();
+    private StopOptions stopOptions = StopOptions.never();
     private int splitSize = MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_CHUNK_SIZE.defaultValue();
     private int splitMetaGroupSize = MySqlSourceOptions.CHUNK_META_GROUP_SIZE.defaultValue();
+    private int chunkPageSize =
+            MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_CHUNK_PAGE_SIZE.defaultValue();
+    private boolean backfillSkipCheckEnabled =
+            MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_BACKFILL_SKIP_CHECK_ENABLED.defaultValue();
+    private int chunkPrefetchSize =
+            MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_CHUNK_PREFETCH_SIZE.defaultValue();
+    private boolean binlogEarlyStartEnabled =
+            MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_BINLOG_EARLY_START_ENABLED.defaultValue();
+    private boolean skipSnapshotBackfill =
+            MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_BACKFILL_SKIP.defaultValue();
+    private boolean lazySchemaLoadingEnabled =
+            MySqlSourceOptions.SCAN_BINLOG_LAZY_SCHEMA_LOADING_ENABLED.defaultValue();
+    private boolean bulkTableDiscoveryEnabled =
+            MySqlSourceOptions.SCAN_BULK_TABLE_DISCOVERY_ENABLED.defaultValue();
+    private int deserializationParallelism =
+            MySqlSourceOptions.SCAN_DESERIALIZATION_PARALLELISM.defaultValue();
+    private int binlogSplitNumber = MySqlSourceOptions.SCAN_BINLOG_SPLIT_NUMBER.defaultValue();
+    private boolean sharedBinlogConnectionEnabled =
+            MySqlSourceOptions.SCAN_BINLOG_SHARED_CONNECTION_ENABLED.defaultValue();
+    private boolean binlogSpoolEnabled =
+            MySqlSourceOptions.SCAN_BINLOG_SPOOL_ENABLED.defaultValue();
+    private String binlogSpoolDir;
+    private MemorySize binlogSpoolMaxSize =
+            MySqlSourceOptions.SCAN_BINLOG_SPOOL_MAX_SIZE.defaultValue();
+    private MemorySize binlogSpoolSegmentSize =
+            MySqlSourceOptions.SCAN_BINLOG_SPOOL_SEGMENT_SIZE.defaultValue();
+    private MemorySize binlogHandoffMaxSize =
+            MySqlSourceOptions.SCAN_BINLOG_HANDOFF_MAX_SIZE.defaultValue();
+    private Duration batchTargetLatency =
+            MySqlSourceOptions.SCAN_BATCH_TARGET_LATENCY.defaultValue();
+    private boolean minimalRowImageEnabled =
+            MySqlSourceOptions.SCAN_BINLOG_MINIMAL_ROW_IMAGE_ENABLED.defaultValue();
+    private int minimalRowImageCacheSize =
+            MySqlSourceOptions.SCAN_BINLOG_MINIMAL_ROW_IMAGE_CACHE_SIZE.defaultValue();
     private int fetchSize = MySqlSourceOptions.SCAN_SNAPSHOT_FETCH_SIZE.defaultValue();
     private Duration connectTimeout = MySqlSourceOptions.CONNECT_TIMEOUT.defaultValue();
     private int connectMaxRetries = MySqlSourceOptions.CONNECT_MAX_RETRIES.defaultValue();
@@ -150,6 +189,157 @@ public class MySqlSourceConfigFactory implements Serializable {
         return this;
     }
 
+    /**
+     * The page size (number of rows) used to scan a split by keyset pagination, the split is read
+     * by a series of bounded queries between its low and high watermark. A non-positive value
+     * means the split is read by a single query.
+     */
+    public MySqlSourceConfigFactory chunkPageSize(int chunkPageSize) {
+        this.chunkPageSize = chunkPageSize;
+        return this;
+    }
+
+    /**
+     * Whether to check the table of a snapshot split has changes between its low and high
+     * watermark by the table map events tracked from the binlog, the backfill binlog read is
+     * skipped for the split when there is no change.
+     */
+    public MySqlSourceConfigFactory backfillSkipCheckEnabled(boolean backfillSkipCheckEnabled) {
+        this.backfillSkipCheckEnabled = backfillSkipCheckEnabled;
+        return this;
+    }
+
+    /**
+     * The max number of snapshot splits assigned to a reader at the same time, the reader queues
+     * the splits locally and needn't wait for the enumerator after a split finished.
+     */
+    public MySqlSourceConfigFactory chunkPrefetchSize(int chunkPrefetchSize) {
+        this.chunkPrefetchSize = chunkPrefetchSize;
+        return this;
+    }
+
+    /**
+     * Whether to start reading the binlog before all snapshot splits are finished, the changes of
+     * a snapshot split are emitted once the split is finished and confirmed by a checkpoint. It
+     * takes effect only when the source parallelism is greater than 1.
+     */
+    public MySqlSourceConfigFactory binlogEarlyStartEnabled(boolean binlogEarlyStartEnabled) {
+        this.binlogEarlyStartEnabled = binlogEarlyStartEnabled;
+        return this;
+    }
+
+    /**
+     * Whether to skip the binlog backfill of snapshot splits, the changes happened while scanning
+     * a split are read by the binlog split later, or never read in snapshot startup mode.
+     */
+    public MySqlSourceConfigFactory skipSnapshotBackfill(boolean skipSnapshotBackfill) {
+        this.skipSnapshotBackfill = skipSnapshotBackfill;
+        return this;
+    }
+
+    /**
+     * Whether to load the table schemas of the binlog split on demand, i.e. when the first binlog
+     * event of a table arrives, rather than discovering all captured tables up front.
+     */
+    public MySqlSourceConfigFactory lazySchemaLoadingEnabled(boolean lazySchemaLoadingEnabled) {
+        this.lazySchemaLoadingEnabled = lazySchemaLoadingEnabled;
+        return this;
+    }
+
+    /**
+     * Whether to discover the captured tables and their schemas from information_schema in bulk,
+     * rather than describing the databases and tables one by one.
+     */
+    public MySqlSourceConfigFactory bulkTableDiscoveryEnabled(boolean bulkTableDiscoveryEnabled) {
+        this.bulkTableDiscoveryEnabled = bulkTableDiscoveryEnabled;
+        return this;
+    }
+
+    /**
+     * The number of threads of a reader to deserialize the change records ahead of the emission,
+     * the records are still emitted in the binlog order.
+     */
+    public MySqlSourceConfigFactory deserializationParallelism(int deserializationParallelism) {
+        this.deserializationParallelism = deserializationParallelism;
+        return this;
+    }
+
+    /**
+     * The number of binlog splits, each split reads the changes of one hash group of the captured
+     * tables by its own binlog client and server id.
+     */
+    public MySqlSourceConfigFactory binlogSplitNumber(int binlogSplitNumber) {
+        this.binlogSplitNumber = binlogSplitNumber;
+        return this;
+    }
+
+    /**
+     * Whether to share one binlog connection among the binlog split readers of the same MySQL
+     * instance in a TaskManager, which start from the same binlog position.
+     */
+    public MySqlSourceConfigFactory sharedBinlogConnectionEnabled(
+            boolean sharedBinlogConnectionEnabled) {
+        this.sharedBinlogConnectionEnabled = sharedBinlogConnectionEnabled;
+        return this;
+    }
+
+    /**
+     * Whether to spool the binlog records to the local disk while the binlog reader is
+     * back-pressured, so the binlog keeps being read at full speed.
+     */
+    public MySqlSourceConfigFactory binlogSpoolEnabled(boolean binlogSpoolEnabled) {
+        this.binlogSpoolEnabled = binlogSpoolEnabled;
+        return this;
+    }
+
+    /** The local directory of the binlog spool, the temporary directory of the JVM by default. */
+    public MySqlSourceConfigFactory binlogSpoolDir(String binlogSpoolDir) {
+        this.binlogSpoolDir = binlogSpoolDir;
+        return this;
+    }
+
+    /** The max size of the binlog spool, the binlog reading is back-pressured beyond it. */
+    public MySqlSourceConfigFactory binlogSpoolMaxSize(MemorySize binlogSpoolMaxSize) {
+        this.binlogSpoolMaxSize = binlogSpoolMaxSize;
+        return this;
+    }
+
+    /** The size of a segment file of the binlog spool, a drained segment is deleted. */
+    public MySqlSourceConfigFactory binlogSpoolSegmentSize(MemorySize binlogSpoolSegmentSize) {
+        this.binlogSpoolSegmentSize = binlogSpoolSegmentSize;
+        return this;
+    }
+
+    /** The max size of the binlog records handed off to the reader but not polled yet. */
+    public MySqlSourceConfigFactory binlogHandoffMaxSize(MemorySize binlogHandoffMaxSize) {
+        this.binlogHandoffMaxSize = binlogHandoffMaxSize;
+        return this;
+    }
+
+    /**
+     * The target latency bound of batching the change records polled by the reader, the batch
+     * size follows the arrival rate of the records within it.
+     */
+    public MySqlSourceConfigFactory batchTargetLatency(Duration batchTargetLatency) {
+        this.batchTargetLatency = batchTargetLatency;
+        return this;
+    }
+
+    /**
+     * Whether to capture the MySQL server configured with binlog_row_image=MINIMAL or NOBLOB, the
+     * columns absent from the row images are marked rather than mistaken for nulls.
+     */
+    public MySqlSourceConfigFactory minimalRowImageEnabled(boolean minimalRowImageEnabled) {
+        this.minimalRowImageEnabled = minimalRowImageEnabled;
+        return this;
+    }
+
+    /** The max number of the last full row images merged into the partial row images. */
+    public MySqlSourceConfigFactory minimalRowImageCacheSize(int minimalRowImageCacheSize) {
+        this.minimalRowImageCacheSize = minimalRowImageCacheSize;
+        return this;
+    }
+
     /**
      * The upper bound of split key evenly distribution factor, the factor is used to determine
      * whether the table is evenly distribution or not.
@@ -217,7 +407,9 @@ public class MySqlSourceConfigFactory implements Serializable {
     public MySqlSourceConfigFactory startupOptions(StartupOptions startupOptions) {
         switch (startupOptions.startupMode) {
             case INITIAL:
+            case SNAPSHOT:
             case LATEST_OFFSET:
+            case TIMESTAMP:
                 break;
             default:
                 throw new UnsupportedOperationException(
@@ -227,6 +419,15 @@ public class MySqlSourceConfigFactory implements Serializable {
         return this;
     }
 
+    /**
+     * Specifies the stop options, the source is bounded and finishes once the binlog reading
+     * reaches the stop offset unless the stop mode is never.
+     */
+    public MySqlSourceConfigFactory stopOptions(StopOptions stopOptions) {
+        this.stopOptions = checkNotNull(stopOptions);
+        return this;
+    }
+
     public MySqlSourceConfigFactory heartbeatInterval(Duration heartbeatInterval) {
         this.heartbeatInterval = heartbeatInterval;
         return this;
@@ -300,6 +501,53 @@ public class MySqlSourceConfigFactory implements Serializable {
             jdbcProperties = new Properties();
         }
 
+        if (stopOptions.stopMode == StopMode.TIMESTAMP) {
+            // an idle server has no binlog event to reach the stop timestamp but the heartbeats
+            checkArgument(
+                    Long.parseLong(props.getProperty("heartbeat.interval.ms")) > 0,
+                    "The heartbeat interval must be positive in case of the timestamp stop mode.");
+        }
+        checkArgument(
+                binlogSplitNumber >= 1,
+                "The binlog split number must be positive, but is %s.",
+                binlogSplitNumber);
+        if (binlogSplitNumber > 1) {
+            // the fenced binlog split and the newly added tables rely on the single binlog split
+            checkArgument(
+                    !binlogEarlyStartEnabled && !scanNewlyAddedTableEnabled,
+                    "Several binlog splits can't be combined with the binlog early start or the"
+                            + " newly added tables.");
+            checkArgument(
+                    serverIdRange == null
+                            || serverIdRange.getNumberOfServerIds() >= binlogSplitNumber,
+                    "The server id range %s is smaller than the binlog split number %s.",
+                    serverIdRange,
+                    binlogSplitNumber);
+        }
+        if (binlogSpoolEnabled) {
+            checkArgument(
+                    binlogSpoolSegmentSize.getBytes() > 0,
+                    "The binlog spool segment size must be positive, but is %s.",
+                    binlogSpoolSegmentSize);
+            checkArgument(
+                    binlogSpoolMaxSize.compareTo(binlogSpoolSegmentSize) >= 0,
+                    "The binlog spool max size %s is smaller than the segment size %s.",
+                    binlogSpoolMaxSize,
+                    binlogSpoolSegmentSize);
+        }
+        checkArgument(
+                binlogHandoffMaxSize.getBytes() > 0,
+                "The binlog handoff max size must be positive, but is %s.",
+                binlogHandoffMaxSize);
+        checkArgument(
+                !batchTargetLatency.isNegative(),
+                "The batch target latency must not be negative, but is %s.",
+                batchTargetLatency);
+        checkArgument(
+                minimalRowImageCacheSize >= 0,
+                "The minimal row image cache size must not be negative, but is %s.",
+                minimalRowImageCacheSize);
+
         return new MySqlSourceConfig(
                 hostname,
                 port,
@@ -309,8 +557,27 @@ public class MySqlSourceConfigFactory implements Serializable {
                 tableList,
                 serverIdRange,
                 startupOptions,
+                stopOptions,
                 splitSize,
                 splitMetaGroupSize,
+                chunkPageSize,
+                backfillSkipCheckEnabled,
+                chunkPrefetchSize,
+                binlogEarlyStartEnabled,
+                skipSnapshotBackfill,
+                lazySchemaLoadingEnabled,
+                bulkTableDiscoveryEnabled,
+                deserializationParallelism,
+                binlogSplitNumber,
+                sharedBinlogConnectionEnabled,
+                binlogSpoolEnabled,
+                binlogSpoolDir,
+                binlogSpoolMaxSize,
+                binlogSpoolSegmentSize,
+                binlogHandoffMaxSize,
+                batchTargetLatency,
+                minimalRowImageEnabled,
+                minimalRowImageCacheSize,
                 fetchSize,
                 serverTimeZone,
                 connectTimeout,
@@ -21,6 +21,7 @@ package cn.tenmg.cdc.log.connectors.mysql.source.config;
 import org.apache.flink.annotation.Experimental;
 import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ConfigOptions;
+import org.apache.flink.configuration.MemorySize;
 
 import cn.tenmg.cdc.log.connectors.mysql.source.MySqlSource;
 
@@ -140,7 +141,7 @@ public class MySqlSourceOptions {
                     .defaultValue("initial")
                     .withDescription(
                             "Optional startup mode for MySQL CDC consumer, valid enumerations are "
-                                    + "\"initial\", \"earliest-offset\", \"latest-offset\", \"timestamp\"\n"
+                                    + "\"initial\", \"snapshot\", \"earliest-offset\", \"latest-offset\", \"timestamp\"\n"
                                     + "or \"specific-offset\"");
 
     public static final ConfigOption<String> SCAN_STARTUP_SPECIFIC_OFFSET_FILE =
@@ -164,6 +165,49 @@ public class MySqlSourceOptions {
                     .withDescription(
                             "Optional timestamp used in case of \"timestamp\" startup mode");
 
+    public static final ConfigOption<String> SCAN_STOP_MODE =
+            ConfigOptions.key("scan.stop.mode")
+                    .stringType()
+                    .defaultValue("never")
+                    .withDescription(
+                            "Optional stop mode for MySQL CDC consumer, valid enumerations are "
+                                    + "\"never\", \"latest-offset\", \"specific-offset\", \"gtid-set\" or \"timestamp\". "
+                                    + "The source is bounded and finishes once the binlog reading reaches the stop offset "
+                                    + "unless the mode is \"never\", \"latest-offset\" stops at the latest offset of the server "
+                                    + "when the binlog reading starts. A bounded source with \"initial\" startup mode and parallelism "
+                                    + "greater than 1 needs checkpointing to finish the snapshot phase");
+
+    public static final ConfigOption<String> SCAN_STOP_SPECIFIC_OFFSET_FILE =
+            ConfigOptions.key("scan.stop.specific-offset.file")
+                    .stringType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Optional binlog file name used in case of \"specific-offset\" stop mode");
+
+    public static final ConfigOption<Long> SCAN_STOP_SPECIFIC_OFFSET_POS =
+            ConfigOptions.key("scan.stop.specific-offset.pos")
+                    .longType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Optional binlog file position used in case of \"specific-offset\" stop mode");
+
+    public static final ConfigOption<String> SCAN_STOP_GTID_SET =
+            ConfigOptions.key("scan.stop.gtid-set")
+                    .stringType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Optional GTID set used in case of \"gtid-set\" stop mode, the reading stops "
+                                    + "once the executed GTID set of the read position contains it");
+
+    public static final ConfigOption<Long> SCAN_STOP_TIMESTAMP_MILLIS =
+            ConfigOptions.key("scan.stop.timestamp-millis")
+                    .longType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Optional timestamp used in case of \"timestamp\" stop mode. An idle server "
+                                    + "has no binlog event to reach the stop timestamp, the reading is stopped by "
+                                    + "the heartbeat events then, thus option 'heartbeat.interval' must be positive");
+
     public static final ConfigOption<Duration> HEARTBEAT_INTERVAL =
             ConfigOptions.key("heartbeat.interval")
                     .durationType()
@@ -206,6 +250,220 @@ public class MySqlSourceOptions {
                                     + " and the query MySQL for splitting would happen when it is uneven."
                                     + " The distribution factor could be calculated by (MAX(id) - MIN(id) + 1) / rowCount.");
 
+    @Experimental
+    public static final ConfigOption<Integer> SCAN_INCREMENTAL_SNAPSHOT_CHUNK_PAGE_SIZE =
+            ConfigOptions.key("scan.incremental.snapshot.chunk.page-size")
+                    .intType()
+                    .defaultValue(0)
+                    .withDescription(
+                            "The page size (number of rows) used to scan a snapshot chunk. When it is positive, the chunk is scanned"
+                                    + " by a series of bounded keyset queries like 'WHERE key > ? ORDER BY key LIMIT page-size'"
+                                    + " inside the same watermark window, and a failed query only rescans the rest of its page."
+                                    + " A non-positive value means the whole chunk is scanned by a single query, by default is 0.");
+
+    @Experimental
+    public static final ConfigOption<Boolean> SCAN_INCREMENTAL_SNAPSHOT_BACKFILL_SKIP_CHECK_ENABLED =
+            ConfigOptions.key("scan.incremental.snapshot.backfill.skip-check.enabled")
+                    .booleanType()
+                    .defaultValue(true)
+                    .withDescription(
+                            "Whether to check the table of a snapshot chunk has changes before reading the backfill binlog of the chunk."
+                                    + " Each snapshot reader follows the binlog from the low watermark of its first chunk by an extra binlog"
+                                    + " connection, which only decodes the table map and query events and uses a random server id above the"
+                                    + " range of the reader server ids. The backfill read is skipped when no table map event of the chunk's table"
+                                    + " and no DDL is found between the low and high watermark, otherwise, or when the tracked binlog doesn't"
+                                    + " reach the high watermark in time, the backfill binlog is read. By default is true.");
+
+    @Experimental
+    public static final ConfigOption<Integer> SCAN_INCREMENTAL_SNAPSHOT_CHUNK_PREFETCH_SIZE =
+            ConfigOptions.key("scan.incremental.snapshot.chunk.prefetch-size")
+                    .intType()
+                    .defaultValue(1)
+                    .withDescription(
+                            "The max number of snapshot chunks assigned to a reader at the same time. The chunks are queued in the reader"
+                                    + " and read one by one, so the reader needn't wait for the next chunk from the enumerator after a chunk finished."
+                                    + " By default is 1, which means the next chunk is requested after the current chunk finished.");
+
+    @Experimental
+    public static final ConfigOption<Boolean> SCAN_INCREMENTAL_SNAPSHOT_BINLOG_EARLY_START_ENABLED =
+            ConfigOptions.key("scan.incremental.snapshot.binlog.early-start.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether to start reading the binlog before all snapshot chunks are finished. The binlog split is assigned to one reader"
+                                    + " at the beginning of the snapshot phase and emits the changes of a chunk once the chunk is finished, the changes"
+                                    + " of the unfinished chunks are held back until the enumerator confirms they are covered by the snapshot."
+                                    + " With 'scan.newly-added-table.enabled', the newly added tables are captured in the same way without suspending"
+                                    + " the binlog reader, only the changes of the newly added tables are held back."
+                                    + " It takes effect only when the source parallelism is greater than 1, by default is false.");
+
+    @Experimental
+    public static final ConfigOption<Boolean> SCAN_INCREMENTAL_SNAPSHOT_BACKFILL_SKIP =
+            ConfigOptions.key("scan.incremental.snapshot.backfill.skip")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether to skip the binlog backfill of snapshot chunks. The chunk is emitted as it is scanned and the high watermark"
+                                    + " is the same as the low watermark, the changes happened while scanning are read again by the binlog split,"
+                                    + " which provides at-least-once semantics. In 'snapshot' startup mode, the watermarks are not read at all"
+                                    + " and the chunks are read with read-uncommitted semantics. By default is false.");
+
+    @Experimental
+    public static final ConfigOption<Boolean> SCAN_BINLOG_LAZY_SCHEMA_LOADING_ENABLED =
+            ConfigOptions.key("scan.binlog.lazy-schema-loading.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether to load the table schemas of the binlog split on demand. The schema of a captured table is read by"
+                                    + " 'SHOW CREATE TABLE' when the first binlog event of the table arrives and is kept in the split state,"
+                                    + " rather than reading the schemas of all captured tables before the binlog reading starts."
+                                    + " The tables receiving no binlog events are never described. The loaded schema is the current schema of the table,"
+                                    + " it's checked against the columns of the binlog event and the reading fails if the table was altered after the event."
+                                    + " By default is false.");
+
+    @Experimental
+    public static final ConfigOption<Boolean> SCAN_BULK_TABLE_DISCOVERY_ENABLED =
+            ConfigOptions.key("scan.bulk-table-discovery.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether to discover the captured tables and their schemas from information_schema in bulk. The tables, columns"
+                                    + " and keys of all matched databases are read by a few queries and the table definitions are built"
+                                    + " in memory, rather than running 'SHOW FULL TABLES' per database and 'SHOW CREATE TABLE' per table."
+                                    + " It falls back to the per table discovery if information_schema can't be read. By default is false.");
+
+    @Experimental
+    public static final ConfigOption<Integer> SCAN_DESERIALIZATION_PARALLELISM =
+            ConfigOptions.key("scan.deserialization.parallelism")
+                    .intType()
+                    .defaultValue(1)
+                    .withDescription(
+                            "The number of threads of a reader to deserialize the change records. The records fetched in a batch are"
+                                    + " deserialized by a pool of worker threads ahead of the emission, and are emitted in the binlog order."
+                                    + " Each worker uses a copy of the deserialization schema. By default is 1, which means the records are"
+                                    + " deserialized by the task thread while emitting.");
+
+    @Experimental
+    public static final ConfigOption<Integer> SCAN_BINLOG_SPLIT_NUMBER =
+            ConfigOptions.key("scan.binlog.split-number")
+                    .intType()
+                    .defaultValue(1)
+                    .withDescription(
+                            "The number of binlog splits to read the binlog phase. The captured tables are divided into the given number"
+                                    + " of groups by the hash of the table id, and each group is read by a binlog split assigned to its own"
+                                    + " reader, which connects with its own server id of the 'server-id' range. The changes of a table are"
+                                    + " always read by the same split, so their order is kept, while there is no order across the groups."
+                                    + " The number must not exceed the source parallelism, nor the size of the 'server-id' range, and can't be"
+                                    + " combined with 'scan.incremental.snapshot.binlog.early-start.enabled' or 'scan.newly-added-table.enabled'. By default is 1.");
+
+    @Experimental
+    public static final ConfigOption<Boolean> SCAN_BINLOG_SHARED_CONNECTION_ENABLED =
+            ConfigOptions.key("scan.binlog.shared-connection.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether to share one binlog connection among the binlog split readers of the same MySQL instance and user"
+                                    + " in a TaskManager. A reader joins a shared connection whose next binlog position is its starting"
+                                    + " position at a transaction boundary. A reader starting behind a shared connection catches up by its own"
+                                    + " connection and merges into the shared connection at a later transaction boundary, at most 4096 events"
+                                    + " of the shared connection are kept for it meanwhile. Otherwise the reader opens a new shared connection,"
+                                    + " so the instance sends one binlog stream to the readers instead of one per reader. Each reader buffers"
+                                    + " at most 1024 events of the shared connection, decodes them by itself and filters them by its own"
+                                    + " tables. A slow reader blocks the shared connection once its buffer is full, thus it stops all the"
+                                    + " readers sharing the connection, including the readers of other jobs; a warning is logged while the"
+                                    + " connection is blocked. The connection uses the server id of one of its readers. The connections are"
+                                    + " shared across jobs only if the connector is loaded by the parent class loader of the jobs, e.g. from"
+                                    + " the lib directory. By default is false.");
+
+    @Experimental
+    public static final ConfigOption<Boolean> SCAN_BINLOG_SPOOL_ENABLED =
+            ConfigOptions.key("scan.binlog.spool.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether to spool the binlog records to the local disk while the binlog reader is back-pressured. Once the"
+                                    + " records handed off to the reader are full, the binlog keeps being read at full speed into the"
+                                    + " segment files of the spool, and the reader drains them in order after the handed off records, so MySQL doesn't purge the unread binlog files or kill the idle dump connection during the"
+                                    + " back pressure. The spool is not restored on failover, the reader restarts from the checkpointed"
+                                    + " binlog offset. By default is false.");
+
+    @Experimental
+    public static final ConfigOption<String> SCAN_BINLOG_SPOOL_DIR =
+            ConfigOptions.key("scan.binlog.spool.dir")
+                    .stringType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "The local directory of the binlog spool, each reader creates its own sub directory in it and deletes it on"
+                                    + " close. By default the temporary directory of the JVM is used.");
+
+    @Experimental
+    public static final ConfigOption<MemorySize> SCAN_BINLOG_SPOOL_MAX_SIZE =
+            ConfigOptions.key("scan.binlog.spool.max-size")
+                    .memoryType()
+                    .defaultValue(MemorySize.parse("1gb"))
+                    .withDescription(
+                            "The max size of the binlog spool of a reader, the binlog reading is back-pressured when the spool exceeds"
+                                    + " it. It must not be smaller than 'scan.binlog.spool.segment-size'. By default is 1gb.");
+
+    @Experimental
+    public static final ConfigOption<MemorySize> SCAN_BINLOG_SPOOL_SEGMENT_SIZE =
+            ConfigOptions.key("scan.binlog.spool.segment-size")
+                    .memoryType()
+                    .defaultValue(MemorySize.parse("64mb"))
+                    .withDescription(
+                            "The size of a segment file of the binlog spool, a segment is deleted as soon as it's drained by the"
+                                    + " reader. By default is 64mb.");
+
+    @Experimental
+    public static final ConfigOption<MemorySize> SCAN_BINLOG_HANDOFF_MAX_SIZE =
+            ConfigOptions.key("scan.binlog.handoff.max-size")
+                    .memoryType()
+                    .defaultValue(MemorySize.parse("64mb"))
+                    .withDescription(
+                            "The max approximate size of the binlog records handed off from the binlog reading to the reader but"
+                                    + " not polled yet, the binlog reading is back-pressured beyond it. The size of a record is"
+                                    + " approximated by its share of the binlog event bytes plus a fixed overhead, which is smaller"
+                                    + " than its heap size. The records are also bounded by the Debezium 'max.queue.size' in number."
+                                    + " By default is 64mb.");
+
+    @Experimental
+    public static final ConfigOption<Duration> SCAN_BATCH_TARGET_LATENCY =
+            ConfigOptions.key("scan.batch.target-latency")
+                    .durationType()
+                    .defaultValue(Duration.ofMillis(10))
+                    .withDescription(
+                            "The target latency bound of batching the change records polled by the reader. The batch size is"
+                                    + " the number of records expected to arrive within it by the arrival rate, which is 1 at low"
+                                    + " rates and up to the Debezium 'max.batch.size' at high rates, and a record waits for its"
+                                    + " batch to fill up at most this long. By default is 10ms.");
+
+    @Experimental
+    public static final ConfigOption<Boolean> SCAN_BINLOG_MINIMAL_ROW_IMAGE_ENABLED =
+            ConfigOptions.key("scan.binlog.minimal-row-image.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether to capture the MySQL server configured with binlog_row_image=MINIMAL or NOBLOB, which is only"
+                                    + " supported by the incremental snapshot source. The columns absent from the row image of an"
+                                    + " update are taken from its before image, and the values of the columns still absent are unknown,"
+                                    + " which are null or the default values of the non-null columns. With MINIMAL, the before image of"
+                                    + " an update or delete only contains the primary key and the columns of the cached full image, so"
+                                    + " the update-before and delete rows can't be used to retract the previous rows, and an upsert"
+                                    + " sink would overwrite the unknown columns. The absent columns are listed by the metadata column"
+                                    + " 'row_image.absent_columns' for information only."
+                                    + " By default is false.");
+
+    @Experimental
+    public static final ConfigOption<Integer> SCAN_BINLOG_MINIMAL_ROW_IMAGE_CACHE_SIZE =
+            ConfigOptions.key("scan.binlog.minimal-row-image.cache-size")
+                    .intType()
+                    .defaultValue(0)
+                    .withDescription(
+                            "The max number of the last full row images a reader keeps by the primary key, which are merged into"
+                                    + " the partial row images of the same rows when 'scan.binlog.minimal-row-image.enabled' is true."
+                                    + " The least recently used images are evicted, and the cache starts empty on restart. By default"
+                                    + " is 0, which disables the merging.");
+
     @Experimental
     public static final ConfigOption<Boolean> SCAN_NEWLY_ADDED_TABLE_ENABLED =
             ConfigOptions.key("scan.newly-added-table.enabled")
@@ -25,13 +25,18 @@ import org.apache.flink.api.connector.source.SplitEnumeratorContext;
 import org.apache.flink.util.FlinkRuntimeException;
 
 import org.apache.flink.shaded.guava18.com.google.common.collect.Lists;
+
+import io.debezium.relational.TableId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.MySqlHybridSplitAssigner;
+import cn.tenmg.cdc.log.connectors.mysql.source.assigners.MySqlSnapshotSplitAssigner;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.MySqlSplitAssigner;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.state.PendingSplitsState;
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
+import cn.tenmg.cdc.log.connectors.mysql.source.events.BinlogSplitFenceEvent;
+import cn.tenmg.cdc.log.connectors.mysql.source.events.BinlogSplitFenceRequestEvent;
 import cn.tenmg.cdc.log.connectors.mysql.source.events.BinlogSplitMetaEvent;
 import cn.tenmg.cdc.log.connectors.mysql.source.events.BinlogSplitMetaRequestEvent;
 import cn.tenmg.cdc.log.connectors.mysql.source.events.FinishedSnapshotSplitsAckEvent;
@@ -51,12 +56,16 @@ import javax.annotation.Nullable;
 import static cn.tenmg.cdc.log.connectors.mysql.source.assigners.AssignerStatus.isAssigning;
 import static cn.tenmg.cdc.log.connectors.mysql.source.assigners.AssignerStatus.isAssigningFinished;
 import static cn.tenmg.cdc.log.connectors.mysql.source.assigners.AssignerStatus.isSuspended;
+import static org.apache.flink.util.Preconditions.checkArgument;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
@@ -68,6 +77,7 @@ import java.util.stream.Collectors;
 public class MySqlSourceEnumerator implements SplitEnumerator<MySqlSplit, PendingSplitsState> {
     private static final Logger LOG = LoggerFactory.getLogger(MySqlSourceEnumerator.class);
     private static final long CHECK_EVENT_INTERVAL = 30_000L;
+    private static final long BINLOG_FENCE_INTERVAL = 1_000L;
 
     private final SplitEnumeratorContext<MySqlSplit> context;
     private final MySqlSourceConfig sourceConfig;
@@ -75,8 +85,20 @@ public class MySqlSourceEnumerator implements SplitEnumerator<MySqlSplit, Pendin
 
     // using TreeSet to prefer assigning binlog split to task-0 for easier debug
     private final TreeSet<Integer> readersAwaitingSplit;
+    // the snapshot splits which are assigned to readers but not reported as finished yet
+    private final Map<Integer, Set<String>> unfinishedAssignedSplits;
     private List<List<FinishedSnapshotSplitInfo>> binlogSplitMeta;
     private boolean binlogReaderIsSuspended = false;
+    // the reader holding the fenced binlog split, which can't read snapshot splits
+    @Nullable private Integer earlyBinlogSplitOwner;
+    // the readers holding a binlog split, each of them reads the binlog split of one table group
+    private final Set<Integer> binlogSplitOwners;
+    // the pending fence request of the fenced binlog split, answered periodically
+    @Nullable private Integer binlogFenceRequester;
+    @Nullable private BinlogSplitFenceRequestEvent binlogFenceRequest;
+    // whether the binlog split was fenced at the last round, which is written by the coordinator
+    // thread and tells the worker thread whether to read the binlog offset
+    private volatile boolean binlogFenceActive = true;
 
     public MySqlSourceEnumerator(
             SplitEnumeratorContext<MySqlSplit> context,
@@ -86,6 +108,13 @@ public class MySqlSourceEnumerator implements SplitEnumerator<MySqlSplit, Pendin
         this.sourceConfig = sourceConfig;
         this.splitAssigner = splitAssigner;
         this.readersAwaitingSplit = new TreeSet<>();
+        this.unfinishedAssignedSplits = new HashMap<>();
+        this.binlogSplitOwners = new HashSet<>();
+        checkArgument(
+                sourceConfig.getBinlogSplitNumber() <= context.currentParallelism(),
+                "The binlog split number %s is larger than the source parallelism %s.",
+                sourceConfig.getBinlogSplitNumber(),
+                context.currentParallelism());
 
         // when restored from state, if the split assigner is assigning snapshot
         // splits or has already assigned all splits, send wakeup event to
@@ -106,6 +135,14 @@ public class MySqlSourceEnumerator implements SplitEnumerator<MySqlSplit, Pendin
                 this::syncWithReaders,
                 CHECK_EVENT_INTERVAL,
                 CHECK_EVENT_INTERVAL);
+        if (splitAssigner instanceof MySqlHybridSplitAssigner
+                && ((MySqlHybridSplitAssigner) splitAssigner).isBinlogEarlyStartEnabled()) {
+            this.context.callAsync(
+                    this::readCurrentBinlogOffset,
+                    this::advanceBinlogFence,
+                    BINLOG_FENCE_INTERVAL,
+                    BINLOG_FENCE_INTERVAL);
+        }
     }
 
     @Override
@@ -122,11 +159,24 @@ public class MySqlSourceEnumerator implements SplitEnumerator<MySqlSplit, Pendin
     @Override
     public void addSplitsBack(List<MySqlSplit> splits, int subtaskId) {
         LOG.debug("MySQL Source Enumerator adds splits back: {}", splits);
+        final Set<String> assignedSplits = unfinishedAssignedSplits.get(subtaskId);
+        if (assignedSplits != null) {
+            splits.forEach(split -> assignedSplits.remove(split.splitId()));
+        }
+        if (splits.stream().anyMatch(split -> !split.isSnapshotSplit())) {
+            earlyBinlogSplitOwner = null;
+            binlogSplitOwners.remove(subtaskId);
+        }
         splitAssigner.addSplits(splits);
     }
 
     @Override
     public void addReader(int subtaskId) {
+        // the splits assigned to the failed reader are added back or restored to the new reader
+        unfinishedAssignedSplits.remove(subtaskId);
+        if (Integer.valueOf(subtaskId).equals(earlyBinlogSplitOwner)) {
+            earlyBinlogSplitOwner = null;
+        }
         // send SuspendBinlogReaderEvent to source reader if the assigner's status is
         // suspended
         if (isSuspended(splitAssigner.getAssignerStatus())) {
@@ -146,8 +196,14 @@ public class MySqlSourceEnumerator implements SplitEnumerator<MySqlSplit, Pendin
             Map<String, BinlogOffset> finishedOffsets = reportEvent.getFinishedOffsets();
 
             splitAssigner.onFinishedSplits(finishedOffsets);
+            final Set<String> assignedSplits = unfinishedAssignedSplits.get(subtaskId);
+            if (assignedSplits != null) {
+                assignedSplits.removeAll(finishedOffsets.keySet());
+            }
 
             wakeupBinlogReaderIfNeed();
+            // the binlog split is available once all splits finished if no checkpoint is awaited
+            assignSplits();
 
             // send acknowledge event
             FinishedSnapshotSplitsAckEvent ackEvent =
@@ -165,6 +221,30 @@ public class MySqlSourceEnumerator implements SplitEnumerator<MySqlSplit, Pendin
             handleSuspendBinlogReaderAckEvent(subtaskId);
         } else if (sourceEvent instanceof LatestFinishedSplitsSizeRequestEvent) {
             handleLatestFinishedSplitSizeRequest(subtaskId);
+        } else if (sourceEvent instanceof BinlogSplitFenceRequestEvent) {
+            LOG.debug(
+                    "The enumerator receives request for binlog split fence from subtask {}.",
+                    subtaskId);
+            BinlogSplitFenceRequestEvent requestEvent = (BinlogSplitFenceRequestEvent) sourceEvent;
+            if (!(splitAssigner instanceof MySqlHybridSplitAssigner)) {
+                // there are no snapshot splits to fence the binlog split
+                context.sendEventToSourceReader(
+                        subtaskId,
+                        new BinlogSplitFenceEvent(
+                                requestEvent.getSplitId(),
+                                requestEvent.getReceivedSplitInfoSize(),
+                                new ArrayList<>(),
+                                null,
+                                null,
+                                true));
+                return;
+            }
+            binlogFenceRequester = subtaskId;
+            binlogFenceRequest = requestEvent;
+            if (!((MySqlHybridSplitAssigner) splitAssigner).isBinlogSplitFenced()) {
+                // the fence is never moved anymore, needn't wait for the next round
+                sendBinlogFence();
+            }
         }
     }
 
@@ -199,13 +279,52 @@ public class MySqlSourceEnumerator implements SplitEnumerator<MySqlSplit, Pendin
                 awaitingReader.remove();
                 continue;
             }
+            if (isEarlyBinlogSplitOwner(nextAwaiting)) {
+                awaitingReader.remove();
+                continue;
+            }
+            if (sourceConfig.getBinlogSplitNumber() > 1
+                    && binlogSplitOwners.contains(nextAwaiting)) {
+                // the binlog split never finishes, another binlog split would never be read
+                awaitingReader.remove();
+                continue;
+            }
 
-            Optional<MySqlSplit> split = splitAssigner.getNext();
-            if (split.isPresent()) {
+            // assign more than one snapshot splits to the reader in advance, thus the reader can
+            // read the next split without waiting for the enumerator after a split finished
+            final Set<String> assignedSplits =
+                    unfinishedAssignedSplits.computeIfAbsent(nextAwaiting, k -> new HashSet<>());
+            final int prefetchSize = sourceConfig.getChunkPrefetchSize();
+            int assignedNum = 0;
+            while (assignedNum == 0 || assignedSplits.size() < prefetchSize) {
+                Optional<MySqlSplit> split = splitAssigner.getNext();
+                if (!split.isPresent()) {
+                    break;
+                }
                 final MySqlSplit mySqlSplit = split.get();
                 context.assignSplit(mySqlSplit, nextAwaiting);
-                awaitingReader.remove();
+                assignedNum++;
                 LOG.info("Assign split {} to subtask {}", mySqlSplit, nextAwaiting);
+                if (mySqlSplit.isSnapshotSplit()) {
+                    assignedSplits.add(mySqlSplit.splitId());
+                } else {
+                    if (mySqlSplit.asBinlogSplit().isFenced()) {
+                        earlyBinlogSplitOwner = nextAwaiting;
+                    }
+                    binlogSplitOwners.add(nextAwaiting);
+                    // the binlog split is the last split of the reader
+                    break;
+                }
+            }
+
+            if (assignedNum > 0) {
+                awaitingReader.remove();
+            } else if (isBoundedSourceFinished()) {
+                // all the splits of the bounded source are assigned, the reader finishes after
+                // reading its assigned splits
+                LOG.info("No more splits available for subtask {}", nextAwaiting);
+                context.signalNoMoreSplits(nextAwaiting);
+                awaitingReader.remove();
             } else {
                 // there is no available splits by now, skip assigning
                 wakeupBinlogReaderIfNeed();
@@ -214,6 +333,24 @@ public class MySqlSourceEnumerator implements SplitEnumerator<MySqlSplit, Pendin
         }
     }
 
+    private boolean isBoundedSourceFinished() {
+        // the bounded snapshot has no binlog split, the bounded binlog split finishes at the
+        // stopping offset
+        boolean bounded =
+                splitAssigner instanceof MySqlSnapshotSplitAssigner
+                        || sourceConfig.getStopOptions().isBounded();
+        return bounded && splitAssigner.noMoreSplits();
+    }
+
+    private boolean isEarlyBinlogSplitOwner(int subtaskId) {
+        if (earlyBinlogSplitOwner == null || earlyBinlogSplitOwner != subtaskId) {
+            return false;
+        }
+        // the fenced binlog split never finishes before the snapshot splits finished,
+        // the snapshot splits assigned to the reader would never be read
+        return ((MySqlHybridSplitAssigner) splitAssigner).isBinlogSplitFenced();
+    }
+
     private int[] getRegisteredReader() {
         return this.context.registeredReaders().keySet().stream()
                 .mapToInt(Integer::intValue)
@@ -293,6 +430,66 @@ public class MySqlSourceEnumerator implements SplitEnumerator<MySqlSplit, Pendin
         }
     }
 
+    /** Reads the binlog offset in the worker thread, the fence is checked by the callback. */
+    @Nullable
+    private BinlogOffset readCurrentBinlogOffset() {
+        return binlogFenceActive
+                ? ((MySqlHybridSplitAssigner) splitAssigner).readCurrentBinlogOffset()
+                : null;
+    }
+
+    private void advanceBinlogFence(@Nullable BinlogOffset currentOffset, Throwable t) {
+        final MySqlHybridSplitAssigner assigner = (MySqlHybridSplitAssigner) splitAssigner;
+        if (t != null) {
+            // the fence is advanced by the next round, the pending request keeps the last fence
+            LOG.warn("Failed to read the current binlog offset, will retry in the next round.", t);
+        } else if (currentOffset != null && assigner.isBinlogSplitFenced()) {
+            assigner.onLatestBinlogOffset(currentOffset);
+        }
+        binlogFenceActive = assigner.isBinlogSplitFenced();
+        sendBinlogFence();
+    }
+
+    private void sendBinlogFence() {
+        if (binlogFenceRequest == null) {
+            return;
+        }
+        final MySqlHybridSplitAssigner assigner = (MySqlHybridSplitAssigner) splitAssigner;
+        final List<FinishedSnapshotSplitInfo> finishedSplitInfos =
+                assigner.getVisibleFinishedSplitInfos();
+        final int startIndex =
+                Math.min(binlogFenceRequest.getReceivedSplitInfoSize(), finishedSplitInfos.size());
+        final int endIndex =
+                Math.min(
+                        startIndex + sourceConfig.getSplitMetaGroupSize(),
+                        finishedSplitInfos.size());
+        // the fence is valid only if the reader has received all visible finished splits
+        final boolean isUpToDate = endIndex == finishedSplitInfos.size();
+        final boolean isFenced = assigner.isBinlogSplitFenced();
+        BinlogOffset fenceOffset = null;
+        List<String> fencedTables = null;
+        if (isUpToDate && isFenced) {
+            fenceOffset = assigner.getBinlogFenceOffset();
+            fencedTables =
+                    assigner.getFencedTables().stream()
+                            .map(TableId::toString)
+                            .collect(Collectors.toList());
+        }
+        BinlogSplitFenceEvent fenceEvent =
+                new BinlogSplitFenceEvent(
+                        binlogFenceRequest.getSplitId(),
+                        startIndex,
+                        finishedSplitInfos.subList(startIndex, endIndex).stream()
+                                .map(FinishedSnapshotSplitInfo::serialize)
+                                .collect(Collectors.toList()),
+                        fenceOffset,
+                        fencedTables,
+                        isUpToDate && !isFenced);
+        context.sendEventToSourceReader(binlogFenceRequester, fenceEvent);
+        binlogFenceRequester = null;
+        binlogFenceRequest = null;
+    }
+
     private void handleSuspendBinlogReaderAckEvent(int subTask) {
         LOG.info(
                 "Received event that the binlog split reader has been suspended from subtask {}. ",
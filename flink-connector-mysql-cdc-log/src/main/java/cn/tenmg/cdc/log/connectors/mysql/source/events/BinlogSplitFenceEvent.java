@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cn.tenmg.cdc.log.connectors.mysql.source.events;
+
+import org.apache.flink.api.connector.source.SourceEvent;
+
+import javax.annotation.Nullable;
+
+import cn.tenmg.cdc.log.connectors.mysql.source.enumerator.MySqlSourceEnumerator;
+import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
+import cn.tenmg.cdc.log.connectors.mysql.source.reader.MySqlSourceReader;
+import cn.tenmg.cdc.log.connectors.mysql.source.split.FinishedSnapshotSplitInfo;
+
+import java.util.List;
+
+/**
+ * The {@link SourceEvent} that {@link MySqlSourceEnumerator} sends to {@link MySqlSourceReader} to
+ * stream the newly finished snapshot splits and the fence offset to a fenced binlog split.
+ * The binlog split can safely process the binlog events up to the fence offset with the finished
+ * snapshot splits it has received.
+ */
+public class BinlogSplitFenceEvent implements SourceEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String splitId;
+
+    /** The index of the first element of {@link #finishedSplitInfos} in all finished splits. */
+    private final int startIndex;
+
+    /**
+     * The serialized finished snapshot splits, it's serialized/deserialize by {@link
+     * FinishedSnapshotSplitInfo#serialize(FinishedSnapshotSplitInfo)} and {@link
+     * FinishedSnapshotSplitInfo#deserialize(byte[])}.
+     */
+    private final List<byte[]> finishedSplitInfos;
+
+    /** The fence offset, null if the fence is not moved by this event. */
+    @Nullable private final BinlogOffset fenceOffset;
+
+    /**
+     * The identifiers of the tables whose snapshot splits are being read, null if the fence is not
+     * moved by this event. It's valid only with the {@link #fenceOffset}.
+     */
+    @Nullable private final List<String> fencedTables;
+
+    /** Whether all snapshot splits are finished, the binlog split is no longer fenced. */
+    private final boolean snapshotFinished;
+
+    public BinlogSplitFenceEvent(
+            String splitId,
+            int startIndex,
+            List<byte[]> finishedSplitInfos,
+            @Nullable BinlogOffset fenceOffset,
+            @Nullable List<String> fencedTables,
+            boolean snapshotFinished) {
+        this.splitId = splitId;
+        this.startIndex = startIndex;
+        this.finishedSplitInfos = finishedSplitInfos;
+        this.fenceOffset = fenceOffset;
+        this.fencedTables = fencedTables;
+        this.snapshotFinished = snapshotFinished;
+    }
+
+    public String getSplitId() {
+        return splitId;
+    }
+
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    public List<byte[]> getFinishedSplitInfos() {
+        return finishedSplitInfos;
+    }
+
+    @Nullable
+    public BinlogOffset getFenceOffset() {
+        return fenceOffset;
+    }
+
+    @Nullable
+    public List<String> getFencedTables() {
+        return fencedTables;
+    }
+
+    public boolean isSnapshotFinished() {
+        return snapshotFinished;
+    }
+}
@@ -47,6 +47,12 @@ public class MySqlSourceReaderMetrics {
      */
     private volatile long emitDelay = 0L;
 
+    /**
+     * The size of the record batches chosen by the split reader by the arrival rate of the records
+     * and the target latency, which is updated after the split reader fetches a batch of data.
+     */
+    private volatile int fetchBatchSize = 0;
+
     public MySqlSourceReaderMetrics(MetricGroup metricGroup) {
         this.metricGroup = metricGroup;
     }
@@ -55,6 +61,7 @@ public class MySqlSourceReaderMetrics {
         metricGroup.gauge("currentFetchEventTimeLag", (Gauge<Long>) this::getFetchDelay);
         metricGroup.gauge("currentEmitEventTimeLag", (Gauge<Long>) this::getEmitDelay);
         metricGroup.gauge("sourceIdleTime", (Gauge<Long>) this::getIdleTime);
+        metricGroup.gauge("currentFetchBatchSize", (Gauge<Integer>) this::getFetchBatchSize);
     }
 
     public long getFetchDelay() {
@@ -65,6 +72,10 @@ public class MySqlSourceReaderMetrics {
         return emitDelay;
     }
 
+    public int getFetchBatchSize() {
+        return fetchBatchSize;
+    }
+
     public long getIdleTime() {
         // no previous process time at the beginning, return 0 as idle time
         if (processTime == 0) {
@@ -84,4 +95,8 @@ public class MySqlSourceReaderMetrics {
     public void recordEmitDelay(long emitDelay) {
         this.emitDelay = emitDelay;
     }
+
+    public void recordFetchBatchSize(int fetchBatchSize) {
+        this.fetchBatchSize = fetchBatchSize;
+    }
 }
@@ -18,16 +18,10 @@
 
 package cn.tenmg.cdc.log.connectors.mysql.source.reader;
 
-import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.getBinlogPosition;
 import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.getFetchTimestamp;
 import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.getHistoryRecord;
 import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.getMessageTimestamp;
 import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.getWatermark;
-import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.isDataChangeRecord;
-import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.isHeartbeatEvent;
-import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.isHighWatermarkEvent;
-import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.isSchemaChangeEvent;
-import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.isWatermarkEvent;
 
 import org.apache.flink.api.connector.source.SourceOutput;
 import org.apache.flink.connector.base.source.reader.RecordEmitter;
@@ -37,11 +31,12 @@ import cn.tenmg.cdc.log.debezium.DebeziumDeserializationSchema;
 import cn.tenmg.cdc.log.debezium.history.FlinkJsonTableChangeSerializer;
 
 import cn.tenmg.cdc.log.connectors.mysql.source.metrics.MySqlSourceReaderMetrics;
-import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
+import cn.tenmg.cdc.log.connectors.mysql.source.reader.ParallelRecordDeserializer.DeserializedRecord;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplitState;
 import io.debezium.document.Array;
 import io.debezium.relational.history.HistoryRecord;
 import io.debezium.relational.history.TableChanges;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.connect.source.SourceRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,6 +58,7 @@ public final class MySqlRecordEmitter<T>
     private final MySqlSourceReaderMetrics sourceReaderMetrics;
     private final boolean includeSchemaChanges;
     private final OutputCollector<T> outputCollector;
+    private final RecordKindClassifier recordKindClassifier;
 
     public MySqlRecordEmitter(
             DebeziumDeserializationSchema<T> debeziumDeserializationSchema,
@@ -72,49 +68,79 @@ public final class MySqlRecordEmitter<T>
         this.sourceReaderMetrics = sourceReaderMetrics;
         this.includeSchemaChanges = includeSchemaChanges;
         this.outputCollector = new OutputCollector<>();
+        this.recordKindClassifier = new RecordKindClassifier();
     }
 
     @Override
     public void emitRecord(SourceRecord element, SourceOutput<T> output, MySqlSplitState splitState)
             throws Exception {
-        if (isWatermarkEvent(element)) {
-            BinlogOffset watermark = getWatermark(element);
-            if (isHighWatermarkEvent(element) && splitState.isSnapshotSplitState()) {
-                splitState.asSnapshotSplitState().setHighWatermark(watermark);
-            }
-        } else if (isSchemaChangeEvent(element) && splitState.isBinlogSplitState()) {
-            HistoryRecord historyRecord = getHistoryRecord(element);
-            Array tableChanges =
-                    historyRecord.document().getArray(HistoryRecord.Fields.TABLE_CHANGES);
-            TableChanges changes = TABLE_CHANGE_SERIALIZER.deserialize(tableChanges, true);
-            for (TableChanges.TableChange tableChange : changes) {
-                splitState.asBinlogSplitState().recordSchema(tableChange.getId(), tableChange);
-            }
-            if (includeSchemaChanges) {
-                BinlogOffset position = getBinlogPosition(element);
-                splitState.asBinlogSplitState().setStartingOffset(position);
+        switch (recordKindClassifier.classify(element)) {
+            case LOW_WATERMARK:
+            case BINLOG_END_WATERMARK:
+                break;
+            case HIGH_WATERMARK:
+                if (splitState.isSnapshotSplitState()) {
+                    splitState.asSnapshotSplitState().setHighWatermark(getWatermark(element));
+                }
+                break;
+            case SCHEMA_CHANGE:
+                if (splitState.isBinlogSplitState()) {
+                    emitSchemaChange(element, output, splitState);
+                } else {
+                    LOG.info("Meet unknown element {}, just skip.", element);
+                }
+                break;
+            case DATA_CHANGE:
+                updateStartingOffsetForSplit(splitState, element);
+                reportMetrics(element);
                 emitElement(element, output);
-            }
-        } else if (isDataChangeRecord(element)) {
+                break;
+            case HEARTBEAT:
+                updateStartingOffsetForSplit(splitState, element);
+                break;
+            default:
+                // unknown element
+                LOG.info("Meet unknown element {}, just skip.", element);
+        }
+    }
+
+    private void emitSchemaChange(
+            SourceRecord element, SourceOutput<T> output, MySqlSplitState splitState)
+            throws Exception {
+        HistoryRecord historyRecord = getHistoryRecord(element);
+        Array tableChanges = historyRecord.document().getArray(HistoryRecord.Fields.TABLE_CHANGES);
+        TableChanges changes = TABLE_CHANGE_SERIALIZER.deserialize(tableChanges, true);
+        for (TableChanges.TableChange tableChange : changes) {
+            splitState.asBinlogSplitState().recordSchema(tableChange.getId(), tableChange);
+        }
+        // the table schema loaded on demand carries no DDL statement, it's not a schema change
+        if (includeSchemaChanges && !isLoadedTableSchema(historyRecord)) {
             updateStartingOffsetForSplit(splitState, element);
-            reportMetrics(element);
             emitElement(element, output);
-        } else if (isHeartbeatEvent(element)) {
-            updateStartingOffsetForSplit(splitState, element);
-        } else {
-            // unknown element
-            LOG.info("Meet unknown element {}, just skip.", element);
         }
     }
 
+    private static boolean isLoadedTableSchema(HistoryRecord historyRecord) {
+        return StringUtils.isEmpty(
+                historyRecord.document().getString(HistoryRecord.Fields.DDL_STATEMENTS));
+    }
+
     private void updateStartingOffsetForSplit(MySqlSplitState splitState, SourceRecord element) {
         if (splitState.isBinlogSplitState()) {
-            BinlogOffset position = getBinlogPosition(element);
-            splitState.asBinlogSplitState().setStartingOffset(position);
+            // converted to the binlog offset lazily, on checkpoint rather than for every record
+            splitState.asBinlogSplitState().setStartingSourceOffset(element.sourceOffset());
         }
     }
 
+    @SuppressWarnings("unchecked")
     private void emitElement(SourceRecord element, SourceOutput<T> output) throws Exception {
+        if (element instanceof DeserializedRecord) {
+            // deserialized by the worker threads of the split reader
+            for (T record : ((DeserializedRecord<T>) element).getOutputs()) {
+                output.collect(record);
+            }
+            return;
+        }
         outputCollector.output = output;
         debeziumDeserializationSchema.deserialize(element, outputCollector);
     }
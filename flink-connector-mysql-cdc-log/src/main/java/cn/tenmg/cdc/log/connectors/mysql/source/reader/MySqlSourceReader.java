@@ -36,6 +36,8 @@ import org.slf4j.LoggerFactory;
 
 import cn.tenmg.cdc.log.connectors.mysql.debezium.DebeziumUtils;
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
+import cn.tenmg.cdc.log.connectors.mysql.source.events.BinlogSplitFenceEvent;
+import cn.tenmg.cdc.log.connectors.mysql.source.events.BinlogSplitFenceRequestEvent;
 import cn.tenmg.cdc.log.connectors.mysql.source.events.BinlogSplitMetaEvent;
 import cn.tenmg.cdc.log.connectors.mysql.source.events.BinlogSplitMetaRequestEvent;
 import cn.tenmg.cdc.log.connectors.mysql.source.events.FinishedSnapshotSplitsAckEvent;
@@ -56,6 +58,8 @@ import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplit;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplitState;
 import cn.tenmg.cdc.log.connectors.mysql.source.utils.TableDiscoveryUtils;
 
+import javax.annotation.Nullable;
+
 import static cn.tenmg.cdc.log.connectors.mysql.source.events.WakeupReaderEvent.WakeUpTarget.SNAPSHOT_READER;
 import static cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit.toNormalBinlogSplit;
 import static cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit.toSuspendedBinlogSplit;
@@ -66,8 +70,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -84,6 +90,12 @@ public class MySqlSourceReader<T>
     private final int subtaskId;
     private final MySqlSourceReaderContext mySqlSourceReaderContext;
     private MySqlBinlogSplit suspendedBinlogSplit;
+    // the binlog split which is fenced by the snapshot splits being read
+    @Nullable private String fencedBinlogSplitId;
+    private int receivedFenceSplitInfoSize;
+    // the finished snapshot splits received by the fenced binlog split, merged into its state
+    private final List<FinishedSnapshotSplitInfo> mergedFinishedSplitInfos = new ArrayList<>();
+    private final Set<String> mergedFinishedSplits = new HashSet<>();
 
     public MySqlSourceReader(
             FutureCompletingBlockingQueue<RecordsWithSplitIds<SourceRecord>> elementQueue,
@@ -150,6 +162,15 @@ public class MySqlSourceReader<T>
         for (MySqlSplitState mySqlSplitState : finishedSplitIds.values()) {
             MySqlSplit mySqlSplit = mySqlSplitState.toMySqlSplit();
             if (mySqlSplit.isBinlogSplit()) {
+                fencedBinlogSplitId = null;
+                if (!mySqlSourceReaderContext.needStopBinlogSplitReader()) {
+                    // the bounded binlog split finished at its stopping offset
+                    LOG.info(
+                            "bounded binlog split {} finished, offset {}",
+                            mySqlSplit.splitId(),
+                            mySqlSplitState.asBinlogSplitState().getStartingOffset());
+                    continue;
+                }
                 LOG.info(
                         "binlog split reader suspended due to newly added table, offset {}",
                         mySqlSplitState.asBinlogSplitState().getStartingOffset());
@@ -183,6 +204,12 @@ public class MySqlSourceReader<T>
                 // the binlog split is suspended
                 if (binlogSplit.isSuspended()) {
                     suspendedBinlogSplit = binlogSplit;
+                } else if (binlogSplit.isFenced()
+                        || (binlogSplit.isCompletedSplit() && isCapturingNewlyAddedTablesLive())) {
+                    // the finished snapshot splits are streamed in after the split started, the
+                    // completed split is fenced by the newly added tables which may be captured
+                    uncompletedBinlogSplits.remove(split.splitId());
+                    unfinishedSplits.add(fenceBinlogSplit(binlogSplit));
                 } else if (!binlogSplit.isCompletedSplit()) {
                     uncompletedBinlogSplits.put(split.splitId(), split.asBinlogSplit());
                     requestBinlogSplitMetaIfNeeded(split.asBinlogSplit());
@@ -202,13 +229,43 @@ public class MySqlSourceReader<T>
         }
     }
 
+    private boolean isCapturingNewlyAddedTablesLive() {
+        return sourceConfig.isBinlogEarlyStartEnabled()
+                && sourceConfig.isScanNewlyAddedTableEnabled();
+    }
+
+    private MySqlBinlogSplit fenceBinlogSplit(MySqlBinlogSplit binlogSplit) {
+        final String splitId = binlogSplit.splitId();
+        mergedFinishedSplitInfos.clear();
+        mergedFinishedSplits.clear();
+        for (FinishedSnapshotSplitInfo splitInfo : binlogSplit.getFinishedSnapshotSplitInfos()) {
+            mergedFinishedSplits.add(splitInfo.getSplitId());
+        }
+        fencedBinlogSplitId = splitId;
+        receivedFenceSplitInfoSize = 0;
+        mySqlSourceReaderContext.resetBinlogFence();
+        context.sendSourceEventToCoordinator(new BinlogSplitFenceRequestEvent(splitId, 0));
+        return discoverTableSchemasForBinlogSplit(
+                MySqlBinlogSplit.mergeFinishedSplitInfos(
+                        binlogSplit, Collections.emptyList(), true));
+    }
+
     private MySqlBinlogSplit discoverTableSchemasForBinlogSplit(MySqlBinlogSplit split) {
         final String splitId = split.splitId();
-        if (split.getTableSchemas().isEmpty()) {
+        if (sourceConfig.isLazySchemaLoadingEnabled()) {
+            // the binlog reading loads the schema of a table when its first event arrives
+            LOG.info("The table schemas of binlog split {} are loaded on demand", splitId);
+            return split;
+        }
+        // the newly added tables have no schemas in the split restored from state, the schemas in
+        // the state are kept up to date by the schema changes of the binlog and are reused as is
+        if (split.getTableSchemas().isEmpty()
+                || (split.isFenced() && isCapturingNewlyAddedTablesLive())) {
             try (MySqlConnection jdbc =
                     DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration())) {
                 Map<TableId, TableChanges.TableChange> tableSchemas =
-                        TableDiscoveryUtils.discoverCapturedTableSchemas(sourceConfig, jdbc);
+                        TableDiscoveryUtils.discoverCapturedTableSchemas(
+                                sourceConfig, jdbc, split.getTableSchemas().keySet());
                 LOG.info("The table schema discovery for binlog split {} success", splitId);
                 return MySqlBinlogSplit.fillTableSchemas(split, tableSchemas);
             } catch (SQLException e) {
@@ -246,6 +303,8 @@ public class MySqlSourceReader<T>
                     subtaskId,
                     ((BinlogSplitMetaEvent) sourceEvent).getMetaGroupId());
             fillMetaDataForBinlogSplit((BinlogSplitMetaEvent) sourceEvent);
+        } else if (sourceEvent instanceof BinlogSplitFenceEvent) {
+            updateBinlogSplitFence((BinlogSplitFenceEvent) sourceEvent);
         } else if (sourceEvent instanceof SuspendBinlogReaderEvent) {
             mySqlSourceReaderContext.setStopBinlogSplitReader();
         } else if (sourceEvent instanceof WakeupReaderEvent) {
@@ -337,8 +396,63 @@ public class MySqlSourceReader<T>
         }
     }
 
+    private void updateBinlogSplitFence(BinlogSplitFenceEvent fenceEvent) {
+        final String splitId = fenceEvent.getSplitId();
+        if (!splitId.equals(fencedBinlogSplitId)) {
+            LOG.warn(
+                    "Received binlog fence event for split {}, but the split is not fenced, ignore it",
+                    splitId);
+            return;
+        }
+        if (fenceEvent.getStartIndex() == receivedFenceSplitInfoSize) {
+            receivedFenceSplitInfoSize += fenceEvent.getFinishedSplitInfos().size();
+            // the restored split may contain some of the finished splits already
+            List<FinishedSnapshotSplitInfo> finishedSplitInfos =
+                    fenceEvent.getFinishedSplitInfos().stream()
+                            .map(FinishedSnapshotSplitInfo::deserialize)
+                            .filter(splitInfo -> mergedFinishedSplits.add(splitInfo.getSplitId()))
+                            .collect(Collectors.toList());
+            mergedFinishedSplitInfos.addAll(finishedSplitInfos);
+            List<TableId> fencedTables =
+                    fenceEvent.getFencedTables() == null
+                            ? null
+                            : fenceEvent.getFencedTables().stream()
+                                    .map(TableId::parse)
+                                    .collect(Collectors.toList());
+            mySqlSourceReaderContext.updateBinlogFence(
+                    finishedSplitInfos,
+                    fenceEvent.getFenceOffset(),
+                    fencedTables,
+                    fenceEvent.isSnapshotFinished());
+            if (fenceEvent.isSnapshotFinished()) {
+                LOG.info(
+                        "The fence of binlog split {} is removed with {} finished snapshot splits",
+                        splitId,
+                        receivedFenceSplitInfoSize);
+                fencedBinlogSplitId = null;
+                return;
+            }
+        } else {
+            LOG.warn(
+                    "Received out of oder binlog fence event for split {}, the received start index is {}, but expected is {}, ignore it",
+                    splitId,
+                    fenceEvent.getStartIndex(),
+                    receivedFenceSplitInfoSize);
+        }
+        context.sendSourceEventToCoordinator(
+                new BinlogSplitFenceRequestEvent(splitId, receivedFenceSplitInfoSize));
+    }
+
     @Override
     protected MySqlSplit toSplitType(String splitId, MySqlSplitState splitState) {
-        return splitState.toMySqlSplit();
+        final MySqlSplit split = splitState.toMySqlSplit();
+        if (split.isBinlogSplit() && split.asBinlogSplit().isFenced()) {
+            // the split is no longer fenced once the fence is removed
+            return MySqlBinlogSplit.mergeFinishedSplitInfos(
+                    split.asBinlogSplit(),
+                    mergedFinishedSplitInfos,
+                    splitId.equals(fencedBinlogSplitId));
+        }
+        return split;
     }
 }
@@ -20,6 +20,16 @@ package cn.tenmg.cdc.log.connectors.mysql.source.reader;
 
 import org.apache.flink.api.connector.source.SourceReaderContext;
 
+import io.debezium.relational.TableId;
+
+import javax.annotation.Nullable;
+
+import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
+import cn.tenmg.cdc.log.connectors.mysql.source.split.FinishedSnapshotSplitInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * A wrapper class that wraps {@link SourceReaderContext} for sharing message between {@link
  * MySqlSourceReader} and {@link MySqlSplitReader}.
@@ -29,6 +39,12 @@ public class MySqlSourceReaderContext {
     private final SourceReaderContext sourceReaderContext;
     private volatile boolean stopBinlogSplitReader;
 
+    // the fence of the fenced binlog split, guarded by this
+    private final List<FinishedSnapshotSplitInfo> pendingFinishedSplitInfos = new ArrayList<>();
+    @Nullable private BinlogOffset binlogFenceOffset;
+    @Nullable private List<TableId> binlogFencedTables;
+    private boolean binlogFenceRemoved;
+
     public MySqlSourceReaderContext(final SourceReaderContext sourceReaderContext) {
         this.sourceReaderContext = sourceReaderContext;
         this.stopBinlogSplitReader = false;
@@ -49,4 +65,60 @@ public class MySqlSourceReaderContext {
     public void resetStopBinlogSplitReader() {
         this.stopBinlogSplitReader = false;
     }
+
+    /**
+     * Publishes the finished snapshot splits, the fence offset and the fenced tables received from
+     * the enumerator to the fenced binlog split, the fenced tables are updated with the fence
+     * offset only.
+     */
+    public synchronized void updateBinlogFence(
+            List<FinishedSnapshotSplitInfo> finishedSplitInfos,
+            @Nullable BinlogOffset fenceOffset,
+            @Nullable List<TableId> fencedTables,
+            boolean fenceRemoved) {
+        pendingFinishedSplitInfos.addAll(finishedSplitInfos);
+        if (fenceOffset != null) {
+            binlogFenceOffset = fenceOffset;
+            binlogFencedTables = fencedTables;
+        }
+        binlogFenceRemoved = fenceRemoved;
+    }
+
+    /**
+     * Returns the fenced tables of the fence offset, null if all tables are fenced. It must be
+     * called before {@link #getBinlogFenceOffset()}, the fenced tables only shrink while the fence
+     * offset moves forward.
+     */
+    @Nullable
+    public synchronized List<TableId> getBinlogFencedTables() {
+        return binlogFencedTables;
+    }
+
+    /**
+     * Returns the fence offset, null if no fence offset is received yet. It must be called before
+     * {@link #pollFinishedSplitInfos()}, the finished splits of the fence are published earlier.
+     */
+    @Nullable
+    public synchronized BinlogOffset getBinlogFenceOffset() {
+        return binlogFenceOffset;
+    }
+
+    public synchronized boolean isBinlogFenceRemoved() {
+        return binlogFenceRemoved;
+    }
+
+    /** Returns and clears the finished snapshot splits published since the last call. */
+    public synchronized List<FinishedSnapshotSplitInfo> pollFinishedSplitInfos() {
+        final List<FinishedSnapshotSplitInfo> finishedSplitInfos =
+                new ArrayList<>(pendingFinishedSplitInfos);
+        pendingFinishedSplitInfos.clear();
+        return finishedSplitInfos;
+    }
+
+    public synchronized void resetBinlogFence() {
+        pendingFinishedSplitInfos.clear();
+        binlogFenceOffset = null;
+        binlogFencedTables = null;
+        binlogFenceRemoved = false;
+    }
 }
@@ -26,15 +26,20 @@ import org.apache.flink.connector.base.source.reader.splitreader.SplitsChange;
 import com.github.shyiko.mysql.binlog.BinaryLogClient;
 
 import cn.tenmg.cdc.log.connectors.mysql.debezium.DebeziumUtils;
+import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.AdaptiveBatchSizer;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.BinlogSplitReader;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.DebeziumReader;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.SnapshotSplitReader;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.task.context.StatefulTaskContext;
 import cn.tenmg.cdc.log.connectors.mysql.source.MySqlSource;
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
+import cn.tenmg.cdc.log.connectors.mysql.source.metrics.MySqlSourceReaderMetrics;
+import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
+import cn.tenmg.cdc.log.connectors.mysql.source.split.FinishedSnapshotSplitInfo;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlRecords;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplit;
 import io.debezium.connector.mysql.MySqlConnection;
+import io.debezium.relational.TableId;
 import org.apache.kafka.connect.source.SourceRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +49,7 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
 
 /** The {@link SplitReader} implementation for the {@link MySqlSource}. */
@@ -54,16 +60,41 @@ public class MySqlSplitReader implements SplitReader<SourceRecord, MySqlSplit> {
     private final MySqlSourceConfig sourceConfig;
     private final int subtaskId;
     private final MySqlSourceReaderContext context;
+    @Nullable private final ParallelRecordDeserializer<?> recordDeserializer;
+    @Nullable private final MySqlSourceReaderMetrics sourceReaderMetrics;
+    // shared by the snapshot and binlog readers, the batch size keeps adapting across the splits
+    // the batch sizer of the current reader, each reader observes its own arrival rate
+    private AdaptiveBatchSizer batchSizer;
 
     @Nullable private DebeziumReader<SourceRecord, MySqlSplit> currentReader;
     @Nullable private String currentSplitId;
 
     public MySqlSplitReader(
             MySqlSourceConfig sourceConfig, int subtaskId, MySqlSourceReaderContext context) {
+        this(sourceConfig, subtaskId, context, null);
+    }
+
+    public MySqlSplitReader(
+            MySqlSourceConfig sourceConfig,
+            int subtaskId,
+            MySqlSourceReaderContext context,
+            @Nullable ParallelRecordDeserializer<?> recordDeserializer) {
+        this(sourceConfig, subtaskId, context, recordDeserializer, null);
+    }
+
+    public MySqlSplitReader(
+            MySqlSourceConfig sourceConfig,
+            int subtaskId,
+            MySqlSourceReaderContext context,
+            @Nullable ParallelRecordDeserializer<?> recordDeserializer,
+            @Nullable MySqlSourceReaderMetrics sourceReaderMetrics) {
         this.sourceConfig = sourceConfig;
         this.subtaskId = subtaskId;
         this.splits = new ArrayDeque<>();
         this.context = context;
+        this.recordDeserializer = recordDeserializer;
+        this.sourceReaderMetrics = sourceReaderMetrics;
+        this.batchSizer = createBatchSizer();
     }
 
     @Override
@@ -71,6 +102,7 @@ public class MySqlSplitReader implements SplitReader<SourceRecord, MySqlSplit> {
 
         checkSplitOrStartNext();
         checkNeedStopBinlogReader();
+        checkBinlogFenceUpdates();
 
         Iterator<SourceRecord> dataIt;
         try {
@@ -79,9 +111,16 @@ public class MySqlSplitReader implements SplitReader<SourceRecord, MySqlSplit> {
             LOG.warn("fetch data failed.", e);
             throw new IOException(e);
         }
-        return dataIt == null
-                ? finishedSnapshotSplit()
-                : MySqlRecords.forRecords(currentSplitId, dataIt);
+        if (sourceReaderMetrics != null) {
+            sourceReaderMetrics.recordFetchBatchSize(batchSizer.getBatchSize());
+        }
+        if (dataIt == null) {
+            return finishedSnapshotSplit();
+        }
+        if (recordDeserializer != null) {
+            dataIt = recordDeserializer.deserialize(dataIt);
+        }
+        return MySqlRecords.forRecords(currentSplitId, dataIt);
     }
 
     private void checkNeedStopBinlogReader() {
@@ -92,6 +131,20 @@ public class MySqlSplitReader implements SplitReader<SourceRecord, MySqlSplit> {
         }
     }
 
+    private void checkBinlogFenceUpdates() {
+        if (currentReader instanceof BinlogSplitReader && !currentReader.isFinished()) {
+            // read the fenced tables before the fence offset and the fence offset before the
+            // finished splits, the finished splits of the fence offset are published earlier
+            final List<TableId> fencedTables = context.getBinlogFencedTables();
+            final BinlogOffset fenceOffset = context.getBinlogFenceOffset();
+            final boolean fenceRemoved = context.isBinlogFenceRemoved();
+            final List<FinishedSnapshotSplitInfo> finishedSplitInfos =
+                    context.pollFinishedSplitInfos();
+            ((BinlogSplitReader) currentReader)
+                    .updateFence(finishedSplitInfos, fenceOffset, fencedTables, fenceRemoved);
+        }
+    }
+
     @Override
     public void handleSplitsChanges(SplitsChange<MySqlSplit> splitsChanges) {
         if (!(splitsChanges instanceof SplitsAddition)) {
@@ -110,6 +163,9 @@ public class MySqlSplitReader implements SplitReader<SourceRecord, MySqlSplit> {
 
     @Override
     public void close() throws Exception {
+        if (recordDeserializer != null) {
+            recordDeserializer.close();
+        }
         if (currentReader != null) {
             LOG.info(
                     "Close current debezium reader {}",
@@ -142,7 +198,9 @@ public class MySqlSplitReader implements SplitReader<SourceRecord, MySqlSplit> {
                             DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
                     final StatefulTaskContext statefulTaskContext =
                             new StatefulTaskContext(sourceConfig, binaryLogClient, jdbcConnection);
-                    currentReader = new SnapshotSplitReader(statefulTaskContext, subtaskId);
+                    batchSizer = createBatchSizer();
+                    currentReader =
+                            new SnapshotSplitReader(statefulTaskContext, subtaskId, batchSizer);
                 }
             } else {
                 // point from snapshot split to binlog split
@@ -153,16 +211,28 @@ public class MySqlSplitReader implements SplitReader<SourceRecord, MySqlSplit> {
                 final MySqlConnection jdbcConnection =
                         DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration());
                 final BinaryLogClient binaryLogClient =
-                        DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
+                        sourceConfig.isSharedBinlogConnectionEnabled()
+                                ? DebeziumUtils.createSharedBinaryClient(
+                                        sourceConfig.getDbzConfiguration())
+                                : DebeziumUtils.createBinaryClient(
+                                        sourceConfig.getDbzConfiguration());
                 final StatefulTaskContext statefulTaskContext =
                         new StatefulTaskContext(sourceConfig, binaryLogClient, jdbcConnection);
-                currentReader = new BinlogSplitReader(statefulTaskContext, subtaskId);
+                batchSizer = createBatchSizer();
+                currentReader =
+                        new BinlogSplitReader(statefulTaskContext, subtaskId, batchSizer);
                 LOG.info("BinlogSplitReader is created.");
             }
             currentReader.submitSplit(nextSplit);
         }
     }
 
+    private AdaptiveBatchSizer createBatchSizer() {
+        return new AdaptiveBatchSizer(
+                sourceConfig.getMySqlConnectorConfig().getMaxBatchSize(),
+                sourceConfig.getBatchTargetLatency());
+    }
+
     private boolean canAssignNextSplit() {
         return currentReader == null || currentReader.isFinished();
     }
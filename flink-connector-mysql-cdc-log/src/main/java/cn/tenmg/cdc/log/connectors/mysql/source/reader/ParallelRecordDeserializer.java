@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.source.reader;
+
+import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.isDataChangeRecord;
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+import org.apache.flink.api.common.functions.util.ListCollector;
+import org.apache.flink.util.FlinkRuntimeException;
+import org.apache.flink.util.InstantiationUtil;
+
+import org.apache.flink.shaded.guava18.com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import cn.tenmg.cdc.log.debezium.DebeziumDeserializationSchema;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Deserializes the data change records by a pool of worker threads ahead of the emission.
+ *
+ * <p>The {@link MySqlSplitReader} hands the data change records of a fetched batch to the worker
+ * threads in chunks and replaces each of them by a {@link DeserializedRecord} holding the outputs
+ * of its chunk. The batch keeps its order, so the {@link MySqlRecordEmitter} emits the records in
+ * the binlog order and updates the split state as before. Each worker thread uses its own copy of
+ * the deserialization schema, as the schema is not required to be thread-safe.
+ */
+public class ParallelRecordDeserializer<T> {
+
+    /** The min number of records deserialized by one task, to amortize the task overhead. */
+    private static final int MIN_CHUNK_SIZE = 32;
+
+    private final DebeziumDeserializationSchema<T> deserializationSchema;
+    private final int parallelism;
+    private final int subtaskId;
+    private final ClassLoader userCodeClassLoader;
+    private final ThreadLocal<DebeziumDeserializationSchema<T>> deserializers;
+
+    @Nullable private ExecutorService executor;
+
+    public ParallelRecordDeserializer(
+            DebeziumDeserializationSchema<T> deserializationSchema,
+            int parallelism,
+            int subtaskId) {
+        checkArgument(parallelism > 1, "The deserialization parallelism must be greater than 1");
+        this.deserializationSchema = deserializationSchema;
+        this.parallelism = parallelism;
+        this.subtaskId = subtaskId;
+        this.userCodeClassLoader = Thread.currentThread().getContextClassLoader();
+        this.deserializers = ThreadLocal.withInitial(this::copyDeserializationSchema);
+    }
+
+    /**
+     * Starts deserializing the data change records of the given batch and returns the batch in the
+     * same order, the data change records are replaced by {@link DeserializedRecord}s.
+     */
+    public Iterator<SourceRecord> deserialize(Iterator<SourceRecord> records) {
+        final List<SourceRecord> batch = new ArrayList<>();
+        final List<Integer> changeIndexes = new ArrayList<>();
+        while (records.hasNext()) {
+            SourceRecord record = records.next();
+            if (isDataChangeRecord(record)) {
+                changeIndexes.add(batch.size());
+            }
+            batch.add(record);
+        }
+        if (changeIndexes.isEmpty()) {
+            return batch.iterator();
+        }
+
+        final ExecutorService executor = getExecutor();
+        final int changes = changeIndexes.size();
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE, (changes + parallelism - 1) / parallelism);
+        for (int from = 0; from < changes; from += chunkSize) {
+            final int to = Math.min(from + chunkSize, changes);
+            final List<SourceRecord> chunk = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                chunk.add(batch.get(changeIndexes.get(i)));
+            }
+            final Future<List<List<T>>> outputs = executor.submit(() -> deserializeChunk(chunk));
+            for (int i = from; i < to; i++) {
+                final int index = changeIndexes.get(i);
+                batch.set(index, new DeserializedRecord<>(batch.get(index), outputs, i - from));
+            }
+        }
+        return batch.iterator();
+    }
+
+    /**
+     * Stops the worker threads after the submitted records are deserialized, the threads are
+     * started again for the next batch.
+     */
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            final ThreadFactory threadFactory =
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("mysql-deserializer-" + subtaskId + "-%d")
+                            .setDaemon(true)
+                            .setThreadFactory(
+                                    runnable -> {
+                                        Thread thread = new Thread(runnable);
+                                        thread.setContextClassLoader(userCodeClassLoader);
+                                        return thread;
+                                    })
+                            .build();
+            executor = Executors.newFixedThreadPool(parallelism, threadFactory);
+        }
+        return executor;
+    }
+
+    private List<List<T>> deserializeChunk(List<SourceRecord> chunk) throws Exception {
+        final DebeziumDeserializationSchema<T> deserializer = deserializers.get();
+        final List<List<T>> outputs = new ArrayList<>(chunk.size());
+        for (SourceRecord record : chunk) {
+            final List<T> output = new ArrayList<>(1);
+            deserializer.deserialize(record, new ListCollector<>(output));
+            outputs.add(output);
+        }
+        return outputs;
+    }
+
+    private DebeziumDeserializationSchema<T> copyDeserializationSchema() {
+        try {
+            return InstantiationUtil.clone(deserializationSchema, userCodeClassLoader);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new FlinkRuntimeException("Failed to copy the deserialization schema", e);
+        }
+    }
+
+    /** A data change record with its outputs deserialized by the worker threads. */
+    public static final class DeserializedRecord<T> extends SourceRecord {
+
+        private final Future<List<List<T>>> chunkOutputs;
+        private final int index;
+
+        private DeserializedRecord(
+                SourceRecord record, Future<List<List<T>>> chunkOutputs, int index) {
+            super(
+                    record.sourcePartition(),
+                    record.sourceOffset(),
+                    record.topic(),
+                    record.kafkaPartition(),
+                    record.keySchema(),
+                    record.key(),
+                    record.valueSchema(),
+                    record.value(),
+                    record.timestamp(),
+                    record.headers());
+            this.chunkOutputs = chunkOutputs;
+            this.index = index;
+        }
+
+        /** Waits for the deserialization of the record and returns its outputs. */
+        public List<T> getOutputs() throws Exception {
+            try {
+                return chunkOutputs.get().get(index);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw new FlinkRuntimeException("Failed to deserialize the record", cause);
+            }
+        }
+    }
+}
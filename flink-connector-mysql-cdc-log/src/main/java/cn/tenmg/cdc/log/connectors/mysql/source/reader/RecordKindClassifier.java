@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.source.reader;
+
+import io.debezium.data.Envelope;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordKind;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Classifies the records by their kinds, which are resolved once per value schema rather than by
+ * the schema name lookups of every record.
+ *
+ * <p>Debezium creates the value schema of the data change records once per table schema version,
+ * and the schemas of the heartbeat, schema change and watermark events once per reader, thus the
+ * kind is looked up by the identity of the value schema. Only the watermark events, whose kind is
+ * carried by the value, and the data change records, which must have an operation, are checked
+ * per record. The records of unknown kind are never cached.
+ */
+public final class RecordKindClassifier {
+
+    private static final int MAX_SIZE = 4096;
+
+    private final Map<Schema, RecordKind> kinds = new IdentityHashMap<>();
+
+    public RecordKind classify(SourceRecord record) {
+        final Schema valueSchema = record.valueSchema();
+        if (valueSchema == null) {
+            return RecordUtils.getRecordKind(record);
+        }
+        RecordKind kind = kinds.get(valueSchema);
+        if (kind == null) {
+            kind = RecordUtils.getRecordKind(record);
+            if (kind != RecordKind.UNKNOWN) {
+                if (kinds.size() >= MAX_SIZE) {
+                    kinds.clear();
+                }
+                kinds.put(valueSchema, kind);
+            }
+            return kind;
+        }
+        if (kind.isWatermark()) {
+            return RecordUtils.getRecordKind(record);
+        } else if (kind == RecordKind.DATA_CHANGE
+                && ((Struct) record.value()).get(Envelope.FieldName.OPERATION) == null) {
+            return RecordKind.UNKNOWN;
+        }
+        return kind;
+    }
+
+    public int size() {
+        return kinds.size();
+    }
+}
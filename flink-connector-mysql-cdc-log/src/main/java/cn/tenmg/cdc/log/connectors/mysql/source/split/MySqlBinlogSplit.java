@@ -34,12 +34,21 @@ import java.util.Objects;
 /** The split to describe the binlog of MySql table(s). */
 public class MySqlBinlogSplit extends MySqlSplit {
 
+    /** The id of the binlog split, also the id of the first split of several table groups. */
+    public static final String BINLOG_SPLIT_ID = "binlog-split";
+
     private final BinlogOffset startingOffset;
     private final BinlogOffset endingOffset;
     private final List<FinishedSnapshotSplitInfo> finishedSnapshotSplitInfos;
     private final Map<TableId, TableChange> tableSchemas;
     private final int totalFinishedSplitSize;
     private final boolean isSuspended;
+    /**
+     * Whether the split is fenced by the snapshot splits which are still being read, the finished
+     * snapshot split infos of such split are streamed in incrementally by the enumerator.
+     */
+    private final boolean isFenced;
+
     @Nullable transient byte[] serializedFormCache;
 
     public MySqlBinlogSplit(
@@ -49,7 +58,8 @@ public class MySqlBinlogSplit extends MySqlSplit {
             List<FinishedSnapshotSplitInfo> finishedSnapshotSplitInfos,
             Map<TableId, TableChange> tableSchemas,
             int totalFinishedSplitSize,
-            boolean isSuspended) {
+            boolean isSuspended,
+            boolean isFenced) {
         super(splitId);
         this.startingOffset = startingOffset;
         this.endingOffset = endingOffset;
@@ -57,6 +67,26 @@ public class MySqlBinlogSplit extends MySqlSplit {
         this.tableSchemas = tableSchemas;
         this.totalFinishedSplitSize = totalFinishedSplitSize;
         this.isSuspended = isSuspended;
+        this.isFenced = isFenced;
+    }
+
+    public MySqlBinlogSplit(
+            String splitId,
+            BinlogOffset startingOffset,
+            BinlogOffset endingOffset,
+            List<FinishedSnapshotSplitInfo> finishedSnapshotSplitInfos,
+            Map<TableId, TableChange> tableSchemas,
+            int totalFinishedSplitSize,
+            boolean isSuspended) {
+        this(
+                splitId,
+                startingOffset,
+                endingOffset,
+                finishedSnapshotSplitInfos,
+                tableSchemas,
+                totalFinishedSplitSize,
+                isSuspended,
+                false);
     }
 
     public MySqlBinlogSplit(
@@ -73,6 +103,7 @@ public class MySqlBinlogSplit extends MySqlSplit {
         this.tableSchemas = tableSchemas;
         this.totalFinishedSplitSize = totalFinishedSplitSize;
         this.isSuspended = false;
+        this.isFenced = false;
     }
 
     public BinlogOffset getStartingOffset() {
@@ -100,6 +131,10 @@ public class MySqlBinlogSplit extends MySqlSplit {
         return isSuspended;
     }
 
+    public boolean isFenced() {
+        return isFenced;
+    }
+
     public boolean isCompletedSplit() {
         return totalFinishedSplitSize == finishedSnapshotSplitInfos.size();
     }
@@ -118,6 +153,7 @@ public class MySqlBinlogSplit extends MySqlSplit {
         MySqlBinlogSplit that = (MySqlBinlogSplit) o;
         return totalFinishedSplitSize == that.totalFinishedSplitSize
                 && isSuspended == that.isSuspended
+                && isFenced == that.isFenced
                 && Objects.equals(startingOffset, that.startingOffset)
                 && Objects.equals(endingOffset, that.endingOffset)
                 && Objects.equals(finishedSnapshotSplitInfos, that.finishedSnapshotSplitInfos)
@@ -133,7 +169,8 @@ public class MySqlBinlogSplit extends MySqlSplit {
                 finishedSnapshotSplitInfos,
                 tableSchemas,
                 totalFinishedSplitSize,
-                isSuspended);
+                isSuspended,
+                isFenced);
     }
 
     @Override
@@ -148,6 +185,8 @@ public class MySqlBinlogSplit extends MySqlSplit {
                 + endingOffset
                 + ", isSuspended="
                 + isSuspended
+                + ", isFenced="
+                + isFenced
                 + '}';
     }
 
@@ -164,7 +203,8 @@ public class MySqlBinlogSplit extends MySqlSplit {
                 splitInfos,
                 binlogSplit.getTableSchemas(),
                 binlogSplit.getTotalFinishedSplitSize(),
-                binlogSplit.isSuspended());
+                binlogSplit.isSuspended(),
+                binlogSplit.isFenced());
     }
 
     public static MySqlBinlogSplit fillTableSchemas(
@@ -177,7 +217,8 @@ public class MySqlBinlogSplit extends MySqlSplit {
                 binlogSplit.getFinishedSnapshotSplitInfos(),
                 tableSchemas,
                 binlogSplit.getTotalFinishedSplitSize(),
-                binlogSplit.isSuspended());
+                binlogSplit.isSuspended(),
+                binlogSplit.isFenced());
     }
 
     public static MySqlBinlogSplit toNormalBinlogSplit(
@@ -192,6 +233,37 @@ public class MySqlBinlogSplit extends MySqlSplit {
                 false);
     }
 
+    public static MySqlBinlogSplit createFencedBinlogSplit(
+            String splitId, BinlogOffset startingOffset, BinlogOffset endingOffset) {
+        return new MySqlBinlogSplit(
+                splitId,
+                startingOffset,
+                endingOffset,
+                new ArrayList<>(),
+                new HashMap<>(),
+                0,
+                false,
+                true);
+    }
+
+    public static MySqlBinlogSplit mergeFinishedSplitInfos(
+            MySqlBinlogSplit binlogSplit,
+            List<FinishedSnapshotSplitInfo> splitInfos,
+            boolean isFenced) {
+        final List<FinishedSnapshotSplitInfo> finishedSplitInfos =
+                new ArrayList<>(binlogSplit.getFinishedSnapshotSplitInfos());
+        finishedSplitInfos.addAll(splitInfos);
+        return new MySqlBinlogSplit(
+                binlogSplit.splitId,
+                binlogSplit.getStartingOffset(),
+                binlogSplit.getEndingOffset(),
+                finishedSplitInfos,
+                binlogSplit.getTableSchemas(),
+                finishedSplitInfos.size(),
+                binlogSplit.isSuspended(),
+                isFenced);
+    }
+
     public static MySqlBinlogSplit toSuspendedBinlogSplit(MySqlBinlogSplit normalBinlogSplit) {
         return new MySqlBinlogSplit(
                 normalBinlogSplit.splitId,
@@ -202,4 +274,32 @@ public class MySqlBinlogSplit extends MySqlSplit {
                 normalBinlogSplit.getTotalFinishedSplitSize(),
                 true);
     }
+
+    // -------------------------------------------------------------------
+    // table group utils of several binlog splits
+    // -------------------------------------------------------------------
+
+    /** Returns the id of the binlog split reading the given table group. */
+    public static String binlogSplitId(int group) {
+        return group == 0 ? BINLOG_SPLIT_ID : BINLOG_SPLIT_ID + "-" + group;
+    }
+
+    /** Returns the table group read by the binlog split of the given id. */
+    public static int binlogSplitGroup(String splitId) {
+        if (BINLOG_SPLIT_ID.equals(splitId)) {
+            return 0;
+        }
+        if (!splitId.startsWith(BINLOG_SPLIT_ID + "-")) {
+            throw new IllegalArgumentException("Invalid binlog split id: " + splitId);
+        }
+        return Integer.parseInt(splitId.substring(BINLOG_SPLIT_ID.length() + 1));
+    }
+
+    /**
+     * Returns the group of the given table among the given number of table groups. All the changes
+     * of one table are read by the binlog split of its group, so the order of them is kept.
+     */
+    public static int tableGroup(TableId tableId, int groups) {
+        return groups <= 1 ? 0 : Math.floorMod(tableId.toString().hashCode(), groups);
+    }
 }
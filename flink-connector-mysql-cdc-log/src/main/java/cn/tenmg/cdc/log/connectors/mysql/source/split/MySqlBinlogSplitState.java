@@ -24,6 +24,7 @@ import io.debezium.relational.history.TableChanges.TableChange;
 import javax.annotation.Nullable;
 
 import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
 
 import java.util.Map;
 
@@ -31,6 +32,8 @@ import java.util.Map;
 public class MySqlBinlogSplitState extends MySqlSplitState {
 
     @Nullable private BinlogOffset startingOffset;
+    // the source offset of the latest emitted record, converted to the starting offset on demand
+    @Nullable private Map<String, ?> startingSourceOffset;
     @Nullable private BinlogOffset endingOffset;
     private final Map<TableId, TableChange> tableSchemas;
 
@@ -43,11 +46,25 @@ public class MySqlBinlogSplitState extends MySqlSplitState {
 
     @Nullable
     public BinlogOffset getStartingOffset() {
+        if (startingSourceOffset != null) {
+            startingOffset = RecordUtils.getBinlogPosition(startingSourceOffset);
+            startingSourceOffset = null;
+        }
         return startingOffset;
     }
 
     public void setStartingOffset(@Nullable BinlogOffset startingOffset) {
         this.startingOffset = startingOffset;
+        this.startingSourceOffset = null;
+    }
+
+    /**
+     * Sets the starting offset by the source offset of the emitted record, which is kept as is and
+     * only converted to the {@link BinlogOffset} when it's read, e.g. on checkpoint, instead of for
+     * every record. The source offset must not be changed after the record is emitted.
+     */
+    public void setStartingSourceOffset(Map<String, ?> sourceOffset) {
+        this.startingSourceOffset = sourceOffset;
     }
 
     @Nullable
@@ -76,14 +93,15 @@ public class MySqlBinlogSplitState extends MySqlSplitState {
                 binlogSplit.asBinlogSplit().getFinishedSnapshotSplitInfos(),
                 getTableSchemas(),
                 binlogSplit.getTotalFinishedSplitSize(),
-                binlogSplit.isSuspended());
+                binlogSplit.isSuspended(),
+                binlogSplit.isFenced());
     }
 
     @Override
     public String toString() {
         return "MySqlBinlogSplitState{"
                 + "startingOffset="
-                + startingOffset
+                + getStartingOffset()
                 + ", endingOffset="
                 + endingOffset
                 + ", split="
@@ -46,7 +46,7 @@ public final class MySqlSplitSerializer implements SimpleVersionedSerializer<MyS
 
     public static final MySqlSplitSerializer INSTANCE = new MySqlSplitSerializer();
 
-    private static final int VERSION = 4;
+    private static final int VERSION = 5;
     private static final ThreadLocal<DataOutputSerializer> SERIALIZER_CACHE =
             ThreadLocal.withInitial(() -> new DataOutputSerializer(64));
 
@@ -102,6 +102,7 @@ public final class MySqlSplitSerializer implements SimpleVersionedSerializer<MyS
             writeTableSchemas(binlogSplit.getTableSchemas(), out);
             out.writeInt(binlogSplit.getTotalFinishedSplitSize());
             out.writeBoolean(binlogSplit.isSuspended());
+            out.writeBoolean(binlogSplit.isFenced());
             final byte[] result = out.getCopyOfBuffer();
             out.clear();
             // optimization: cache the serialized from, so we avoid the byte work during repeated
@@ -118,6 +119,7 @@ public final class MySqlSplitSerializer implements SimpleVersionedSerializer<MyS
             case 2:
             case 3:
             case 4:
+            case 5:
                 return deserializeSplit(version, serialized);
             default:
                 throw new IOException("Unknown version: " + version);
@@ -156,11 +158,15 @@ public final class MySqlSplitSerializer implements SimpleVersionedSerializer<MyS
             Map<TableId, TableChange> tableChangeMap = readTableSchemas(version, in);
             int totalFinishedSplitSize = finishedSplitsInfo.size();
             boolean isSuspended = false;
+            boolean isFenced = false;
             if (version >= 3) {
                 totalFinishedSplitSize = in.readInt();
                 if (version > 3) {
                     isSuspended = in.readBoolean();
                 }
+                if (version > 4) {
+                    isFenced = in.readBoolean();
+                }
             }
             in.releaseArrays();
             return new MySqlBinlogSplit(
@@ -170,7 +176,8 @@ public final class MySqlSplitSerializer implements SimpleVersionedSerializer<MyS
                     finishedSplitsInfo,
                     tableChangeMap,
                     totalFinishedSplitSize,
-                    isSuspended);
+                    isSuspended,
+                    isFenced);
         } else {
             throw new IOException("Unknown split kind: " + splitKind);
         }
@@ -207,6 +214,7 @@ public final class MySqlSplitSerializer implements SimpleVersionedSerializer<MyS
                 case 2:
                 case 3:
                 case 4:
+                case 5:
                     final int len = in.readInt();
                     final byte[] bytes = new byte[len];
                     in.read(bytes);
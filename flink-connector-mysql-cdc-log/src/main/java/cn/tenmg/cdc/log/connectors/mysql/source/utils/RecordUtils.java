@@ -29,12 +29,15 @@ import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.source.SourceRecord;
 
+import cn.tenmg.cdc.log.connectors.mysql.debezium.RowImageReconstructor;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.dispatcher.SignalEventDispatcher.WatermarkKind;
 import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.DebeziumReader;
 import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.FinishedSnapshotSplitInfo;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSnapshotSplit;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -45,7 +48,6 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static cn.tenmg.cdc.log.connectors.mysql.debezium.dispatcher.EventDispatcherImpl.HISTORY_RECORD_FIELD;
@@ -113,11 +115,16 @@ public class RecordUtils {
             if (i < sourceRecords.size() - 1) {
                 List<SourceRecord> allBinlogRecords =
                         sourceRecords.subList(i, sourceRecords.size() - 1);
+                // the split key field contains single field now
+                String splitFieldName =
+                        nameAdjuster.adjust(
+                                snapshotSplit.getSplitKeyType().getFieldNames().get(0));
+                SplitKeyComparator splitKeyComparator =
+                        SplitKeyComparator.of(snapshotSplit.getSplitKeyType());
                 for (SourceRecord binlog : allBinlogRecords) {
                     if (isDataChangeRecord(binlog)) {
-                        Object[] key =
-                                getSplitKey(snapshotSplit.getSplitKeyType(), binlog, nameAdjuster);
-                        if (splitKeyRangeContains(
+                        Object key = ((Struct) binlog.key()).get(splitFieldName);
+                        if (splitKeyComparator.rangeContains(
                                 key, snapshotSplit.getSplitStart(), snapshotSplit.getSplitEnd())) {
                             binlogRecords.add(binlog);
                         }
@@ -168,6 +175,12 @@ public class RecordUtils {
                                             binlog.key(),
                                             binlog.valueSchema(),
                                             envelope.read(after, source, fetchTs));
+                            List<String> absentColumns =
+                                    RowImageReconstructor.getAbsentColumns(binlog);
+                            if (absentColumns != null) {
+                                mergeAbsentColumns(
+                                        record, after, absentColumns, snapshotRecords.get(key));
+                            }
                             snapshotRecords.put(key, record);
                             break;
                         case DELETE:
@@ -191,6 +204,41 @@ public class RecordUtils {
         return normalizedRecords;
     }
 
+    /**
+     * Takes the columns absent from the partial row image of the upserted record from the last
+     * full image of the row, i.e. the snapshot record or an upserted record, and marks the columns
+     * still absent, if the previous image of the row is not full either.
+     */
+    private static void mergeAbsentColumns(
+            SourceRecord record,
+            Struct after,
+            List<String> absentColumns,
+            @Nullable SourceRecord previous) {
+        final List<String> previousAbsentColumns =
+                previous == null ? null : RowImageReconstructor.getAbsentColumns(previous);
+        final Struct previousAfter =
+                previous == null
+                        ? null
+                        : ((Struct) previous.value()).getStruct(Envelope.FieldName.AFTER);
+        final List<String> stillAbsentColumns = new ArrayList<>();
+        for (String column : absentColumns) {
+            if (previousAfter == null
+                    || previousAfter.schema().field(column) == null
+                    || (previousAbsentColumns != null && previousAbsentColumns.contains(column))) {
+                stillAbsentColumns.add(column);
+            } else {
+                after.put(column, previousAfter.get(column));
+            }
+        }
+        if (!stillAbsentColumns.isEmpty()) {
+            record.headers()
+                    .addList(
+                            RowImageReconstructor.ABSENT_COLUMNS_HEADER,
+                            stillAbsentColumns,
+                            RowImageReconstructor.ABSENT_COLUMNS_SCHEMA);
+        }
+    }
+
     /**
      * Format message timestamp(source.ts_ms) value to 0L for all records read in snapshot phase.
      */
@@ -218,39 +266,28 @@ public class RecordUtils {
                                             record.keySchema(),
                                             record.key(),
                                             record.valueSchema(),
-                                            envelope.read(updateAfter, source, fetchTs));
+                                            envelope.read(updateAfter, source, fetchTs),
+                                            record.timestamp(),
+                                            record.headers());
                             return sourceRecord;
                         })
                 .collect(Collectors.toList());
     }
 
     public static boolean isWatermarkEvent(SourceRecord record) {
-        Optional<WatermarkKind> watermarkKind = getWatermarkKind(record);
-        return watermarkKind.isPresent();
+        return getWatermarkKind(record) != null;
     }
 
     public static boolean isLowWatermarkEvent(SourceRecord record) {
-        Optional<WatermarkKind> watermarkKind = getWatermarkKind(record);
-        if (watermarkKind.isPresent() && watermarkKind.get() == WatermarkKind.LOW) {
-            return true;
-        }
-        return false;
+        return getWatermarkKind(record) == WatermarkKind.LOW;
     }
 
     public static boolean isHighWatermarkEvent(SourceRecord record) {
-        Optional<WatermarkKind> watermarkKind = getWatermarkKind(record);
-        if (watermarkKind.isPresent() && watermarkKind.get() == WatermarkKind.HIGH) {
-            return true;
-        }
-        return false;
+        return getWatermarkKind(record) == WatermarkKind.HIGH;
     }
 
     public static boolean isEndWatermarkEvent(SourceRecord record) {
-        Optional<WatermarkKind> watermarkKind = getWatermarkKind(record);
-        if (watermarkKind.isPresent() && watermarkKind.get() == WatermarkKind.BINLOG_END) {
-            return true;
-        }
-        return false;
+        return getWatermarkKind(record) == WatermarkKind.BINLOG_END;
     }
 
     public static BinlogOffset getWatermark(SourceRecord watermarkEvent) {
@@ -358,7 +395,12 @@ public class RecordUtils {
     public static Object[] getSplitKey(
             RowType splitBoundaryType, SourceRecord dataRecord, SchemaNameAdjuster nameAdjuster) {
         // the split key field contains single field now
-        String splitFieldName = nameAdjuster.adjust(splitBoundaryType.getFieldNames().get(0));
+        return getSplitKey(
+                nameAdjuster.adjust(splitBoundaryType.getFieldNames().get(0)), dataRecord);
+    }
+
+    /** Returns the split key of the record by the name of the split key field adjusted already. */
+    public static Object[] getSplitKey(String splitFieldName, SourceRecord dataRecord) {
         Struct key = (Struct) dataRecord.key();
         return new Object[] {key.get(splitFieldName)};
     }
@@ -414,7 +456,7 @@ public class RecordUtils {
         }
     }
 
-    private static int compareObjects(Object o1, Object o2) {
+    static int compareObjects(Object o1, Object o2) {
         if (o1 instanceof Comparable && o1.getClass().equals(o2.getClass())) {
             return ((Comparable) o1).compareTo(o2);
         } else {
@@ -428,12 +470,39 @@ public class RecordUtils {
         return new HistoryRecord(DOCUMENT_READER.read(historyRecordStr));
     }
 
-    private static Optional<WatermarkKind> getWatermarkKind(SourceRecord record) {
+    /**
+     * Returns the kind of the record, checked in the same order as the {@link
+     * cn.tenmg.cdc.log.connectors.mysql.source.reader.MySqlRecordEmitter} did by the predicates of
+     * the kinds.
+     */
+    public static RecordKind getRecordKind(SourceRecord record) {
+        WatermarkKind watermarkKind = getWatermarkKind(record);
+        if (watermarkKind != null) {
+            switch (watermarkKind) {
+                case LOW:
+                    return RecordKind.LOW_WATERMARK;
+                case HIGH:
+                    return RecordKind.HIGH_WATERMARK;
+                default:
+                    return RecordKind.BINLOG_END_WATERMARK;
+            }
+        } else if (isSchemaChangeEvent(record)) {
+            return RecordKind.SCHEMA_CHANGE;
+        } else if (record.valueSchema() != null && isDataChangeRecord(record)) {
+            return RecordKind.DATA_CHANGE;
+        } else if (isHeartbeatEvent(record)) {
+            return RecordKind.HEARTBEAT;
+        }
+        return RecordKind.UNKNOWN;
+    }
+
+    @Nullable
+    private static WatermarkKind getWatermarkKind(SourceRecord record) {
         if (record.valueSchema() != null
                 && SIGNAL_EVENT_VALUE_SCHEMA_NAME.equals(record.valueSchema().name())) {
             Struct value = (Struct) record.value();
-            return Optional.of(WatermarkKind.valueOf(value.getString(WATERMARK_KIND)));
+            return WatermarkKind.valueOf(value.getString(WATERMARK_KIND));
         }
-        return Optional.empty();
+        return null;
     }
 }
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.source.utils;
+
+import org.apache.flink.table.types.logical.RowType;
+
+import javax.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Compares the split key of a record with the split boundaries by the type of the split key, which
+ * is built once per split key type and compares the integral, decimal, floating point and string
+ * keys directly, without the temporary arrays of {@link RecordUtils#splitKeyRangeContains}.
+ *
+ * <p>The split key of the binlog record may have a different Java type from the boundaries queried
+ * from the table, e.g. {@link BigInteger} and {@link Long}, the numbers of different types are
+ * compared by their values. The keys of other types are compared as {@link
+ * RecordUtils#splitKeyRangeContains} does.
+ */
+public abstract class SplitKeyComparator {
+
+    private static final SplitKeyComparator INTEGRAL = new IntegralComparator();
+    private static final SplitKeyComparator DECIMAL = new DecimalComparator();
+    private static final SplitKeyComparator FLOATING_POINT = new FloatingPointComparator();
+    private static final SplitKeyComparator STRING = new StringComparator();
+    private static final SplitKeyComparator GENERIC = new GenericComparator();
+
+    private SplitKeyComparator() {}
+
+    /** Returns the comparator of the split key type, the split key contains single field now. */
+    public static SplitKeyComparator of(RowType splitKeyType) {
+        switch (splitKeyType.getTypeAt(0).getTypeRoot()) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+                return INTEGRAL;
+            case DECIMAL:
+                return DECIMAL;
+            case FLOAT:
+            case DOUBLE:
+                return FLOATING_POINT;
+            case CHAR:
+            case VARCHAR:
+                return STRING;
+            default:
+                return GENERIC;
+        }
+    }
+
+    /** Compares the split key with a split boundary. */
+    public abstract int compare(Object key, Object boundary);
+
+    /**
+     * Returns whether the split key is in the range of the split, i.e. not before the split start
+     * and before the split end, the null boundary is unbounded.
+     */
+    public boolean rangeContains(
+            Object key, @Nullable Object[] splitStart, @Nullable Object[] splitEnd) {
+        if (splitStart != null && compare(key, splitStart[0]) < 0) {
+            return false;
+        }
+        return splitEnd == null || compare(key, splitEnd[0]) < 0;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long
+                || value instanceof Integer
+                || value instanceof Short
+                || value instanceof Byte;
+    }
+
+    private static int compareNumbers(Object key, Object boundary) {
+        if (key instanceof Number && boundary instanceof Number) {
+            return toBigDecimal((Number) key).compareTo(toBigDecimal((Number) boundary));
+        }
+        return RecordUtils.compareObjects(key, boundary);
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        } else if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        } else if (number instanceof Double || number instanceof Float) {
+            return BigDecimal.valueOf(number.doubleValue());
+        }
+        return BigDecimal.valueOf(number.longValue());
+    }
+
+    private static final class IntegralComparator extends SplitKeyComparator {
+        @Override
+        public int compare(Object key, Object boundary) {
+            if (isIntegral(key) && isIntegral(boundary)) {
+                return Long.compare(((Number) key).longValue(), ((Number) boundary).longValue());
+            }
+            return compareNumbers(key, boundary);
+        }
+    }
+
+    private static final class DecimalComparator extends SplitKeyComparator {
+        @Override
+        public int compare(Object key, Object boundary) {
+            if (key instanceof BigDecimal && boundary instanceof BigDecimal) {
+                return ((BigDecimal) key).compareTo((BigDecimal) boundary);
+            }
+            return compareNumbers(key, boundary);
+        }
+    }
+
+    private static final class FloatingPointComparator extends SplitKeyComparator {
+        @Override
+        public int compare(Object key, Object boundary) {
+            if ((key instanceof Double || key instanceof Float)
+                    && (boundary instanceof Double || boundary instanceof Float)) {
+                return Double.compare(
+                        ((Number) key).doubleValue(), ((Number) boundary).doubleValue());
+            }
+            return compareNumbers(key, boundary);
+        }
+    }
+
+    private static final class StringComparator extends SplitKeyComparator {
+        @Override
+        public int compare(Object key, Object boundary) {
+            if (key instanceof String && boundary instanceof String) {
+                return ((String) key).compareTo((String) boundary);
+            }
+            return RecordUtils.compareObjects(key, boundary);
+        }
+    }
+
+    private static final class GenericComparator extends SplitKeyComparator {
+        @Override
+        public int compare(Object key, Object boundary) {
+            return RecordUtils.compareObjects(key, boundary);
+        }
+    }
+}
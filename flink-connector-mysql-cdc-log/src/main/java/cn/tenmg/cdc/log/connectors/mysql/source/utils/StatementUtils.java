@@ -23,13 +23,19 @@ import org.apache.flink.table.types.logical.RowType;
 import io.debezium.jdbc.JdbcConnection;
 import io.debezium.relational.TableId;
 
+import javax.annotation.Nullable;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static org.apache.flink.util.Preconditions.checkArgument;
+
 /** Utils to prepare SQL statement. */
 public class StatementUtils {
 
@@ -223,6 +229,87 @@ public class StatementUtils {
         }
     }
 
+    /**
+     * Builds the query to scan one keyset page of a split, the page is ordered by the given page key
+     * columns, i.e. the primary key whose first column is the split key, and limited to {@code
+     * pageSize} rows. The first page of the split starts from the split start (inclusive), the
+     * following pages start after the page key of the last row read (exclusive), all pages stop
+     * before the split end.
+     */
+    public static String buildSplitPageScanQuery(
+            TableId tableId,
+            RowType splitKeyType,
+            List<String> pageKeyNames,
+            boolean hasLowerBound,
+            boolean isInclusiveLowerBound,
+            boolean hasUpperBound,
+            int pageSize) {
+        checkArgument(
+                splitKeyType.getFieldCount() == 1,
+                "Keyset pagination only supports single split key column, but is %s",
+                splitKeyType);
+        final String splitKeyName = splitKeyType.getFieldNames().get(0);
+        checkArgument(
+                !pageKeyNames.isEmpty() && pageKeyNames.get(0).equals(splitKeyName),
+                "The page key %s must start with the split key %s",
+                pageKeyNames,
+                splitKeyName);
+        final String splitKey = quote(splitKeyName);
+        final StringBuilder sql = new StringBuilder();
+        if (hasLowerBound) {
+            if (isInclusiveLowerBound) {
+                sql.append(splitKey).append(" >= ?");
+            } else if (pageKeyNames.size() == 1) {
+                sql.append(splitKey).append(" > ?");
+            } else {
+                // the rows sharing the split key of the last row read are not skipped
+                sql.append(getRowConstructor(pageKeyNames, StatementUtils::quote))
+                        .append(" > ")
+                        .append(getRowConstructor(pageKeyNames, name -> "?"));
+            }
+        }
+        if (hasUpperBound) {
+            if (hasLowerBound) {
+                sql.append(" AND ");
+            }
+            sql.append(splitKey).append(" < ?");
+        }
+        return buildSelectWithRowLimits(
+                tableId,
+                pageSize,
+                "*",
+                sql.length() == 0 ? Optional.empty() : Optional.of(sql.toString()),
+                Optional.of(
+                        pageKeyNames.stream()
+                                .map(StatementUtils::quote)
+                                .collect(Collectors.joining(", "))));
+    }
+
+    /**
+     * Prepares the statement of a query built by {@link #buildSplitPageScanQuery}, the lower bound
+     * is the split start of the first page or the page key of the last row read. The errors are
+     * thrown as they are, so that the caller can retry the page after a reconnect.
+     */
+    public static PreparedStatement readTableSplitPageStatement(
+            JdbcConnection jdbc,
+            String sql,
+            @Nullable Object[] lowerBound,
+            @Nullable Object upperBound,
+            int fetchSize)
+            throws SQLException {
+        final PreparedStatement statement = initStatement(jdbc, sql, fetchSize);
+        int parameterIndex = 1;
+        if (lowerBound != null) {
+            for (Object value : lowerBound) {
+                statement.setObject(parameterIndex++, value);
+            }
+        }
+        if (upperBound != null) {
+            statement.setObject(parameterIndex, upperBound);
+        }
+        return statement;
+    }
+
     public static String quote(String dbOrTableName) {
         return "`" + dbOrTableName + "`";
     }
@@ -240,6 +327,11 @@ public class StatementUtils {
         return statement;
     }
 
+    private static String getRowConstructor(
+            List<String> columnNames, Function<String, String> mapper) {
+        return columnNames.stream().map(mapper).collect(Collectors.joining(", ", "(", ")"));
+    }
+
     private static void addPrimaryKeyColumnsToCondition(
             RowType pkRowType, StringBuilder sql, String predicate) {
         for (Iterator<String> fieldNamesIt = pkRowType.getFieldNames().iterator();
@@ -35,14 +35,66 @@ import static cn.tenmg.cdc.log.connectors.mysql.source.utils.StatementUtils.quot
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /** Utilities to discovery matched tables. */
 public class TableDiscoveryUtils {
     private static final Logger LOG = LoggerFactory.getLogger(TableDiscoveryUtils.class);
 
+    private static final String LIST_TABLES_QUERY =
+            "SELECT TABLE_SCHEMA, TABLE_NAME FROM information_schema.TABLES"
+                    + " WHERE TABLE_TYPE = 'BASE TABLE' AND TABLE_SCHEMA NOT IN"
+                    + " ('information_schema', 'mysql', 'performance_schema', 'sys')"
+                    + " ORDER BY TABLE_SCHEMA, TABLE_NAME";
+
+    /**
+     * Lists the captured tables, from information_schema in bulk if enabled and fallback to {@link
+     * #listTables(JdbcConnection, RelationalTableFilters)} if information_schema can't be read.
+     */
+    public static List<TableId> listCapturedTables(
+            JdbcConnection jdbc, MySqlSourceConfig sourceConfig) throws SQLException {
+        if (sourceConfig.isBulkTableDiscoveryEnabled()) {
+            try {
+                return listTablesFromInformationSchema(jdbc, sourceConfig.getTableFilters());
+            } catch (SQLException e) {
+                LOG.warn(
+                        "Failed to list tables from information_schema, fallback to list the tables of each database",
+                        e);
+            }
+        }
+        return listTables(jdbc, sourceConfig.getTableFilters());
+    }
+
+    public static List<TableId> listTablesFromInformationSchema(
+            JdbcConnection jdbc, RelationalTableFilters tableFilters) throws SQLException {
+        final List<TableId> capturedTableIds = new ArrayList<>();
+        final int[] filteredTables = {0};
+        LOG.info("Read list of available tables from information_schema");
+        jdbc.query(
+                LIST_TABLES_QUERY,
+                rs -> {
+                    while (rs.next()) {
+                        TableId tableId = new TableId(rs.getString(1), null, rs.getString(2));
+                        if (tableFilters.dataCollectionFilter().isIncluded(tableId)) {
+                            capturedTableIds.add(tableId);
+                            LOG.debug("\t including '{}' for further processing", tableId);
+                        } else {
+                            filteredTables[0]++;
+                            LOG.debug("\t '{}' is filtered out of capturing", tableId);
+                        }
+                    }
+                });
+        LOG.info(
+                "\t {} tables are included for further processing and {} tables are filtered out",
+                capturedTableIds.size(),
+                filteredTables[0]);
+        return capturedTableIds;
+    }
+
     public static List<TableId> listTables(JdbcConnection jdbc, RelationalTableFilters tableFilters)
             throws SQLException {
         final List<TableId> capturedTableIds = new ArrayList<>();
@@ -98,9 +150,18 @@ public class TableDiscoveryUtils {
 
     public static Map<TableId, TableChanges.TableChange> discoverCapturedTableSchemas(
             MySqlSourceConfig sourceConfig, MySqlConnection jdbc) {
+        return discoverCapturedTableSchemas(sourceConfig, jdbc, Collections.emptySet());
+    }
+
+    /**
+     * Discovers the schemas of the captured tables except the known ones, e.g. the schemas restored
+     * from state which are kept up to date by the schema change events of the binlog.
+     */
+    public static Map<TableId, TableChanges.TableChange> discoverCapturedTableSchemas(
+            MySqlSourceConfig sourceConfig, MySqlConnection jdbc, Set<TableId> knownTableIds) {
         final List<TableId> capturedTableIds;
         try {
-            capturedTableIds = listTables(jdbc, sourceConfig.getTableFilters());
+            capturedTableIds = listCapturedTables(jdbc, sourceConfig);
         } catch (SQLException e) {
             throw new FlinkRuntimeException("Failed to discover captured tables", e);
         }
@@ -111,8 +172,19 @@ public class TableDiscoveryUtils {
                             sourceConfig.getDatabaseList(), sourceConfig.getTableList()));
         }
 
+        if (!knownTableIds.isEmpty()) {
+            capturedTableIds.removeAll(knownTableIds);
+            LOG.info(
+                    "Reuse the known schemas of {} tables, discover the schemas of {} tables",
+                    knownTableIds.size(),
+                    capturedTableIds.size());
+        }
+
         // fetch table schemas
         MySqlSchema mySqlSchema = new MySqlSchema(sourceConfig, jdbc.isTableIdCaseSensitive());
+        if (sourceConfig.isBulkTableDiscoveryEnabled()) {
+            return mySqlSchema.getTableSchemas(jdbc, capturedTableIds);
+        }
         Map<TableId, TableChanges.TableChange> tableSchemas = new HashMap<>();
         for (TableId tableId : capturedTableIds) {
             TableChanges.TableChange tableSchema = mySqlSchema.getTableSchema(jdbc, tableId);
@@ -19,16 +19,20 @@
 package cn.tenmg.cdc.log.connectors.mysql.table;
 
 import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.data.GenericArrayData;
 import org.apache.flink.table.data.StringData;
 import org.apache.flink.table.data.TimestampData;
 import org.apache.flink.table.types.DataType;
 
+import cn.tenmg.cdc.log.connectors.mysql.debezium.RowImageReconstructor;
 import cn.tenmg.cdc.log.debezium.table.MetadataConverter;
 import io.debezium.connector.AbstractSourceInfo;
 import io.debezium.data.Envelope;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.source.SourceRecord;
 
+import java.util.List;
+
 /** Defines the supported metadata columns for {@link MySqlTableSource}. */
 public enum MySqlReadableMetadata {
     /** Name of the table that contain the row. */
@@ -80,6 +84,32 @@ public enum MySqlReadableMetadata {
                     return TimestampData.fromEpochMillis(
                             (Long) sourceStruct.get(AbstractSourceInfo.TIMESTAMP_KEY));
                 }
+            }),
+
+    /**
+     * Names of the columns absent from the row image written with binlog_row_image=MINIMAL or
+     * NOBLOB, whose values are not known. The fields of the columns are still emitted as nulls or
+     * the fallback values of the non-null columns, the list is only informational. The value is
+     * null if the row image is full, or the minimal row images are not enabled.
+     */
+    ROW_IMAGE_ABSENT_COLUMNS(
+            RowImageReconstructor.ABSENT_COLUMNS_HEADER,
+            DataTypes.ARRAY(DataTypes.STRING().notNull()),
+            new MetadataConverter() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public Object read(SourceRecord record) {
+                    List<String> absentColumns = RowImageReconstructor.getAbsentColumns(record);
+                    if (absentColumns == null) {
+                        return null;
+                    }
+                    StringData[] columns = new StringData[absentColumns.size()];
+                    for (int i = 0; i < columns.length; i++) {
+                        columns[i] = StringData.fromString(absentColumns.get(i));
+                    }
+                    return new GenericArrayData(columns);
+                }
             });
 
     private final String key;
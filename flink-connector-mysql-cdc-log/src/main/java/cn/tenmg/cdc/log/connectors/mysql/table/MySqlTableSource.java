@@ -78,9 +78,12 @@ public class MySqlTableSource implements ScanTableSource, SupportsReadingMetadat
     private final double distributionFactorUpper;
     private final double distributionFactorLower;
     private final StartupOptions startupOptions;
+    private final StopOptions stopOptions;
     private final boolean scanNewlyAddedTableEnabled;
     private final Properties jdbcProperties;
     private final Duration heartbeatInterval;
+    private final boolean minimalRowImageEnabled;
+    private final int minimalRowImageCacheSize;
 
     // --------------------------------------------------------------------------------------------
     // Mutable attributes
@@ -164,6 +167,114 @@ public class MySqlTableSource implements ScanTableSource, SupportsReadingMetadat
             boolean scanNewlyAddedTableEnabled,
             Properties jdbcProperties,
             Duration heartbeatInterval) {
+        this(
+                physicalSchema,
+                port,
+                hostname,
+                database,
+                tableName,
+                username,
+                password,
+                serverTimeZone,
+                dbzProperties,
+                serverId,
+                enableParallelRead,
+                splitSize,
+                splitMetaGroupSize,
+                fetchSize,
+                connectTimeout,
+                connectMaxRetries,
+                connectionPoolSize,
+                distributionFactorUpper,
+                distributionFactorLower,
+                startupOptions,
+                StopOptions.never(),
+                scanNewlyAddedTableEnabled,
+                jdbcProperties,
+                heartbeatInterval);
+    }
+
+    public MySqlTableSource(
+            ResolvedSchema physicalSchema,
+            int port,
+            String hostname,
+            String database,
+            String tableName,
+            String username,
+            String password,
+            ZoneId serverTimeZone,
+            Properties dbzProperties,
+            @Nullable String serverId,
+            boolean enableParallelRead,
+            int splitSize,
+            int splitMetaGroupSize,
+            int fetchSize,
+            Duration connectTimeout,
+            int connectMaxRetries,
+            int connectionPoolSize,
+            double distributionFactorUpper,
+            double distributionFactorLower,
+            StartupOptions startupOptions,
+            StopOptions stopOptions,
+            boolean scanNewlyAddedTableEnabled,
+            Properties jdbcProperties,
+            Duration heartbeatInterval) {
+        this(
+                physicalSchema,
+                port,
+                hostname,
+                database,
+                tableName,
+                username,
+                password,
+                serverTimeZone,
+                dbzProperties,
+                serverId,
+                enableParallelRead,
+                splitSize,
+                splitMetaGroupSize,
+                fetchSize,
+                connectTimeout,
+                connectMaxRetries,
+                connectionPoolSize,
+                distributionFactorUpper,
+                distributionFactorLower,
+                startupOptions,
+                stopOptions,
+                scanNewlyAddedTableEnabled,
+                jdbcProperties,
+                heartbeatInterval,
+                false,
+                0);
+    }
+
+    public MySqlTableSource(
+            ResolvedSchema physicalSchema,
+            int port,
+            String hostname,
+            String database,
+            String tableName,
+            String username,
+            String password,
+            ZoneId serverTimeZone,
+            Properties dbzProperties,
+            @Nullable String serverId,
+            boolean enableParallelRead,
+            int splitSize,
+            int splitMetaGroupSize,
+            int fetchSize,
+            Duration connectTimeout,
+            int connectMaxRetries,
+            int connectionPoolSize,
+            double distributionFactorUpper,
+            double distributionFactorLower,
+            StartupOptions startupOptions,
+            StopOptions stopOptions,
+            boolean scanNewlyAddedTableEnabled,
+            Properties jdbcProperties,
+            Duration heartbeatInterval,
+            boolean minimalRowImageEnabled,
+            int minimalRowImageCacheSize) {
         this.physicalSchema = physicalSchema;
         this.port = port;
         this.hostname = checkNotNull(hostname);
@@ -184,16 +295,23 @@ public class MySqlTableSource implements ScanTableSource, SupportsReadingMetadat
         this.distributionFactorUpper = distributionFactorUpper;
         this.distributionFactorLower = distributionFactorLower;
         this.startupOptions = startupOptions;
+        this.stopOptions = checkNotNull(stopOptions);
         this.scanNewlyAddedTableEnabled = scanNewlyAddedTableEnabled;
         this.jdbcProperties = jdbcProperties;
         // Mutable attributes
         this.producedDataType = physicalSchema.toPhysicalRowDataType();
         this.metadataKeys = Collections.emptyList();
         this.heartbeatInterval = heartbeatInterval;
+        this.minimalRowImageEnabled = minimalRowImageEnabled;
+        this.minimalRowImageCacheSize = minimalRowImageCacheSize;
     }
 
     @Override
     public ChangelogMode getChangelogMode() {
+        if (startupOptions.startupMode == StartupMode.SNAPSHOT) {
+            // the snapshot records are normalized to inserts
+            return ChangelogMode.insertOnly();
+        }
         return ChangelogMode.newBuilder()
                 .addContainedKind(RowKind.INSERT)
                 .addContainedKind(RowKind.UPDATE_BEFORE)
@@ -240,10 +358,13 @@ public class MySqlTableSource implements ScanTableSource, SupportsReadingMetadat
                             .connectionPoolSize(connectionPoolSize)
                             .debeziumProperties(dbzProperties)
                             .startupOptions(startupOptions)
+                            .stopOptions(stopOptions)
                             .deserializer(deserializer)
                             .scanNewlyAddedTableEnabled(scanNewlyAddedTableEnabled)
                             .jdbcProperties(jdbcProperties)
                             .heartbeatInterval(heartbeatInterval)
+                            .minimalRowImageEnabled(minimalRowImageEnabled)
+                            .minimalRowImageCacheSize(minimalRowImageCacheSize)
                             .build();
             return SourceProvider.of(parallelSource);
         } else {
@@ -320,9 +441,12 @@ public class MySqlTableSource implements ScanTableSource, SupportsReadingMetadat
                         distributionFactorUpper,
                         distributionFactorLower,
                         startupOptions,
+                        stopOptions,
                         scanNewlyAddedTableEnabled,
                         jdbcProperties,
-                        heartbeatInterval);
+                        heartbeatInterval,
+                        minimalRowImageEnabled,
+                        minimalRowImageCacheSize);
         source.metadataKeys = metadataKeys;
         source.producedDataType = producedDataType;
         return source;
@@ -345,6 +469,8 @@ public class MySqlTableSource implements ScanTableSource, SupportsReadingMetadat
                 && distributionFactorUpper == that.distributionFactorUpper
                 && distributionFactorLower == that.distributionFactorLower
                 && scanNewlyAddedTableEnabled == that.scanNewlyAddedTableEnabled
+                && minimalRowImageEnabled == that.minimalRowImageEnabled
+                && minimalRowImageCacheSize == that.minimalRowImageCacheSize
                 && Objects.equals(physicalSchema, that.physicalSchema)
                 && Objects.equals(hostname, that.hostname)
                 && Objects.equals(database, that.database)
@@ -358,6 +484,7 @@ public class MySqlTableSource implements ScanTableSource, SupportsReadingMetadat
                 && Objects.equals(connectMaxRetries, that.connectMaxRetries)
                 && Objects.equals(connectionPoolSize, that.connectionPoolSize)
                 && Objects.equals(startupOptions, that.startupOptions)
+                && Objects.equals(stopOptions, that.stopOptions)
                 && Objects.equals(producedDataType, that.producedDataType)
                 && Objects.equals(metadataKeys, that.metadataKeys)
                 && Objects.equals(jdbcProperties, that.jdbcProperties)
@@ -387,11 +514,14 @@ public class MySqlTableSource implements ScanTableSource, SupportsReadingMetadat
                 distributionFactorUpper,
                 distributionFactorLower,
                 startupOptions,
+                stopOptions,
                 producedDataType,
                 metadataKeys,
                 scanNewlyAddedTableEnabled,
                 jdbcProperties,
-                heartbeatInterval);
+                heartbeatInterval,
+                minimalRowImageEnabled,
+                minimalRowImageCacheSize);
     }
 
     @Override
@@ -47,6 +47,8 @@ import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions
 import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.HOSTNAME;
 import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.PASSWORD;
 import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.PORT;
+import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_BINLOG_MINIMAL_ROW_IMAGE_CACHE_SIZE;
+import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_BINLOG_MINIMAL_ROW_IMAGE_ENABLED;
 import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_CHUNK_SIZE;
 import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_ENABLED;
 import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_NEWLY_ADDED_TABLE_ENABLED;
@@ -55,6 +57,11 @@ import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions
 import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_STARTUP_SPECIFIC_OFFSET_FILE;
 import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_STARTUP_SPECIFIC_OFFSET_POS;
 import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_STARTUP_TIMESTAMP_MILLIS;
+import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_STOP_GTID_SET;
+import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_STOP_MODE;
+import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_STOP_SPECIFIC_OFFSET_FILE;
+import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_STOP_SPECIFIC_OFFSET_POS;
+import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SCAN_STOP_TIMESTAMP_MILLIS;
 import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SERVER_ID;
 import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SERVER_TIME_ZONE;
 import static cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions.SPLIT_KEY_EVEN_DISTRIBUTION_FACTOR_LOWER_BOUND;
@@ -96,6 +103,7 @@ public class MySqlTableSourceFactory implements DynamicTableSourceFactory {
                 getPhysicalSchema(context.getCatalogTable().getResolvedSchema());
         String serverId = validateAndGetServerId(config);
         StartupOptions startupOptions = getStartupOptions(config);
+        StopOptions stopOptions = getStopOptions(config);
         Duration connectTimeout = config.get(CONNECT_TIMEOUT);
         int connectMaxRetries = config.get(CONNECT_MAX_RETRIES);
         int connectionPoolSize = config.get(CONNECTION_POOL_SIZE);
@@ -103,11 +111,14 @@ public class MySqlTableSourceFactory implements DynamicTableSourceFactory {
         double distributionFactorLower = config.get(SPLIT_KEY_EVEN_DISTRIBUTION_FACTOR_LOWER_BOUND);
         boolean scanNewlyAddedTableEnabled = config.get(SCAN_NEWLY_ADDED_TABLE_ENABLED);
         Duration heartbeatInterval = config.get(HEARTBEAT_INTERVAL);
+        boolean minimalRowImageEnabled = config.get(SCAN_BINLOG_MINIMAL_ROW_IMAGE_ENABLED);
+        int minimalRowImageCacheSize = config.get(SCAN_BINLOG_MINIMAL_ROW_IMAGE_CACHE_SIZE);
 
         boolean enableParallelRead = config.get(SCAN_INCREMENTAL_SNAPSHOT_ENABLED);
         if (enableParallelRead) {
             validatePrimaryKeyIfEnableParallel(physicalSchema);
             validateStartupOptionIfEnableParallel(startupOptions);
+            validateHeartbeatIntervalIfStopTimestamp(stopOptions, heartbeatInterval);
             validateIntegerOption(SCAN_INCREMENTAL_SNAPSHOT_CHUNK_SIZE, splitSize, 1);
             validateIntegerOption(CHUNK_META_GROUP_SIZE, splitMetaGroupSize, 1);
             validateIntegerOption(SCAN_SNAPSHOT_FETCH_SIZE, fetchSize, 1);
@@ -115,6 +126,25 @@ public class MySqlTableSourceFactory implements DynamicTableSourceFactory {
             validateIntegerOption(CONNECT_MAX_RETRIES, connectMaxRetries, 0);
             validateDistributionFactorUpper(distributionFactorUpper);
             validateDistributionFactorLower(distributionFactorLower);
+            validateIntegerOption(
+                    SCAN_BINLOG_MINIMAL_ROW_IMAGE_CACHE_SIZE, minimalRowImageCacheSize, -1);
+        } else if (startupOptions.startupMode == StartupMode.SNAPSHOT) {
+            throw new ValidationException(
+                    String.format(
+                            "The startup mode '%s' is only supported when enable '%s' to 'true'",
+                            SCAN_STARTUP_MODE_VALUE_SNAPSHOT,
+                            SCAN_INCREMENTAL_SNAPSHOT_ENABLED.key()));
+        } else if (stopOptions.isBounded()) {
+            throw new ValidationException(
+                    String.format(
+                            "The option '%s' is only supported when enable '%s' to 'true'",
+                            SCAN_STOP_MODE.key(), SCAN_INCREMENTAL_SNAPSHOT_ENABLED.key()));
+        } else if (minimalRowImageEnabled) {
+            throw new ValidationException(
+                    String.format(
+                            "The option '%s' is only supported when enable '%s' to 'true'",
+                            SCAN_BINLOG_MINIMAL_ROW_IMAGE_ENABLED.key(),
+                            SCAN_INCREMENTAL_SNAPSHOT_ENABLED.key()));
         }
 
         return new MySqlTableSource(
@@ -138,9 +168,12 @@ public class MySqlTableSourceFactory implements DynamicTableSourceFactory {
                 distributionFactorUpper,
                 distributionFactorLower,
                 startupOptions,
+                stopOptions,
                 scanNewlyAddedTableEnabled,
                 JdbcUrlUtils.getJdbcProperties(context.getCatalogTable().getOptions()),
-                heartbeatInterval);
+                heartbeatInterval,
+                minimalRowImageEnabled,
+                minimalRowImageCacheSize);
     }
 
     @Override
@@ -169,6 +202,11 @@ public class MySqlTableSourceFactory implements DynamicTableSourceFactory {
         options.add(SCAN_STARTUP_SPECIFIC_OFFSET_FILE);
         options.add(SCAN_STARTUP_SPECIFIC_OFFSET_POS);
         options.add(SCAN_STARTUP_TIMESTAMP_MILLIS);
+        options.add(SCAN_STOP_MODE);
+        options.add(SCAN_STOP_SPECIFIC_OFFSET_FILE);
+        options.add(SCAN_STOP_SPECIFIC_OFFSET_POS);
+        options.add(SCAN_STOP_GTID_SET);
+        options.add(SCAN_STOP_TIMESTAMP_MILLIS);
         options.add(SCAN_INCREMENTAL_SNAPSHOT_ENABLED);
         options.add(SCAN_INCREMENTAL_SNAPSHOT_CHUNK_SIZE);
         options.add(CHUNK_META_GROUP_SIZE);
@@ -180,10 +218,13 @@ public class MySqlTableSourceFactory implements DynamicTableSourceFactory {
         options.add(CONNECT_MAX_RETRIES);
         options.add(SCAN_NEWLY_ADDED_TABLE_ENABLED);
         options.add(HEARTBEAT_INTERVAL);
+        options.add(SCAN_BINLOG_MINIMAL_ROW_IMAGE_ENABLED);
+        options.add(SCAN_BINLOG_MINIMAL_ROW_IMAGE_CACHE_SIZE);
         return options;
     }
 
     private static final String SCAN_STARTUP_MODE_VALUE_INITIAL = "initial";
+    private static final String SCAN_STARTUP_MODE_VALUE_SNAPSHOT = "snapshot";
     private static final String SCAN_STARTUP_MODE_VALUE_EARLIEST = "earliest-offset";
     private static final String SCAN_STARTUP_MODE_VALUE_LATEST = "latest-offset";
     private static final String SCAN_STARTUP_MODE_VALUE_SPECIFIC_OFFSET = "specific-offset";
@@ -196,31 +237,96 @@ public class MySqlTableSourceFactory implements DynamicTableSourceFactory {
             case SCAN_STARTUP_MODE_VALUE_INITIAL:
                 return StartupOptions.initial();
 
+            case SCAN_STARTUP_MODE_VALUE_SNAPSHOT:
+                return StartupOptions.snapshot();
+
             case SCAN_STARTUP_MODE_VALUE_LATEST:
                 return StartupOptions.latest();
 
+            case SCAN_STARTUP_MODE_VALUE_TIMESTAMP:
+                return StartupOptions.timestamp(
+                        getRequiredOption(
+                                config, SCAN_STARTUP_TIMESTAMP_MILLIS, modeString, "startup"));
+
             case SCAN_STARTUP_MODE_VALUE_EARLIEST:
             case SCAN_STARTUP_MODE_VALUE_SPECIFIC_OFFSET:
-            case SCAN_STARTUP_MODE_VALUE_TIMESTAMP:
                 throw new ValidationException(
                         String.format(
-                                "Unsupported option value '%s', the options [%s, %s, %s] are not supported correctly, please do not use them until they're correctly supported",
+                                "Unsupported option value '%s', the options [%s, %s] are not supported correctly, please do not use them until they're correctly supported",
                                 modeString,
                                 SCAN_STARTUP_MODE_VALUE_EARLIEST,
-                                SCAN_STARTUP_MODE_VALUE_SPECIFIC_OFFSET,
-                                SCAN_STARTUP_MODE_VALUE_TIMESTAMP));
+                                SCAN_STARTUP_MODE_VALUE_SPECIFIC_OFFSET));
 
             default:
                 throw new ValidationException(
                         String.format(
-                                "Invalid value for option '%s'. Supported values are [%s, %s], but was: %s",
+                                "Invalid value for option '%s'. Supported values are [%s, %s, %s, %s], but was: %s",
                                 SCAN_STARTUP_MODE.key(),
                                 SCAN_STARTUP_MODE_VALUE_INITIAL,
+                                SCAN_STARTUP_MODE_VALUE_SNAPSHOT,
                                 SCAN_STARTUP_MODE_VALUE_LATEST,
+                                SCAN_STARTUP_MODE_VALUE_TIMESTAMP,
+                                modeString));
+        }
+    }
+
+    private static final String SCAN_STOP_MODE_VALUE_NEVER = "never";
+    private static final String SCAN_STOP_MODE_VALUE_LATEST = "latest-offset";
+    private static final String SCAN_STOP_MODE_VALUE_SPECIFIC_OFFSET = "specific-offset";
+    private static final String SCAN_STOP_MODE_VALUE_GTID_SET = "gtid-set";
+    private static final String SCAN_STOP_MODE_VALUE_TIMESTAMP = "timestamp";
+
+    private static StopOptions getStopOptions(ReadableConfig config) {
+        String modeString = config.get(SCAN_STOP_MODE);
+
+        switch (modeString.toLowerCase()) {
+            case SCAN_STOP_MODE_VALUE_NEVER:
+                return StopOptions.never();
+
+            case SCAN_STOP_MODE_VALUE_LATEST:
+                return StopOptions.latest();
+
+            case SCAN_STOP_MODE_VALUE_SPECIFIC_OFFSET:
+                return StopOptions.specificOffset(
+                        getRequiredOption(
+                                config, SCAN_STOP_SPECIFIC_OFFSET_FILE, modeString, "stop"),
+                        getRequiredOption(
+                                config, SCAN_STOP_SPECIFIC_OFFSET_POS, modeString, "stop"));
+
+            case SCAN_STOP_MODE_VALUE_GTID_SET:
+                return StopOptions.gtidSet(
+                        getRequiredOption(config, SCAN_STOP_GTID_SET, modeString, "stop"));
+
+            case SCAN_STOP_MODE_VALUE_TIMESTAMP:
+                return StopOptions.timestamp(
+                        getRequiredOption(
+                                config, SCAN_STOP_TIMESTAMP_MILLIS, modeString, "stop"));
+
+            default:
+                throw new ValidationException(
+                        String.format(
+                                "Invalid value for option '%s'. Supported values are [%s, %s, %s, %s, %s], but was: %s",
+                                SCAN_STOP_MODE.key(),
+                                SCAN_STOP_MODE_VALUE_NEVER,
+                                SCAN_STOP_MODE_VALUE_LATEST,
+                                SCAN_STOP_MODE_VALUE_SPECIFIC_OFFSET,
+                                SCAN_STOP_MODE_VALUE_GTID_SET,
+                                SCAN_STOP_MODE_VALUE_TIMESTAMP,
                                 modeString));
         }
     }
 
+    private static <T> T getRequiredOption(
+            ReadableConfig config, ConfigOption<T> option, String mode, String modeKind) {
+        return config.getOptional(option)
+                .orElseThrow(
+                        () ->
+                                new ValidationException(
+                                        String.format(
+                                                "The option '%s' is required in case of '%s' %s mode",
+                                                option.key(), mode, modeKind)));
+    }
+
     private void validatePrimaryKeyIfEnableParallel(ResolvedSchema physicalSchema) {
         if (!physicalSchema.getPrimaryKey().isPresent()) {
             throw new ValidationException(
@@ -234,13 +340,27 @@ public class MySqlTableSourceFactory implements DynamicTableSourceFactory {
         // validate mode
         Preconditions.checkState(
                 startupOptions.startupMode == StartupMode.INITIAL
-                        || startupOptions.startupMode == StartupMode.LATEST_OFFSET,
+                        || startupOptions.startupMode == StartupMode.SNAPSHOT
+                        || startupOptions.startupMode == StartupMode.LATEST_OFFSET
+                        || startupOptions.startupMode == StartupMode.TIMESTAMP,
                 String.format(
-                        "MySql Parallel Source only supports startup mode 'initial' and 'latest-offset',"
+                        "MySql Parallel Source only supports startup mode 'initial', 'snapshot', 'latest-offset' and 'timestamp',"
                                 + " but actual is %s",
                         startupOptions.startupMode));
     }
 
+    private void validateHeartbeatIntervalIfStopTimestamp(
+            StopOptions stopOptions, Duration heartbeatInterval) {
+        // an idle server has no binlog event to reach the stop timestamp but the heartbeats
+        if (stopOptions.stopMode == StopMode.TIMESTAMP
+                && (heartbeatInterval.isZero() || heartbeatInterval.isNegative())) {
+            throw new ValidationException(
+                    String.format(
+                            "The option '%s' must be positive in case of '%s' stop mode",
+                            HEARTBEAT_INTERVAL.key(), SCAN_STOP_MODE_VALUE_TIMESTAMP));
+        }
+    }
+
     private String validateAndGetServerId(ReadableConfig configuration) {
         final String serverIdValue = configuration.get(MySqlSourceOptions.SERVER_ID);
         if (serverIdValue != null) {
@@ -26,6 +26,8 @@ package cn.tenmg.cdc.log.connectors.mysql.table;
 public enum StartupMode {
     INITIAL,
 
+    SNAPSHOT,
+
     EARLIEST_OFFSET,
 
     LATEST_OFFSET,
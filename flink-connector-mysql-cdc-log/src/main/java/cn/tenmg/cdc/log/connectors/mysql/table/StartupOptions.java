@@ -40,6 +40,14 @@ public final class StartupOptions implements Serializable {
         return new StartupOptions(StartupMode.INITIAL, null, null, null);
     }
 
+    /**
+     * Performs a snapshot on the monitored database tables and finishes without reading the binlog,
+     * the source is bounded.
+     */
+    public static StartupOptions snapshot() {
+        return new StartupOptions(StartupMode.SNAPSHOT, null, null, null);
+    }
+
     /**
      * Never to perform snapshot on the monitored database tables upon first startup, just read from
      * the beginning of the binlog. This should be used with care, as it is only valid when the
@@ -91,6 +99,7 @@ public final class StartupOptions implements Serializable {
 
         switch (startupMode) {
             case INITIAL:
+            case SNAPSHOT:
             case EARLIEST_OFFSET:
             case LATEST_OFFSET:
                 break;
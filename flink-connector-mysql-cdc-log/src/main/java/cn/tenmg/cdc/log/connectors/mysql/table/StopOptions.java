@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.table;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/** Binlog stop options, the source is bounded unless the stop mode is {@link StopMode#NEVER}. */
+public final class StopOptions implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public final StopMode stopMode;
+    public final String specificOffsetFile;
+    public final Long specificOffsetPos;
+    public final String gtidSet;
+    public final Long stopTimestampMillis;
+
+    /** Never stops reading the binlog, the source is unbounded. */
+    public static StopOptions never() {
+        return new StopOptions(StopMode.NEVER, null, null, null, null);
+    }
+
+    /**
+     * Stops reading the binlog at the latest offset of the server when the binlog reading starts,
+     * the changes after that offset are not emitted.
+     */
+    public static StopOptions latest() {
+        return new StopOptions(StopMode.LATEST_OFFSET, null, null, null, null);
+    }
+
+    /** Stops reading the binlog at the specified offset, the event at the offset is not emitted. */
+    public static StopOptions specificOffset(String specificOffsetFile, long specificOffsetPos) {
+        return new StopOptions(
+                StopMode.SPECIFIC_OFFSETS, specificOffsetFile, specificOffsetPos, null, null);
+    }
+
+    /**
+     * Stops reading the binlog once the read position contains the specified GTID set, it requires
+     * GTID mode enabled on the server.
+     */
+    public static StopOptions gtidSet(String gtidSet) {
+        return new StopOptions(StopMode.GTID_SET, null, null, gtidSet, null);
+    }
+
+    /**
+     * Stops reading the binlog at the first event whose timestamp is not smaller than the specified
+     * timestamp. An idle server has no binlog event to reach the stop timestamp, the reading is
+     * stopped by the heartbeat events then, thus the heartbeat interval must be positive.
+     *
+     * @param stopTimestampMillis timestamp for the stop offset, as milliseconds from epoch.
+     */
+    public static StopOptions timestamp(long stopTimestampMillis) {
+        return new StopOptions(StopMode.TIMESTAMP, null, null, null, stopTimestampMillis);
+    }
+
+    private StopOptions(
+            StopMode stopMode,
+            String specificOffsetFile,
+            Long specificOffsetPos,
+            String gtidSet,
+            Long stopTimestampMillis) {
+        this.stopMode = stopMode;
+        this.specificOffsetFile = specificOffsetFile;
+        this.specificOffsetPos = specificOffsetPos;
+        this.gtidSet = gtidSet;
+        this.stopTimestampMillis = stopTimestampMillis;
+
+        switch (stopMode) {
+            case NEVER:
+            case LATEST_OFFSET:
+                break;
+            case SPECIFIC_OFFSETS:
+                checkNotNull(specificOffsetFile, "specificOffsetFile shouldn't be null");
+                checkNotNull(specificOffsetPos, "specificOffsetPos shouldn't be null");
+                break;
+            case GTID_SET:
+                checkNotNull(gtidSet, "gtidSet shouldn't be null");
+                break;
+            case TIMESTAMP:
+                checkNotNull(stopTimestampMillis, "stopTimestampMillis shouldn't be null");
+                break;
+            default:
+                throw new UnsupportedOperationException(stopMode + " mode is not supported.");
+        }
+    }
+
+    /** Whether the binlog reading stops and the source is bounded. */
+    public boolean isBounded() {
+        return stopMode != StopMode.NEVER;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StopOptions that = (StopOptions) o;
+        return stopMode == that.stopMode
+                && Objects.equals(specificOffsetFile, that.specificOffsetFile)
+                && Objects.equals(specificOffsetPos, that.specificOffsetPos)
+                && Objects.equals(gtidSet, that.gtidSet)
+                && Objects.equals(stopTimestampMillis, that.stopTimestampMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                stopMode, specificOffsetFile, specificOffsetPos, gtidSet, stopTimestampMillis);
+    }
+}
@@ -21,28 +21,40 @@ package com.github.shyiko.mysql.binlog.io;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 
 /**
  * Copied from https://github.com/osheroff/mysql-binlog-connector-java project to fix
  * https://github.com/ververica/flink-cdc-connectors/issues/460.
  *
- * <p>Line 50 and Line 70 ~ 72: Returns -1 means reach the end of InputStream. We should remove this
- * class after we bumped a higher mysql-binlog-connector-java version where the
- * https://github.com/osheroff/mysql-binlog-connector-java/issues/66 has been fixed.
+ * <p>{@link #read()} and {@link #read(byte[], int, int)}: Returns -1 means reach the end of
+ * InputStream. We should remove this class after we bumped a higher mysql-binlog-connector-java
+ * version where the https://github.com/osheroff/mysql-binlog-connector-java/issues/66 has been
+ * fixed.
+ *
+ * <p>The buffers of the default size are taken from a small pool and reused by the later streams.
+ * The buffer is only released by the reading thread, once the stream reaches its end or fails
+ * after being closed, so a released buffer is never written by the stream anymore.
  */
 public class BufferedSocketInputStream extends FilterInputStream {
 
+    private static final int DEFAULT_BUFFER_SIZE = 512 * 1024;
+    private static final Queue<byte[]> BUFFER_POOL = new ArrayBlockingQueue<>(8);
+
     private byte[] buffer;
     private int offset;
     private int limit;
+    private volatile boolean closed;
 
     public BufferedSocketInputStream(InputStream in) {
-        this(in, 512 * 1024);
+        this(in, DEFAULT_BUFFER_SIZE);
     }
 
     public BufferedSocketInputStream(InputStream in, int bufferSize) {
         super(in);
-        this.buffer = new byte[bufferSize];
+        final byte[] pooled = bufferSize == DEFAULT_BUFFER_SIZE ? BUFFER_POOL.poll() : null;
+        this.buffer = pooled != null ? pooled : new byte[bufferSize];
     }
 
     @Override
@@ -55,20 +67,16 @@ public class BufferedSocketInputStream extends FilterInputStream {
         if (offset < limit) {
             return buffer[offset++] & 0xff;
         }
-        offset = 0;
-        limit = in.read(buffer, 0, buffer.length);
-        return limit != -1 ? buffer[offset++] & 0xff : -1;
+        return fill() != -1 ? buffer[offset++] & 0xff : -1;
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
         if (offset >= limit) {
-            if (len >= buffer.length) {
+            if (buffer != null && len >= buffer.length) {
                 return in.read(b, off, len);
             }
-            offset = 0;
-            limit = in.read(buffer, 0, buffer.length);
-            if (limit == -1) {
+            if (fill() == -1) {
                 return limit;
             }
         }
@@ -77,4 +85,39 @@ public class BufferedSocketInputStream extends FilterInputStream {
         offset += bytesRemainingInBuffer;
         return bytesRemainingInBuffer;
     }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        super.close();
+    }
+
+    private int fill() throws IOException {
+        offset = 0;
+        if (buffer == null) {
+            // the buffer has been released at the end of the stream
+            limit = -1;
+            return limit;
+        }
+        try {
+            limit = in.read(buffer, 0, buffer.length);
+        } catch (IOException e) {
+            limit = 0;
+            if (closed) {
+                releaseBuffer();
+            }
+            throw e;
+        }
+        if (limit == -1) {
+            releaseBuffer();
+        }
+        return limit;
+    }
+
+    private void releaseBuffer() {
+        if (buffer.length == DEFAULT_BUFFER_SIZE) {
+            BUFFER_POOL.offer(buffer);
+        }
+        buffer = null;
+    }
 }
@@ -21,6 +21,7 @@ package cn.tenmg.cdc.log.connectors.mysql;
 import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.core.testutils.CheckedThread;
 import org.apache.flink.runtime.state.StateSnapshotContextSynchronousImpl;
+import org.apache.flink.table.api.ValidationException;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.jayway.jsonpath.JsonPath;
@@ -843,6 +844,18 @@ public class LegacyMySqlSourceTest extends LegacyMySqlTestBase {
         }
     }
 
+    @Test
+    public void testSnapshotStartupModeNotSupported() {
+        try {
+            basicSourceBuilder(database, useLegacyImplementation)
+                    .startupOptions(StartupOptions.snapshot())
+                    .build();
+            fail("Should fail.");
+        } catch (ValidationException e) {
+            assertTrue(e.getMessage().contains("snapshot startup mode is only supported"));
+        }
+    }
+
     @Test
     public void testSchemaRemovedBeforeCheckpoint() throws Exception {
         final TestingListState<byte[]> offsetState = new TestingListState<>();
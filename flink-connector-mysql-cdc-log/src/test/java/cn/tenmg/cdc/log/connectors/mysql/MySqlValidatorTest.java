@@ -136,6 +136,19 @@ public class MySqlValidatorTest {
                 message);
     }
 
+    @Test
+    public void testValidateBinlogTransactionCompression() {
+        String message =
+                "The MySQL server is configured with binlog_transaction_compression ON, the compressed transaction "
+                        + "payloads can't be read by this connector. Change the MySQL configuration to use a "
+                        + "binlog_transaction_compression=OFF and restart the connector.";
+        doValidate(
+                MySqlVersion.V8_0,
+                buildMySqlConfigFile(
+                        "[mysqld]\nbinlog_format = ROW\nbinlog_transaction_compression = ON"),
+                message);
+    }
+
     private void doValidate(MySqlVersion version, String configPath, String exceptionMessage) {
         MySqlContainer container =
                 new MySqlContainer(version).withConfigurationOverride(configPath);
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.benchmark;
+
+import io.debezium.connector.base.ChangeEventQueue;
+import io.debezium.pipeline.DataChangeEvent;
+import io.debezium.util.LoggingContext;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.BinlogRecordHandoff;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The latency benchmark of handing off the binlog records from the binlog reading thread to the
+ * split reader, by the Debezium {@link ChangeEventQueue} polled by the reader or by the {@link
+ * BinlogRecordHandoff}, with the Debezium default poll interval, batch size and queue size.
+ *
+ * <p>A producer thread puts the records at a fixed rate and the consumer thread polls them, the
+ * latency of a record is from putting it to polling it. Run it with the rates in records per
+ * second and the seconds to run each rate, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=cn.tenmg.cdc.log.connectors.mysql.benchmark.BinlogHandoffLatencyBenchmark \
+ *   -Dexec.args="1000,100000,1000000 10"
+ * </pre>
+ */
+public class BinlogHandoffLatencyBenchmark {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(500);
+    private static final int MAX_BATCH_SIZE = 2048;
+    private static final int MAX_QUEUE_SIZE = 8192;
+    private static final long HANDOFF_MAX_SIZE = 64L * 1024 * 1024;
+    // the binlog event bytes of a single row change
+    private static final long EVENT_BYTES = 200L;
+    // the producer sleeps rather than spins for the waiting longer than it
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    public static void main(String[] args) throws Exception {
+        final String rates = args.length > 0 ? args[0] : "1000,100000";
+        final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        for (String rate : rates.split(",")) {
+            for (Transport transport : Transport.values()) {
+                final int ratePerSecond = Integer.parseInt(rate.trim());
+                final long[] latencies = run(transport, ratePerSecond, seconds);
+                System.out.println(report(transport, ratePerSecond, latencies));
+            }
+        }
+    }
+
+    /** Runs the transport at the rate and returns the latencies of the records in nanoseconds. */
+    static long[] run(Transport transport, int ratePerSecond, int seconds) throws Exception {
+        final int count = ratePerSecond * seconds;
+        final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        final long[] putNanos = new long[count];
+        final long[] latencies = new long[count];
+        final Channel channel = transport.create();
+        final Thread producer =
+                new Thread(
+                        () -> {
+                            final long start = System.nanoTime();
+                            try {
+                                for (int i = 0; i < count; i++) {
+                                    waitUntil(start + i * intervalNanos);
+                                    putNanos[i] = System.nanoTime();
+                                    channel.put(createRecord(i));
+                                }
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        },
+                        "handoff-benchmark-producer");
+        producer.start();
+        int received = 0;
+        while (received < count) {
+            for (SourceRecord record : channel.poll()) {
+                final long now = System.nanoTime();
+                final int sequence = ((Long) record.key()).intValue();
+                latencies[sequence] = now - putNanos[sequence];
+                received++;
+            }
+        }
+        producer.join();
+        return latencies;
+    }
+
+    private static String report(Transport transport, int ratePerSecond, long[] latencies) {
+        final long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return String.format(
+                Locale.ROOT,
+                "%-8s %,10d records/s: p50 %,10.1f us, p99 %,10.1f us, p99.9 %,10.1f us, max %,10.1f us",
+                transport,
+                ratePerSecond,
+                percentile(sorted, 0.5),
+                percentile(sorted, 0.99),
+                percentile(sorted, 0.999),
+                sorted[sorted.length - 1] / 1000.0);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        final int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1000.0;
+    }
+
+    private static void waitUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            }
+        }
+    }
+
+    private static SourceRecord createRecord(long sequence) {
+        return new SourceRecord(
+                Collections.singletonMap("server", "benchmark"),
+                Collections.singletonMap("pos", sequence),
+                "benchmark",
+                null,
+                Schema.INT64_SCHEMA,
+                sequence,
+                Schema.STRING_SCHEMA,
+                "record-" + sequence);
+    }
+
+    /** The transport of the records from the binlog reading thread to the reader. */
+    enum Transport {
+        QUEUE {
+            @Override
+            Channel create() {
+                final ChangeEventQueue<DataChangeEvent> queue =
+                        new ChangeEventQueue.Builder<DataChangeEvent>()
+                                .pollInterval(POLL_INTERVAL)
+                                .maxBatchSize(MAX_BATCH_SIZE)
+                                .maxQueueSize(MAX_QUEUE_SIZE)
+                                .loggingContextSupplier(
+                                        () ->
+                                                LoggingContext.forConnector(
+                                                        "MySQL", "benchmark", "handoff"))
+                                .build();
+                return new Channel() {
+                    @Override
+                    public void put(SourceRecord record) throws InterruptedException {
+                        queue.enqueue(new DataChangeEvent(record));
+                    }
+
+                    @Override
+                    public List<SourceRecord> poll() throws InterruptedException {
+                        final List<DataChangeEvent> batch = queue.poll();
+                        final List<SourceRecord> records = new ArrayList<>(batch.size());
+                        for (DataChangeEvent event : batch) {
+                            records.add(event.getRecord());
+                        }
+                        return records;
+                    }
+                };
+            }
+        },
+        HANDOFF {
+            @Override
+            Channel create() {
+                final BinlogRecordHandoff handoff =
+                        new BinlogRecordHandoff(MAX_QUEUE_SIZE, HANDOFF_MAX_SIZE);
+                return new Channel() {
+                    @Override
+                    public void put(SourceRecord record) throws InterruptedException {
+                        handoff.put(record, EVENT_BYTES);
+                    }
+
+                    @Override
+                    public List<SourceRecord> poll() throws InterruptedException {
+                        return handoff.poll(MAX_BATCH_SIZE, POLL_INTERVAL.toMillis());
+                    }
+                };
+            }
+        };
+
+        abstract Channel create();
+    }
+
+    private interface Channel {
+        void put(SourceRecord record) throws InterruptedException;
+
+        List<SourceRecord> poll() throws InterruptedException;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.benchmark;
+
+import org.apache.flink.api.common.eventtime.Watermark;
+import org.apache.flink.api.connector.source.SourceOutput;
+import org.apache.flink.runtime.metrics.groups.UnregisteredMetricGroups;
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.util.FileUtils;
+
+import com.github.shyiko.mysql.binlog.BinaryLogClient;
+import io.debezium.relational.TableId;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import cn.tenmg.cdc.log.connectors.mysql.debezium.BinlogFileReplayClient;
+import cn.tenmg.cdc.log.connectors.mysql.debezium.DebeziumUtils;
+import cn.tenmg.cdc.log.connectors.mysql.debezium.OfflineMySqlConnection;
+import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.BinlogSplitReader;
+import cn.tenmg.cdc.log.connectors.mysql.debezium.task.context.StatefulTaskContext;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfigFactory;
+import cn.tenmg.cdc.log.connectors.mysql.source.metrics.MySqlSourceReaderMetrics;
+import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
+import cn.tenmg.cdc.log.connectors.mysql.source.reader.MySqlRecordEmitter;
+import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit;
+import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplitState;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
+import cn.tenmg.cdc.log.connectors.mysql.table.MySqlDeserializationConverterFactory;
+import cn.tenmg.cdc.log.connectors.mysql.testutils.BinlogFileWriter;
+import cn.tenmg.cdc.log.connectors.mysql.testutils.FakeBinlogServer;
+import cn.tenmg.cdc.log.debezium.table.RowDataDebeziumDeserializeSchema;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The end-to-end throughput benchmark of the binlog reading without a MySQL server, from the
+ * binlog events to the emitted {@link RowData}s through {@link BinlogSplitReader}, {@link
+ * MySqlRecordEmitter} and the row converters.
+ *
+ * <p>The binlog files of the inserted rows are generated by {@link BinlogFileWriter}, thus the
+ * input of each run is the same. They are read by a {@link BinlogFileReplayClient} in the {@code
+ * replay} mode, or by a binlog client of a {@link FakeBinlogServer} in the {@code server} mode
+ * which includes the replication protocol. Run it with the mode, the number of rows and the
+ * number of iterations, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=cn.tenmg.cdc.log.connectors.mysql.benchmark.BinlogReadBenchmark \
+ *   -Dexec.args="replay 1000000 5"
+ * </pre>
+ */
+public class BinlogReadBenchmark {
+
+    static final TableId TABLE_ID = TableId.parse("benchmark_db.customers");
+
+    private static final int ROWS_PER_TRANSACTION = 100;
+    private static final long MAX_BINLOG_FILE_SIZE = 64 * 1024 * 1024;
+    private static final RowType ROW_TYPE =
+            (RowType)
+                    DataTypes.ROW(
+                                    DataTypes.FIELD("id", DataTypes.BIGINT().notNull()),
+                                    DataTypes.FIELD("name", DataTypes.STRING()))
+                            .getLogicalType();
+
+    /** How the binlog files are read. */
+    public enum Mode {
+        REPLAY,
+        SERVER
+    }
+
+    public static void main(String[] args) throws Exception {
+        final Mode mode =
+                args.length > 0 ? Mode.valueOf(args[0].toUpperCase(Locale.ROOT)) : Mode.REPLAY;
+        final int rows = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        final int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final File directory = Files.createTempDirectory("binlog-read-benchmark").toFile();
+        try {
+            writeBinlogFiles(directory, rows);
+            for (int i = 1; i <= iterations; i++) {
+                final CountingOutput output = new CountingOutput();
+                final MySqlRecordEmitter<RowData> emitter = createRecordEmitter();
+                final long start = System.nanoTime();
+                read(
+                        directory,
+                        mode,
+                        rows,
+                        (record, state) -> {
+                            try {
+                                emitter.emitRecord(record, output, state);
+                            } catch (Exception e) {
+                                throw new IllegalStateException("Failed to emit " + record, e);
+                            }
+                        });
+                final double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf(
+                        "Iteration %d (%s): emitted %d rows in %.3f s, %.0f rows/s%n",
+                        i, mode, output.count, seconds, output.count / seconds);
+            }
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    /** Writes the binlog files of the given number of rows inserted into {@link #TABLE_ID}. */
+    public static void writeBinlogFiles(File directory, int rows) throws IOException {
+        try (BinlogFileWriter writer =
+                new BinlogFileWriter(directory, TABLE_ID, MAX_BINLOG_FILE_SIZE)) {
+            for (int id = 0; id < rows; id += ROWS_PER_TRANSACTION) {
+                final int size = Math.min(ROWS_PER_TRANSACTION, rows - id);
+                final long[] ids = new long[size];
+                final String[] names = new String[size];
+                for (int i = 0; i < size; i++) {
+                    ids[i] = id + i;
+                    names[i] = "customer-" + (id + i);
+                }
+                writer.insert(ids, names);
+            }
+        }
+    }
+
+    /** Reads the records of the given number of rows from the binlog files in the directory. */
+    public static List<SourceRecord> readRecords(File directory, Mode mode, int rows)
+            throws Exception {
+        final List<SourceRecord> records = new ArrayList<>();
+        read(directory, mode, rows, (record, state) -> records.add(record));
+        return records;
+    }
+
+    private static void read(File directory, Mode mode, int rows, RecordConsumer consumer)
+            throws Exception {
+        final List<File> binlogFiles = BinlogFileReplayClient.listBinlogFiles(directory);
+        final List<String> binlogFilenames = new ArrayList<>();
+        binlogFiles.forEach(file -> binlogFilenames.add(file.getName()));
+        final FakeBinlogServer server =
+                mode == Mode.SERVER ? new FakeBinlogServer(directory) : null;
+        try {
+            final int port;
+            if (server != null) {
+                server.start();
+                port = server.getPort();
+            } else {
+                port = 3306;
+            }
+            final MySqlSourceConfig sourceConfig = createSourceConfig(port);
+            final BinaryLogClient client =
+                    server != null
+                            ? DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration())
+                            : new BinlogFileReplayClient(binlogFiles);
+            final MySqlBinlogSplit split =
+                    new MySqlBinlogSplit(
+                            MySqlBinlogSplit.BINLOG_SPLIT_ID,
+                            new BinlogOffset(binlogFilenames.get(0), 4L),
+                            BinlogOffset.NO_STOPPING_OFFSET,
+                            Collections.emptyList(),
+                            Collections.singletonMap(
+                                    TABLE_ID, BinlogFileWriter.tableSchema(TABLE_ID)),
+                            0);
+            final MySqlBinlogSplitState splitState = new MySqlBinlogSplitState(split);
+            final BinlogSplitReader reader =
+                    new BinlogSplitReader(
+                            new StatefulTaskContext(
+                                    sourceConfig,
+                                    client,
+                                    new OfflineMySqlConnection(
+                                            sourceConfig.getDbzConfiguration(), binlogFilenames)),
+                            0);
+            try {
+                reader.submitSplit(split);
+                long readRows = 0;
+                while (readRows < rows) {
+                    final Iterator<SourceRecord> records = reader.pollSplitRecords();
+                    if (records == null) {
+                        throw new IllegalStateException(
+                                "The binlog reading stopped before all rows were read.");
+                    }
+                    while (records.hasNext()) {
+                        final SourceRecord record = records.next();
+                        if (RecordUtils.isDataChangeRecord(record)) {
+                            readRows++;
+                        }
+                        consumer.accept(record, splitState);
+                    }
+                }
+            } finally {
+                reader.stopBinlogReadTask();
+                reader.close();
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private static MySqlSourceConfig createSourceConfig(int port) {
+        return new MySqlSourceConfigFactory()
+                .hostname("127.0.0.1")
+                .port(port)
+                .username("benchmark")
+                .password("")
+                .databaseList(TABLE_ID.catalog())
+                .tableList(TABLE_ID.toString())
+                .serverId("5400")
+                .serverTimeZone("UTC")
+                .createConfig(0);
+    }
+
+    private static MySqlRecordEmitter<RowData> createRecordEmitter() {
+        return new MySqlRecordEmitter<>(
+                RowDataDebeziumDeserializeSchema.newBuilder()
+                        .setPhysicalRowType(ROW_TYPE)
+                        .setResultTypeInfo(InternalTypeInfo.of(ROW_TYPE))
+                        .setServerTimeZone(ZoneId.of("UTC"))
+                        .setUserDefinedConverterFactory(
+                                MySqlDeserializationConverterFactory.instance())
+                        .build(),
+                new MySqlSourceReaderMetrics(
+                        UnregisteredMetricGroups.createUnregisteredOperatorMetricGroup()),
+                false);
+    }
+
+    /** Consumes the records read with the state of the binlog split. */
+    private interface RecordConsumer {
+        void accept(SourceRecord record, MySqlBinlogSplitState splitState);
+    }
+
+    /** A {@link SourceOutput} counting the emitted rows. */
+    private static final class CountingOutput implements SourceOutput<RowData> {
+        private long count;
+
+        @Override
+        public void collect(RowData record) {
+            count++;
+        }
+
+        @Override
+        public void collect(RowData record, long timestamp) {
+            count++;
+        }
+
+        @Override
+        public void emitWatermark(Watermark watermark) {}
+
+        @Override
+        public void markIdle() {}
+    }
+}
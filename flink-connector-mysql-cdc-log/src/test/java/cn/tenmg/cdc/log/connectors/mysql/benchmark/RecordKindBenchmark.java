@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.benchmark;
+
+import io.debezium.data.Envelope;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
+import cn.tenmg.cdc.log.connectors.mysql.source.reader.MySqlRecordEmitter;
+import cn.tenmg.cdc.log.connectors.mysql.source.reader.RecordKindClassifier;
+import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit;
+import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplitState;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordKind;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The benchmark of the per record work of the {@link MySqlRecordEmitter} before the record is
+ * deserialized, i.e. finding out the kind of the record and tracking the binlog position of the
+ * binlog split, by the predicates of the kinds with a {@link BinlogOffset} built for every record
+ * as before, or by the {@link RecordKindClassifier} with the source offset converted on checkpoint.
+ *
+ * <p>Run it with the number of records, the number of records between checkpoints and the
+ * iterations, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=cn.tenmg.cdc.log.connectors.mysql.benchmark.RecordKindBenchmark \
+ *   -Dexec.args="1000000 100000 10"
+ * </pre>
+ */
+public class RecordKindBenchmark {
+
+    public static void main(String[] args) {
+        final int records = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        final int checkpointInterval = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        final int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        final Schema valueSchema =
+                SchemaBuilder.struct()
+                        .field(Envelope.FieldName.OPERATION, Schema.STRING_SCHEMA)
+                        .field(Envelope.FieldName.TIMESTAMP, Schema.INT64_SCHEMA)
+                        .build();
+        final SourceRecord[] sourceRecords = new SourceRecord[records];
+        for (int i = 0; i < records; i++) {
+            sourceRecords[i] =
+                    new SourceRecord(
+                            Collections.emptyMap(),
+                            sourceOffset(i),
+                            "benchmark",
+                            null,
+                            null,
+                            null,
+                            valueSchema,
+                            new Struct(valueSchema)
+                                    .put(Envelope.FieldName.OPERATION, "c")
+                                    .put(Envelope.FieldName.TIMESTAMP, (long) i));
+        }
+
+        for (int i = 1; i <= iterations; i++) {
+            final MySqlBinlogSplitState currentState = createBinlogSplitState();
+            long start = System.nanoTime();
+            long current = 0L;
+            for (int r = 0; r < records; r++) {
+                final SourceRecord record = sourceRecords[r];
+                if (RecordUtils.isWatermarkEvent(record)) {
+                    RecordUtils.isHighWatermarkEvent(record);
+                } else if (!RecordUtils.isSchemaChangeEvent(record)
+                        && RecordUtils.isDataChangeRecord(record)) {
+                    currentState.setStartingOffset(RecordUtils.getBinlogPosition(record));
+                    current++;
+                }
+                if ((r + 1) % checkpointInterval == 0) {
+                    current += currentState.toMySqlSplit().getStartingOffset().getPosition();
+                }
+            }
+            final long currentNanos = System.nanoTime() - start;
+
+            final MySqlBinlogSplitState lazyState = createBinlogSplitState();
+            final RecordKindClassifier classifier = new RecordKindClassifier();
+            start = System.nanoTime();
+            long classified = 0L;
+            for (int r = 0; r < records; r++) {
+                final SourceRecord record = sourceRecords[r];
+                if (classifier.classify(record) == RecordKind.DATA_CHANGE) {
+                    lazyState.setStartingSourceOffset(record.sourceOffset());
+                    classified++;
+                }
+                if ((r + 1) % checkpointInterval == 0) {
+                    classified += lazyState.toMySqlSplit().getStartingOffset().getPosition();
+                }
+            }
+            final long classifiedNanos = System.nanoTime() - start;
+
+            System.out.printf(
+                    "Iteration %d: current %.1f ns/record, classified %.1f ns/record,"
+                            + " same result %b%n",
+                    i,
+                    (double) currentNanos / records,
+                    (double) classifiedNanos / records,
+                    current == classified);
+        }
+    }
+
+    /** The source offset of a binlog record, which Debezium creates for every record. */
+    private static Map<String, Object> sourceOffset(long position) {
+        final Map<String, Object> offset = new HashMap<>();
+        offset.put(BinlogOffset.BINLOG_FILENAME_OFFSET_KEY, "mysql-bin.000001");
+        offset.put(BinlogOffset.BINLOG_POSITION_OFFSET_KEY, position);
+        offset.put(BinlogOffset.EVENTS_TO_SKIP_OFFSET_KEY, 1L);
+        offset.put(BinlogOffset.ROWS_TO_SKIP_OFFSET_KEY, 1);
+        offset.put(BinlogOffset.TIMESTAMP_KEY, 1_600_000_000L);
+        offset.put(BinlogOffset.SERVER_ID_KEY, 1L);
+        offset.put(
+                BinlogOffset.GTID_SET_KEY,
+                "3e11fa47-71ca-11e1-9e33-c80aa9429562:1-" + (position + 1));
+        return offset;
+    }
+
+    private static MySqlBinlogSplitState createBinlogSplitState() {
+        return new MySqlBinlogSplitState(
+                new MySqlBinlogSplit(
+                        "binlog-split",
+                        BinlogOffset.INITIAL_OFFSET,
+                        BinlogOffset.NO_STOPPING_OFFSET,
+                        Collections.emptyList(),
+                        Collections.emptyMap(),
+                        0));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.benchmark;
+
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.RowType;
+
+import io.debezium.util.SchemaNameAdjuster;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.SplitKeyComparator;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.function.LongFunction;
+
+/**
+ * The benchmark of filtering the binlog records by the ranges of the finished snapshot splits, by
+ * {@link RecordUtils#getSplitKey} with {@link RecordUtils#splitKeyRangeContains} for every split
+ * or by reading the split key once and comparing it by the {@link SplitKeyComparator}.
+ *
+ * <p>Run it with the key type, either BIGINT or VARCHAR, the number of splits, the number of
+ * records and the iterations, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=cn.tenmg.cdc.log.connectors.mysql.benchmark.SplitKeyRangeBenchmark \
+ *   -Dexec.args="BIGINT 64 1000000 10"
+ * </pre>
+ */
+public class SplitKeyRangeBenchmark {
+
+    private static final int KEYS_PER_SPLIT = 8192;
+
+    public static void main(String[] args) {
+        final String keyType = args.length > 0 ? args[0].toUpperCase(Locale.ROOT) : "BIGINT";
+        final int splits = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        final int records = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        final int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        final DataType dataType;
+        final Schema fieldSchema;
+        final LongFunction<Object> keyFactory;
+        if ("VARCHAR".equals(keyType)) {
+            dataType = DataTypes.VARCHAR(32);
+            fieldSchema = Schema.STRING_SCHEMA;
+            keyFactory = key -> String.format("key-%012d", key);
+        } else {
+            dataType = DataTypes.BIGINT();
+            fieldSchema = Schema.INT64_SCHEMA;
+            keyFactory = key -> key;
+        }
+        final RowType splitKeyType =
+                (RowType) DataTypes.ROW(DataTypes.FIELD("id", dataType)).getLogicalType();
+        final Schema keySchema = SchemaBuilder.struct().field("id", fieldSchema).build();
+
+        final Object[][] splitStarts = new Object[splits][];
+        final Object[][] splitEnds = new Object[splits][];
+        for (int i = 0; i < splits; i++) {
+            final long splitStart = (long) i * KEYS_PER_SPLIT;
+            final long splitEnd = splitStart + KEYS_PER_SPLIT;
+            splitStarts[i] = i == 0 ? null : new Object[] {keyFactory.apply(splitStart)};
+            splitEnds[i] = i == splits - 1 ? null : new Object[] {keyFactory.apply(splitEnd)};
+        }
+        final SourceRecord[] sourceRecords = new SourceRecord[records];
+        for (int i = 0; i < records; i++) {
+            final long key = (i * 31L) % ((long) splits * KEYS_PER_SPLIT);
+            sourceRecords[i] =
+                    new SourceRecord(
+                            Collections.emptyMap(),
+                            Collections.emptyMap(),
+                            "benchmark",
+                            null,
+                            keySchema,
+                            new Struct(keySchema).put("id", keyFactory.apply(key)),
+                            null,
+                            null);
+        }
+        final SchemaNameAdjuster nameAdjuster = SchemaNameAdjuster.create();
+        final SplitKeyComparator comparator = SplitKeyComparator.of(splitKeyType);
+        final Field keyField = keySchema.field("id");
+
+        for (int i = 1; i <= iterations; i++) {
+            long start = System.nanoTime();
+            long current = 0L;
+            for (SourceRecord record : sourceRecords) {
+                final Object[] key = RecordUtils.getSplitKey(splitKeyType, record, nameAdjuster);
+                for (int s = 0; s < splits; s++) {
+                    if (RecordUtils.splitKeyRangeContains(key, splitStarts[s], splitEnds[s])) {
+                        current += s;
+                        break;
+                    }
+                }
+            }
+            final long currentNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long typed = 0L;
+            for (SourceRecord record : sourceRecords) {
+                final Object key = ((Struct) record.key()).get(keyField);
+                for (int s = 0; s < splits; s++) {
+                    if (comparator.rangeContains(key, splitStarts[s], splitEnds[s])) {
+                        typed += s;
+                        break;
+                    }
+                }
+            }
+            final long typedNanos = System.nanoTime() - start;
+
+            System.out.printf(
+                    "Iteration %d (%s, %d splits): current %.1f ns/record, typed %.1f ns/record,"
+                            + " same result %b%n",
+                    i,
+                    keyType,
+                    splits,
+                    (double) currentNanos / records,
+                    (double) typedNanos / records,
+                    current == typed);
+        }
+    }
+}
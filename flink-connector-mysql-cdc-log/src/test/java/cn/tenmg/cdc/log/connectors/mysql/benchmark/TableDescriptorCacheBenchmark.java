@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.benchmark;
+
+import org.apache.flink.table.types.logical.RowType;
+
+import io.debezium.connector.AbstractSourceInfo;
+import io.debezium.data.Envelope;
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import io.debezium.relational.Tables;
+import io.debezium.util.SchemaNameAdjuster;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.TableDescriptorCache;
+import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.TableDescriptorCache.TableDescriptor;
+import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.ChunkUtils;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
+
+import java.sql.Types;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The benchmark of the per-table facts the binlog reader needs for each data change record, i.e.
+ * the table id, whether the table is captured and in the table group of the split, and the split
+ * key, resolved for every record as before or looked up from the {@link TableDescriptorCache}.
+ *
+ * <p>Run it with the number of tables, the number of records and the iterations, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=cn.tenmg.cdc.log.connectors.mysql.benchmark.TableDescriptorCacheBenchmark \
+ *   -Dexec.args="16 1000000 10"
+ * </pre>
+ */
+public class TableDescriptorCacheBenchmark {
+
+    private static final int TABLE_GROUPS = 4;
+    private static final Pattern INCLUDED_TABLES = Pattern.compile("inventory\\.table_.*");
+
+    public static void main(String[] args) {
+        final int tables = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        final int records = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        final int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        final Map<TableId, Table> tableMap = new HashMap<>();
+        final SourceRecord[] sourceRecords = new SourceRecord[records];
+        final RecordFactory[] factories = new RecordFactory[tables];
+        for (int i = 0; i < tables; i++) {
+            final TableId tableId = new TableId("inventory", null, "table_" + i);
+            tableMap.put(tableId, createTable(tableId));
+            factories[i] = new RecordFactory(tableId);
+        }
+        for (int i = 0; i < records; i++) {
+            sourceRecords[i] = factories[i % tables].createRecord(i);
+        }
+        final Tables.TableFilter capturedTableFilter =
+                tableId -> INCLUDED_TABLES.matcher(tableId.identifier()).matches();
+        final SchemaNameAdjuster nameAdjuster = SchemaNameAdjuster.create();
+
+        for (int i = 1; i <= iterations; i++) {
+            long start = System.nanoTime();
+            long checksum = 0L;
+            for (SourceRecord record : sourceRecords) {
+                final TableId tableId = RecordUtils.getTableId(record);
+                final boolean inTableGroup =
+                        MySqlBinlogSplit.tableGroup(tableId, TABLE_GROUPS) == 0;
+                final boolean captured = capturedTableFilter.isIncluded(tableId);
+                final RowType splitKeyType = ChunkUtils.getSplitType(tableMap.get(tableId));
+                final Object[] key = RecordUtils.getSplitKey(splitKeyType, record, nameAdjuster);
+                checksum += checksum(inTableGroup, captured, key[0]);
+            }
+            final long uncachedNanos = System.nanoTime() - start;
+
+            // a new cache for each iteration, the descriptors are resolved within the iteration
+            final TableDescriptorCache cache =
+                    new TableDescriptorCache(
+                            capturedTableFilter,
+                            tableId -> MySqlBinlogSplit.tableGroup(tableId, TABLE_GROUPS) == 0,
+                            tableMap::get,
+                            nameAdjuster);
+            start = System.nanoTime();
+            for (SourceRecord record : sourceRecords) {
+                final TableDescriptor table = cache.get(record);
+                checksum -=
+                        checksum(
+                                table.isInTableGroup(),
+                                table.isCaptured(),
+                                table.getSplitKey(record));
+            }
+            final long cachedNanos = System.nanoTime() - start;
+
+            System.out.printf(
+                    "Iteration %d: uncached %.1f ns/record, cached %.1f ns/record, checksum %d%n",
+                    i,
+                    (double) uncachedNanos / records,
+                    (double) cachedNanos / records,
+                    checksum);
+        }
+    }
+
+    private static long checksum(boolean inTableGroup, boolean captured, Object key) {
+        return (inTableGroup ? 1 : 0) + (captured ? 2 : 0) + (Long) key;
+    }
+
+    private static Table createTable(TableId tableId) {
+        return Table.editor()
+                .tableId(tableId)
+                .addColumns(
+                        Column.editor()
+                                .name("id")
+                                .type("BIGINT")
+                                .jdbcType(Types.BIGINT)
+                                .optional(false)
+                                .create())
+                .setPrimaryKeyNames("id")
+                .create();
+    }
+
+    /** Creates the data change records of a table sharing their schemas as Debezium does. */
+    private static class RecordFactory {
+        private final TableId tableId;
+        private final Schema keySchema;
+        private final Schema sourceSchema;
+        private final Schema valueSchema;
+
+        RecordFactory(TableId tableId) {
+            this.tableId = tableId;
+            this.keySchema = SchemaBuilder.struct().field("id", Schema.INT64_SCHEMA).build();
+            this.sourceSchema =
+                    SchemaBuilder.struct()
+                            .field(AbstractSourceInfo.DATABASE_NAME_KEY, Schema.STRING_SCHEMA)
+                            .field(AbstractSourceInfo.TABLE_NAME_KEY, Schema.STRING_SCHEMA)
+                            .build();
+            this.valueSchema =
+                    SchemaBuilder.struct()
+                            .field(Envelope.FieldName.OPERATION, Schema.STRING_SCHEMA)
+                            .field(Envelope.FieldName.SOURCE, sourceSchema)
+                            .build();
+        }
+
+        SourceRecord createRecord(long id) {
+            final Struct source =
+                    new Struct(sourceSchema)
+                            .put(AbstractSourceInfo.DATABASE_NAME_KEY, tableId.catalog())
+                            .put(AbstractSourceInfo.TABLE_NAME_KEY, tableId.table());
+            final Struct value =
+                    new Struct(valueSchema)
+                            .put(Envelope.FieldName.OPERATION, "c")
+                            .put(Envelope.FieldName.SOURCE, source);
+            return new SourceRecord(
+                    Collections.emptyMap(),
+                    Collections.emptyMap(),
+                    "benchmark." + tableId,
+                    null,
+                    keySchema,
+                    new Struct(keySchema).put("id", id),
+                    valueSchema,
+                    value);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.benchmark;
+
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.types.logical.RowType;
+
+import com.github.shyiko.mysql.binlog.BinaryLogClient;
+import io.debezium.relational.TableId;
+
+import cn.tenmg.cdc.log.connectors.mysql.debezium.OfflineMySqlConnection;
+import cn.tenmg.cdc.log.connectors.mysql.debezium.task.context.StatefulTaskContext;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfigFactory;
+import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSnapshotSplit;
+import cn.tenmg.cdc.log.connectors.mysql.testutils.BinlogFileWriter;
+
+import java.util.Collections;
+import java.util.Locale;
+
+/**
+ * The benchmark of configuring the {@link StatefulTaskContext} for the snapshot splits of a table
+ * without a MySQL server, the context of the reader is reused across the splits in the {@code
+ * reuse} mode, or a new context is fully configured for each split in the {@code rebuild} mode,
+ * which is what the reader did before the context was reused.
+ *
+ * <p>Run it with the mode, the number of splits and the number of iterations, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=cn.tenmg.cdc.log.connectors.mysql.benchmark.TaskContextReuseBenchmark \
+ *   -Dexec.args="reuse 10000 5"
+ * </pre>
+ */
+public class TaskContextReuseBenchmark {
+
+    private static final TableId TABLE_ID = TableId.parse("benchmark_db.customers");
+    private static final RowType SPLIT_KEY_TYPE =
+            (RowType)
+                    DataTypes.ROW(DataTypes.FIELD("id", DataTypes.BIGINT().notNull()))
+                            .getLogicalType();
+
+    /** How the context is configured for each split. */
+    public enum Mode {
+        REUSE,
+        REBUILD
+    }
+
+    public static void main(String[] args) {
+        final Mode mode =
+                args.length > 0 ? Mode.valueOf(args[0].toUpperCase(Locale.ROOT)) : Mode.REUSE;
+        final int splits = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        final int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final MySqlSourceConfig sourceConfig =
+                new MySqlSourceConfigFactory()
+                        .hostname("127.0.0.1")
+                        .port(3306)
+                        .username("benchmark")
+                        .password("")
+                        .databaseList(TABLE_ID.catalog())
+                        .tableList(TABLE_ID.toString())
+                        .serverId("5400")
+                        .serverTimeZone("UTC")
+                        .createConfig(0);
+        final MySqlSnapshotSplit[] snapshotSplits = new MySqlSnapshotSplit[splits];
+        for (int i = 0; i < splits; i++) {
+            snapshotSplits[i] =
+                    new MySqlSnapshotSplit(
+                            TABLE_ID,
+                            TABLE_ID + ":" + i,
+                            SPLIT_KEY_TYPE,
+                            i == 0 ? null : new Object[] {i * 1000L},
+                            i == splits - 1 ? null : new Object[] {(i + 1) * 1000L},
+                            null,
+                            Collections.singletonMap(
+                                    TABLE_ID, BinlogFileWriter.tableSchema(TABLE_ID)));
+        }
+
+        for (int i = 1; i <= iterations; i++) {
+            StatefulTaskContext context = null;
+            final long start = System.nanoTime();
+            for (MySqlSnapshotSplit snapshotSplit : snapshotSplits) {
+                if (context == null || mode == Mode.REBUILD) {
+                    context = createContext(sourceConfig);
+                }
+                context.configure(snapshotSplit);
+            }
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(
+                    "Iteration %d (%s): configured %d splits in %.3f s, %.0f splits/s%n",
+                    i, mode, splits, seconds, splits / seconds);
+        }
+    }
+
+    private static StatefulTaskContext createContext(MySqlSourceConfig sourceConfig) {
+        return new StatefulTaskContext(
+                sourceConfig,
+                new BinaryLogClient("127.0.0.1", 3306, "benchmark", ""),
+                new OfflineMySqlConnection(
+                        sourceConfig.getDbzConfiguration(),
+                        Collections.singletonList("mysql-bin.000001")));
+    }
+}
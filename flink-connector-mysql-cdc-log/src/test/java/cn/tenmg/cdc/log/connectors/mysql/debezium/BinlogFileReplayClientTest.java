@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium;
+
+import org.apache.flink.core.testutils.CommonTestUtils;
+
+import com.github.shyiko.mysql.binlog.BinaryLogClient;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.WriteRowsEventData;
+import io.debezium.relational.TableId;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cn.tenmg.cdc.log.connectors.mysql.benchmark.BinlogReadBenchmark;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
+import cn.tenmg.cdc.log.connectors.mysql.testutils.BinlogFileWriter;
+import cn.tenmg.cdc.log.connectors.mysql.testutils.FakeBinlogServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/** Tests for {@link BinlogFileReplayClient} and the {@link FakeBinlogServer}. */
+public class BinlogFileReplayClientTest {
+
+    private static final TableId TABLE_ID = TableId.parse("replay_db.customers");
+    private static final int ROWS_PER_TRANSACTION = 10;
+    private static final int TRANSACTIONS = 100;
+
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testReplayFromStart() throws Exception {
+        final BinlogFileWriter writer = writeBinlogFiles(temporaryFolder.getRoot());
+        assertTrue(writer.getBinlogFiles().size() > 1);
+
+        final BinlogFileReplayClient client = new BinlogFileReplayClient(temporaryFolder.getRoot());
+        final List<Serializable> ids = new ArrayList<>();
+        client.registerEventListener(
+                event -> {
+                    if (event.getData() instanceof WriteRowsEventData) {
+                        for (Serializable[] row :
+                                ((WriteRowsEventData) event.getData()).getRows()) {
+                            ids.add(row[0]);
+                        }
+                    }
+                });
+        client.connect(0L);
+        try {
+            CommonTestUtils.waitUtil(
+                    client::isReplayed,
+                    Duration.ofSeconds(30),
+                    "Timeout waiting for the binlog files to be replayed.");
+        } finally {
+            client.disconnect();
+        }
+
+        final List<Serializable> expected = new ArrayList<>();
+        for (long id = 0; id < ROWS_PER_TRANSACTION * TRANSACTIONS; id++) {
+            expected.add(id);
+        }
+        assertEquals(expected, ids);
+        assertEquals(writer.getCurrentFilename(), client.getBinlogFilename());
+        assertEquals(writer.getCurrentPosition(), client.getBinlogPosition());
+    }
+
+    @Test
+    public void testReplayFromPosition() throws Exception {
+        final File directory = temporaryFolder.getRoot();
+        final String startingFilename;
+        final long startingPosition;
+        try (BinlogFileWriter writer = new BinlogFileWriter(directory, TABLE_ID, 16 * 1024)) {
+            insert(writer, 0, TRANSACTIONS / 2);
+            startingFilename = writer.getCurrentFilename();
+            startingPosition = writer.getCurrentPosition();
+            insert(writer, TRANSACTIONS / 2, TRANSACTIONS);
+        }
+
+        final BinlogFileReplayClient client = new BinlogFileReplayClient(directory);
+        client.setBinlogFilename(startingFilename);
+        client.setBinlogPosition(startingPosition);
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final List<Serializable> ids = new ArrayList<>();
+        client.registerEventListener(
+                event -> {
+                    events.add(event.getHeader().getEventType().name());
+                    if (event.getData() instanceof WriteRowsEventData) {
+                        ids.add(((WriteRowsEventData) event.getData()).getRows().get(0)[0]);
+                    }
+                });
+        client.connect(0L);
+        try {
+            CommonTestUtils.waitUtil(
+                    client::isReplayed,
+                    Duration.ofSeconds(30),
+                    "Timeout waiting for the binlog files to be replayed.");
+        } finally {
+            client.disconnect();
+        }
+
+        // the artificial rotate event and the format description event come first
+        assertEquals(EventType.ROTATE.name(), events.get(0));
+        assertEquals(EventType.FORMAT_DESCRIPTION.name(), events.get(1));
+        assertEquals(TRANSACTIONS / 2, ids.size());
+        assertEquals((long) ROWS_PER_TRANSACTION * TRANSACTIONS / 2, ids.get(0));
+    }
+
+    @Test
+    public void testServeSameEventsAsReplay() throws Exception {
+        final BinlogFileWriter writer = writeBinlogFiles(temporaryFolder.getRoot());
+        final String firstFilename = writer.getBinlogFiles().get(0).getName();
+
+        final BinlogFileReplayClient replayClient =
+                new BinlogFileReplayClient(temporaryFolder.getRoot());
+        final List<String> replayedEvents = Collections.synchronizedList(new ArrayList<>());
+        replayClient.registerEventListener(
+                event -> replayedEvents.add(describe(event.getHeader())));
+        replayClient.connect(0L);
+        try {
+            CommonTestUtils.waitUtil(
+                    replayClient::isReplayed,
+                    Duration.ofSeconds(30),
+                    "Timeout waiting for the binlog files to be replayed.");
+        } finally {
+            replayClient.disconnect();
+        }
+
+        try (FakeBinlogServer server = new FakeBinlogServer(temporaryFolder.getRoot())) {
+            server.start();
+            final BinaryLogClient client =
+                    new BinaryLogClient("127.0.0.1", server.getPort(), "test", "");
+            client.setServerId(5400);
+            client.setKeepAlive(false);
+            client.setBinlogFilename(firstFilename);
+            client.setBinlogPosition(4L);
+            final List<String> servedEvents = Collections.synchronizedList(new ArrayList<>());
+            client.registerEventListener(
+                    event -> servedEvents.add(describe(event.getHeader())));
+            client.connect(10_000L);
+            try {
+                CommonTestUtils.waitUtil(
+                        () -> servedEvents.size() >= replayedEvents.size(),
+                        Duration.ofSeconds(30),
+                        "Timeout waiting for the binlog events to be served.");
+            } finally {
+                client.disconnect();
+            }
+            assertEquals(replayedEvents, servedEvents);
+            assertEquals(writer.getCurrentFilename(), client.getBinlogFilename());
+            assertEquals(writer.getCurrentPosition(), client.getBinlogPosition());
+        }
+    }
+
+    @Test
+    public void testReplayEmitsSameRecordsAsServer() throws Exception {
+        final int rows = 2_000;
+        BinlogReadBenchmark.writeBinlogFiles(temporaryFolder.getRoot(), rows);
+
+        final List<String> replayedRecords =
+                format(
+                        BinlogReadBenchmark.readRecords(
+                                temporaryFolder.getRoot(), BinlogReadBenchmark.Mode.REPLAY, rows));
+        final List<String> servedRecords =
+                format(
+                        BinlogReadBenchmark.readRecords(
+                                temporaryFolder.getRoot(), BinlogReadBenchmark.Mode.SERVER, rows));
+        assertEquals(rows, replayedRecords.size());
+        assertEquals(replayedRecords, servedRecords);
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private static BinlogFileWriter writeBinlogFiles(File directory) throws Exception {
+        try (BinlogFileWriter writer = new BinlogFileWriter(directory, TABLE_ID, 16 * 1024)) {
+            insert(writer, 0, TRANSACTIONS);
+            return writer;
+        }
+    }
+
+    private static void insert(BinlogFileWriter writer, int fromTransaction, int toTransaction)
+            throws Exception {
+        for (int t = fromTransaction; t < toTransaction; t++) {
+            final long[] ids = new long[ROWS_PER_TRANSACTION];
+            final String[] names = new String[ROWS_PER_TRANSACTION];
+            for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                ids[i] = (long) t * ROWS_PER_TRANSACTION + i;
+                // leave some names null to cover the null bitmap
+                names[i] = i % 3 == 0 ? null : "customer-" + ids[i];
+            }
+            writer.insert(ids, names);
+        }
+    }
+
+    private static String describe(EventHeaderV4 header) {
+        return header.getEventType() + "@" + header.getNextPosition();
+    }
+
+    /** Formats the data change records without the processing time of the envelope. */
+    private static List<String> format(List<SourceRecord> records) {
+        return records.stream()
+                .filter(RecordUtils::isDataChangeRecord)
+                .map(
+                        record -> {
+                            final Struct value = (Struct) record.value();
+                            return record.topic()
+                                    + " "
+                                    + record.key()
+                                    + " "
+                                    + value.get("after")
+                                    + " "
+                                    + value.get("source")
+                                    + " "
+                                    + record.sourceOffset();
+                        })
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium;
+
+import io.debezium.relational.TableId;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfigFactory;
+import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
+import cn.tenmg.cdc.log.connectors.mysql.testutils.BinlogFileWriter;
+import cn.tenmg.cdc.log.connectors.mysql.testutils.FakeBinlogServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/** Tests for {@link BinlogTimestampSeeker} with a {@link FakeBinlogServer}. */
+public class BinlogTimestampSeekerTest {
+
+    private static final TableId TABLE_ID = TableId.parse("seek_db.customers");
+
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testSeekTimestamp() throws Exception {
+        final File directory = temporaryFolder.getRoot();
+        final List<String> binlogFiles;
+        final List<Long> timestamps;
+        try (BinlogFileWriter writer = new BinlogFileWriter(directory, TABLE_ID, 4 * 1024)) {
+            for (long id = 0; id < 200; id++) {
+                writer.insert(new long[] {id}, new String[] {"customer-" + id});
+            }
+            binlogFiles =
+                    writer.getBinlogFiles().stream()
+                            .map(File::getName)
+                            .collect(Collectors.toList());
+            timestamps = writer.getFirstEventTimestamps();
+        }
+        assertTrue(binlogFiles.size() > 4);
+
+        try (FakeBinlogServer server = new FakeBinlogServer(directory)) {
+            server.start();
+            final MySqlSourceConfig sourceConfig = getConfig(server.getPort());
+            final int last = binlogFiles.size() - 1;
+
+            // before the first file
+            assertSeek(sourceConfig, binlogFiles, timestamps.get(0) - 1, binlogFiles.get(0));
+            // at the first event of each file
+            for (int i = 0; i <= last; i++) {
+                assertSeek(sourceConfig, binlogFiles, timestamps.get(i), binlogFiles.get(i));
+            }
+            // between the first events of two files
+            for (int i = 0; i < last; i++) {
+                assertSeek(
+                        sourceConfig, binlogFiles, timestamps.get(i + 1) - 1, binlogFiles.get(i));
+            }
+            // after the first event of the last file
+            final long afterLast = timestamps.get(last) + 60_000L;
+            assertSeek(sourceConfig, binlogFiles, afterLast, binlogFiles.get(last));
+        }
+    }
+
+    private static void assertSeek(
+            MySqlSourceConfig sourceConfig,
+            List<String> binlogFiles,
+            long timestampMillis,
+            String expectedFilename) {
+        assertEquals(
+                new BinlogOffset(expectedFilename, 4L),
+                BinlogTimestampSeeker.seek(sourceConfig, binlogFiles, timestampMillis));
+    }
+
+    private static MySqlSourceConfig getConfig(int port) {
+        return new MySqlSourceConfigFactory()
+                .hostname("127.0.0.1")
+                .port(port)
+                .username("test")
+                .password("")
+                .databaseList(TABLE_ID.catalog())
+                .tableList(TABLE_ID.toString())
+                .serverId("5400")
+                .serverTimeZone("UTC")
+                .createConfig(0);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium;
+
+import com.github.shyiko.mysql.binlog.event.DeleteRowsEventData;
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventData;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.UpdateRowsEventData;
+import com.github.shyiko.mysql.binlog.event.WriteRowsEventData;
+import io.debezium.data.Envelope;
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.Serializable;
+import java.sql.Types;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/** Tests for {@link RowImageReconstructor}. */
+public class RowImageReconstructorTest {
+
+    private static final long TABLE_NUMBER = 1L;
+    private static final Table TABLE =
+            Table.editor()
+                    .tableId(new TableId("customer", null, "customers"))
+                    .addColumns(
+                            column("id", Types.INTEGER, 1),
+                            column("name", Types.VARCHAR, 2),
+                            column("age", Types.INTEGER, 3))
+                    .setPrimaryKeyNames("id")
+                    .create();
+
+    private static final Schema SOURCE_SCHEMA =
+            SchemaBuilder.struct().field("row", Schema.INT32_SCHEMA).build();
+    private static final Schema VALUE_SCHEMA =
+            SchemaBuilder.struct()
+                    .field(Envelope.FieldName.OPERATION, Schema.STRING_SCHEMA)
+                    .field(Envelope.FieldName.SOURCE, SOURCE_SCHEMA)
+                    .build();
+
+    @Test
+    public void testExpandUpdatedRows() {
+        final RowImageReconstructor reconstructor = new RowImageReconstructor(0);
+        final UpdateRowsEventData data = new UpdateRowsEventData();
+        data.setTableId(TABLE_NUMBER);
+        data.setIncludedColumnsBeforeUpdate(columns(0));
+        data.setIncludedColumns(columns(2));
+        data.setRows(
+                Arrays.asList(
+                        new AbstractMap.SimpleEntry<>(row(1), row(30)),
+                        new AbstractMap.SimpleEntry<>(row(2), row(40))));
+
+        reconstruct(reconstructor, data);
+
+        assertEquals(columns(0, 1, 2), data.getIncludedColumnsBeforeUpdate());
+        assertEquals(columns(0, 1, 2), data.getIncludedColumns());
+        final Map.Entry<Serializable[], Serializable[]> first = data.getRows().get(0);
+        assertArrayEquals(row(1, null, null), first.getKey());
+        // the key is taken from the before image as it's not changed
+        assertArrayEquals(row(1, null, 30), first.getValue());
+        assertArrayEquals(row(2, null, 40), data.getRows().get(1).getValue());
+
+        assertEquals(
+                Collections.singletonList("name"),
+                RowImageReconstructor.getAbsentColumns(reconstructor.tag(record("u", 1))));
+        assertEquals(
+                Arrays.asList("name", "age"),
+                RowImageReconstructor.getAbsentColumns(reconstructor.tag(record("d", 0))));
+
+        reconstructor.clear();
+        assertNull(RowImageReconstructor.getAbsentColumns(reconstructor.tag(record("u", 0))));
+    }
+
+    @Test
+    public void testMergeCachedFullImage() {
+        final RowImageReconstructor reconstructor = new RowImageReconstructor(16);
+        final WriteRowsEventData insert = new WriteRowsEventData();
+        insert.setTableId(TABLE_NUMBER);
+        insert.setIncludedColumns(columns(0, 1, 2));
+        insert.setRows(Collections.singletonList(row(1, "Tom", 20)));
+        reconstruct(reconstructor, insert);
+        assertNull(RowImageReconstructor.getAbsentColumns(reconstructor.tag(record("c", 0))));
+
+        final UpdateRowsEventData update = new UpdateRowsEventData();
+        update.setTableId(TABLE_NUMBER);
+        update.setIncludedColumnsBeforeUpdate(columns(0));
+        update.setIncludedColumns(columns(2));
+        update.setRows(
+                Collections.singletonList(new AbstractMap.SimpleEntry<>(row(1), row(21))));
+        reconstruct(reconstructor, update);
+
+        final Map.Entry<Serializable[], Serializable[]> updated = update.getRows().get(0);
+        assertArrayEquals(row(1, "Tom", 20), updated.getKey());
+        assertArrayEquals(row(1, "Tom", 21), updated.getValue());
+        assertNull(RowImageReconstructor.getAbsentColumns(reconstructor.tag(record("u", 0))));
+
+        // the full after image of the update replaced the cached image
+        final DeleteRowsEventData delete = new DeleteRowsEventData();
+        delete.setTableId(TABLE_NUMBER);
+        delete.setIncludedColumns(columns(0));
+        delete.setRows(Collections.singletonList(row(1)));
+        reconstruct(reconstructor, delete);
+        assertArrayEquals(row(1, "Tom", 21), delete.getRows().get(0));
+
+        // the deleted row is not cached any more
+        final DeleteRowsEventData deleteAgain = new DeleteRowsEventData();
+        deleteAgain.setTableId(TABLE_NUMBER);
+        deleteAgain.setIncludedColumns(columns(0));
+        deleteAgain.setRows(Collections.singletonList(row(1)));
+        reconstruct(reconstructor, deleteAgain);
+        assertArrayEquals(row(1, null, null), deleteAgain.getRows().get(0));
+    }
+
+    @Test
+    public void testFullImagesUntouched() {
+        final RowImageReconstructor reconstructor = new RowImageReconstructor(0);
+        final List<Serializable[]> rows = Collections.singletonList(row(1, "Tom", 20));
+        final WriteRowsEventData data = new WriteRowsEventData();
+        data.setTableId(TABLE_NUMBER);
+        data.setIncludedColumns(columns(0, 1, 2));
+        data.setRows(rows);
+
+        reconstruct(reconstructor, data);
+
+        assertSame(rows, data.getRows());
+        assertNull(RowImageReconstructor.getAbsentColumns(reconstructor.tag(record("c", 0))));
+    }
+
+    @Test
+    public void testUnknownTableUntouched() {
+        final RowImageReconstructor reconstructor = new RowImageReconstructor(16);
+        final List<Serializable[]> rows = Collections.singletonList(row(1));
+        final DeleteRowsEventData data = new DeleteRowsEventData();
+        data.setTableId(TABLE_NUMBER + 1);
+        data.setIncludedColumns(columns(0));
+        data.setRows(rows);
+
+        reconstruct(reconstructor, data);
+
+        assertSame(rows, data.getRows());
+        assertEquals(columns(0), data.getIncludedColumns());
+    }
+
+    private static void reconstruct(RowImageReconstructor reconstructor, EventData data) {
+        reconstructor.reconstruct(
+                new Event(new EventHeaderV4(), data),
+                tableNumber -> tableNumber == TABLE_NUMBER ? TABLE : null);
+    }
+
+    private static SourceRecord record(String operation, int row) {
+        final Struct value =
+                new Struct(VALUE_SCHEMA)
+                        .put(Envelope.FieldName.OPERATION, operation)
+                        .put(Envelope.FieldName.SOURCE, new Struct(SOURCE_SCHEMA).put("row", row));
+        return new SourceRecord(
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                "test",
+                null,
+                null,
+                null,
+                VALUE_SCHEMA,
+                value);
+    }
+
+    private static Column column(String name, int jdbcType, int position) {
+        return Column.editor().name(name).jdbcType(jdbcType).position(position).create();
+    }
+
+    private static BitSet columns(int... indexes) {
+        final BitSet columns = new BitSet();
+        for (int index : indexes) {
+            columns.set(index);
+        }
+        return columns;
+    }
+
+    private static Serializable[] row(Serializable... values) {
+        return values;
+    }
+}
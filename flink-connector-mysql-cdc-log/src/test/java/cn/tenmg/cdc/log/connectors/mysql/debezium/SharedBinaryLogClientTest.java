@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium;
+
+import org.apache.flink.core.testutils.CommonTestUtils;
+
+import com.github.shyiko.mysql.binlog.BinaryLogClient;
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventData;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.QueryEventData;
+import com.github.shyiko.mysql.binlog.event.RotateEventData;
+import com.github.shyiko.mysql.binlog.event.WriteRowsEventData;
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cn.tenmg.cdc.log.connectors.mysql.debezium.SharedBinaryLogClient.RawEventDeserializer;
+import cn.tenmg.cdc.log.connectors.mysql.debezium.SharedBinaryLogClient.SharedBinlogConnection;
+import cn.tenmg.cdc.log.connectors.mysql.testutils.BinlogFileWriter;
+import cn.tenmg.cdc.log.connectors.mysql.testutils.FakeBinlogServer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.Serializable;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Tests for {@link SharedBinaryLogClient}. */
+public class SharedBinaryLogClientTest {
+
+    private static final String BINLOG_FILE = "mysql-bin.000001";
+    private static final TableId TABLE_ID = TableId.parse("shared_db.customers");
+    private static final int TRANSACTIONS = 200;
+
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testJoinAtNextPosition() {
+        final SharedBinlogConnection connection = createConnection();
+
+        assertTrue(connection.join(createClient(4)));
+        // the clients starting from the same position join the connection before any event
+        assertTrue(connection.join(createClient(4)));
+
+        deliver(connection, rotateEvent(BINLOG_FILE, 4));
+        deliver(connection, event(EventType.FORMAT_DESCRIPTION, 120, null));
+        deliver(connection, queryEvent(200, "BEGIN"));
+        deliver(connection, event(EventType.TABLE_MAP, 260, null));
+        deliver(connection, event(EventType.EXT_WRITE_ROWS, 320, null));
+        assertFalse(connection.join(createClient(4)));
+        assertFalse(connection.join(createClient(200)));
+        // the clients never join in the middle of a transaction
+        assertFalse(connection.join(createClient(320)));
+
+        deliver(connection, event(EventType.XID, 351, null));
+        assertFalse(connection.join(createClient(320)));
+        assertTrue(connection.join(createClient(351)));
+
+        deliver(connection, rotateEvent("mysql-bin.000002", 4));
+        assertFalse(connection.join(createClient(351)));
+        final SharedBinaryLogClient nextFileClient = createClient(4);
+        nextFileClient.setBinlogFilename("mysql-bin.000002");
+        assertTrue(connection.join(nextFileClient));
+    }
+
+    @Test
+    public void testCatchUpOnlyBehind() {
+        final SharedBinlogConnection connection = createConnection();
+        // there is nothing to catch up with before the connection has a client
+        assertFalse(connection.catchUp(createClient(4)));
+        assertTrue(connection.join(createClient(4)));
+        deliver(connection, rotateEvent(BINLOG_FILE, 4));
+        deliver(connection, queryEvent(200, "BEGIN"));
+
+        assertTrue(connection.catchUp(createClient(4)));
+        assertFalse(connection.catchUp(createClient(200)));
+        assertFalse(connection.catchUp(createClient(300)));
+        final SharedBinaryLogClient nextFileClient = createClient(4);
+        nextFileClient.setBinlogFilename("mysql-bin.000002");
+        assertFalse(connection.catchUp(nextFileClient));
+        final SharedBinaryLogClient gtidClient = createClient(4);
+        gtidClient.setBinlogFilename(null);
+        assertFalse(connection.catchUp(gtidClient));
+    }
+
+    @Test
+    public void testMergeAtTransactionBoundary() {
+        final SharedBinlogConnection connection = createConnection();
+        assertTrue(connection.join(createClient(4)));
+        deliver(connection, rotateEvent(BINLOG_FILE, 4));
+        deliver(connection, queryEvent(200, "BEGIN"));
+        deliver(connection, event(EventType.TABLE_MAP, 260, null));
+        deliver(connection, event(EventType.EXT_WRITE_ROWS, 320, null));
+
+        final SharedBinaryLogClient client = createClient(4);
+        assertTrue(connection.catchUp(client));
+        // the events are kept from the next transaction boundary
+        assertNull(connection.merge(client, BINLOG_FILE, 320));
+        deliver(connection, event(EventType.XID, 351, null));
+        final Event begin = queryEvent(420, "BEGIN");
+        final byte[] beginBytes = new byte[] {1};
+        connection.deliver(begin, beginBytes);
+        deliver(connection, event(EventType.TABLE_MAP, 480, null));
+        assertNull(connection.merge(client, BINLOG_FILE, 200));
+
+        final List<byte[]> backlog = connection.merge(client, BINLOG_FILE, 351);
+        assertEquals(2, backlog.size());
+        assertArrayEquals(beginBytes, backlog.get(0));
+        // the merged client is delivered by the connection
+        assertNull(connection.merge(client, BINLOG_FILE, 480));
+    }
+
+    @Test
+    public void testMergeAfterBacklogOverflow() {
+        final SharedBinlogConnection connection = createConnection();
+        assertTrue(connection.join(createClient(4)));
+        deliver(connection, rotateEvent(BINLOG_FILE, 4));
+        deliver(connection, queryEvent(200, "COMMIT"));
+
+        final SharedBinaryLogClient client = createClient(4);
+        assertTrue(connection.catchUp(client));
+        long position = 200;
+        deliver(connection, queryEvent(position += 10, "BEGIN"));
+        for (int i = 0; i < SharedBinaryLogClient.CATCH_UP_BACKLOG_SIZE; i++) {
+            deliver(connection, event(EventType.EXT_WRITE_ROWS, position += 10, null));
+        }
+        // the kept events are dropped, the client merges at a later boundary
+        assertNull(connection.merge(client, BINLOG_FILE, 200));
+        deliver(connection, event(EventType.XID, position += 10, null));
+        assertEquals(Collections.emptyList(), connection.merge(client, BINLOG_FILE, position));
+    }
+
+    @Test
+    public void testReportDeliveredPosition() {
+        final SharedBinaryLogClient client = createClient(4);
+        client.updatePosition(rotateEvent(BINLOG_FILE, 4));
+        client.updatePosition(event(EventType.FORMAT_DESCRIPTION, 120, null));
+        assertPosition(client, BINLOG_FILE, 120);
+
+        client.updatePosition(queryEvent(200, "BEGIN"));
+        // the position never points between the table map event and its row events
+        client.updatePosition(event(EventType.TABLE_MAP, 260, null));
+        assertPosition(client, BINLOG_FILE, 200);
+        client.updatePosition(event(EventType.EXT_WRITE_ROWS, 320, null));
+        client.updatePosition(event(EventType.XID, 351, null));
+        assertPosition(client, BINLOG_FILE, 351);
+
+        client.updatePosition(rotateEvent("mysql-bin.000002", 4));
+        assertPosition(client, "mysql-bin.000002", 4);
+    }
+
+    @Test
+    public void testShareConnection() throws Exception {
+        final File directory = temporaryFolder.getRoot();
+        final String firstFilename;
+        final String lastFilename;
+        final long lastPosition;
+        try (BinlogFileWriter writer = new BinlogFileWriter(directory, TABLE_ID, 4 * 1024)) {
+            for (long id = 0; id < TRANSACTIONS; id++) {
+                writer.insert(new long[] {id}, new String[] {"customer-" + id});
+            }
+            firstFilename = writer.getBinlogFiles().get(0).getName();
+            lastFilename = writer.getCurrentFilename();
+            lastPosition = writer.getCurrentPosition();
+        }
+
+        try (FakeBinlogServer server = new FakeBinlogServer(directory)) {
+            server.start();
+            final List<Serializable> firstIds = Collections.synchronizedList(new ArrayList<>());
+            final SharedBinaryLogClient first =
+                    createClient(server, 5400, firstFilename, 4, firstIds);
+            first.connect(10_000L);
+            final List<Serializable> behindIds = Collections.synchronizedList(new ArrayList<>());
+            final SharedBinaryLogClient behind =
+                    createClient(server, 5401, firstFilename, 4, behindIds);
+            final List<Serializable> joiningIds = Collections.synchronizedList(new ArrayList<>());
+            final SharedBinaryLogClient joining =
+                    createClient(server, 5402, lastFilename, lastPosition, joiningIds);
+            try {
+                waitUntilPosition(first, lastFilename, lastPosition);
+                // the client behind reads by its own connection until it merges
+                behind.connect(10_000L);
+                CommonTestUtils.waitUtil(
+                        () -> !behind.isCatchingUp(),
+                        Duration.ofSeconds(30),
+                        "Timeout waiting for the client to merge.");
+                waitUntilPosition(behind, lastFilename, lastPosition);
+                assertEquals(2, first.getSharedClientCount());
+
+                // the client at the next position of the connection joins it
+                joining.connect(10_000L);
+                assertFalse(joining.isCatchingUp());
+                assertPosition(joining, lastFilename, lastPosition);
+                assertEquals(3, first.getSharedClientCount());
+            } finally {
+                first.disconnect();
+                behind.disconnect();
+                joining.disconnect();
+            }
+            // each client decodes the rows by its own table map events
+            assertEquals(expectedIds(), firstIds);
+            assertEquals(expectedIds(), behindIds);
+            assertEquals(Collections.emptyList(), joiningIds);
+        }
+    }
+
+    @Test
+    public void testReconstructRowsOfOneClient() throws Exception {
+        final File directory = temporaryFolder.getRoot();
+        final String firstFilename;
+        final String lastFilename;
+        final long lastPosition;
+        try (BinlogFileWriter writer = new BinlogFileWriter(directory, TABLE_ID, 4 * 1024)) {
+            for (long id = 0; id < TRANSACTIONS; id++) {
+                writer.insert(new long[] {id}, new String[] {"customer-" + id});
+            }
+            firstFilename = writer.getBinlogFiles().get(0).getName();
+            lastFilename = writer.getCurrentFilename();
+            lastPosition = writer.getCurrentPosition();
+        }
+        // the table has a column more than the row images, the reconstructor rewrites the rows
+        final Table table =
+                BinlogFileWriter.tableSchema(TABLE_ID)
+                        .getTable()
+                        .edit()
+                        .addColumn(
+                                Column.editor()
+                                        .name("note")
+                                        .type("VARCHAR")
+                                        .jdbcType(Types.VARCHAR)
+                                        .optional(true)
+                                        .create())
+                        .create();
+
+        try (FakeBinlogServer server = new FakeBinlogServer(directory)) {
+            server.start();
+            final RowImageReconstructor reconstructor = new RowImageReconstructor(0);
+            final List<Integer> reconstructedWidths =
+                    Collections.synchronizedList(new ArrayList<>());
+            final SharedBinaryLogClient reconstructing =
+                    createClient(server, 5400, firstFilename, 4, new ArrayList<>());
+            reconstructing.registerEventListener(
+                    event -> {
+                        reconstructor.reconstruct(event, tableNumber -> table);
+                        if (event.getData() instanceof WriteRowsEventData) {
+                            reconstructedWidths.add(rowWidth(event.getData()));
+                        }
+                    });
+            final List<Integer> widths = Collections.synchronizedList(new ArrayList<>());
+            final SharedBinaryLogClient reading =
+                    createClient(server, 5401, firstFilename, 4, new ArrayList<>());
+            reading.registerEventListener(
+                    event -> {
+                        if (event.getData() instanceof WriteRowsEventData) {
+                            widths.add(rowWidth(event.getData()));
+                        }
+                    });
+            try {
+                reconstructing.connect(10_000L);
+                reading.connect(10_000L);
+                waitUntilPosition(reconstructing, lastFilename, lastPosition);
+                waitUntilPosition(reading, lastFilename, lastPosition);
+                CommonTestUtils.waitUtil(
+                        () -> !reading.isCatchingUp(),
+                        Duration.ofSeconds(30),
+                        "Timeout waiting for the client to merge.");
+                assertEquals(2, reading.getSharedClientCount());
+            } finally {
+                reconstructing.disconnect();
+                reading.disconnect();
+            }
+            // each client decodes its own events, the rewritten rows are not seen by the other
+            assertEquals(Collections.nCopies(TRANSACTIONS, 3), reconstructedWidths);
+            assertEquals(Collections.nCopies(TRANSACTIONS, 2), widths);
+        }
+    }
+
+    private static int rowWidth(WriteRowsEventData data) {
+        assertEquals(1, data.getRows().size());
+        assertEquals(data.getIncludedColumns().cardinality(), data.getRows().get(0).length);
+        return data.getRows().get(0).length;
+    }
+
+    private static void waitUntilPosition(
+            SharedBinaryLogClient client, String filename, long position) throws Exception {
+        CommonTestUtils.waitUtil(
+                () ->
+                        filename.equals(client.getBinlogFilename())
+                                && position == client.getBinlogPosition(),
+                Duration.ofSeconds(30),
+                "Timeout waiting for the client to read the binlog.");
+    }
+
+    private static List<Serializable> expectedIds() {
+        final List<Serializable> ids = new ArrayList<>();
+        for (long id = 0; id < TRANSACTIONS; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private static void assertPosition(
+            SharedBinaryLogClient client, String filename, long position) {
+        assertEquals(filename, client.getBinlogFilename());
+        assertEquals(position, client.getBinlogPosition());
+    }
+
+    private static SharedBinlogConnection createConnection() {
+        final RawEventDeserializer rawEventDeserializer = new RawEventDeserializer();
+        final BinaryLogClient client = new BinaryLogClient("localhost", 3306, "user", "");
+        client.setBinlogFilename(BINLOG_FILE);
+        client.setBinlogPosition(4);
+        client.setEventDeserializer(rawEventDeserializer);
+        return new SharedBinlogConnection("test", client, rawEventDeserializer);
+    }
+
+    private static SharedBinaryLogClient createClient(long position) {
+        final SharedBinaryLogClient client =
+                new SharedBinaryLogClient("localhost", 3306, "user", "");
+        client.setBinlogFilename(BINLOG_FILE);
+        client.setBinlogPosition(position);
+        return client;
+    }
+
+    private static SharedBinaryLogClient createClient(
+            FakeBinlogServer server,
+            long serverId,
+            String filename,
+            long position,
+            List<Serializable> ids) {
+        final SharedBinaryLogClient client =
+                new SharedBinaryLogClient("127.0.0.1", server.getPort(), "test", "");
+        client.setServerId(serverId);
+        client.setBinlogFilename(filename);
+        client.setBinlogPosition(position);
+        client.registerEventListener(
+                event -> {
+                    if (event.getData() instanceof WriteRowsEventData) {
+                        for (Serializable[] row :
+                                ((WriteRowsEventData) event.getData()).getRows()) {
+                            ids.add(row[0]);
+                        }
+                    }
+                });
+        return client;
+    }
+
+    private static void deliver(SharedBinlogConnection connection, Event event) {
+        connection.deliver(event, new byte[0]);
+    }
+
+    private static Event rotateEvent(String filename, long position) {
+        final RotateEventData data = new RotateEventData();
+        data.setBinlogFilename(filename);
+        data.setBinlogPosition(position);
+        return event(EventType.ROTATE, 0, data);
+    }
+
+    private static Event queryEvent(long nextPosition, String sql) {
+        final QueryEventData data = new QueryEventData();
+        data.setSql(sql);
+        return event(EventType.QUERY, nextPosition, data);
+    }
+
+    private static Event event(EventType eventType, long nextPosition, EventData data) {
+        final EventHeaderV4 header = new EventHeaderV4();
+        header.setEventType(eventType);
+        header.setNextPosition(nextPosition);
+        return new Event(header, data);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium.reader;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/** Tests for {@link AdaptiveBatchSizer}. */
+public class AdaptiveBatchSizerTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testSingleRecordBatchAtLowRate() {
+        final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(2048, Duration.ofMillis(10));
+        assertEquals(1, sizer.getBatchSize());
+        // a record per 100ms
+        long now = MILLI;
+        for (int i = 0; i < 20; i++) {
+            sizer.update(1, now);
+            now += 100 * MILLI;
+        }
+        assertEquals(1, sizer.getBatchSize());
+        assertEquals(10 * MILLI, sizer.getWaitNanos(1));
+    }
+
+    @Test
+    public void testBatchSizeFollowsRate() {
+        final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(2048, Duration.ofMillis(10));
+        // 100 records per ms, thus 1000 records within the target latency
+        long now = MILLI;
+        for (int i = 0; i < 50; i++) {
+            sizer.update(100, now);
+            now += MILLI;
+        }
+        assertEquals(1000, sizer.getBatchSize());
+        assertEquals(5 * MILLI, sizer.getWaitNanos(500), 1_000);
+
+        // the rate drops to 1 record per ms
+        for (int i = 0; i < 50; i++) {
+            sizer.update(1, now);
+            now += MILLI;
+        }
+        final int batchSize = sizer.getBatchSize();
+        assertTrue(batchSize >= 10 && batchSize < 12);
+    }
+
+    @Test
+    public void testRateByArrivalTimes() {
+        final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(2048, Duration.ofMillis(10));
+        long arrival = MILLI;
+        sizer.update(100, arrival);
+        for (int i = 0; i < 50; i++) {
+            // 100 records arrive per ms, polled by two polls, the second one without an arrival
+            // time like the spilled records
+            sizer.update(60, arrival);
+            arrival += MILLI;
+            sizer.update(40, arrival);
+        }
+        assertEquals(1000, sizer.getBatchSize());
+
+        // the empty polls don't observe a rate, however long the reader spends between them
+        for (int i = 0; i < 50; i++) {
+            sizer.update(0, arrival);
+        }
+        assertEquals(1000, sizer.getBatchSize());
+    }
+
+    @Test
+    public void testBatchSizeBoundedByMaxBatchSize() {
+        final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(64, Duration.ofMillis(10));
+        long now = MILLI;
+        for (int i = 0; i < 10; i++) {
+            sizer.update(10_000, now);
+            now += MILLI;
+        }
+        assertEquals(64, sizer.getBatchSize());
+    }
+
+    @Test
+    public void testZeroTargetLatency() {
+        final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(2048, Duration.ZERO);
+        long now = MILLI;
+        for (int i = 0; i < 10; i++) {
+            sizer.update(10_000, now);
+            now += MILLI;
+        }
+        assertEquals(1, sizer.getBatchSize());
+        assertEquals(0L, sizer.getWaitNanos(100));
+    }
+}
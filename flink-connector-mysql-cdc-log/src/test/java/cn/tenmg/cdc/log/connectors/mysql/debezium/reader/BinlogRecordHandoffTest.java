@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium.reader;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/** Tests for {@link BinlogRecordHandoff}. */
+public class BinlogRecordHandoffTest {
+
+    private static final long EVENT_BYTES = 100L;
+
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testHandOffInOrder() throws Exception {
+        final int count = 100_000;
+        final BinlogRecordHandoff handoff = new BinlogRecordHandoff(16, Long.MAX_VALUE);
+        final CompletableFuture<Void> producer =
+                CompletableFuture.runAsync(
+                        () -> {
+                            try {
+                                for (long i = 0; i < count; i++) {
+                                    assertTrue(
+                                            handoff.put(
+                                                    createRecord(i, "value-" + i), EVENT_BYTES));
+                                }
+                            } catch (InterruptedException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        });
+
+        final List<Object> keys = new ArrayList<>();
+        while (keys.size() < count) {
+            for (SourceRecord record : handoff.poll(7, 10_000L)) {
+                keys.add(record.key());
+            }
+        }
+        producer.get(10, TimeUnit.SECONDS);
+        for (int i = 0; i < count; i++) {
+            assertEquals((long) i, keys.get(i));
+        }
+        assertEquals(0, handoff.getNumRecords());
+    }
+
+    @Test
+    public void testWakeUpWaitingConsumer() throws Exception {
+        final BinlogRecordHandoff handoff = new BinlogRecordHandoff(16, Long.MAX_VALUE);
+        final CompletableFuture<Void> producer =
+                CompletableFuture.runAsync(
+                        () -> {
+                            try {
+                                Thread.sleep(100L);
+                                handoff.put(createRecord(1L, "value"), EVENT_BYTES);
+                            } catch (InterruptedException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        });
+
+        final long start = System.nanoTime();
+        final List<SourceRecord> records = handoff.poll(10, 60_000L);
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        producer.get(10, TimeUnit.SECONDS);
+        assertEquals(1, records.size());
+        // woken up by the producer rather than by the timeout
+        assertTrue(elapsedMillis < 30_000L);
+        assertEquals(Collections.emptyList(), handoff.poll(10, 0L));
+    }
+
+    @Test
+    public void testBoundedBySize() throws Exception {
+        final SourceRecord record = createRecord(1L, "value");
+        final long recordSize = BinlogRecordHandoff.RECORD_OVERHEAD + EVENT_BYTES;
+        final BinlogRecordHandoff handoff = new BinlogRecordHandoff(16, recordSize * 2);
+        assertTrue(handoff.put(record, EVENT_BYTES));
+        assertTrue(handoff.put(record, EVENT_BYTES));
+
+        final CompletableFuture<Boolean> blockedPut =
+                CompletableFuture.supplyAsync(
+                        () -> {
+                            try {
+                                return handoff.put(record, EVENT_BYTES);
+                            } catch (InterruptedException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        });
+        Thread.sleep(200L);
+        assertFalse(blockedPut.isDone());
+
+        assertEquals(1, handoff.poll(1, 0L).size());
+        assertTrue(blockedPut.get(10, TimeUnit.SECONDS));
+        assertEquals(2, handoff.getNumRecords());
+    }
+
+    @Test
+    public void testAcceptLargeRecordWhenEmpty() throws Exception {
+        final BinlogRecordHandoff handoff = new BinlogRecordHandoff(16, 1L);
+        assertTrue(handoff.put(createRecord(1L, "value"), EVENT_BYTES));
+        assertEquals(1, handoff.poll(10, 0L).size());
+    }
+
+    @Test
+    public void testCloseReleasesBlockedProducer() throws Exception {
+        final BinlogRecordHandoff handoff = new BinlogRecordHandoff(1, Long.MAX_VALUE);
+        assertTrue(handoff.put(createRecord(1L, "value"), EVENT_BYTES));
+        final CompletableFuture<Boolean> blockedPut =
+                CompletableFuture.supplyAsync(
+                        () -> {
+                            try {
+                                return handoff.put(createRecord(2L, "value"), EVENT_BYTES);
+                            } catch (InterruptedException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        });
+        Thread.sleep(200L);
+        assertFalse(blockedPut.isDone());
+
+        handoff.close();
+        assertFalse(blockedPut.get(10, TimeUnit.SECONDS));
+        // the records put before closing are still polled, then the poll returns immediately
+        assertEquals(1, handoff.poll(10, 60_000L).size());
+        assertEquals(Collections.emptyList(), handoff.poll(10, 60_000L));
+    }
+
+    @Test
+    public void testLastArrivalTime() throws Exception {
+        final BinlogRecordHandoff handoff = new BinlogRecordHandoff(16, Long.MAX_VALUE);
+        final long before = System.nanoTime();
+        assertTrue(handoff.put(createRecord(1L, "value"), EVENT_BYTES));
+        final long between = System.nanoTime();
+        assertTrue(handoff.put(createRecord(2L, "value"), EVENT_BYTES));
+        final long after = System.nanoTime();
+        Thread.sleep(10L);
+
+        assertEquals(1, handoff.poll(1, 0L).size());
+        final long firstArrival = handoff.getLastArrivalNanos();
+        assertTrue(before <= firstArrival && firstArrival <= between);
+        // the time polled at is not the arrival time
+        assertEquals(1, handoff.poll(1, 0L).size());
+        final long secondArrival = handoff.getLastArrivalNanos();
+        assertTrue(between <= secondArrival && secondArrival <= after);
+        assertEquals(Collections.emptyList(), handoff.poll(1, 0L));
+        assertEquals(secondArrival, handoff.getLastArrivalNanos());
+    }
+
+    @Test
+    public void testSpillOnlyWhileFull() throws Exception {
+        final BinlogRecordSpool spool =
+                new BinlogRecordSpool(temporaryFolder.getRoot(), 1 << 20, 1 << 20);
+        final BinlogRecordHandoff handoff = new BinlogRecordHandoff(2, Long.MAX_VALUE, spool);
+        try {
+            assertTrue(handoff.put(createRecord(1L, "value"), EVENT_BYTES));
+            assertTrue(handoff.put(createRecord(2L, "value"), EVENT_BYTES));
+            assertTrue(spool.isEmpty());
+            // the full handoff spills the records instead of blocking
+            assertTrue(handoff.put(createRecord(3L, "value"), EVENT_BYTES));
+            assertFalse(spool.isEmpty());
+            assertEquals(Collections.singletonList(1L), keys(handoff.poll(1, 0L)));
+            // the records are spilled until the spilled ones are polled, to keep the order
+            assertTrue(handoff.put(createRecord(4L, "value"), EVENT_BYTES));
+            assertEquals(1, handoff.getNumRecords());
+
+            assertEquals(Collections.singletonList(2L), keys(handoff.poll(10, 0L)));
+            assertEquals(Arrays.asList(3L, 4L), keys(handoff.poll(10, 0L)));
+            assertTrue(spool.isEmpty());
+            assertTrue(handoff.put(createRecord(5L, "value"), EVENT_BYTES));
+            assertTrue(spool.isEmpty());
+            assertEquals(Collections.singletonList(5L), keys(handoff.poll(10, 0L)));
+        } finally {
+            handoff.close();
+            spool.close();
+        }
+    }
+
+    private static List<Object> keys(List<SourceRecord> records) {
+        final List<Object> keys = new ArrayList<>();
+        for (SourceRecord record : records) {
+            keys.add(record.key());
+        }
+        return keys;
+    }
+
+    private static SourceRecord createRecord(long key, String value) {
+        return new SourceRecord(
+                Collections.singletonMap("server", "test"),
+                Collections.singletonMap("pos", key),
+                "test-topic",
+                null,
+                Schema.INT64_SCHEMA,
+                key,
+                Schema.STRING_SCHEMA,
+                value);
+    }
+}
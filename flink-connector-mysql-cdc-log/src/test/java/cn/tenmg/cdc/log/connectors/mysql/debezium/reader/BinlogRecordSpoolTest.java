@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium.reader;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cn.tenmg.cdc.log.connectors.mysql.debezium.RowImageReconstructor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/** Tests for {@link BinlogRecordSpool}. */
+public class BinlogRecordSpoolTest {
+
+    private static final Schema KEY_SCHEMA =
+            SchemaBuilder.struct().name("key").field("id", Schema.INT64_SCHEMA).build();
+    private static final Schema VALUE_SCHEMA =
+            SchemaBuilder.struct()
+                    .name("value")
+                    .field("id", Schema.INT64_SCHEMA)
+                    .field("name", Schema.OPTIONAL_STRING_SCHEMA)
+                    .build();
+
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testDrainInOrder() throws Exception {
+        final BinlogRecordSpool spool =
+                new BinlogRecordSpool(temporaryFolder.getRoot(), 1 << 20, 256);
+        final File directory = spool.getDirectory();
+        for (int i = 0; i < 10; i++) {
+            spool.append(Collections.singletonList(createRecord(i)));
+        }
+        // the records are spread over several segments
+        assertTrue(directory.list().length > 1);
+
+        final List<SourceRecord> records = new ArrayList<>();
+        List<SourceRecord> polled;
+        while (!(polled = spool.poll(3, 10)).isEmpty()) {
+            assertTrue(polled.size() <= 3);
+            records.addAll(polled);
+        }
+        assertEquals(10, records.size());
+        for (int i = 0; i < 10; i++) {
+            SourceRecord record = records.get(i);
+            assertEquals("mysql_binlog_source.test_db.test_table", record.topic());
+            assertEquals(100L + i, record.sourceOffset().get("pos"));
+            assertEquals((long) i, ((Struct) record.key()).getInt64("id"));
+            assertEquals("name-" + i, ((Struct) record.value()).getString("name"));
+            assertEquals(Long.valueOf(1000L + i), record.timestamp());
+        }
+        // the drained sealed segments are deleted
+        assertTrue(directory.list().length <= 1);
+
+        spool.close();
+        assertFalse(directory.exists());
+    }
+
+    @Test
+    public void testRestoreOffsetValueTypes() throws Exception {
+        final BinlogRecordSpool spool =
+                new BinlogRecordSpool(temporaryFolder.getRoot(), 1 << 20, 1 << 10);
+        final SourceRecord record = createRecord(1L);
+        final Map<String, Object> offset = new HashMap<>(record.sourceOffset());
+        offset.put("row", 2);
+        offset.put("event", 3L);
+        offset.put("snapshot", true);
+        offset.put("gtids", null);
+        spool.append(Collections.singletonList(record));
+        final SourceRecord withOffset =
+                new SourceRecord(
+                        record.sourcePartition(),
+                        offset,
+                        record.topic(),
+                        record.kafkaPartition(),
+                        record.keySchema(),
+                        record.key(),
+                        record.valueSchema(),
+                        record.value(),
+                        record.timestamp());
+        spool.append(Collections.singletonList(withOffset));
+
+        final List<SourceRecord> records = spool.poll(2, 10);
+        assertEquals(2, records.size());
+        assertEquals(record.sourcePartition(), records.get(0).sourcePartition());
+        assertEquals(record.sourceOffset(), records.get(0).sourceOffset());
+        // the values are restored with their types, e.g. the binlog position is still a long
+        final Map<String, ?> restoredOffset = records.get(1).sourceOffset();
+        assertEquals(offset, restoredOffset);
+        assertTrue(restoredOffset.get("pos") instanceof Long);
+        assertTrue(restoredOffset.get("row") instanceof Integer);
+        assertTrue(restoredOffset.get("event") instanceof Long);
+        assertTrue(restoredOffset.get("snapshot") instanceof Boolean);
+        assertTrue(restoredOffset.containsKey("gtids"));
+        spool.close();
+    }
+
+    @Test
+    public void testRestoreHeaders() throws Exception {
+        final BinlogRecordSpool spool =
+                new BinlogRecordSpool(temporaryFolder.getRoot(), 1 << 20, 1 << 10);
+        final List<String> absentColumns = Arrays.asList("name", "note");
+        final SourceRecord record = createRecord(1L);
+        record.headers()
+                .addList(
+                        RowImageReconstructor.ABSENT_COLUMNS_HEADER,
+                        absentColumns,
+                        RowImageReconstructor.ABSENT_COLUMNS_SCHEMA);
+        record.headers().addString("trace", "t-1");
+        spool.append(Arrays.asList(record, createRecord(2L)));
+
+        final List<SourceRecord> records = spool.poll(2, 10);
+        assertEquals(2, records.size());
+        final SourceRecord restored = records.get(0);
+        assertEquals(2, restored.headers().size());
+        assertEquals(absentColumns, RowImageReconstructor.getAbsentColumns(restored));
+        assertEquals("t-1", restored.headers().lastWithName("trace").value());
+        assertEquals(0, records.get(1).headers().size());
+        assertNull(RowImageReconstructor.getAbsentColumns(records.get(1)));
+        spool.close();
+    }
+
+    @Test
+    public void testAppendBlockedByMaxSize() throws Exception {
+        final BinlogRecordSpool spool = new BinlogRecordSpool(temporaryFolder.getRoot(), 256, 256);
+        // a single segment reaching the max size is sealed, so it can be drained and deleted
+        while (spool.getSpoolSize() < 256) {
+            spool.append(Collections.singletonList(createRecord(0L)));
+        }
+        final CompletableFuture<Void> appending =
+                CompletableFuture.runAsync(
+                        () -> {
+                            try {
+                                spool.append(Collections.singletonList(createRecord(1L)));
+                            } catch (Exception e) {
+                                throw new CompletionException(e);
+                            }
+                        });
+        Thread.sleep(200);
+        assertFalse(appending.isDone());
+
+        // the appending is unblocked once the full segment is drained
+        final List<SourceRecord> records = new ArrayList<>();
+        while (!appending.isDone()) {
+            records.addAll(spool.poll(16, 10));
+        }
+        appending.get();
+        List<SourceRecord> polled;
+        while (!(polled = spool.poll(16, 10)).isEmpty()) {
+            records.addAll(polled);
+        }
+        assertEquals(1L, ((Struct) records.get(records.size() - 1).key()).getInt64("id"));
+        spool.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxSizeSmallerThanSegmentSize() throws Exception {
+        new BinlogRecordSpool(temporaryFolder.getRoot(), 128, 256);
+    }
+
+    private static SourceRecord createRecord(long id) {
+        final Map<String, String> partition = new HashMap<>();
+        partition.put("server", "mysql_binlog_source");
+        final Map<String, Object> offset = new HashMap<>();
+        offset.put("file", "mysql-bin.000001");
+        offset.put("pos", 100L + id);
+        return new SourceRecord(
+                partition,
+                offset,
+                "mysql_binlog_source.test_db.test_table",
+                null,
+                KEY_SCHEMA,
+                new Struct(KEY_SCHEMA).put("id", id),
+                VALUE_SCHEMA,
+                new Struct(VALUE_SCHEMA).put("id", id).put("name", "name-" + id),
+                1000L + id);
+    }
+}
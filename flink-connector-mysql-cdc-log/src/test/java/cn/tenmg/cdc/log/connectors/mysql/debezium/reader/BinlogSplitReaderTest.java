@@ -21,6 +21,8 @@ package cn.tenmg.cdc.log.connectors.mysql.debezium.reader;
 import org.apache.flink.core.testutils.CommonTestUtils;
 import org.apache.flink.table.api.DataTypes;
 import org.apache.flink.table.types.DataType;
+import org.apache.flink.util.ExceptionUtils;
+import org.apache.flink.util.FlinkRuntimeException;
 
 import com.github.shyiko.mysql.binlog.BinaryLogClient;
 
@@ -42,14 +44,19 @@ import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplit;
 import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
 import cn.tenmg.cdc.log.connectors.mysql.source.utils.TableDiscoveryUtils;
 import cn.tenmg.cdc.log.connectors.mysql.table.StartupOptions;
+import cn.tenmg.cdc.log.connectors.mysql.table.StopOptions;
 import cn.tenmg.cdc.log.connectors.mysql.testutils.RecordsFormatter;
 import cn.tenmg.cdc.log.connectors.mysql.testutils.UniqueDatabase;
+import cn.tenmg.cdc.log.debezium.history.FlinkJsonTableChangeSerializer;
 import io.debezium.connector.mysql.MySqlConnection;
 import io.debezium.connector.mysql.MySqlConnectorConfig;
+import io.debezium.document.Array;
 import io.debezium.jdbc.JdbcConnection;
 import io.debezium.relational.TableId;
+import io.debezium.relational.history.HistoryRecord;
 import io.debezium.relational.history.TableChanges;
 import io.debezium.relational.history.TableChanges.TableChange;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.source.SourceRecord;
 import org.junit.Test;
@@ -57,11 +64,15 @@ import org.junit.Test;
 import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.getSnapshotSplitInfo;
 import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.getStartingOffsetOfBinlogSplit;
 import static cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils.isHighWatermarkEvent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.sql.SQLException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -75,6 +86,26 @@ import java.util.stream.Collectors;
 public class BinlogSplitReaderTest extends MySqlSourceTestBase {
 
     private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+    private static final long HOLD_BACK_CHECK_MILLIS = 2000L;
+    private static final long STOP_TIMESTAMP_DELAY_MILLIS = 5000L;
+
+    private static final DataType CUSTOMERS_TYPE =
+            DataTypes.ROW(
+                    DataTypes.FIELD("id", DataTypes.BIGINT()),
+                    DataTypes.FIELD("name", DataTypes.STRING()),
+                    DataTypes.FIELD("address", DataTypes.STRING()),
+                    DataTypes.FIELD("phone_number", DataTypes.STRING()));
+
+    /** The changes made by {@code makeCustomersBinlogEvents} for the first split only. */
+    private static final String[] FIRST_SPLIT_CHANGES =
+            new String[] {
+                "-U[103, user_3, Shanghai, 123567891234]",
+                "+U[103, user_3, Hangzhou, 123567891234]",
+                "-D[102, user_2, Shanghai, 123567891234]",
+                "+I[102, user_2, Shanghai, 123567891234]",
+                "-U[103, user_3, Hangzhou, 123567891234]",
+                "+U[103, user_3, Shanghai, 123567891234]"
+            };
 
     private final UniqueDatabase customerDatabase =
             new UniqueDatabase(MYSQL_CONTAINER, "customer", "mysqluser", "mysqlpw");
@@ -345,6 +376,310 @@ public class BinlogSplitReaderTest extends MySqlSourceTestBase {
                 "Timeout waiting for heartbeat event");
     }
 
+    @Test
+    public void testHoldBackRecordsAfterFenceOffset() throws Exception {
+        customerDatabase.createAndInitialize();
+        MySqlSourceConfig sourceConfig = getConfig(new String[] {"customers"});
+        binaryLogClient = DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
+        mySqlConnection = DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration());
+
+        final TableId tableId = customersTableId();
+        final BinlogOffset startingOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+        BinlogSplitReader binlogReader = createBinlogReader(sourceConfig);
+        binlogReader.submitSplit(createFencedBinlogSplit(sourceConfig, startingOffset));
+        makeCustomersBinlogEvents(mySqlConnection, tableId.toString(), true);
+        final BinlogOffset endingOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+
+        // the records after the fence offset are held back while the fence doesn't move
+        assertHeldBack(binlogReader);
+
+        // the snapshot split of the whole table finished at the starting offset
+        binlogReader.updateFence(
+                Collections.singletonList(createFinishedSplitInfo(tableId, startingOffset)),
+                endingOffset,
+                null,
+                false);
+        assertEqualsInOrder(
+                Arrays.asList(FIRST_SPLIT_CHANGES),
+                readRecords(binlogReader, FIRST_SPLIT_CHANGES.length));
+    }
+
+    @Test
+    public void testReleaseRecordsOfUnfencedTables() throws Exception {
+        customerDatabase.createAndInitialize();
+        MySqlSourceConfig sourceConfig = getConfig(new String[] {"customers", "customer_card"});
+        binaryLogClient = DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
+        mySqlConnection = DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration());
+
+        final TableId tableId = customersTableId();
+        final BinlogOffset startingOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+        BinlogSplitReader binlogReader = createBinlogReader(sourceConfig);
+        binlogReader.submitSplit(createFencedBinlogSplit(sourceConfig, startingOffset));
+        makeCustomersBinlogEvents(mySqlConnection, tableId.toString(), true);
+
+        assertHeldBack(binlogReader);
+
+        // only the newly added table is being captured, the fence offset doesn't move
+        binlogReader.updateFence(
+                Collections.singletonList(createFinishedSplitInfo(tableId, startingOffset)),
+                startingOffset,
+                Collections.singletonList(
+                        TableId.parse(customerDatabase.getDatabaseName() + ".customer_card")),
+                false);
+        assertEqualsInOrder(
+                Arrays.asList(FIRST_SPLIT_CHANGES),
+                readRecords(binlogReader, FIRST_SPLIT_CHANGES.length));
+    }
+
+    @Test
+    public void testEmitRecordsOfTableCreatedWhileFenced() throws Exception {
+        customerDatabase.createAndInitialize();
+        MySqlSourceConfig sourceConfig =
+                getConfig(new String[] {"customers", "customers_created"});
+        binaryLogClient = DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
+        mySqlConnection = DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration());
+
+        final TableId tableId = customersTableId();
+        final String createdTableId = customerDatabase.getDatabaseName() + ".customers_created";
+        final BinlogOffset startingOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+        BinlogSplitReader binlogReader = createBinlogReader(sourceConfig);
+        binlogReader.submitSplit(createFencedBinlogSplit(sourceConfig, startingOffset));
+        makeCustomersBinlogEvents(mySqlConnection, tableId.toString(), true);
+        mySqlConnection.execute(
+                "CREATE TABLE " + createdTableId + " LIKE " + tableId,
+                "INSERT INTO " + createdTableId + " VALUES(1, 'user_1','Shanghai','123567891234')");
+        mySqlConnection.commit();
+        final BinlogOffset endingOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+
+        assertHeldBack(binlogReader);
+
+        // the table created after the discovery has no snapshot split, it's never fenced, the
+        // changes of the fenced table before the fence offset are read by its snapshot splits
+        binlogReader.updateFence(
+                Collections.emptyList(), endingOffset, Collections.singletonList(tableId), false);
+        assertEqualsInOrder(
+                Collections.singletonList("+I[1, user_1, Shanghai, 123567891234]"),
+                readRecords(binlogReader, 1));
+    }
+
+    @Test
+    public void testReleaseRecordsAfterFenceRemoved() throws Exception {
+        customerDatabase.createAndInitialize();
+        MySqlSourceConfig sourceConfig = getConfig(new String[] {"customers"});
+        binaryLogClient = DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
+        mySqlConnection = DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration());
+
+        final TableId tableId = customersTableId();
+        final BinlogOffset startingOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+        BinlogSplitReader binlogReader = createBinlogReader(sourceConfig);
+        binlogReader.submitSplit(createFencedBinlogSplit(sourceConfig, startingOffset));
+        makeCustomersBinlogEvents(mySqlConnection, tableId.toString(), true);
+
+        assertHeldBack(binlogReader);
+
+        // the last finished split removes the fence, the held back records are released
+        binlogReader.updateFence(
+                Collections.singletonList(createFinishedSplitInfo(tableId, startingOffset)),
+                null,
+                null,
+                true);
+        assertEqualsInOrder(
+                Arrays.asList(FIRST_SPLIT_CHANGES),
+                readRecords(binlogReader, FIRST_SPLIT_CHANGES.length));
+    }
+
+    @Test
+    public void testReadUntilStoppingOffset() throws Exception {
+        customerDatabase.createAndInitialize();
+        MySqlSourceConfig sourceConfig = getConfig(new String[] {"customers"});
+        binaryLogClient = DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
+        mySqlConnection = DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration());
+
+        final TableId tableId = customersTableId();
+        final BinlogOffset startingOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+        makeCustomersBinlogEvents(mySqlConnection, tableId.toString(), true);
+        final BinlogOffset currentOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+        // the offset without GTID set is compared by the binlog file and position
+        final BinlogOffset endingOffset =
+                new BinlogOffset(currentOffset.getFilename(), currentOffset.getPosition());
+        makeCustomersBinlogEventsAfterStopping(mySqlConnection, tableId.toString());
+
+        BinlogSplitReader binlogReader = createBinlogReader(sourceConfig);
+        binlogReader.submitSplit(createBinlogSplit(sourceConfig, startingOffset, endingOffset));
+        assertReadUntilStopping(binlogReader);
+    }
+
+    @Test
+    public void testReadUntilStoppingGtidSet() throws Exception {
+        customerDatabase.createAndInitialize();
+        MySqlSourceConfig sourceConfig = getConfig(new String[] {"customers"});
+        binaryLogClient = DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
+        mySqlConnection = DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration());
+
+        final TableId tableId = customersTableId();
+        final BinlogOffset startingOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+        makeCustomersBinlogEvents(mySqlConnection, tableId.toString(), true);
+        // the test server enables GTID mode, the offset is compared by the executed GTID set
+        final BinlogOffset endingOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+        assertTrue(StringUtils.isNotEmpty(endingOffset.getGtidSet()));
+        makeCustomersBinlogEventsAfterStopping(mySqlConnection, tableId.toString());
+
+        BinlogSplitReader binlogReader = createBinlogReader(sourceConfig);
+        binlogReader.submitSplit(createBinlogSplit(sourceConfig, startingOffset, endingOffset));
+        assertReadUntilStopping(binlogReader);
+    }
+
+    @Test
+    public void testReadUntilStopTimestampOnIdleServer() throws Exception {
+        customerDatabase.createAndInitialize();
+        // the heartbeat events of the idle server reach the stop timestamp
+        Duration heartbeatInterval = Duration.ofMillis(500);
+        Properties dbzProps = new Properties();
+        dbzProps.setProperty(
+                MySqlConnectorConfig.KEEP_ALIVE_INTERVAL_MS.name(),
+                String.valueOf(heartbeatInterval.toMillis()));
+        MySqlSourceConfig sourceConfig =
+                getConfigFactory(new String[] {"customers"})
+                        .stopOptions(
+                                StopOptions.timestamp(
+                                        System.currentTimeMillis() + STOP_TIMESTAMP_DELAY_MILLIS))
+                        .heartbeatInterval(heartbeatInterval)
+                        .debeziumProperties(dbzProps)
+                        .createConfig(0);
+        binaryLogClient = DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
+        mySqlConnection = DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration());
+
+        final TableId tableId = customersTableId();
+        final BinlogOffset startingOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+        BinlogSplitReader binlogReader = createBinlogReader(sourceConfig);
+        binlogReader.submitSplit(
+                createBinlogSplit(sourceConfig, startingOffset, BinlogOffset.NO_STOPPING_OFFSET));
+        makeCustomersBinlogEvents(mySqlConnection, tableId.toString(), true);
+
+        // no change is made after the stop timestamp
+        assertReadUntilStopping(binlogReader);
+    }
+
+    @Test
+    public void testLoadSchemaOfTableFirstSeenMidStream() throws Exception {
+        customerDatabase.createAndInitialize();
+        MySqlSourceConfig sourceConfig =
+                getConfigFactory(new String[] {"customers", "customer_card"})
+                        .lazySchemaLoadingEnabled(true)
+                        .includeSchemaChanges(true)
+                        .createConfig(0);
+        binaryLogClient = DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
+        mySqlConnection = DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration());
+
+        final TableId tableId = customersTableId();
+        final BinlogOffset startingOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+        // no table schema is discovered before the binlog split starts
+        BinlogSplitReader binlogReader = createBinlogReader(sourceConfig);
+        binlogReader.submitSplit(
+                new MySqlBinlogSplit(
+                        "binlog-split",
+                        startingOffset,
+                        BinlogOffset.NO_STOPPING_OFFSET,
+                        new ArrayList<>(),
+                        new HashMap<>(),
+                        0));
+        makeCustomersBinlogEvents(mySqlConnection, tableId.toString(), true);
+        makeCustomersBinlogEvents(mySqlConnection, tableId.toString(), true);
+
+        final List<SourceRecord> records = new ArrayList<>();
+        CommonTestUtils.waitUtil(
+                () -> {
+                    records.addAll(
+                            pollRecordsFromReader(
+                                    binlogReader,
+                                    record ->
+                                            RecordUtils.isDataChangeRecord(record)
+                                                    || RecordUtils.isSchemaChangeEvent(record)));
+                    return records.stream().filter(RecordUtils::isDataChangeRecord).count()
+                            >= 2L * FIRST_SPLIT_CHANGES.length;
+                },
+                DEFAULT_TIMEOUT,
+                "Timeout waiting for the binlog records");
+
+        // the schema of the table is loaded once by its first event, before its first change, it
+        // carries no DDL statement and the table never changed is not loaded
+        assertTrue(RecordUtils.isSchemaChangeEvent(records.get(0)));
+        final List<SourceRecord> schemaRecords =
+                records.stream()
+                        .filter(RecordUtils::isSchemaChangeEvent)
+                        .collect(Collectors.toList());
+        assertEquals(1, schemaRecords.size());
+        final HistoryRecord historyRecord = RecordUtils.getHistoryRecord(schemaRecords.get(0));
+        assertTrue(
+                StringUtils.isEmpty(
+                        historyRecord.document().getString(HistoryRecord.Fields.DDL_STATEMENTS)));
+        final Array tableChangesArray =
+                historyRecord.document().getArray(HistoryRecord.Fields.TABLE_CHANGES);
+        final TableChanges tableChanges =
+                new FlinkJsonTableChangeSerializer().deserialize(tableChangesArray, true);
+        final List<TableId> loadedTables = new ArrayList<>();
+        tableChanges.forEach(tableChange -> loadedTables.add(tableChange.getId()));
+        assertEquals(Collections.singletonList(tableId), loadedTables);
+
+        final List<String> expected = new ArrayList<>(Arrays.asList(FIRST_SPLIT_CHANGES));
+        expected.addAll(Arrays.asList(FIRST_SPLIT_CHANGES));
+        assertEqualsInOrder(
+                expected,
+                formatResult(
+                        records.stream()
+                                .filter(RecordUtils::isDataChangeRecord)
+                                .collect(Collectors.toList()),
+                        CUSTOMERS_TYPE));
+    }
+
+    @Test
+    public void testFailLazySchemaLoadingOfTableAlteredAfterEvent() throws Exception {
+        customerDatabase.createAndInitialize();
+        MySqlSourceConfig sourceConfig =
+                getConfigFactory(new String[] {"customers"})
+                        .lazySchemaLoadingEnabled(true)
+                        .createConfig(0);
+        binaryLogClient = DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
+        mySqlConnection = DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration());
+
+        final TableId tableId = customersTableId();
+        final BinlogOffset startingOffset = DebeziumUtils.currentBinlogOffset(mySqlConnection);
+        makeCustomersBinlogEvents(mySqlConnection, tableId.toString(), true);
+        // the table is altered after the start offset, before its schema is loaded on demand
+        mySqlConnection.execute(
+                "ALTER TABLE " + tableId + " ADD COLUMN email VARCHAR(128) DEFAULT 'a@b.c'");
+        mySqlConnection.commit();
+
+        BinlogSplitReader binlogReader = createBinlogReader(sourceConfig);
+        binlogReader.submitSplit(
+                new MySqlBinlogSplit(
+                        "binlog-split",
+                        startingOffset,
+                        BinlogOffset.NO_STOPPING_OFFSET,
+                        new ArrayList<>(),
+                        new HashMap<>(),
+                        0));
+        final List<Throwable> failures = new ArrayList<>();
+        CommonTestUtils.waitUtil(
+                () -> {
+                    try {
+                        assertTrue(
+                                pollRecordsFromReader(binlogReader, RecordUtils::isDataChangeRecord)
+                                        .isEmpty());
+                    } catch (FlinkRuntimeException e) {
+                        failures.add(e);
+                    }
+                    return !failures.isEmpty();
+                },
+                DEFAULT_TIMEOUT,
+                "Timeout waiting for the schema mismatch");
+        assertTrue(
+                ExceptionUtils.findThrowableWithMessage(
+                                failures.get(0),
+                                "the schema has 5 columns but the binlog event has 4 columns")
+                        .isPresent());
+    }
+
     private BinlogSplitReader createBinlogReader(MySqlSourceConfig sourceConfig) {
         return new BinlogSplitReader(
                 new StatefulTaskContext(sourceConfig, binaryLogClient, mySqlConnection), 0);
@@ -363,6 +698,88 @@ public class BinlogSplitReaderTest extends MySqlSourceTestBase {
         }
     }
 
+    private MySqlBinlogSplit createBinlogSplit(
+            MySqlSourceConfig sourceConfig, BinlogOffset startingOffset, BinlogOffset endingOffset)
+            throws Exception {
+        try (MySqlConnection jdbc =
+                DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration())) {
+            Map<TableId, TableChanges.TableChange> tableSchemas =
+                    TableDiscoveryUtils.discoverCapturedTableSchemas(sourceConfig, jdbc);
+            return new MySqlBinlogSplit(
+                    "binlog-split",
+                    startingOffset,
+                    endingOffset,
+                    new ArrayList<>(),
+                    tableSchemas,
+                    0);
+        }
+    }
+
+    private MySqlBinlogSplit createFencedBinlogSplit(
+            MySqlSourceConfig sourceConfig, BinlogOffset startingOffset) throws Exception {
+        try (MySqlConnection jdbc =
+                DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration())) {
+            Map<TableId, TableChanges.TableChange> tableSchemas =
+                    TableDiscoveryUtils.discoverCapturedTableSchemas(sourceConfig, jdbc);
+            return MySqlBinlogSplit.fillTableSchemas(
+                    MySqlBinlogSplit.createFencedBinlogSplit(
+                            "binlog-split", startingOffset, BinlogOffset.NO_STOPPING_OFFSET),
+                    tableSchemas);
+        }
+    }
+
+    private static FinishedSnapshotSplitInfo createFinishedSplitInfo(
+            TableId tableId, BinlogOffset highWatermark) {
+        return new FinishedSnapshotSplitInfo(tableId, tableId + ":0", null, null, highWatermark);
+    }
+
+    private TableId customersTableId() {
+        return TableId.parse(customerDatabase.getDatabaseName() + ".customers");
+    }
+
+    private void assertHeldBack(BinlogSplitReader binlogReader) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + HOLD_BACK_CHECK_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            assertTrue(
+                    pollRecordsFromReader(binlogReader, RecordUtils::isDataChangeRecord)
+                            .isEmpty());
+            Thread.sleep(100);
+        }
+    }
+
+    /**
+     * Reads the changes made by {@code makeCustomersBinlogEvents} for the first split, then the
+     * split finishes without emitting the changes after the stopping offset.
+     */
+    private void assertReadUntilStopping(BinlogSplitReader binlogReader) throws Exception {
+        final List<String> actual =
+                new ArrayList<>(readRecords(binlogReader, FIRST_SPLIT_CHANGES.length));
+        CommonTestUtils.waitUtil(
+                () -> {
+                    actual.addAll(
+                            formatResult(
+                                    pollRecordsFromReader(
+                                            binlogReader, RecordUtils::isDataChangeRecord),
+                                    CUSTOMERS_TYPE));
+                    return binlogReader.isFinished();
+                },
+                DEFAULT_TIMEOUT,
+                "Timeout waiting for the binlog split to finish");
+        assertEqualsInOrder(Arrays.asList(FIRST_SPLIT_CHANGES), actual);
+        assertNull(binlogReader.pollSplitRecords());
+    }
+
+    private List<String> readRecords(BinlogSplitReader binlogReader, int expectedSize) {
+        List<String> actual = new ArrayList<>();
+        while (actual.size() < expectedSize) {
+            actual.addAll(
+                    formatResult(
+                            pollRecordsFromReader(binlogReader, RecordUtils::isDataChangeRecord),
+                            CUSTOMERS_TYPE));
+        }
+        return actual;
+    }
+
     private List<SourceRecord> pollRecordsFromReader(
             BinlogSplitReader reader, Predicate<SourceRecord> filter) {
         List<SourceRecord> records = new ArrayList<>();
@@ -537,6 +954,13 @@ public class BinlogSplitReaderTest extends MySqlSourceTestBase {
         }
     }
 
+    private void makeCustomersBinlogEventsAfterStopping(JdbcConnection connection, String tableId)
+            throws SQLException {
+        connection.setAutoCommit(false);
+        connection.execute("UPDATE " + tableId + " SET address = 'Beijing' where id = 103");
+        connection.commit();
+    }
+
     private void makeCustomerCardsBinlogEvents(JdbcConnection connection, String tableId)
             throws SQLException {
         if (tableId.endsWith("customer_card_single_line")) {
@@ -32,6 +32,7 @@ import cn.tenmg.cdc.log.connectors.mysql.source.MySqlSourceTestBase;
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.MySqlSnapshotSplitAssigner;
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfigFactory;
+import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplit;
 import cn.tenmg.cdc.log.connectors.mysql.testutils.RecordsFormatter;
 import cn.tenmg.cdc.log.connectors.mysql.testutils.UniqueDatabase;
@@ -48,6 +49,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -120,6 +122,64 @@ public class SnapshotSplitReaderTest extends MySqlSourceTestBase {
         assertEqualsInAnyOrder(Arrays.asList(expected), actual);
     }
 
+    @Test
+    public void testReadSnapshotSplitsOnOneContext() throws Exception {
+        MySqlSourceConfig sourceConfig = getConfig(new String[] {"customers_even_dist"}, 4);
+        final DataType dataType =
+                DataTypes.ROW(
+                        DataTypes.FIELD("id", DataTypes.BIGINT()),
+                        DataTypes.FIELD("name", DataTypes.STRING()),
+                        DataTypes.FIELD("address", DataTypes.STRING()),
+                        DataTypes.FIELD("phone_number", DataTypes.STRING()));
+        List<MySqlSplit> mySqlSplits = getMySqlSplits(sourceConfig);
+        assertTrue(mySqlSplits.size() > 1);
+
+        final BinaryLogClient client =
+                DebeziumUtils.createBinaryClient(sourceConfig.getDbzConfiguration());
+        final StatefulTaskContext statefulTaskContext =
+                new StatefulTaskContext(
+                        sourceConfig,
+                        client,
+                        DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration()));
+        final SnapshotSplitReader snapshotSplitReader =
+                new SnapshotSplitReader(statefulTaskContext, 0);
+        List<SourceRecord> result = new ArrayList<>();
+        for (MySqlSplit mySqlSplit : mySqlSplits) {
+            // the listeners left by the backfill task of the previous split are unregistered
+            final BinaryLogClient.EventListener staleEventListener = event -> {};
+            final BinaryLogClient.LifecycleListener staleLifecycleListener =
+                    new BinaryLogClient.AbstractLifecycleListener();
+            client.registerEventListener(staleEventListener);
+            client.registerLifecycleListener(staleLifecycleListener);
+            snapshotSplitReader.submitSplit(mySqlSplit);
+            assertFalse(client.getEventListeners().contains(staleEventListener));
+            assertFalse(client.getLifecycleListeners().contains(staleLifecycleListener));
+
+            Iterator<SourceRecord> res;
+            while ((res = snapshotSplitReader.pollSplitRecords()) != null) {
+                while (res.hasNext()) {
+                    result.add(res.next());
+                }
+            }
+        }
+        snapshotSplitReader.close();
+
+        String[] expected =
+                new String[] {
+                    "+I[101, user_1, Shanghai, 123567891234]",
+                    "+I[102, user_2, Shanghai, 123567891234]",
+                    "+I[103, user_3, Shanghai, 123567891234]",
+                    "+I[104, user_4, Shanghai, 123567891234]",
+                    "+I[105, user_5, Shanghai, 123567891234]",
+                    "+I[106, user_6, Shanghai, 123567891234]",
+                    "+I[107, user_7, Shanghai, 123567891234]",
+                    "+I[108, user_8, Shanghai, 123567891234]",
+                    "+I[109, user_9, Shanghai, 123567891234]",
+                    "+I[110, user_10, Shanghai, 123567891234]"
+                };
+        assertEqualsInAnyOrder(Arrays.asList(expected), formatResult(result, dataType));
+    }
+
     @Test
     public void testReadAllSplitForTableWithSingleLine() throws Exception {
         MySqlSourceConfig sourceConfig = getConfig(new String[] {"customer_card_single_line"}, 10);
@@ -178,6 +238,154 @@ public class SnapshotSplitReaderTest extends MySqlSourceTestBase {
         assertEqualsInAnyOrder(Arrays.asList(expected), actual);
     }
 
+    @Test
+    public void testReadSnapshotSplitsByPagesWithCompositeKey() throws Exception {
+        // the pages of 2 rows end in the middle of the rows sharing the split key 20004 and 30009
+        MySqlSourceConfig sourceConfig =
+                getConfigFactory(new String[] {"customer_card"}, 10)
+                        .chunkPageSize(2)
+                        .createConfig(0);
+
+        DataType dataType =
+                DataTypes.ROW(
+                        DataTypes.FIELD("card_no", DataTypes.BIGINT()),
+                        DataTypes.FIELD("level", DataTypes.STRING()),
+                        DataTypes.FIELD("name", DataTypes.STRING()),
+                        DataTypes.FIELD("note", DataTypes.STRING()));
+        List<MySqlSplit> mySqlSplits = getMySqlSplits(sourceConfig);
+
+        String[] expected =
+                new String[] {
+                    "+I[20001, LEVEL_4, user_1, user with level 4]",
+                    "+I[20002, LEVEL_4, user_2, user with level 4]",
+                    "+I[20003, LEVEL_4, user_3, user with level 4]",
+                    "+I[20004, LEVEL_1, user_4, user with level 4]",
+                    "+I[20004, LEVEL_2, user_4, user with level 4]",
+                    "+I[20004, LEVEL_3, user_4, user with level 4]",
+                    "+I[20004, LEVEL_4, user_4, user with level 4]",
+                    "+I[30006, LEVEL_3, user_5, user with level 3]",
+                    "+I[30007, LEVEL_3, user_6, user with level 3]",
+                    "+I[30008, LEVEL_3, user_7, user with level 3]",
+                    "+I[30009, LEVEL_1, user_8, user with level 3]",
+                    "+I[30009, LEVEL_2, user_8, user with level 3]",
+                    "+I[30009, LEVEL_3, user_8, user with level 3]",
+                    "+I[40001, LEVEL_2, user_9, user with level 2]",
+                    "+I[40002, LEVEL_2, user_10, user with level 2]",
+                    "+I[40003, LEVEL_2, user_11, user with level 2]",
+                    "+I[50001, LEVEL_1, user_12, user with level 1]",
+                    "+I[50002, LEVEL_1, user_13, user with level 1]",
+                    "+I[50003, LEVEL_1, user_14, user with level 1]"
+                };
+        List<String> actual =
+                readTableSnapshotSplits(mySqlSplits, sourceConfig, mySqlSplits.size(), dataType);
+        assertEqualsInAnyOrder(Arrays.asList(expected), actual);
+    }
+
+    @Test
+    public void testReadSnapshotSplitsWithoutBackfillSkipCheck() throws Exception {
+        MySqlSourceConfig sourceConfig =
+                getConfigFactory(new String[] {"customers_even_dist"}, 4)
+                        .backfillSkipCheckEnabled(false)
+                        .createConfig(0);
+        final DataType dataType =
+                DataTypes.ROW(
+                        DataTypes.FIELD("id", DataTypes.BIGINT()),
+                        DataTypes.FIELD("name", DataTypes.STRING()),
+                        DataTypes.FIELD("address", DataTypes.STRING()),
+                        DataTypes.FIELD("phone_number", DataTypes.STRING()));
+        List<MySqlSplit> mySqlSplits = getMySqlSplits(sourceConfig);
+
+        String[] expected =
+                new String[] {
+                    "+I[101, user_1, Shanghai, 123567891234]",
+                    "+I[102, user_2, Shanghai, 123567891234]",
+                    "+I[103, user_3, Shanghai, 123567891234]",
+                    "+I[104, user_4, Shanghai, 123567891234]",
+                    "+I[105, user_5, Shanghai, 123567891234]",
+                    "+I[106, user_6, Shanghai, 123567891234]",
+                    "+I[107, user_7, Shanghai, 123567891234]",
+                    "+I[108, user_8, Shanghai, 123567891234]",
+                    "+I[109, user_9, Shanghai, 123567891234]",
+                    "+I[110, user_10, Shanghai, 123567891234]"
+                };
+        List<String> actual =
+                readTableSnapshotSplits(mySqlSplits, sourceConfig, mySqlSplits.size(), dataType);
+        assertEqualsInAnyOrder(Arrays.asList(expected), actual);
+    }
+
+    @Test
+    public void testSkipBackfillForColdTable() throws Exception {
+        // only the other table is changed in the window, and the change is reverted
+        final String otherTable = customerDatabase.qualifiedTableName("customer_card_single_line");
+        assertFalse(
+                mayHaveCustomersChanges(
+                        String.format(
+                                "UPDATE %s SET note = 'cold' WHERE card_no = 20001", otherTable),
+                        String.format(
+                                "UPDATE %s SET note = 'user with level 1' WHERE card_no = 20001",
+                                otherTable)));
+    }
+
+    @Test
+    public void testReadBackfillForTouchedTable() throws Exception {
+        assertTrue(
+                mayHaveCustomersChanges(
+                        String.format(
+                                "UPDATE %s SET address = 'Hangzhou' WHERE id = 101",
+                                customerDatabase.qualifiedTableName("customers"))));
+    }
+
+    @Test
+    public void testReadBackfillForDdlInWindow() throws Exception {
+        // the schema change of any table is read by the backfill binlog reader
+        assertTrue(
+                mayHaveCustomersChanges(
+                        String.format(
+                                "CREATE TABLE %s (id INT NOT NULL PRIMARY KEY)",
+                                customerDatabase.qualifiedTableName("backfill_check_ddl"))));
+    }
+
+    @Test
+    public void testCheckWindowCrossingFile() throws Exception {
+        final String otherTable = customerDatabase.qualifiedTableName("customer_card_single_line");
+        assertFalse(
+                mayHaveCustomersChanges(
+                        "FLUSH LOGS",
+                        String.format(
+                                "UPDATE %s SET note = 'cold' WHERE card_no = 20001", otherTable),
+                        String.format(
+                                "UPDATE %s SET note = 'user with level 1' WHERE card_no = 20001",
+                                otherTable)));
+        assertTrue(
+                mayHaveCustomersChanges(
+                        "FLUSH LOGS",
+                        String.format(
+                                "UPDATE %s SET address = 'Hangzhou' WHERE id = 102",
+                                customerDatabase.qualifiedTableName("customers"))));
+    }
+
+    @Test
+    public void testReadBackfillForWindowBeforeTracking() throws Exception {
+        MySqlSourceConfig sourceConfig = getConfig(new String[] {"customers"}, 10);
+        final TableId tableId = TableId.parse(customerDatabase.qualifiedTableName("customers"));
+        try (MySqlConnection jdbc =
+                        DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration());
+                BinlogTableChangeTracker tracker = new BinlogTableChangeTracker(sourceConfig)) {
+            final BinlogOffset startingOffset = DebeziumUtils.currentBinlogOffset(jdbc);
+            jdbc.execute(
+                    String.format(
+                            "UPDATE %s SET note = 'cold' WHERE card_no = 20001",
+                            customerDatabase.qualifiedTableName("customer_card_single_line")));
+            final BinlogOffset endingOffset = DebeziumUtils.currentBinlogOffset(jdbc);
+            // the window is not tracked before the tracker starts
+            assertTrue(tracker.mayHaveTableChanges(tableId, startingOffset, endingOffset));
+
+            // the tracker starts after the window, the changes before are unknown
+            tracker.start(endingOffset);
+            assertTrue(tracker.mayHaveTableChanges(tableId, startingOffset, endingOffset));
+        }
+    }
+
     @Test
     public void testThrowRuntimeExceptionInSnapshotScan() throws Exception {
         MySqlSourceConfig sourceConfig =
@@ -241,6 +449,27 @@ public class SnapshotSplitReaderTest extends MySqlSourceTestBase {
         return formatResult(result, dataType);
     }
 
+    /**
+     * Executes the statements and returns whether the backfill skip check finds changes of the
+     * customers table between the binlog offsets before and after them.
+     */
+    private static boolean mayHaveCustomersChanges(String... statements) throws Exception {
+        MySqlSourceConfig sourceConfig = getConfig(new String[] {"customers"}, 10);
+        try (MySqlConnection jdbc =
+                        DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration());
+                BinlogTableChangeTracker tracker = new BinlogTableChangeTracker(sourceConfig)) {
+            final BinlogOffset startingOffset = DebeziumUtils.currentBinlogOffset(jdbc);
+            tracker.start(startingOffset);
+            jdbc.execute(statements);
+            final BinlogOffset endingOffset = DebeziumUtils.currentBinlogOffset(jdbc);
+            assertTrue(endingOffset.isAfter(startingOffset));
+            return tracker.mayHaveTableChanges(
+                    TableId.parse(customerDatabase.qualifiedTableName("customers")),
+                    startingOffset,
+                    endingOffset);
+        }
+    }
+
     private List<String> formatResult(List<SourceRecord> records, DataType dataType) {
         final RecordsFormatter formatter = new RecordsFormatter(dataType);
         return formatter.format(records);
@@ -269,6 +498,11 @@ public class SnapshotSplitReaderTest extends MySqlSourceTestBase {
     }
 
     public static MySqlSourceConfig getConfig(String[] captureTables, int splitSize) {
+        return getConfigFactory(captureTables, splitSize).createConfig(0);
+    }
+
+    private static MySqlSourceConfigFactory getConfigFactory(
+            String[] captureTables, int splitSize) {
         String[] captureTableIds =
                 Arrays.stream(captureTables)
                         .map(tableName -> customerDatabase.getDatabaseName() + "." + tableName)
@@ -283,7 +517,6 @@ public class SnapshotSplitReaderTest extends MySqlSourceTestBase {
                 .username(customerDatabase.getUsername())
                 .splitSize(splitSize)
                 .fetchSize(2)
-                .password(customerDatabase.getPassword())
-                .createConfig(0);
+                .password(customerDatabase.getPassword());
     }
 }
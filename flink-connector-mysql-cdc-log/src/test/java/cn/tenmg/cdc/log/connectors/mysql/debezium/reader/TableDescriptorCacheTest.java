@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.debezium.reader;
+
+import io.debezium.connector.AbstractSourceInfo;
+import io.debezium.data.Envelope;
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import io.debezium.util.SchemaNameAdjuster;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.Test;
+
+import cn.tenmg.cdc.log.connectors.mysql.debezium.reader.TableDescriptorCache.TableDescriptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Types;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Tests for {@link TableDescriptorCache}. */
+public class TableDescriptorCacheTest {
+
+    private static final TableId CUSTOMERS = TableId.parse("inventory.customers");
+    private static final TableId ORDERS = TableId.parse("inventory.orders");
+
+    @Test
+    public void testResolveOncePerSchema() {
+        final AtomicInteger resolvedTables = new AtomicInteger();
+        final TableDescriptorCache cache =
+                new TableDescriptorCache(
+                        tableId -> tableId.table().equals("customers"),
+                        tableId -> true,
+                        tableId -> {
+                            resolvedTables.incrementAndGet();
+                            return createTable(tableId);
+                        },
+                        SchemaNameAdjuster.create());
+        final RecordSchemas customers = new RecordSchemas(CUSTOMERS);
+        final RecordSchemas orders = new RecordSchemas(ORDERS);
+
+        final TableDescriptor descriptor = cache.get(customers.createRecord(1L));
+        assertEquals(CUSTOMERS, descriptor.getTableId());
+        assertTrue(descriptor.isCaptured());
+        assertTrue(descriptor.isInTableGroup());
+        assertSame(descriptor, cache.get(customers.createRecord(2L)));
+        assertFalse(cache.get(orders.createRecord(1L)).isCaptured());
+        assertEquals(2, cache.size());
+
+        assertEquals(1L, descriptor.getSplitKey(customers.createRecord(1L)));
+        assertEquals(2L, descriptor.getSplitKey(customers.createRecord(2L)));
+        assertTrue(descriptor.getSplitKeyComparator().compare(2L, 1L) > 0);
+        assertEquals(1, resolvedTables.get());
+    }
+
+    @Test
+    public void testNewDescriptorForNewSchema() {
+        final TableDescriptorCache cache =
+                new TableDescriptorCache(
+                        tableId -> true,
+                        tableId -> tableId.table().equals("customers"),
+                        TableDescriptorCacheTest::createTable,
+                        SchemaNameAdjuster.create());
+        final TableDescriptor descriptor =
+                cache.get(new RecordSchemas(CUSTOMERS).createRecord(1L));
+        assertFalse(cache.get(new RecordSchemas(ORDERS).createRecord(1L)).isInTableGroup());
+
+        // the schema of the table changes
+        final TableDescriptor newDescriptor =
+                cache.get(new RecordSchemas(CUSTOMERS).createRecord(1L));
+        assertNotSame(descriptor, newDescriptor);
+        assertEquals(CUSTOMERS, newDescriptor.getTableId());
+        assertEquals(3, cache.size());
+
+        cache.invalidate();
+        assertEquals(0, cache.size());
+    }
+
+    private static Table createTable(TableId tableId) {
+        return Table.editor()
+                .tableId(tableId)
+                .addColumns(
+                        Column.editor()
+                                .name("id")
+                                .type("BIGINT")
+                                .jdbcType(Types.BIGINT)
+                                .optional(false)
+                                .create())
+                .setPrimaryKeyNames("id")
+                .create();
+    }
+
+    /** The schemas of the data change records of a table version. */
+    private static class RecordSchemas {
+        private final TableId tableId;
+        private final Schema keySchema;
+        private final Schema sourceSchema;
+        private final Schema valueSchema;
+
+        RecordSchemas(TableId tableId) {
+            this.tableId = tableId;
+            this.keySchema = SchemaBuilder.struct().field("id", Schema.INT64_SCHEMA).build();
+            this.sourceSchema =
+                    SchemaBuilder.struct()
+                            .field(AbstractSourceInfo.DATABASE_NAME_KEY, Schema.STRING_SCHEMA)
+                            .field(AbstractSourceInfo.TABLE_NAME_KEY, Schema.STRING_SCHEMA)
+                            .build();
+            this.valueSchema =
+                    SchemaBuilder.struct()
+                            .field(Envelope.FieldName.OPERATION, Schema.STRING_SCHEMA)
+                            .field(Envelope.FieldName.SOURCE, sourceSchema)
+                            .build();
+        }
+
+        SourceRecord createRecord(long id) {
+            final Struct source =
+                    new Struct(sourceSchema)
+                            .put(AbstractSourceInfo.DATABASE_NAME_KEY, tableId.catalog())
+                            .put(AbstractSourceInfo.TABLE_NAME_KEY, tableId.table());
+            final Struct value =
+                    new Struct(valueSchema)
+                            .put(Envelope.FieldName.OPERATION, "c")
+                            .put(Envelope.FieldName.SOURCE, source);
+            return new SourceRecord(
+                    Collections.emptyMap(),
+                    Collections.emptyMap(),
+                    "test." + tableId,
+                    null,
+                    keySchema,
+                    new Struct(keySchema).put("id", id),
+                    valueSchema,
+                    value);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.schema;
+
+import cn.tenmg.cdc.log.connectors.mysql.debezium.DebeziumUtils;
+import cn.tenmg.cdc.log.connectors.mysql.source.MySqlSourceTestBase;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfigFactory;
+import cn.tenmg.cdc.log.connectors.mysql.testutils.UniqueDatabase;
+import io.debezium.connector.mysql.MySqlConnection;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import io.debezium.relational.history.TableChanges.TableChange;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/** Tests for {@link MySqlSchema}. */
+public class MySqlSchemaTest extends MySqlSourceTestBase {
+
+    private static final String[] TABLES =
+            new String[] {"defaults_table", "keys_table", "unique_keys_table", "no_keys_table"};
+
+    private final UniqueDatabase schemaDatabase =
+            new UniqueDatabase(MYSQL_CONTAINER, "schema_discovery", "mysqluser", "mysqlpw");
+
+    @Test
+    public void testReadTableSchemasFromInformationSchema() throws Exception {
+        schemaDatabase.createAndInitialize();
+        final MySqlSourceConfig sourceConfig = getConfig();
+        final List<TableId> tableIds =
+                Arrays.stream(TABLES)
+                        .map(table -> new TableId(schemaDatabase.getDatabaseName(), null, table))
+                        .collect(Collectors.toList());
+        try (MySqlConnection jdbc =
+                DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration())) {
+            // all tables are rendered from information_schema without falling back
+            assertEquals(
+                    tableIds.size(), MySqlInformationSchema.readTableDdls(jdbc, tableIds).size());
+
+            final Map<TableId, TableChange> bulkSchemas =
+                    new MySqlSchema(sourceConfig, true).getTableSchemas(jdbc, tableIds);
+            final MySqlSchema showCreateTableSchema = new MySqlSchema(sourceConfig, true);
+            for (TableId tableId : tableIds) {
+                final Table expected =
+                        showCreateTableSchema.getTableSchema(jdbc, tableId).getTable();
+                final Table actual = bulkSchemas.get(tableId).getTable();
+                assertEquals(expected, actual);
+                assertEquals(expected.columns(), actual.columns());
+                assertEquals(expected.primaryKeyColumnNames(), actual.primaryKeyColumnNames());
+            }
+        }
+    }
+
+    @Test
+    public void testUniqueKeyAsPrimaryKey() throws Exception {
+        schemaDatabase.createAndInitialize();
+        final MySqlSourceConfig sourceConfig = getConfig();
+        final TableId tableId =
+                new TableId(schemaDatabase.getDatabaseName(), null, "unique_keys_table");
+        try (MySqlConnection jdbc =
+                DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration())) {
+            final Table table =
+                    new MySqlSchema(sourceConfig, true)
+                            .getTableSchemas(jdbc, Collections.singletonList(tableId))
+                            .get(tableId)
+                            .getTable();
+            // the unique key without nullable columns, though it's declared after the other one
+            assertEquals(Arrays.asList("tenant", "id"), table.primaryKeyColumnNames());
+        }
+    }
+
+    private MySqlSourceConfig getConfig() {
+        return new MySqlSourceConfigFactory()
+                .databaseList(schemaDatabase.getDatabaseName())
+                .tableList(schemaDatabase.getDatabaseName() + ".*")
+                .hostname(MYSQL_CONTAINER.getHost())
+                .port(MYSQL_CONTAINER.getDatabasePort())
+                .username(schemaDatabase.getUsername())
+                .password(schemaDatabase.getPassword())
+                .createConfig(0);
+    }
+}
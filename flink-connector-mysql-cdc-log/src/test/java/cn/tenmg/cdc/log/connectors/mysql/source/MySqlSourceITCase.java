@@ -250,6 +250,63 @@ public class MySqlSourceITCase extends MySqlSourceTestBase {
                 "address_beijing");
     }
 
+    @Test
+    public void testReadBoundedSourceWithMultipleParallelismWithoutCheckpoint() throws Exception {
+        customDatabase.createAndInitialize();
+        StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+        StreamTableEnvironment tEnv = StreamTableEnvironment.create(env);
+        // no checkpoint is taken, the binlog split must be assigned without it
+        env.setParallelism(2);
+        env.setRestartStrategy(RestartStrategies.noRestart());
+        String sourceDDL =
+                format(
+                        "CREATE TABLE customers ("
+                                + " id BIGINT NOT NULL,"
+                                + " name STRING,"
+                                + " address STRING,"
+                                + " phone_number STRING,"
+                                + " primary key (id) not enforced"
+                                + ") WITH ("
+                                + " 'connector' = 'mysql-cdc-log',"
+                                + " 'scan.incremental.snapshot.enabled' = 'true',"
+                                + " 'hostname' = '%s',"
+                                + " 'port' = '%s',"
+                                + " 'username' = '%s',"
+                                + " 'password' = '%s',"
+                                + " 'database-name' = '%s',"
+                                + " 'table-name' = '%s',"
+                                + " 'scan.incremental.snapshot.chunk.size' = '4',"
+                                + " 'scan.stop.mode' = 'timestamp',"
+                                + " 'scan.stop.timestamp-millis' = '%s',"
+                                + " 'heartbeat.interval' = '1s',"
+                                + " 'server-id' = '%s'"
+                                + ")",
+                        MYSQL_CONTAINER.getHost(),
+                        MYSQL_CONTAINER.getDatabasePort(),
+                        customDatabase.getUsername(),
+                        customDatabase.getPassword(),
+                        customDatabase.getDatabaseName(),
+                        "customers",
+                        System.currentTimeMillis(),
+                        getServerId());
+        tEnv.executeSql(sourceDDL);
+        TableResult tableResult = tEnv.executeSql("select id from customers");
+
+        // the job finishes after the snapshot splits and the binlog split reaching the stop
+        // timestamp are read
+        List<String> actual = new ArrayList<>();
+        try (CloseableIterator<Row> iterator = tableResult.collect()) {
+            iterator.forEachRemaining(row -> actual.add(row.toString()));
+        }
+        assertEqualsInAnyOrder(
+                Arrays.asList(
+                        "+I[101]", "+I[102]", "+I[103]", "+I[109]", "+I[110]", "+I[111]",
+                        "+I[118]", "+I[121]", "+I[123]", "+I[1009]", "+I[1010]", "+I[1011]",
+                        "+I[1012]", "+I[1013]", "+I[1014]", "+I[1015]", "+I[1016]", "+I[1017]",
+                        "+I[1018]", "+I[1019]", "+I[2000]"),
+                actual);
+    }
+
     @Test
     public void testConsumingTableWithoutPrimaryKey() {
         try {
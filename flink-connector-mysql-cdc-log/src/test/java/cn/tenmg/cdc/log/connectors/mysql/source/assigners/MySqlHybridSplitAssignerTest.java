@@ -42,9 +42,13 @@ import io.debezium.relational.history.TableChanges.TableChange;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -53,6 +57,9 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /** Tests for {@link MySqlHybridSplitAssigner}. */
 public class MySqlHybridSplitAssignerTest extends MySqlSourceTestBase {
@@ -146,7 +153,173 @@ public class MySqlHybridSplitAssignerTest extends MySqlSourceTestBase {
         assertEquals(expected, mySqlBinlogSplit);
     }
 
+    @Test
+    public void testAssignFencedBinlogSplitEarly() {
+        final MySqlHybridSplitAssigner assigner = createEarlyStartAssigner("customers");
+        assigner.open();
+        try {
+            // the binlog split is assigned before any snapshot split is finished
+            MySqlSplit binlogSplit = assigner.getNext().get();
+            assertTrue(binlogSplit.isBinlogSplit());
+            assertTrue(binlogSplit.asBinlogSplit().isFenced());
+            assertEquals(
+                    assigner.getBinlogFenceOffset(),
+                    binlogSplit.asBinlogSplit().getStartingOffset());
+            assertTrue(assigner.isBinlogSplitFenced());
+
+            // the snapshot splits are assigned after the binlog split
+            MySqlSplit snapshotSplit = assigner.getNext().get();
+            assertTrue(snapshotSplit.isSnapshotSplit());
+            assertTrue(assigner.getVisibleFinishedSplitInfos().isEmpty());
+        } finally {
+            assigner.close();
+        }
+    }
+
+    @Test
+    public void testFinishedSplitVisibleAfterCheckpointComplete() throws Exception {
+        final MySqlHybridSplitAssigner assigner = createEarlyStartAssigner("customers");
+        assigner.open();
+        try {
+            assertTrue(assigner.getNext().get().isBinlogSplit());
+            MySqlSplit snapshotSplit = assigner.getNext().get();
+            final BinlogOffset assignedOffset = assigner.getBinlogFenceOffset();
+
+            // the binlog moves forward while the snapshot split is being read
+            updateCustomers();
+            final BinlogOffset latestOffset = assigner.readCurrentBinlogOffset();
+            assigner.onLatestBinlogOffset(latestOffset);
+            // the fence doesn't pass the offset the unfinished split was assigned at
+            assertEquals(assignedOffset, assigner.getBinlogFenceOffset());
+
+            // the finished split is held back until the checkpoint completes
+            assigner.onFinishedSplits(
+                    Collections.singletonMap(snapshotSplit.splitId(), latestOffset));
+            assigner.snapshotState(1L);
+            assertTrue(assigner.getVisibleFinishedSplitInfos().isEmpty());
+            assertEquals(assignedOffset, assigner.getBinlogFenceOffset());
+
+            assigner.notifyCheckpointComplete(1L);
+            assertEquals(
+                    Collections.singletonList(snapshotSplit.splitId()),
+                    getSplitIds(assigner.getVisibleFinishedSplitInfos()));
+            assertEquals(latestOffset, assigner.getBinlogFenceOffset());
+        } finally {
+            assigner.close();
+        }
+    }
+
+    @Test
+    public void testVisibleFinishedSplitsOrderedByHighWatermark() throws Exception {
+        final MySqlHybridSplitAssigner assigner = createEarlyStartAssigner("customers");
+        assigner.open();
+        try {
+            assertTrue(assigner.getNext().get().isBinlogSplit());
+            final TableId tableId =
+                    TableId.parse(customerDatabase.getDatabaseName() + ".customers");
+            // the table is fenced by its snapshot splits, not all tables are
+            assertEquals(Collections.singletonList(tableId), assigner.getFencedTables());
+            final MySqlSplit firstSplit = assigner.getNext().get();
+            final MySqlSplit secondSplit = assigner.getNext().get();
+            final BinlogOffset earlierOffset = assigner.getBinlogFenceOffset();
+            updateCustomers();
+            final BinlogOffset laterOffset = assigner.readCurrentBinlogOffset();
+
+            // the second split finished before the first split
+            final Map<String, BinlogOffset> finishedOffsets = new HashMap<>();
+            finishedOffsets.put(firstSplit.splitId(), laterOffset);
+            finishedOffsets.put(secondSplit.splitId(), earlierOffset);
+            assigner.onFinishedSplits(finishedOffsets);
+            assigner.snapshotState(1L);
+            assigner.notifyCheckpointComplete(1L);
+            assertEquals(
+                    Arrays.asList(secondSplit.splitId(), firstSplit.splitId()),
+                    getSplitIds(assigner.getVisibleFinishedSplitInfos()));
+            assertEquals(Collections.singletonList(tableId), assigner.getFencedTables());
+        } finally {
+            assigner.close();
+        }
+    }
+
+    @Test
+    public void testRestoreFencedBinlogSplit() {
+        final MySqlHybridSplitAssigner assigner = createEarlyStartAssigner("customers");
+        assigner.open();
+        final HybridPendingSplitsState checkpoint;
+        final MySqlSplit finishedSplit;
+        final MySqlSplit unfinishedSplit;
+        try {
+            assertTrue(assigner.getNext().get().isBinlogSplit());
+            finishedSplit = assigner.getNext().get();
+            unfinishedSplit = assigner.getNext().get();
+            assigner.onFinishedSplits(
+                    Collections.singletonMap(
+                            finishedSplit.splitId(), assigner.getBinlogFenceOffset()));
+            checkpoint = (HybridPendingSplitsState) assigner.snapshotState(1L);
+        } finally {
+            assigner.close();
+        }
+
+        final MySqlHybridSplitAssigner restored =
+                new MySqlHybridSplitAssigner(
+                        getEarlyStartConfig(new String[] {"customers"}),
+                        DEFAULT_PARALLELISM,
+                        checkpoint);
+        restored.open();
+        try {
+            // the finished splits in the checkpoint are confirmed already
+            assertEquals(
+                    Collections.singletonList(finishedSplit.splitId()),
+                    getSplitIds(restored.getVisibleFinishedSplitInfos()));
+            assertTrue(restored.isBinlogSplitFenced());
+            assertNotNull(restored.getBinlogFenceOffset());
+            // the binlog split is restored by its reader, it's never assigned again
+            MySqlSplit next = restored.getNext().get();
+            assertTrue(next.isSnapshotSplit());
+            assertNotEquals(finishedSplit.splitId(), next.splitId());
+            assertNotEquals(unfinishedSplit.splitId(), next.splitId());
+        } finally {
+            restored.close();
+        }
+    }
+
+    private MySqlHybridSplitAssigner createEarlyStartAssigner(String captureTable) {
+        return new MySqlHybridSplitAssigner(
+                getEarlyStartConfig(new String[] {captureTable}),
+                DEFAULT_PARALLELISM,
+                Collections.singletonList(
+                        TableId.parse(customerDatabase.getDatabaseName() + "." + captureTable)),
+                false);
+    }
+
+    private void updateCustomers() throws SQLException {
+        try (Connection connection = customerDatabase.getJdbcConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(
+                    String.format(
+                            "UPDATE %s SET address = 'Hangzhou' WHERE id = 101",
+                            customerDatabase.qualifiedTableName("customers")));
+        }
+    }
+
+    private static List<String> getSplitIds(List<FinishedSnapshotSplitInfo> splitInfos) {
+        return splitInfos.stream()
+                .map(FinishedSnapshotSplitInfo::getSplitId)
+                .collect(Collectors.toList());
+    }
+
+    private MySqlSourceConfig getEarlyStartConfig(String[] captureTables) {
+        return getConfigFactory(captureTables)
+                .splitSize(4)
+                .binlogEarlyStartEnabled(true)
+                .createConfig(0);
+    }
+
     private MySqlSourceConfig getConfig(String[] captureTables) {
+        return getConfigFactory(captureTables).createConfig(0);
+    }
+
+    private MySqlSourceConfigFactory getConfigFactory(String[] captureTables) {
         String[] captureTableIds =
                 Arrays.stream(captureTables)
                         .map(tableName -> customerDatabase.getDatabaseName() + "." + tableName)
@@ -160,7 +333,6 @@ public class MySqlHybridSplitAssignerTest extends MySqlSourceTestBase {
                 .port(MYSQL_CONTAINER.getDatabasePort())
                 .username(customerDatabase.getUsername())
                 .password(customerDatabase.getPassword())
-                .serverTimeZone(ZoneId.of("UTC").toString())
-                .createConfig(0);
+                .serverTimeZone(ZoneId.of("UTC").toString());
     }
 }
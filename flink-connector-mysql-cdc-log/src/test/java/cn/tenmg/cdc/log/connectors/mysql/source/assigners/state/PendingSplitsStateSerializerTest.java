@@ -41,6 +41,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -58,7 +59,9 @@ public class PendingSplitsStateSerializerTest {
         return Arrays.asList(
                 getTestSnapshotPendingSplitsState(),
                 getTestHybridPendingSplitsState(),
-                getTestBinlogPendingSplitsState());
+                getTestBinlogPendingSplitsState(),
+                getTestPartiallyAssignedHybridPendingSplitsState(),
+                getTestPartiallyAssignedBinlogPendingSplitsState());
     }
 
     @Test
@@ -145,6 +148,17 @@ public class PendingSplitsStateSerializerTest {
         return new BinlogPendingSplitsState(true);
     }
 
+    private static HybridPendingSplitsState getTestPartiallyAssignedHybridPendingSplitsState() {
+        return new HybridPendingSplitsState(
+                getTestSnapshotPendingSplitsState(),
+                false,
+                new HashSet<>(Arrays.asList("binlog-split", "binlog-split-2")));
+    }
+
+    private static BinlogPendingSplitsState getTestPartiallyAssignedBinlogPendingSplitsState() {
+        return new BinlogPendingSplitsState(false, Collections.singleton("binlog-split-1"));
+    }
+
     private static MySqlSnapshotSplit getTestSnapshotSplit(TableId tableId, int splitNo) {
         long restartSkipEvent = splitNo;
         return new MySqlSnapshotSplit(
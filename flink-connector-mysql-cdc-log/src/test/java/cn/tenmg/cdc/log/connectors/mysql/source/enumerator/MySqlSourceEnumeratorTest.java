@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.source.enumerator;
+
+import org.apache.flink.api.connector.source.ReaderInfo;
+import org.apache.flink.api.connector.source.SplitsAssignment;
+import org.apache.flink.api.connector.source.mocks.MockSplitEnumeratorContext;
+
+import cn.tenmg.cdc.log.connectors.mysql.source.MySqlSourceTestBase;
+import cn.tenmg.cdc.log.connectors.mysql.source.assigners.MySqlSnapshotSplitAssigner;
+import cn.tenmg.cdc.log.connectors.mysql.source.assigners.state.SnapshotPendingSplitsState;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfigFactory;
+import cn.tenmg.cdc.log.connectors.mysql.source.events.FinishedSnapshotSplitsReportEvent;
+import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
+import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplit;
+import cn.tenmg.cdc.log.connectors.mysql.table.StartupOptions;
+import cn.tenmg.cdc.log.connectors.mysql.testutils.UniqueDatabase;
+import io.debezium.relational.TableId;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link MySqlSourceEnumerator}. */
+public class MySqlSourceEnumeratorTest extends MySqlSourceTestBase {
+
+    private static final int PREFETCH_SIZE = 3;
+
+    private static final UniqueDatabase customerDatabase =
+            new UniqueDatabase(MYSQL_CONTAINER, "customer", "mysqluser", "mysqlpw");
+
+    @BeforeClass
+    public static void init() {
+        customerDatabase.createAndInitialize();
+    }
+
+    @Test
+    public void testPrefetchSnapshotSplits() throws Exception {
+        final MySqlSourceConfig sourceConfig = getConfig();
+        final List<String> allSplits = getAllSplitIds(sourceConfig);
+        assertTrue(allSplits.size() > PREFETCH_SIZE + 1);
+
+        try (MockSplitEnumeratorContext<MySqlSplit> context = createContext()) {
+            final MySqlSourceEnumerator enumerator =
+                    createEnumerator(context, sourceConfig, createAssigner(sourceConfig));
+            enumerator.start();
+
+            // the reader is topped up to the prefetch size by its first request
+            enumerator.handleSplitRequest(0, null);
+            final List<String> assignedSplits = getAssignedSplitIds(context, 0);
+            assertEquals(allSplits.subList(0, PREFETCH_SIZE), assignedSplits);
+
+            // the reader requests the next split once a split finished, it keeps prefetching
+            finishSplits(enumerator, 0, assignedSplits.subList(0, 1));
+            enumerator.handleSplitRequest(0, null);
+            assertEquals(allSplits.subList(0, PREFETCH_SIZE + 1), getAssignedSplitIds(context, 0));
+
+            // the other reader gets its own splits
+            enumerator.handleSplitRequest(1, null);
+            final int nextSize = Math.min(allSplits.size(), 2 * PREFETCH_SIZE + 1);
+            assertEquals(
+                    allSplits.subList(PREFETCH_SIZE + 1, nextSize),
+                    getAssignedSplitIds(context, 1));
+            enumerator.close();
+        }
+    }
+
+    @Test
+    public void testReassignSplitsOfFailedReader() throws Exception {
+        final MySqlSourceConfig sourceConfig = getConfig();
+        final List<String> allSplits = getAllSplitIds(sourceConfig);
+
+        try (MockSplitEnumeratorContext<MySqlSplit> context = createContext()) {
+            final MySqlSourceEnumerator enumerator =
+                    createEnumerator(context, sourceConfig, createAssigner(sourceConfig));
+            enumerator.start();
+            enumerator.handleSplitRequest(0, null);
+            final List<MySqlSplit> failedSplits = getAssignedSplits(context, 0);
+            assertEquals(PREFETCH_SIZE, failedSplits.size());
+
+            // the prefetched splits of the failed reader are added back and assigned again
+            enumerator.addSplitsBack(failedSplits, 0);
+            enumerator.addReader(0);
+            final Set<String> readSplits = readAllSplits(enumerator, context, 1);
+            assertEquals(new HashSet<>(allSplits), readSplits);
+
+            // the restarted reader gets no split as all the splits are assigned
+            enumerator.handleSplitRequest(0, null);
+            assertEquals(failedSplits, getAssignedSplits(context, 0));
+            enumerator.close();
+        }
+    }
+
+    @Test
+    public void testRestoreWithPrefetchedSplits() throws Exception {
+        final MySqlSourceConfig sourceConfig = getConfig();
+        final List<String> allSplits = getAllSplitIds(sourceConfig);
+
+        final SnapshotPendingSplitsState checkpoint;
+        final List<String> assignedSplits;
+        try (MockSplitEnumeratorContext<MySqlSplit> context = createContext()) {
+            final MySqlSourceEnumerator enumerator =
+                    createEnumerator(context, sourceConfig, createAssigner(sourceConfig));
+            enumerator.start();
+            enumerator.handleSplitRequest(0, null);
+            assignedSplits = getAssignedSplitIds(context, 0);
+            assertEquals(PREFETCH_SIZE, assignedSplits.size());
+            finishSplits(enumerator, 0, assignedSplits.subList(0, 1));
+            checkpoint = (SnapshotPendingSplitsState) enumerator.snapshotState(1L);
+            enumerator.close();
+        }
+
+        try (MockSplitEnumeratorContext<MySqlSplit> context = createContext()) {
+            final MySqlSourceEnumerator enumerator =
+                    createEnumerator(
+                            context,
+                            sourceConfig,
+                            new MySqlSnapshotSplitAssigner(
+                                    sourceConfig, DEFAULT_PARALLELISM, checkpoint));
+            enumerator.start();
+            final Set<String> readSplits = readAllSplits(enumerator, context, 1);
+
+            // the unfinished prefetched splits are restored to the reader from its own state,
+            // every split is assigned exactly once across the restore
+            final Set<String> expectedSplits = new HashSet<>(allSplits);
+            expectedSplits.removeAll(assignedSplits);
+            assertEquals(expectedSplits, readSplits);
+            enumerator.close();
+        }
+    }
+
+    /**
+     * Lets the reader read the splits until no more split is assigned, the assigned splits are
+     * finished in the order they're assigned, and returns the ids of them.
+     */
+    private static Set<String> readAllSplits(
+            MySqlSourceEnumerator enumerator,
+            MockSplitEnumeratorContext<MySqlSplit> context,
+            int subtaskId) {
+        final Set<String> readSplits = new HashSet<>();
+        int finishedSize = 0;
+        enumerator.handleSplitRequest(subtaskId, null);
+        List<String> assignedSplits = getAssignedSplitIds(context, subtaskId);
+        while (finishedSize < assignedSplits.size()) {
+            // the prefetched splits never exceed the prefetch size
+            assertTrue(assignedSplits.size() - finishedSize <= PREFETCH_SIZE);
+            final String splitId = assignedSplits.get(finishedSize++);
+            assertTrue(readSplits.add(splitId));
+            finishSplits(enumerator, subtaskId, Collections.singletonList(splitId));
+            enumerator.handleSplitRequest(subtaskId, null);
+            assignedSplits = getAssignedSplitIds(context, subtaskId);
+        }
+        return readSplits;
+    }
+
+    private static void finishSplits(
+            MySqlSourceEnumerator enumerator, int subtaskId, List<String> splitIds) {
+        final Map<String, BinlogOffset> finishedOffsets =
+                splitIds.stream()
+                        .collect(
+                                Collectors.toMap(
+                                        splitId -> splitId,
+                                        splitId -> BinlogOffset.INITIAL_OFFSET));
+        enumerator.handleSourceEvent(
+                subtaskId, new FinishedSnapshotSplitsReportEvent(finishedOffsets));
+    }
+
+    private static List<MySqlSplit> getAssignedSplits(
+            MockSplitEnumeratorContext<MySqlSplit> context, int subtaskId) {
+        final List<MySqlSplit> splits = new ArrayList<>();
+        for (SplitsAssignment<MySqlSplit> assignment : context.getSplitsAssignmentSequence()) {
+            splits.addAll(
+                    assignment.assignment().getOrDefault(subtaskId, Collections.emptyList()));
+        }
+        return splits;
+    }
+
+    private static List<String> getAssignedSplitIds(
+            MockSplitEnumeratorContext<MySqlSplit> context, int subtaskId) {
+        return getAssignedSplits(context, subtaskId).stream()
+                .map(MySqlSplit::splitId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> getAllSplitIds(MySqlSourceConfig sourceConfig) {
+        final MySqlSnapshotSplitAssigner assigner = createAssigner(sourceConfig);
+        assigner.open();
+        final List<String> splitIds = new ArrayList<>();
+        Optional<MySqlSplit> split;
+        while ((split = assigner.getNext()).isPresent()) {
+            splitIds.add(split.get().splitId());
+        }
+        assigner.close();
+        return splitIds;
+    }
+
+    private static MockSplitEnumeratorContext<MySqlSplit> createContext() {
+        final MockSplitEnumeratorContext<MySqlSplit> context =
+                new MockSplitEnumeratorContext<>(2);
+        context.registerReader(new ReaderInfo(0, "location"));
+        context.registerReader(new ReaderInfo(1, "location"));
+        return context;
+    }
+
+    private static MySqlSourceEnumerator createEnumerator(
+            MockSplitEnumeratorContext<MySqlSplit> context,
+            MySqlSourceConfig sourceConfig,
+            MySqlSnapshotSplitAssigner assigner) {
+        return new MySqlSourceEnumerator(context, sourceConfig, assigner);
+    }
+
+    private static MySqlSnapshotSplitAssigner createAssigner(MySqlSourceConfig sourceConfig) {
+        return new MySqlSnapshotSplitAssigner(
+                sourceConfig,
+                DEFAULT_PARALLELISM,
+                Collections.singletonList(
+                        TableId.parse(customerDatabase.qualifiedTableName("customers"))),
+                false);
+    }
+
+    private static MySqlSourceConfig getConfig() {
+        return new MySqlSourceConfigFactory()
+                .startupOptions(StartupOptions.initial())
+                .databaseList(customerDatabase.getDatabaseName())
+                .tableList(customerDatabase.qualifiedTableName("customers"))
+                .hostname(MYSQL_CONTAINER.getHost())
+                .port(MYSQL_CONTAINER.getDatabasePort())
+                .username(customerDatabase.getUsername())
+                .password(customerDatabase.getPassword())
+                .serverTimeZone(ZoneId.of("UTC").toString())
+                .splitSize(4)
+                .chunkPrefetchSize(PREFETCH_SIZE)
+                .createConfig(0);
+    }
+}
@@ -21,6 +21,7 @@ package cn.tenmg.cdc.log.connectors.mysql.source.reader;
 import org.apache.flink.api.common.eventtime.Watermark;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.connector.source.ReaderOutput;
+import org.apache.flink.api.connector.source.SourceEvent;
 import org.apache.flink.api.connector.source.SourceOutput;
 import org.apache.flink.api.connector.source.SourceReaderContext;
 import org.apache.flink.connector.base.source.reader.RecordsWithSplitIds;
@@ -41,11 +42,15 @@ import cn.tenmg.cdc.log.connectors.mysql.source.assigners.MySqlBinlogSplitAssign
 import cn.tenmg.cdc.log.connectors.mysql.source.assigners.MySqlSnapshotSplitAssigner;
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
 import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfigFactory;
+import cn.tenmg.cdc.log.connectors.mysql.source.events.BinlogSplitFenceEvent;
+import cn.tenmg.cdc.log.connectors.mysql.source.events.BinlogSplitFenceRequestEvent;
 import cn.tenmg.cdc.log.connectors.mysql.source.metrics.MySqlSourceReaderMetrics;
+import cn.tenmg.cdc.log.connectors.mysql.source.offset.BinlogOffset;
 import cn.tenmg.cdc.log.connectors.mysql.source.reader.MySqlRecordEmitter;
 import cn.tenmg.cdc.log.connectors.mysql.source.reader.MySqlSourceReader;
 import cn.tenmg.cdc.log.connectors.mysql.source.reader.MySqlSourceReaderContext;
 import cn.tenmg.cdc.log.connectors.mysql.source.reader.MySqlSplitReader;
+import cn.tenmg.cdc.log.connectors.mysql.source.split.FinishedSnapshotSplitInfo;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSnapshotSplit;
 import cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlSplit;
@@ -60,6 +65,8 @@ import io.debezium.relational.history.TableChanges;
 import org.apache.kafka.connect.source.SourceRecord;
 import org.junit.Test;
 
+import javax.annotation.Nullable;
+
 import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -74,15 +81,19 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /** Tests for {@link MySqlSourceReader}. */
 public class MySqlSourceReaderTest extends MySqlSourceTestBase {
 
+    private static final long HOLD_BACK_CHECK_MILLIS = 2000L;
+
     private final UniqueDatabase customerDatabase =
             new UniqueDatabase(MYSQL_CONTAINER, "customer", "mysqluser", "mysqlpw");
     private final UniqueDatabase inventoryDatabase =
@@ -245,6 +256,231 @@ public class MySqlSourceReaderTest extends MySqlSourceTestBase {
         }
     }
 
+    @Test
+    public void testHoldBackAndRestoreFencedBinlogSplit() throws Exception {
+        customerDatabase.createAndInitialize();
+        final MySqlSourceConfig sourceConfig = getConfig(new String[] {"customers"});
+        final DataType dataType =
+                DataTypes.ROW(
+                        DataTypes.FIELD("id", DataTypes.BIGINT()),
+                        DataTypes.FIELD("name", DataTypes.STRING()),
+                        DataTypes.FIELD("address", DataTypes.STRING()),
+                        DataTypes.FIELD("phone_number", DataTypes.STRING()));
+        final TableId tableId = TableId.parse(customerDatabase.getDatabaseName() + ".customers");
+        final BinlogOffset startingOffset = currentBinlogOffset(sourceConfig);
+        final MySqlSplit binlogSplit =
+                MySqlBinlogSplit.createFencedBinlogSplit(
+                        "binlog-split", startingOffset, BinlogOffset.NO_STOPPING_OFFSET);
+        // the snapshot split of the whole table finished at the starting offset
+        final byte[] finishedSplitInfo =
+                FinishedSnapshotSplitInfo.serialize(
+                        new FinishedSnapshotSplitInfo(
+                                tableId, tableId + ":0", null, null, startingOffset));
+
+        // step-1: the fenced binlog split requests its fence once it's added
+        TestingReaderContext readerContext = new TestingReaderContext();
+        MySqlSourceReader<SourceRecord> reader = createReader(sourceConfig, readerContext);
+        reader.start();
+        reader.addSplits(Collections.singletonList(binlogSplit));
+        assertFenceRequested(readerContext, 0);
+
+        // step-2: the records after the fence offset are held back
+        makeBinlogEventsInOneTransaction(sourceConfig, tableId.toString());
+        final BinlogOffset fenceOffset = currentBinlogOffset(sourceConfig);
+        assertHeldBack(reader);
+
+        // step-3: the records are released once the fence offset moves forward
+        reader.handleSourceEvents(
+                new BinlogSplitFenceEvent(
+                        binlogSplit.splitId(),
+                        0,
+                        Collections.singletonList(finishedSplitInfo),
+                        fenceOffset,
+                        null,
+                        false));
+        assertFenceRequested(readerContext, 1);
+        String[] expectedRecords =
+                new String[] {
+                    "-U[103, user_3, Shanghai, 123567891234]",
+                    "+U[103, user_3, Hangzhou, 123567891234]",
+                    "-D[102, user_2, Shanghai, 123567891234]",
+                    "+I[102, user_2, Shanghai, 123567891234]",
+                    "-U[103, user_3, Hangzhou, 123567891234]",
+                    "+U[103, user_3, Shanghai, 123567891234]"
+                };
+        // the 6 records are produced by 4 operations
+        assertEqualsInOrder(Arrays.asList(expectedRecords), consumeRecords(reader, dataType, 4));
+
+        // step-4: the state keeps the received finished splits of the fenced split
+        List<MySqlSplit> splitsState = reader.snapshotState(1L);
+        assertEquals(1, splitsState.size());
+        MySqlBinlogSplit binlogSplitState = splitsState.get(0).asBinlogSplit();
+        assertTrue(binlogSplitState.isFenced());
+        assertEquals(1, binlogSplitState.getFinishedSnapshotSplitInfos().size());
+        reader.close();
+
+        // step-5: the restored split is fenced again, from its restored offset
+        TestingReaderContext restartContext = new TestingReaderContext();
+        MySqlSourceReader<SourceRecord> restartReader = createReader(sourceConfig, restartContext);
+        restartReader.start();
+        restartReader.addSplits(splitsState);
+        assertFenceRequested(restartContext, 0);
+        makeBinlogEventsInOneTransaction(sourceConfig, tableId.toString());
+        assertHeldBack(restartReader);
+
+        // step-6: the held back records are released once the fence is removed, the finished
+        // split received before the failover is not merged twice
+        restartReader.handleSourceEvents(
+                new BinlogSplitFenceEvent(
+                        binlogSplit.splitId(),
+                        0,
+                        Collections.singletonList(finishedSplitInfo),
+                        null,
+                        null,
+                        true));
+        assertEqualsInOrder(
+                Arrays.asList(expectedRecords), consumeRecords(restartReader, dataType, 4));
+        splitsState = restartReader.snapshotState(2L);
+        binlogSplitState = splitsState.get(0).asBinlogSplit();
+        assertFalse(binlogSplitState.isFenced());
+        assertEquals(1, binlogSplitState.getFinishedSnapshotSplitInfos().size());
+        restartReader.close();
+    }
+
+    @Test
+    public void testStreamAndRestoreFinishedSplitInfos() throws Exception {
+        customerDatabase.createAndInitialize();
+        final MySqlSourceConfig sourceConfig = getConfig(new String[] {"customers"});
+        final TableId tableId = TableId.parse(customerDatabase.getDatabaseName() + ".customers");
+        final BinlogOffset startingOffset = currentBinlogOffset(sourceConfig);
+        final MySqlSplit binlogSplit =
+                MySqlBinlogSplit.createFencedBinlogSplit(
+                        "binlog-split", startingOffset, BinlogOffset.NO_STOPPING_OFFSET);
+        final List<byte[]> finishedSplitInfos =
+                Arrays.asList(
+                        serializeFinishedSplitInfo(tableId, 0, null, 103L, startingOffset),
+                        serializeFinishedSplitInfo(tableId, 1, 103L, 109L, startingOffset),
+                        serializeFinishedSplitInfo(tableId, 2, 109L, 1010L, startingOffset),
+                        serializeFinishedSplitInfo(tableId, 3, 1010L, null, startingOffset));
+        final List<String> fencedTables = Collections.singletonList(tableId.toString());
+
+        // step-1: the finished splits are streamed to the fenced binlog split in several events
+        TestingReaderContext readerContext = new TestingReaderContext();
+        MySqlSourceReader<SourceRecord> reader = createReader(sourceConfig, readerContext);
+        reader.start();
+        reader.addSplits(Collections.singletonList(binlogSplit));
+        assertFenceRequested(readerContext, 0);
+        reader.handleSourceEvents(
+                new BinlogSplitFenceEvent(
+                        binlogSplit.splitId(),
+                        0,
+                        finishedSplitInfos.subList(0, 1),
+                        startingOffset,
+                        fencedTables,
+                        false));
+        assertFenceRequested(readerContext, 1);
+
+        // step-2: the out of order event is ignored, the next finished splits are requested again
+        reader.handleSourceEvents(
+                new BinlogSplitFenceEvent(
+                        binlogSplit.splitId(),
+                        0,
+                        finishedSplitInfos.subList(0, 1),
+                        startingOffset,
+                        fencedTables,
+                        false));
+        assertFenceRequested(readerContext, 1);
+        reader.handleSourceEvents(
+                new BinlogSplitFenceEvent(
+                        binlogSplit.splitId(),
+                        1,
+                        finishedSplitInfos.subList(1, 3),
+                        startingOffset,
+                        fencedTables,
+                        false));
+        assertFenceRequested(readerContext, 3);
+
+        // step-3: the state keeps the received finished splits
+        List<MySqlSplit> splitsState = reader.snapshotState(1L);
+        assertEquals(1, splitsState.size());
+        MySqlBinlogSplit binlogSplitState = splitsState.get(0).asBinlogSplit();
+        assertTrue(binlogSplitState.isFenced());
+        assertEquals(
+                Arrays.asList(tableId + ":0", tableId + ":1", tableId + ":2"),
+                getSplitIds(binlogSplitState));
+        reader.close();
+
+        // step-4: the restored split requests all the finished splits again
+        TestingReaderContext restartContext = new TestingReaderContext();
+        MySqlSourceReader<SourceRecord> restartReader = createReader(sourceConfig, restartContext);
+        restartReader.start();
+        restartReader.addSplits(splitsState);
+        assertFenceRequested(restartContext, 0);
+
+        // step-5: the finished splits in the restored state are not merged twice
+        restartReader.handleSourceEvents(
+                new BinlogSplitFenceEvent(
+                        binlogSplit.splitId(), 0, finishedSplitInfos, null, null, true));
+        splitsState = restartReader.snapshotState(2L);
+        binlogSplitState = splitsState.get(0).asBinlogSplit();
+        assertFalse(binlogSplitState.isFenced());
+        assertEquals(
+                Arrays.asList(tableId + ":0", tableId + ":1", tableId + ":2", tableId + ":3"),
+                getSplitIds(binlogSplitState));
+        restartReader.close();
+    }
+
+    private static void assertFenceRequested(
+            TestingReaderContext readerContext, int receivedSplitInfoSize) {
+        List<SourceEvent> sentEvents = readerContext.getSentEvents();
+        SourceEvent lastEvent = sentEvents.get(sentEvents.size() - 1);
+        assertTrue(lastEvent instanceof BinlogSplitFenceRequestEvent);
+        assertEquals(
+                receivedSplitInfoSize,
+                ((BinlogSplitFenceRequestEvent) lastEvent).getReceivedSplitInfoSize());
+    }
+
+    private static byte[] serializeFinishedSplitInfo(
+            TableId tableId,
+            int splitNo,
+            @Nullable Long splitStart,
+            @Nullable Long splitEnd,
+            BinlogOffset highWatermark) {
+        return FinishedSnapshotSplitInfo.serialize(
+                new FinishedSnapshotSplitInfo(
+                        tableId,
+                        tableId + ":" + splitNo,
+                        splitStart == null ? null : new Object[] {splitStart},
+                        splitEnd == null ? null : new Object[] {splitEnd},
+                        highWatermark));
+    }
+
+    private static List<String> getSplitIds(MySqlBinlogSplit binlogSplit) {
+        return binlogSplit.getFinishedSnapshotSplitInfos().stream()
+                .map(FinishedSnapshotSplitInfo::getSplitId)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static void assertHeldBack(MySqlSourceReader<SourceRecord> reader) throws Exception {
+        final SimpleReaderOutput output = new SimpleReaderOutput();
+        final long deadline = System.currentTimeMillis() + HOLD_BACK_CHECK_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (reader.pollNext(output) == InputStatus.NOTHING_AVAILABLE) {
+                Thread.sleep(100);
+            }
+        }
+        assertTrue(output.getResults().isEmpty());
+    }
+
+    private static BinlogOffset currentBinlogOffset(MySqlSourceConfig sourceConfig)
+            throws Exception {
+        try (MySqlConnection jdbc =
+                DebeziumUtils.createMySqlConnection(sourceConfig.getDbzConfiguration())) {
+            return DebeziumUtils.currentBinlogOffset(jdbc);
+        }
+    }
+
     private MySqlSourceReader<SourceRecord> createReader(MySqlSourceConfig configuration)
             throws Exception {
         return createReader(configuration, new TestingReaderContext());
@@ -0,0 +1,134 @@
+package cn.tenmg.cdc.log.connectors.mysql.source.reader;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.source.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.util.Collector;
+
+import cn.tenmg.cdc.log.connectors.mysql.source.reader.ParallelRecordDeserializer.DeserializedRecord;
+import cn.tenmg.cdc.log.debezium.DebeziumDeserializationSchema;
+import io.debezium.data.Envelope;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/** Tests for {@link ParallelRecordDeserializer}. */
+public class ParallelRecordDeserializerTest {
+
+    private static final Schema CHANGE_SCHEMA =
+            SchemaBuilder.struct()
+                    .field(Envelope.FieldName.OPERATION, Schema.OPTIONAL_STRING_SCHEMA)
+                    .field("id", Schema.INT64_SCHEMA)
+                    .build();
+    private static final Schema OTHER_SCHEMA =
+            SchemaBuilder.struct().field("id", Schema.INT64_SCHEMA).build();
+
+    @Test
+    public void testDeserializeInOrder() throws Exception {
+        final List<SourceRecord> records = new ArrayList<>();
+        for (long id = 0; id < 1000; id++) {
+            records.add(id % 100 == 0 ? otherRecord(id) : changeRecord(id));
+        }
+
+        final ParallelRecordDeserializer<String> deserializer =
+                new ParallelRecordDeserializer<>(new IdDeserializationSchema(), 4, 0);
+        try {
+            final Iterator<SourceRecord> deserialized =
+                    deserializer.deserialize(records.iterator());
+            for (long id = 0; id < 1000; id++) {
+                final SourceRecord record = deserialized.next();
+                if (id % 100 == 0) {
+                    // the records other than data changes are passed through
+                    assertFalse(record instanceof DeserializedRecord);
+                    assertSame(records.get((int) id), record);
+                } else {
+                    assertTrue(record instanceof DeserializedRecord);
+                    assertEquals(records.get((int) id).value(), record.value());
+                    assertEquals(
+                            Collections.singletonList(String.valueOf(id)),
+                            ((DeserializedRecord<?>) record).getOutputs());
+                }
+            }
+            assertFalse(deserialized.hasNext());
+        } finally {
+            deserializer.close();
+        }
+    }
+
+    @Test
+    public void testRestartAfterClose() throws Exception {
+        final ParallelRecordDeserializer<String> deserializer =
+                new ParallelRecordDeserializer<>(new IdDeserializationSchema(), 2, 0);
+        deserializer.close();
+        final SourceRecord record =
+                deserializer.deserialize(Collections.singletonList(changeRecord(1L)).iterator())
+                        .next();
+        assertEquals(
+                Collections.singletonList("1"), ((DeserializedRecord<?>) record).getOutputs());
+        deserializer.close();
+    }
+
+    private static SourceRecord changeRecord(long id) {
+        final Struct value = new Struct(CHANGE_SCHEMA).put(Envelope.FieldName.OPERATION, "c");
+        value.put("id", id);
+        return new SourceRecord(
+                Collections.emptyMap(), Collections.emptyMap(), "topic", CHANGE_SCHEMA, value);
+    }
+
+    private static SourceRecord otherRecord(long id) {
+        final Struct value = new Struct(OTHER_SCHEMA).put("id", id);
+        return new SourceRecord(
+                Collections.emptyMap(), Collections.emptyMap(), "topic", OTHER_SCHEMA, value);
+    }
+
+    /** Outputs the id of the record, it's not thread-safe as it reuses a builder. */
+    private static class IdDeserializationSchema implements DebeziumDeserializationSchema<String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final StringBuilder builder = new StringBuilder();
+
+        @Override
+        public void deserialize(SourceRecord record, Collector<String> out) {
+            builder.setLength(0);
+            builder.append(((Struct) record.value()).getInt64("id"));
+            out.collect(builder.toString());
+        }
+
+        @Override
+        public TypeInformation<String> getProducedType() {
+            return BasicTypeInfo.STRING_TYPE_INFO;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.source.reader;
+
+import io.debezium.data.Envelope;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.Test;
+
+import cn.tenmg.cdc.log.connectors.mysql.debezium.dispatcher.SignalEventDispatcher;
+import cn.tenmg.cdc.log.connectors.mysql.debezium.dispatcher.SignalEventDispatcher.WatermarkKind;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordKind;
+import cn.tenmg.cdc.log.connectors.mysql.source.utils.RecordUtils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+
+/** Tests for {@link RecordKindClassifier}. */
+public class RecordKindClassifierTest {
+
+    private static final Schema DATA_VALUE_SCHEMA =
+            SchemaBuilder.struct()
+                    .field(Envelope.FieldName.OPERATION, Schema.OPTIONAL_STRING_SCHEMA)
+                    .build();
+    private static final Schema SIGNAL_VALUE_SCHEMA =
+            SchemaBuilder.struct()
+                    .name(SignalEventDispatcher.SIGNAL_EVENT_VALUE_SCHEMA_NAME)
+                    .field(SignalEventDispatcher.WATERMARK_KIND, Schema.STRING_SCHEMA)
+                    .build();
+    private static final Schema SCHEMA_CHANGE_KEY_SCHEMA =
+            SchemaBuilder.struct().name(RecordUtils.SCHEMA_CHANGE_EVENT_KEY_NAME).build();
+    private static final Schema SCHEMA_CHANGE_VALUE_SCHEMA = SchemaBuilder.struct().build();
+    private static final Schema HEARTBEAT_VALUE_SCHEMA =
+            SchemaBuilder.struct().name(RecordUtils.SCHEMA_HEARTBEAT_EVENT_KEY_NAME).build();
+
+    @Test
+    public void testClassify() {
+        final RecordKindClassifier classifier = new RecordKindClassifier();
+        for (int i = 0; i < 2; i++) {
+            // the first round resolves the kinds, the second one looks them up
+            assertEquals(RecordKind.DATA_CHANGE, classifier.classify(dataRecord("c")));
+            assertEquals(RecordKind.UNKNOWN, classifier.classify(dataRecord(null)));
+            assertEquals(
+                    RecordKind.LOW_WATERMARK,
+                    classifier.classify(watermarkRecord(WatermarkKind.LOW)));
+            assertEquals(
+                    RecordKind.HIGH_WATERMARK,
+                    classifier.classify(watermarkRecord(WatermarkKind.HIGH)));
+            assertEquals(
+                    RecordKind.BINLOG_END_WATERMARK,
+                    classifier.classify(watermarkRecord(WatermarkKind.BINLOG_END)));
+            assertEquals(
+                    RecordKind.SCHEMA_CHANGE,
+                    classifier.classify(
+                            record(
+                                    SCHEMA_CHANGE_KEY_SCHEMA,
+                                    SCHEMA_CHANGE_VALUE_SCHEMA,
+                                    new Struct(SCHEMA_CHANGE_VALUE_SCHEMA))));
+            assertEquals(
+                    RecordKind.HEARTBEAT,
+                    classifier.classify(
+                            record(
+                                    null,
+                                    HEARTBEAT_VALUE_SCHEMA,
+                                    new Struct(HEARTBEAT_VALUE_SCHEMA))));
+            assertEquals(RecordKind.UNKNOWN, classifier.classify(record(null, null, null)));
+        }
+        assertEquals(4, classifier.size());
+    }
+
+    @Test
+    public void testUnknownRecordNotCached() {
+        final RecordKindClassifier classifier = new RecordKindClassifier();
+        assertEquals(RecordKind.UNKNOWN, classifier.classify(dataRecord(null)));
+        assertEquals(0, classifier.size());
+        assertEquals(RecordKind.DATA_CHANGE, classifier.classify(dataRecord("u")));
+        assertEquals(1, classifier.size());
+    }
+
+    private static SourceRecord dataRecord(String operation) {
+        return record(
+                null,
+                DATA_VALUE_SCHEMA,
+                new Struct(DATA_VALUE_SCHEMA).put(Envelope.FieldName.OPERATION, operation));
+    }
+
+    private static SourceRecord watermarkRecord(WatermarkKind watermarkKind) {
+        return record(
+                null,
+                SIGNAL_VALUE_SCHEMA,
+                new Struct(SIGNAL_VALUE_SCHEMA)
+                        .put(SignalEventDispatcher.WATERMARK_KIND, watermarkKind.toString()));
+    }
+
+    private static SourceRecord record(Schema keySchema, Schema valueSchema, Struct value) {
+        return new SourceRecord(
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                "test",
+                null,
+                keySchema,
+                null,
+                valueSchema,
+                value);
+    }
+}
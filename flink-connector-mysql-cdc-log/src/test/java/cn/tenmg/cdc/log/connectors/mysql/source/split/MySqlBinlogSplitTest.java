@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.source.split;
+
+import io.debezium.relational.TableId;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for the table group utils of {@link MySqlBinlogSplit}. */
+public class MySqlBinlogSplitTest {
+
+    @Test
+    public void testBinlogSplitIdOfTableGroup() {
+        assertEquals("binlog-split", MySqlBinlogSplit.binlogSplitId(0));
+        assertEquals("binlog-split-3", MySqlBinlogSplit.binlogSplitId(3));
+        for (int group = 0; group < 5; group++) {
+            assertEquals(
+                    group,
+                    MySqlBinlogSplit.binlogSplitGroup(MySqlBinlogSplit.binlogSplitId(group)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBinlogSplitId() {
+        MySqlBinlogSplit.binlogSplitGroup("test_db.test_table:0");
+    }
+
+    @Test
+    public void testTableGroup() {
+        final TableId tableId = TableId.parse("test_db.test_table");
+        assertEquals(0, MySqlBinlogSplit.tableGroup(tableId, 1));
+        for (int groups = 2; groups < 8; groups++) {
+            int group = MySqlBinlogSplit.tableGroup(tableId, groups);
+            assertTrue(group >= 0 && group < groups);
+            // the table is always read by the same binlog split
+            assertEquals(
+                    group,
+                    MySqlBinlogSplit.tableGroup(TableId.parse(tableId.toString()), groups));
+        }
+    }
+}
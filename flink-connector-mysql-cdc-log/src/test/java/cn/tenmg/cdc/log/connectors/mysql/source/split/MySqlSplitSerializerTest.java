@@ -44,7 +44,9 @@ import java.util.Map;
 
 import static cn.tenmg.cdc.log.connectors.mysql.source.split.MySqlBinlogSplit.toSuspendedBinlogSplit;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /** Tests for {@link MySqlSplitSerializer}. */
 public class MySqlSplitSerializerTest {
@@ -121,6 +123,25 @@ public class MySqlSplitSerializerTest {
                         new HashMap<>(),
                         0);
         assertEquals(unCompletedBinlogSplit, serializeAndDeserializeSplit(unCompletedBinlogSplit));
+
+        final MySqlSplit fencedBinlogSplit =
+                MySqlBinlogSplit.createFencedBinlogSplit(
+                        "binlog-split",
+                        new BinlogOffset("mysql-bin.000001", 4L),
+                        BinlogOffset.NO_STOPPING_OFFSET);
+        final MySqlSplit deserializedFencedBinlogSplit =
+                serializeAndDeserializeSplit(fencedBinlogSplit);
+        assertEquals(fencedBinlogSplit, deserializedFencedBinlogSplit);
+        assertTrue(deserializedFencedBinlogSplit.asBinlogSplit().isFenced());
+        assertFalse(toSuspendedBinlogSplit(fencedBinlogSplit.asBinlogSplit()).isFenced());
+
+        final MySqlBinlogSplit mergedBinlogSplit =
+                MySqlBinlogSplit.mergeFinishedSplitInfos(
+                        fencedBinlogSplit.asBinlogSplit(), finishedSplitsInfo, false);
+        assertEquals(mergedBinlogSplit, serializeAndDeserializeSplit(mergedBinlogSplit));
+        assertFalse(mergedBinlogSplit.isFenced());
+        assertTrue(mergedBinlogSplit.isCompletedSplit());
+        assertEquals(finishedSplitsInfo, mergedBinlogSplit.getFinishedSnapshotSplitInfos());
     }
 
     @Test
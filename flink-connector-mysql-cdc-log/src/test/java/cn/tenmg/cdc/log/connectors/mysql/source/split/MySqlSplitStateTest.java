@@ -105,6 +105,39 @@ public class MySqlSplitStateTest {
                 mySqlSplitState.toMySqlSplit());
     }
 
+    @Test
+    public void testRecordBinlogSplitStateBySourceOffset() throws Exception {
+        final MySqlBinlogSplitState mySqlSplitState =
+                new MySqlBinlogSplitState(
+                        getTestBinlogSplitWithOffset(new BinlogOffset("mysql-bin.000001", 4L)));
+
+        mySqlSplitState.setStartingSourceOffset(sourceOffset("mysql-bin.000001", 100L));
+        assertEquals(100L, mySqlSplitState.getStartingOffset().getPosition());
+
+        mySqlSplitState.setStartingSourceOffset(sourceOffset("mysql-bin.000001", 400L));
+        assertEquals(
+                getTestBinlogSplitWithOffset(new BinlogOffset("mysql-bin.000001", 400L)),
+                mySqlSplitState.toMySqlSplit());
+
+        // the offset set later wins
+        mySqlSplitState.setStartingSourceOffset(sourceOffset("mysql-bin.000001", 800L));
+        mySqlSplitState.setStartingOffset(new BinlogOffset("mysql-bin.000002", 4L));
+        assertEquals(
+                getTestBinlogSplitWithOffset(new BinlogOffset("mysql-bin.000002", 4L)),
+                mySqlSplitState.toMySqlSplit());
+    }
+
+    /** The source offset of a record, which carries the values of their own types. */
+    private static Map<String, Object> sourceOffset(String filename, long position) {
+        final Map<String, Object> sourceOffset = new HashMap<>();
+        sourceOffset.put(BinlogOffset.BINLOG_FILENAME_OFFSET_KEY, filename);
+        sourceOffset.put(BinlogOffset.BINLOG_POSITION_OFFSET_KEY, position);
+        sourceOffset.put(BinlogOffset.EVENTS_TO_SKIP_OFFSET_KEY, 0L);
+        sourceOffset.put(BinlogOffset.ROWS_TO_SKIP_OFFSET_KEY, 0);
+        sourceOffset.put(BinlogOffset.TIMESTAMP_KEY, 0L);
+        return sourceOffset;
+    }
+
     private MySqlBinlogSplit getTestBinlogSplitWithOffset(BinlogOffset startingOffset)
             throws Exception {
         final TableId tableId = TableId.parse("test_db.test_table");
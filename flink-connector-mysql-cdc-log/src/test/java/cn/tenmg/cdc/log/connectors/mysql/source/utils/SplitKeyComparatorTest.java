@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.source.utils;
+
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.RowType;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/** Tests for {@link SplitKeyComparator}. */
+public class SplitKeyComparatorTest {
+
+    @Test
+    public void testRangeContains() {
+        final SplitKeyComparator comparator = comparator(DataTypes.BIGINT());
+        // table with only one split
+        assertTrue(comparator.rangeContains(100L, null, null));
+
+        // the last split
+        assertTrue(comparator.rangeContains(101L, new Object[] {100L}, null));
+        assertTrue(comparator.rangeContains(100L, new Object[] {100L}, null));
+        assertFalse(comparator.rangeContains(99L, new Object[] {100L}, null));
+
+        // the first split
+        assertTrue(comparator.rangeContains(101L, null, new Object[] {1024L}));
+        assertFalse(comparator.rangeContains(1024L, null, new Object[] {1024L}));
+
+        // general splits
+        assertTrue(comparator.rangeContains(100L, new Object[] {1L}, new Object[] {1024L}));
+        assertTrue(comparator.rangeContains(1L, new Object[] {1L}, new Object[] {1024L}));
+        assertFalse(comparator.rangeContains(0L, new Object[] {1L}, new Object[] {1024L}));
+        assertFalse(comparator.rangeContains(1024L, new Object[] {1L}, new Object[] {1024L}));
+    }
+
+    @Test
+    public void testCompareNumbersOfDifferentTypes() {
+        final SplitKeyComparator integral = comparator(DataTypes.INT());
+        // compared by value rather than by string, which orders 9 after 10
+        assertTrue(integral.rangeContains(9, new Object[] {1L}, new Object[] {10L}));
+        assertFalse(integral.rangeContains(10, new Object[] {1L}, new Object[] {10L}));
+        assertTrue(
+                integral.rangeContains(
+                        BigInteger.valueOf(100L), new Object[] {1L}, new Object[] {1024L}));
+        assertFalse(
+                integral.rangeContains(
+                        BigInteger.valueOf(0L), new Object[] {1L}, new Object[] {1024L}));
+
+        // BIGINT UNSIGNED
+        final SplitKeyComparator decimal = comparator(DataTypes.DECIMAL(20, 0));
+        assertTrue(
+                decimal.rangeContains(
+                        new BigDecimal("18446744073709551615"),
+                        new Object[] {new BigInteger("9223372036854775808")},
+                        null));
+        assertTrue(
+                decimal.rangeContains(
+                        new BigDecimal("9.5"),
+                        new Object[] {new BigDecimal("9.50")},
+                        new Object[] {10L}));
+
+        final SplitKeyComparator floatingPoint = comparator(DataTypes.DOUBLE());
+        assertTrue(floatingPoint.rangeContains(1.5d, new Object[] {1.0f}, new Object[] {2.0d}));
+        assertFalse(floatingPoint.rangeContains(2.0d, new Object[] {1.0f}, new Object[] {2}));
+    }
+
+    @Test
+    public void testCompareStrings() {
+        final SplitKeyComparator comparator = comparator(DataTypes.VARCHAR(255));
+        assertTrue(comparator.rangeContains("b", new Object[] {"a"}, new Object[] {"c"}));
+        assertFalse(comparator.rangeContains("c", new Object[] {"a"}, new Object[] {"c"}));
+        assertFalse(comparator.rangeContains("A", new Object[] {"a"}, null));
+    }
+
+    private static SplitKeyComparator comparator(DataType splitKeyType) {
+        return SplitKeyComparator.of(
+                (RowType)
+                        DataTypes.ROW(DataTypes.FIELD("id", splitKeyType)).getLogicalType());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.source.utils;
+
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.types.logical.RowType;
+
+import io.debezium.relational.TableId;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/** Tests for {@link StatementUtils}. */
+public class StatementUtilsTest {
+
+    private static final TableId TABLE_ID = new TableId("customer", null, "customers");
+    private static final RowType SPLIT_KEY_TYPE =
+            (RowType)
+                    DataTypes.ROW(DataTypes.FIELD("id", DataTypes.BIGINT()))
+                            .getLogicalType();
+    private static final List<String> PAGE_KEY = Collections.singletonList("id");
+
+    @Test
+    public void testBuildSplitPageScanQuery() {
+        assertEquals(
+                "SELECT * FROM `customer`.`customers` ORDER BY `id` LIMIT 100",
+                StatementUtils.buildSplitPageScanQuery(
+                        TABLE_ID, SPLIT_KEY_TYPE, PAGE_KEY, false, true, false, 100));
+        assertEquals(
+                "SELECT * FROM `customer`.`customers` WHERE `id` < ? ORDER BY `id` LIMIT 100",
+                StatementUtils.buildSplitPageScanQuery(
+                        TABLE_ID, SPLIT_KEY_TYPE, PAGE_KEY, false, true, true, 100));
+        assertEquals(
+                "SELECT * FROM `customer`.`customers` WHERE `id` >= ? AND `id` < ?"
+                        + " ORDER BY `id` LIMIT 100",
+                StatementUtils.buildSplitPageScanQuery(
+                        TABLE_ID, SPLIT_KEY_TYPE, PAGE_KEY, true, true, true, 100));
+        assertEquals(
+                "SELECT * FROM `customer`.`customers` WHERE `id` > ? ORDER BY `id` LIMIT 100",
+                StatementUtils.buildSplitPageScanQuery(
+                        TABLE_ID, SPLIT_KEY_TYPE, PAGE_KEY, true, false, false, 100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildSplitPageScanQueryWithCompositeKey() {
+        RowType compositeKeyType =
+                (RowType)
+                        DataTypes.ROW(
+                                        DataTypes.FIELD("id", DataTypes.BIGINT()),
+                                        DataTypes.FIELD("name", DataTypes.STRING()))
+                                .getLogicalType();
+        StatementUtils.buildSplitPageScanQuery(
+                TABLE_ID, compositeKeyType, Arrays.asList("id", "name"), true, false, true, 100);
+    }
+
+    @Test
+    public void testBuildSplitPageScanQueryWithCompositePrimaryKey() {
+        final List<String> pageKey = Arrays.asList("id", "name");
+        // the first page starts from the split start by the split key
+        assertEquals(
+                "SELECT * FROM `customer`.`customers` WHERE `id` >= ? AND `id` < ?"
+                        + " ORDER BY `id`, `name` LIMIT 100",
+                StatementUtils.buildSplitPageScanQuery(
+                        TABLE_ID, SPLIT_KEY_TYPE, pageKey, true, true, true, 100));
+        // the following pages start after the whole primary key of the last row read
+        assertEquals(
+                "SELECT * FROM `customer`.`customers` WHERE (`id`, `name`) > (?, ?)"
+                        + " AND `id` < ? ORDER BY `id`, `name` LIMIT 100",
+                StatementUtils.buildSplitPageScanQuery(
+                        TABLE_ID, SPLIT_KEY_TYPE, pageKey, true, false, true, 100));
+        assertEquals(
+                "SELECT * FROM `customer`.`customers` WHERE (`id`, `name`) > (?, ?)"
+                        + " ORDER BY `id`, `name` LIMIT 100",
+                StatementUtils.buildSplitPageScanQuery(
+                        TABLE_ID, SPLIT_KEY_TYPE, pageKey, true, false, false, 100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildSplitPageScanQueryWithPageKeyNotStartingWithSplitKey() {
+        StatementUtils.buildSplitPageScanQuery(
+                TABLE_ID, SPLIT_KEY_TYPE, Arrays.asList("name", "id"), true, false, true, 100);
+    }
+}
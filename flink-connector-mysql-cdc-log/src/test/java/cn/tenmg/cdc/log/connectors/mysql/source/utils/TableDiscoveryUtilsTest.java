@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.source.utils;
+
+import cn.tenmg.cdc.log.connectors.mysql.source.MySqlSourceTestBase;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfig;
+import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceConfigFactory;
+import cn.tenmg.cdc.log.connectors.mysql.testutils.UniqueDatabase;
+import io.debezium.config.Configuration;
+import io.debezium.connector.mysql.MySqlConnection;
+import io.debezium.jdbc.JdbcConnection;
+import io.debezium.relational.TableId;
+import io.debezium.relational.history.TableChanges.TableChange;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Tests for {@link TableDiscoveryUtils}. */
+public class TableDiscoveryUtilsTest extends MySqlSourceTestBase {
+
+    private final UniqueDatabase customerDatabase =
+            new UniqueDatabase(MYSQL_CONTAINER, "customer", "mysqluser", "mysqlpw");
+
+    @Test
+    public void testDiscoverSchemasOfUnknownTablesByShowCreateTable() throws Exception {
+        testDiscoverSchemasOfUnknownTables(false);
+    }
+
+    @Test
+    public void testDiscoverSchemasOfUnknownTablesByInformationSchema() throws Exception {
+        testDiscoverSchemasOfUnknownTables(true);
+    }
+
+    private void testDiscoverSchemasOfUnknownTables(boolean bulkTableDiscoveryEnabled)
+            throws Exception {
+        customerDatabase.createAndInitialize();
+        final MySqlSourceConfig sourceConfig = getConfig(bulkTableDiscoveryEnabled);
+        final TableId customers = tableId("customers");
+        final TableId customers1 = tableId("customers_1");
+        final TableId address = tableId("address");
+        try (StatementRecordingConnection jdbc =
+                new StatementRecordingConnection(sourceConfig.getDbzConfiguration())) {
+            // the schemas restored from state are known, only the new table is discovered
+            final Set<TableId> knownTableIds = new HashSet<>(Arrays.asList(customers, customers1));
+            final Map<TableId, TableChange> tableSchemas =
+                    TableDiscoveryUtils.discoverCapturedTableSchemas(
+                            sourceConfig, jdbc, knownTableIds);
+
+            assertEquals(Collections.singleton(address), tableSchemas.keySet());
+            assertEquals(address, tableSchemas.get(address).getTable().id());
+            for (String statement : jdbc.statements) {
+                assertTrue(
+                        "The schema of a known table is read by " + statement,
+                        !statement.startsWith("SHOW CREATE TABLE")
+                                || statement.contains("`address`"));
+            }
+        }
+    }
+
+    private TableId tableId(String tableName) {
+        return new TableId(customerDatabase.getDatabaseName(), null, tableName);
+    }
+
+    private MySqlSourceConfig getConfig(boolean bulkTableDiscoveryEnabled) {
+        return new MySqlSourceConfigFactory()
+                .databaseList(customerDatabase.getDatabaseName())
+                .tableList(
+                        customerDatabase.getDatabaseName() + ".customers",
+                        customerDatabase.getDatabaseName() + ".customers_1",
+                        customerDatabase.getDatabaseName() + ".address")
+                .hostname(MYSQL_CONTAINER.getHost())
+                .port(MYSQL_CONTAINER.getDatabasePort())
+                .username(customerDatabase.getUsername())
+                .password(customerDatabase.getPassword())
+                .bulkTableDiscoveryEnabled(bulkTableDiscoveryEnabled)
+                .createConfig(0);
+    }
+
+    /** A {@link MySqlConnection} which records the queried statements. */
+    private static class StatementRecordingConnection extends MySqlConnection {
+
+        private final List<String> statements = new ArrayList<>();
+
+        private StatementRecordingConnection(Configuration dbzConfiguration) {
+            super(new MySqlConnectionConfiguration(dbzConfiguration));
+        }
+
+        @Override
+        public JdbcConnection query(String query, ResultSetConsumer resultConsumer)
+                throws SQLException {
+            statements.add(query);
+            return super.query(query, resultConsumer);
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.flink.table.catalog.ObjectIdentifier;
 import org.apache.flink.table.catalog.ResolvedCatalogTable;
 import org.apache.flink.table.catalog.ResolvedSchema;
 import org.apache.flink.table.catalog.UniqueConstraint;
+import org.apache.flink.table.connector.ChangelogMode;
 import org.apache.flink.table.connector.source.DynamicTableSource;
 import org.apache.flink.table.factories.Factory;
 import org.apache.flink.table.factories.FactoryUtil;
@@ -39,6 +40,7 @@ import cn.tenmg.cdc.log.connectors.mysql.source.config.MySqlSourceOptions;
 import cn.tenmg.cdc.log.connectors.mysql.table.MySqlTableSource;
 import cn.tenmg.cdc.log.connectors.mysql.table.MySqlTableSourceFactory;
 import cn.tenmg.cdc.log.connectors.mysql.table.StartupOptions;
+import cn.tenmg.cdc.log.connectors.mysql.table.StopOptions;
 
 import org.junit.Test;
 
@@ -248,6 +250,108 @@ public class MySqlTableSourceFactoryTest {
         assertEquals(expectedSource, actualSource);
     }
 
+    @Test
+    public void testEnableParallelReadSourceSnapshot() {
+        Map<String, String> properties = getAllOptions();
+        properties.put("scan.incremental.snapshot.enabled", "true");
+        properties.put("server-id", "123-126");
+        properties.put("scan.startup.mode", "snapshot");
+
+        // validation for source
+        DynamicTableSource actualSource = createTableSource(properties);
+        MySqlTableSource expectedSource =
+                new MySqlTableSource(
+                        SCHEMA,
+                        3306,
+                        MY_LOCALHOST,
+                        MY_DATABASE,
+                        MY_TABLE,
+                        MY_USERNAME,
+                        MY_PASSWORD,
+                        ZoneId.of("UTC"),
+                        PROPERTIES,
+                        "123-126",
+                        MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_ENABLED.defaultValue(),
+                        MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_CHUNK_SIZE.defaultValue(),
+                        MySqlSourceOptions.CHUNK_META_GROUP_SIZE.defaultValue(),
+                        MySqlSourceOptions.SCAN_SNAPSHOT_FETCH_SIZE.defaultValue(),
+                        MySqlSourceOptions.CONNECT_TIMEOUT.defaultValue(),
+                        MySqlSourceOptions.CONNECT_MAX_RETRIES.defaultValue(),
+                        MySqlSourceOptions.CONNECTION_POOL_SIZE.defaultValue(),
+                        MySqlSourceOptions.SPLIT_KEY_EVEN_DISTRIBUTION_FACTOR_UPPER_BOUND
+                                .defaultValue(),
+                        MySqlSourceOptions.SPLIT_KEY_EVEN_DISTRIBUTION_FACTOR_LOWER_BOUND
+                                .defaultValue(),
+                        StartupOptions.snapshot(),
+                        false,
+                        new Properties(),
+                        MySqlSourceOptions.HEARTBEAT_INTERVAL.defaultValue());
+        assertEquals(expectedSource, actualSource);
+        assertEquals(
+                ChangelogMode.insertOnly(), ((MySqlTableSource) actualSource).getChangelogMode());
+    }
+
+    @Test
+    public void testEnableParallelReadSourceStopOffset() {
+        Map<String, String> properties = getAllOptions();
+        properties.put("scan.incremental.snapshot.enabled", "true");
+        properties.put("server-id", "123-126");
+        properties.put("scan.stop.mode", "specific-offset");
+        properties.put("scan.stop.specific-offset.file", "mysql-bin.000003");
+        properties.put("scan.stop.specific-offset.pos", "4");
+
+        // validation for source
+        DynamicTableSource actualSource = createTableSource(properties);
+        MySqlTableSource expectedSource =
+                new MySqlTableSource(
+                        SCHEMA,
+                        3306,
+                        MY_LOCALHOST,
+                        MY_DATABASE,
+                        MY_TABLE,
+                        MY_USERNAME,
+                        MY_PASSWORD,
+                        ZoneId.of("UTC"),
+                        PROPERTIES,
+                        "123-126",
+                        MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_ENABLED.defaultValue(),
+                        MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_CHUNK_SIZE.defaultValue(),
+                        MySqlSourceOptions.CHUNK_META_GROUP_SIZE.defaultValue(),
+                        MySqlSourceOptions.SCAN_SNAPSHOT_FETCH_SIZE.defaultValue(),
+                        MySqlSourceOptions.CONNECT_TIMEOUT.defaultValue(),
+                        MySqlSourceOptions.CONNECT_MAX_RETRIES.defaultValue(),
+                        MySqlSourceOptions.CONNECTION_POOL_SIZE.defaultValue(),
+                        MySqlSourceOptions.SPLIT_KEY_EVEN_DISTRIBUTION_FACTOR_UPPER_BOUND
+                                .defaultValue(),
+                        MySqlSourceOptions.SPLIT_KEY_EVEN_DISTRIBUTION_FACTOR_LOWER_BOUND
+                                .defaultValue(),
+                        StartupOptions.initial(),
+                        StopOptions.specificOffset("mysql-bin.000003", 4L),
+                        false,
+                        new Properties(),
+                        MySqlSourceOptions.HEARTBEAT_INTERVAL.defaultValue());
+        assertEquals(expectedSource, actualSource);
+    }
+
+    @Test
+    public void testStopTimestampWithoutHeartbeat() {
+        try {
+            Map<String, String> properties = getAllOptions();
+            properties.put("scan.incremental.snapshot.enabled", "true");
+            properties.put("scan.stop.mode", "timestamp");
+            properties.put("scan.stop.timestamp-millis", "1667232000000");
+            properties.put("heartbeat.interval", "0s");
+            createTableSource(properties);
+            fail("exception expected");
+        } catch (Throwable t) {
+            assertTrue(
+                    ExceptionUtils.findThrowableWithMessage(
+                                    t,
+                                    "The option 'heartbeat.interval' must be positive in case of 'timestamp' stop mode")
+                            .isPresent());
+        }
+    }
+
     @Test
     public void testOptionalProperties() {
         Map<String, String> options = getAllOptions();
@@ -313,7 +417,7 @@ public class MySqlTableSourceFactoryTest {
             assertTrue(
                     ExceptionUtils.findThrowableWithMessage(
                                     t,
-                                    "Unsupported option value 'specific-offset', the options [earliest-offset, specific-offset, timestamp] are not supported correctly, please do not use them until they're correctly supported")
+                                    "Unsupported option value 'specific-offset', the options [earliest-offset, specific-offset] are not supported correctly, please do not use them until they're correctly supported")
                             .isPresent());
         }
     }
@@ -366,24 +470,101 @@ public class MySqlTableSourceFactoryTest {
             assertTrue(
                     ExceptionUtils.findThrowableWithMessage(
                                     t,
-                                    "Unsupported option value 'earliest-offset', the options [earliest-offset, specific-offset, timestamp] are not supported correctly, please do not use them until they're correctly supported")
+                                    "Unsupported option value 'earliest-offset', the options [earliest-offset, specific-offset] are not supported correctly, please do not use them until they're correctly supported")
                             .isPresent());
         }
     }
 
     @Test
     public void testStartupFromSpecificTimestamp() {
+        Map<String, String> properties = getAllOptions();
+        properties.put("scan.startup.mode", "timestamp");
+        properties.put("scan.startup.timestamp-millis", "0");
+
+        // validation for source
+        DynamicTableSource actualSource = createTableSource(properties);
+        MySqlTableSource expectedSource =
+                new MySqlTableSource(
+                        SCHEMA,
+                        3306,
+                        MY_LOCALHOST,
+                        MY_DATABASE,
+                        MY_TABLE,
+                        MY_USERNAME,
+                        MY_PASSWORD,
+                        ZoneId.of("UTC"),
+                        PROPERTIES,
+                        null,
+                        false,
+                        MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_CHUNK_SIZE.defaultValue(),
+                        MySqlSourceOptions.CHUNK_META_GROUP_SIZE.defaultValue(),
+                        MySqlSourceOptions.SCAN_SNAPSHOT_FETCH_SIZE.defaultValue(),
+                        MySqlSourceOptions.CONNECT_TIMEOUT.defaultValue(),
+                        MySqlSourceOptions.CONNECT_MAX_RETRIES.defaultValue(),
+                        MySqlSourceOptions.CONNECTION_POOL_SIZE.defaultValue(),
+                        MySqlSourceOptions.SPLIT_KEY_EVEN_DISTRIBUTION_FACTOR_UPPER_BOUND
+                                .defaultValue(),
+                        MySqlSourceOptions.SPLIT_KEY_EVEN_DISTRIBUTION_FACTOR_LOWER_BOUND
+                                .defaultValue(),
+                        StartupOptions.timestamp(0L),
+                        false,
+                        new Properties(),
+                        MySqlSourceOptions.HEARTBEAT_INTERVAL.defaultValue());
+        assertEquals(expectedSource, actualSource);
+    }
+
+    @Test
+    public void testEnableParallelReadSourceSpecificTimestamp() {
+        Map<String, String> properties = getAllOptions();
+        properties.put("scan.incremental.snapshot.enabled", "true");
+        properties.put("server-id", "123-126");
+        properties.put("scan.startup.mode", "timestamp");
+        properties.put("scan.startup.timestamp-millis", "1667232000000");
+
+        // validation for source
+        DynamicTableSource actualSource = createTableSource(properties);
+        MySqlTableSource expectedSource =
+                new MySqlTableSource(
+                        SCHEMA,
+                        3306,
+                        MY_LOCALHOST,
+                        MY_DATABASE,
+                        MY_TABLE,
+                        MY_USERNAME,
+                        MY_PASSWORD,
+                        ZoneId.of("UTC"),
+                        PROPERTIES,
+                        "123-126",
+                        MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_ENABLED.defaultValue(),
+                        MySqlSourceOptions.SCAN_INCREMENTAL_SNAPSHOT_CHUNK_SIZE.defaultValue(),
+                        MySqlSourceOptions.CHUNK_META_GROUP_SIZE.defaultValue(),
+                        MySqlSourceOptions.SCAN_SNAPSHOT_FETCH_SIZE.defaultValue(),
+                        MySqlSourceOptions.CONNECT_TIMEOUT.defaultValue(),
+                        MySqlSourceOptions.CONNECT_MAX_RETRIES.defaultValue(),
+                        MySqlSourceOptions.CONNECTION_POOL_SIZE.defaultValue(),
+                        MySqlSourceOptions.SPLIT_KEY_EVEN_DISTRIBUTION_FACTOR_UPPER_BOUND
+                                .defaultValue(),
+                        MySqlSourceOptions.SPLIT_KEY_EVEN_DISTRIBUTION_FACTOR_LOWER_BOUND
+                                .defaultValue(),
+                        StartupOptions.timestamp(1667232000000L),
+                        false,
+                        new Properties(),
+                        MySqlSourceOptions.HEARTBEAT_INTERVAL.defaultValue());
+        assertEquals(expectedSource, actualSource);
+    }
+
+    @Test
+    public void testStartupFromTimestampWithoutTimestamp() {
         try {
             Map<String, String> properties = getAllOptions();
             properties.put("scan.startup.mode", "timestamp");
-            properties.put("scan.startup.timestamp-millis", "0");
             createTableSource(properties);
             fail("exception expected");
         } catch (Throwable t) {
             assertTrue(
                     ExceptionUtils.findThrowableWithMessage(
                                     t,
-                                    "Unsupported option value 'timestamp', the options [earliest-offset, specific-offset, timestamp] are not supported correctly, please do not use them until they're correctly supported")
+                                    "The option 'scan.startup.timestamp-millis' is required in case of 'timestamp' startup mode")
                             .isPresent());
         }
     }
@@ -472,6 +653,22 @@ public class MySqlTableSourceFactoryTest {
 
     @Test
     public void testValidation() {
+        // validate missing stop offset
+        try {
+            Map<String, String> properties = getAllOptions();
+            properties.put("scan.incremental.snapshot.enabled", "true");
+            properties.put("scan.stop.mode", "gtid-set");
+
+            createTableSource(properties);
+            fail("exception expected");
+        } catch (Throwable t) {
+            assertTrue(
+                    ExceptionUtils.findThrowableWithMessage(
+                                    t,
+                                    "The option 'scan.stop.gtid-set' is required in case of 'gtid-set' stop mode")
+                            .isPresent());
+        }
+
         // validate illegal port
         try {
             Map<String, String> properties = getAllOptions();
@@ -635,7 +832,7 @@ public class MySqlTableSourceFactoryTest {
         } catch (Throwable t) {
             String msg =
                     "Invalid value for option 'scan.startup.mode'. Supported values are "
-                            + "[initial, latest-offset], "
+                            + "[initial, snapshot, latest-offset], "
                             + "but was: abc";
             assertTrue(ExceptionUtils.findThrowableWithMessage(t, msg).isPresent());
         }
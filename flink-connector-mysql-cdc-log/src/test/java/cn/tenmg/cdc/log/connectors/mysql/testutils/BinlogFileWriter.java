@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.testutils;
+
+import com.github.shyiko.mysql.binlog.event.EventType;
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import io.debezium.relational.history.TableChanges.TableChange;
+import io.debezium.relational.history.TableChanges.TableChangeType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Writes the binlog files of the rows inserted into a table {@code (id BIGINT NOT NULL PRIMARY KEY,
+ * name VARCHAR(255))}, as a MySQL 5.7 server with {@code binlog_format = ROW} and {@code
+ * binlog_checksum = CRC32} does, for the tests and benchmarks without a MySQL server.
+ *
+ * <p>Each batch of inserted rows is written as a transaction of a BEGIN query event, a table map
+ * event, a write rows event and a XID event. The binlog file is rotated once it exceeds the max
+ * file size, and the event timestamps are derived from the positions across the files, one second
+ * per KB, so the same inserts always produce the same binlog files.
+ */
+public class BinlogFileWriter implements Closeable {
+
+    public static final String SERVER_VERSION = "5.7.99-log";
+    public static final long SERVER_ID = 1L;
+
+    private static final byte[] BINLOG_MAGIC = {(byte) 0xfe, 'b', 'i', 'n'};
+    private static final int EVENT_HEADER_LENGTH = 19;
+    private static final int CHECKSUM_LENGTH = 4;
+    private static final int CHECKSUM_ALG_CRC32 = 1;
+    // the post header lengths of the event types of MySQL 5.7, indexed by the type code - 1
+    private static final byte[] POST_HEADER_LENGTHS = {
+        56, 13, 0, 8, 0, 18, 0, 4, 4, 4, 4, 18, 0, 0, 95, 0, 8, 0, 8, 8, 8, 2, 10, 10, 10, 0, 0, 0,
+        10, 10, 10, 42, 0, 0, 18, 52, 0, 0
+    };
+    private static final long BASE_TIMESTAMP_SECONDS = 1640995200L;
+    private static final int MYSQL_TYPE_LONGLONG = 8;
+    private static final int MYSQL_TYPE_VARCHAR = 15;
+    private static final int NAME_MAX_BYTES = 255 * 4;
+    private static final long TABLE_NUMBER = 100L;
+
+    private final File directory;
+    private final String baseName;
+    private final TableId tableId;
+    private final long maxFileSize;
+    private final List<File> binlogFiles = new ArrayList<>();
+    private final List<Long> firstEventTimestamps = new ArrayList<>();
+
+    private OutputStream output;
+    // the bytes of the binlog files before the current one
+    private long writtenBytes;
+    private long position;
+    private long nextXid = 1L;
+
+    public BinlogFileWriter(File directory, TableId tableId, long maxFileSize) throws IOException {
+        this.directory = directory;
+        this.baseName = "mysql-bin";
+        this.tableId = tableId;
+        this.maxFileSize = maxFileSize;
+        openNextFile();
+    }
+
+    /** Returns the schema of the table as the split carries it. */
+    public static TableChange tableSchema(TableId tableId) {
+        final Table table =
+                Table.editor()
+                        .tableId(tableId)
+                        .addColumns(
+                                Column.editor()
+                                        .name("id")
+                                        .type("BIGINT")
+                                        .jdbcType(Types.BIGINT)
+                                        .optional(false)
+                                        .create(),
+                                Column.editor()
+                                        .name("name")
+                                        .type("VARCHAR")
+                                        .jdbcType(Types.VARCHAR)
+                                        .length(255)
+                                        .charsetName("utf8mb4")
+                                        .optional(true)
+                                        .create())
+                        .setPrimaryKeyNames("id")
+                        .create();
+        return new TableChange(TableChangeType.CREATE, table);
+    }
+
+    public List<File> getBinlogFiles() {
+        return new ArrayList<>(binlogFiles);
+    }
+
+    /** Returns the timestamps of the first events of the binlog files, in milliseconds. */
+    public List<Long> getFirstEventTimestamps() {
+        return new ArrayList<>(firstEventTimestamps);
+    }
+
+    /** Returns the name of the binlog file being written. */
+    public String getCurrentFilename() {
+        return binlogFiles.get(binlogFiles.size() - 1).getName();
+    }
+
+    /** Returns the position of the next event in the binlog file being written. */
+    public long getCurrentPosition() {
+        return position;
+    }
+
+    /** Writes a transaction inserting the rows of the given ids and names, a name may be null. */
+    public void insert(long[] ids, String[] names) throws IOException {
+        if (position >= maxFileSize) {
+            rotate();
+        }
+        writeEvent(EventType.QUERY, queryEventBody("BEGIN"));
+        writeEvent(EventType.TABLE_MAP, tableMapEventBody());
+        writeEvent(EventType.EXT_WRITE_ROWS, writeRowsEventBody(ids, names));
+        final ByteArrayOutputStream xid = new ByteArrayOutputStream();
+        writeLong(xid, nextXid++, 8);
+        writeEvent(EventType.XID, xid.toByteArray());
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private void rotate() throws IOException {
+        final String nextFilename = binlogFilename(binlogFiles.size() + 1);
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeLong(body, BINLOG_MAGIC.length, 8);
+        body.write(nextFilename.getBytes(StandardCharsets.UTF_8));
+        writeEvent(EventType.ROTATE, body.toByteArray());
+        output.close();
+        writtenBytes += position;
+        openNextFile();
+    }
+
+    private void openNextFile() throws IOException {
+        final File file = new File(directory, binlogFilename(binlogFiles.size() + 1));
+        binlogFiles.add(file);
+        output = new FileOutputStream(file);
+        output.write(BINLOG_MAGIC);
+        position = BINLOG_MAGIC.length;
+        firstEventTimestamps.add(timestampSeconds() * 1000L);
+        writeEvent(EventType.FORMAT_DESCRIPTION, formatDescriptionEventBody());
+    }
+
+    private long timestampSeconds() {
+        return BASE_TIMESTAMP_SECONDS + (writtenBytes + position) / 1024;
+    }
+
+    private String binlogFilename(int sequence) {
+        return String.format("%s.%06d", baseName, sequence);
+    }
+
+    private void writeEvent(EventType eventType, byte[] body) throws IOException {
+        final int eventLength = EVENT_HEADER_LENGTH + body.length + CHECKSUM_LENGTH;
+        final ByteArrayOutputStream event = new ByteArrayOutputStream(eventLength);
+        writeLong(event, timestampSeconds(), 4);
+        event.write(eventType.ordinal());
+        writeLong(event, SERVER_ID, 4);
+        writeLong(event, eventLength, 4);
+        writeLong(event, position + eventLength, 4);
+        writeLong(event, 0, 2);
+        event.write(body);
+        final CRC32 crc32 = new CRC32();
+        crc32.update(event.toByteArray());
+        writeLong(event, crc32.getValue(), CHECKSUM_LENGTH);
+        event.writeTo(output);
+        position += eventLength;
+    }
+
+    private static byte[] formatDescriptionEventBody() throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeLong(body, 4, 2);
+        final byte[] serverVersion = new byte[50];
+        final byte[] version = SERVER_VERSION.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(version, 0, serverVersion, 0, version.length);
+        body.write(serverVersion);
+        writeLong(body, BASE_TIMESTAMP_SECONDS, 4);
+        body.write(EVENT_HEADER_LENGTH);
+        body.write(POST_HEADER_LENGTHS);
+        body.write(CHECKSUM_ALG_CRC32);
+        return body.toByteArray();
+    }
+
+    private byte[] queryEventBody(String sql) throws IOException {
+        final byte[] database = tableId.catalog().getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        // thread id, execution time, database length, error code and status variables length
+        writeLong(body, 1, 4);
+        writeLong(body, 0, 4);
+        body.write(database.length);
+        writeLong(body, 0, 2);
+        writeLong(body, 0, 2);
+        body.write(database);
+        body.write(0);
+        body.write(sql.getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private byte[] tableMapEventBody() throws IOException {
+        final byte[] database = tableId.catalog().getBytes(StandardCharsets.UTF_8);
+        final byte[] table = tableId.table().getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeLong(body, TABLE_NUMBER, 6);
+        writeLong(body, 1, 2);
+        body.write(database.length);
+        body.write(database);
+        body.write(0);
+        body.write(table.length);
+        body.write(table);
+        body.write(0);
+        // the column count, types, metadata and nullability
+        body.write(2);
+        body.write(MYSQL_TYPE_LONGLONG);
+        body.write(MYSQL_TYPE_VARCHAR);
+        body.write(2);
+        writeLong(body, NAME_MAX_BYTES, 2);
+        body.write(0x02);
+        return body.toByteArray();
+    }
+
+    private static byte[] writeRowsEventBody(long[] ids, String[] names) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeLong(body, TABLE_NUMBER, 6);
+        // the flags of the last rows event of the statement and the empty extra data
+        writeLong(body, 1, 2);
+        writeLong(body, 2, 2);
+        // the column count and the columns present
+        body.write(2);
+        body.write(0x03);
+        for (int i = 0; i < ids.length; i++) {
+            body.write(names[i] == null ? 0x02 : 0x00);
+            writeLong(body, ids[i], 8);
+            if (names[i] != null) {
+                final byte[] name = names[i].getBytes(StandardCharsets.UTF_8);
+                writeLong(body, name.length, 2);
+                body.write(name);
+            }
+        }
+        return body.toByteArray();
+    }
+
+    private static void writeLong(OutputStream out, long value, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            out.write((int) (value >>> (8 * i)) & 0xff);
+        }
+    }
+}
@@ -0,0 +1,485 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cn.tenmg.cdc.log.connectors.mysql.testutils;
+
+import com.github.shyiko.mysql.binlog.event.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cn.tenmg.cdc.log.connectors.mysql.debezium.BinlogFileReplayClient;
+
+import javax.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * An in-process fake MySQL server which serves the local binlog files over the replication
+ * protocol, so a {@link com.github.shyiko.mysql.binlog.BinaryLogClient} can read them without a
+ * MySQL server.
+ *
+ * <p>The server accepts any user, answers the queries the binlog client issues before requesting
+ * the binlog stream, and streams the events of the binlog files from the requested binlog file and
+ * position as MySQL does. The connection stays open after the last binlog file, like an idle
+ * binlog dump connection. The GTID based binlog dump is not supported.
+ */
+public class FakeBinlogServer implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FakeBinlogServer.class);
+
+    private static final int MAX_PACKET_LENGTH = 0xffffff;
+    private static final int COM_QUIT = 0x01;
+    private static final int COM_QUERY = 0x03;
+    private static final int COM_BINLOG_DUMP = 0x12;
+    private static final int EVENT_HEADER_LENGTH = 19;
+    private static final int CHECKSUM_LENGTH = 4;
+    private static final long BINLOG_MAGIC_LENGTH = 4L;
+    private static final int ARTIFICIAL_EVENT_FLAG = 0x20;
+
+    private final List<File> binlogFiles;
+    private final boolean checksumEnabled;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+
+    /** Creates a server of the binlog files in the given directory. */
+    public FakeBinlogServer(File binlogDirectory) throws IOException {
+        this.binlogFiles = BinlogFileReplayClient.listBinlogFiles(binlogDirectory);
+        if (binlogFiles.isEmpty()) {
+            throw new IllegalArgumentException("There is no binlog file in " + binlogDirectory);
+        }
+        this.checksumEnabled = isChecksumEnabled(binlogFiles.get(0));
+    }
+
+    /** Starts to accept the connections on an ephemeral port of the loopback address. */
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        running = true;
+        final Thread acceptor = new Thread(this::acceptConnections, "fake-binlog-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private void acceptConnections() {
+        int connectionId = 0;
+        while (running) {
+            try {
+                final Socket socket = serverSocket.accept();
+                connections.add(socket);
+                final int id = ++connectionId;
+                final Thread handler =
+                        new Thread(() -> serve(socket, id), "fake-binlog-connection-" + id);
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (running) {
+                    LOG.error("Failed to accept the binlog connection.", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket, int connectionId) {
+        try (Socket ignored = socket) {
+            final PacketChannel channel = new PacketChannel(socket);
+            channel.write(greetingPacket(connectionId));
+            channel.flush();
+            // any user and password are accepted
+            channel.read();
+            channel.write(okPacket());
+            channel.flush();
+            while (running) {
+                final byte[] command = channel.readCommand();
+                if (command == null || (command[0] & 0xff) == COM_QUIT) {
+                    return;
+                }
+                if ((command[0] & 0xff) == COM_QUERY) {
+                    answerQuery(
+                            channel,
+                            new String(command, 1, command.length - 1, StandardCharsets.UTF_8));
+                } else if ((command[0] & 0xff) == COM_BINLOG_DUMP) {
+                    dumpBinlog(channel, command);
+                    return;
+                } else {
+                    channel.write(errorPacket("Unsupported command " + (command[0] & 0xff)));
+                }
+                channel.flush();
+            }
+        } catch (SocketException | EOFException e) {
+            // the client disconnected
+        } catch (IOException e) {
+            if (running) {
+                LOG.error("Failed to serve the binlog connection {}.", connectionId, e);
+            }
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    private void answerQuery(PacketChannel channel, String sql) throws IOException {
+        final String query = sql.trim().toLowerCase(Locale.ROOT);
+        if (query.startsWith("show global variables like 'binlog_checksum'")) {
+            channel.writeResultSet(
+                    new String[] {"Variable_name", "Value"},
+                    new String[] {"binlog_checksum", checksumEnabled ? "CRC32" : "NONE"});
+        } else if (query.startsWith("show master status")) {
+            final File lastFile = binlogFiles.get(binlogFiles.size() - 1);
+            channel.writeResultSet(
+                    new String[] {"File", "Position", "Binlog_Do_DB", "Binlog_Ignore_DB"},
+                    new String[] {lastFile.getName(), String.valueOf(lastFile.length()), "", ""});
+        } else if (query.startsWith("select @@server_id")) {
+            channel.writeResultSet(
+                    new String[] {"@@server_id"},
+                    new String[] {String.valueOf(BinlogFileWriter.SERVER_ID)});
+        } else if (query.startsWith("set ")) {
+            channel.write(okPacket());
+        } else {
+            channel.write(errorPacket("Unsupported query " + sql));
+        }
+    }
+
+    /** Streams the binlog events from the requested binlog file and position. */
+    private void dumpBinlog(PacketChannel channel, byte[] command) throws IOException {
+        long position = readLong(command, 1, 4);
+        final String filename =
+                new String(command, 11, command.length - 11, StandardCharsets.UTF_8);
+        int fileIndex = 0;
+        if (!filename.isEmpty()) {
+            while (fileIndex < binlogFiles.size()
+                    && !binlogFiles.get(fileIndex).getName().equals(filename)) {
+                fileIndex++;
+            }
+            if (fileIndex == binlogFiles.size()) {
+                channel.write(errorPacket("Could not find first log file name in binary log"));
+                channel.flush();
+                return;
+            }
+        }
+        position = Math.max(position, BINLOG_MAGIC_LENGTH);
+        channel.write(eventPacket(rotateEvent(binlogFiles.get(fileIndex).getName(), position)));
+        for (; fileIndex < binlogFiles.size(); fileIndex++) {
+            final Boolean rotated = dumpFile(channel, binlogFiles.get(fileIndex), position);
+            if (rotated == null) {
+                channel.flush();
+                return;
+            }
+            position = BINLOG_MAGIC_LENGTH;
+            if (!rotated && fileIndex + 1 < binlogFiles.size()) {
+                final String nextFilename = binlogFiles.get(fileIndex + 1).getName();
+                channel.write(eventPacket(rotateEvent(nextFilename, position)));
+            }
+        }
+        channel.flush();
+        // wait for the client to disconnect
+        while (running && channel.input.read() != -1) {}
+    }
+
+    /**
+     * Streams the events of the binlog file from the given position, the format description event
+     * is always sent. Returns whether the file ends with a rotate event, or null if the position is
+     * not the position of an event.
+     */
+    @Nullable
+    private Boolean dumpFile(PacketChannel channel, File binlogFile, long startingPosition)
+            throws IOException {
+        boolean rotated = false;
+        try (DataInputStream input =
+                new DataInputStream(new BufferedInputStream(new FileInputStream(binlogFile)))) {
+            input.readFully(new byte[(int) BINLOG_MAGIC_LENGTH]);
+            long position = BINLOG_MAGIC_LENGTH;
+            final byte[] header = new byte[EVENT_HEADER_LENGTH];
+            while (true) {
+                try {
+                    input.readFully(header);
+                } catch (EOFException e) {
+                    break;
+                }
+                final int eventLength = (int) readLong(header, 9, 4);
+                final byte[] event = Arrays.copyOf(header, eventLength);
+                input.readFully(event, EVENT_HEADER_LENGTH, eventLength - EVENT_HEADER_LENGTH);
+                final int eventType = event[4] & 0xff;
+                if (position >= startingPosition) {
+                    channel.write(eventPacket(event));
+                } else if (eventType == EventType.FORMAT_DESCRIPTION.ordinal()) {
+                    // the format description event is sent without its position
+                    writeLong(event, 13, 0, 4);
+                    updateChecksum(event);
+                    channel.write(eventPacket(event));
+                } else if (position + eventLength > startingPosition) {
+                    channel.write(
+                            errorPacket(
+                                    "Client requested master to start replication from"
+                                            + " impossible position"));
+                    return null;
+                }
+                rotated = eventType == EventType.ROTATE.ordinal();
+                position += eventLength;
+            }
+        }
+        return rotated;
+    }
+
+    private byte[] rotateEvent(String binlogFilename, long binlogPosition) {
+        final byte[] name = binlogFilename.getBytes(StandardCharsets.UTF_8);
+        final int eventLength =
+                EVENT_HEADER_LENGTH + 8 + name.length + (checksumEnabled ? CHECKSUM_LENGTH : 0);
+        final byte[] event = new byte[eventLength];
+        event[4] = (byte) EventType.ROTATE.ordinal();
+        writeLong(event, 5, BinlogFileWriter.SERVER_ID, 4);
+        writeLong(event, 9, eventLength, 4);
+        writeLong(event, 17, ARTIFICIAL_EVENT_FLAG, 2);
+        writeLong(event, EVENT_HEADER_LENGTH, binlogPosition, 8);
+        System.arraycopy(name, 0, event, EVENT_HEADER_LENGTH + 8, name.length);
+        updateChecksum(event);
+        return event;
+    }
+
+    private void updateChecksum(byte[] event) {
+        if (checksumEnabled) {
+            final CRC32 crc32 = new CRC32();
+            crc32.update(event, 0, event.length - CHECKSUM_LENGTH);
+            writeLong(event, event.length - CHECKSUM_LENGTH, crc32.getValue(), CHECKSUM_LENGTH);
+        }
+    }
+
+    /** Checks the checksum algorithm of the format description event of the binlog file. */
+    private static boolean isChecksumEnabled(File binlogFile) throws IOException {
+        try (DataInputStream input = new DataInputStream(new FileInputStream(binlogFile))) {
+            input.readFully(new byte[(int) BINLOG_MAGIC_LENGTH]);
+            final byte[] header = new byte[EVENT_HEADER_LENGTH];
+            input.readFully(header);
+            final byte[] body = new byte[(int) readLong(header, 9, 4) - EVENT_HEADER_LENGTH];
+            input.readFully(body);
+            // the post header length of the format description event is the length of its data
+            final int dataLength =
+                    body[2 + 50 + 4 + 1 + EventType.FORMAT_DESCRIPTION.ordinal() - 1];
+            return body.length > dataLength && body[dataLength] != 0;
+        }
+    }
+
+    private static byte[] greetingPacket(int connectionId) {
+        final ByteArrayOutputStream packet = new ByteArrayOutputStream();
+        packet.write(10);
+        writeString(packet, BinlogFileWriter.SERVER_VERSION);
+        writeLong(packet, connectionId, 4);
+        writeString(packet, "abcdefgh");
+        // CLIENT_LONG_PASSWORD | CLIENT_PROTOCOL_41 | CLIENT_SECURE_CONNECTION
+        writeLong(packet, 0x0001 | 0x0200 | 0x8000, 2);
+        packet.write(33);
+        writeLong(packet, 0x0002, 2);
+        packet.write(new byte[13], 0, 13);
+        writeString(packet, "ijklmnopqrst");
+        writeString(packet, "mysql_native_password");
+        return packet.toByteArray();
+    }
+
+    private static byte[] okPacket() {
+        return new byte[] {0x00, 0x00, 0x00, 0x02, 0x00, 0x00, 0x00};
+    }
+
+    private static byte[] eofPacket() {
+        return new byte[] {(byte) 0xfe, 0x00, 0x00, 0x02, 0x00};
+    }
+
+    private static byte[] errorPacket(String message) {
+        final ByteArrayOutputStream packet = new ByteArrayOutputStream();
+        packet.write(0xff);
+        writeLong(packet, 1236, 2);
+        final byte[] state = "#HY000".getBytes(StandardCharsets.UTF_8);
+        packet.write(state, 0, state.length);
+        final byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        packet.write(bytes, 0, bytes.length);
+        return packet.toByteArray();
+    }
+
+    private static byte[] eventPacket(byte[] event) {
+        final byte[] packet = new byte[event.length + 1];
+        System.arraycopy(event, 0, packet, 1, event.length);
+        return packet;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(bytes, 0, bytes.length);
+        out.write(0);
+    }
+
+    private static void writeLengthEncodedString(ByteArrayOutputStream out, String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < 251) {
+            out.write(bytes.length);
+        } else {
+            out.write(0xfc);
+            writeLong(out, bytes.length, 2);
+        }
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value, int length) {
+        for (int i = 0; i < length; i++) {
+            out.write((int) (value >>> (8 * i)) & 0xff);
+        }
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value, int length) {
+        for (int i = 0; i < length; i++) {
+            bytes[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value |= (long) (bytes[offset + i] & 0xff) << (8 * i);
+        }
+        return value;
+    }
+
+    /** The packets of a connection, each packet is prefixed by its length and sequence id. */
+    private static final class PacketChannel {
+        private final InputStream input;
+        private final OutputStream output;
+        private int sequence;
+
+        private PacketChannel(Socket socket) throws IOException {
+            this.input = new BufferedInputStream(socket.getInputStream());
+            this.output = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        private byte[] read() throws IOException {
+            final byte[] header = new byte[4];
+            readFully(header);
+            final byte[] payload = new byte[(int) readLong(header, 0, 3)];
+            readFully(payload);
+            sequence = (header[3] & 0xff) + 1;
+            return payload;
+        }
+
+        /** Reads the next command, returns null if the client disconnected. */
+        private byte[] readCommand() throws IOException {
+            try {
+                final byte[] command = read();
+                return command.length == 0 ? null : command;
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        private void write(byte[] payload) throws IOException {
+            int offset = 0;
+            // a packet of the max length is followed by the rest of the payload
+            do {
+                final int length = Math.min(MAX_PACKET_LENGTH, payload.length - offset);
+                output.write(length & 0xff);
+                output.write((length >>> 8) & 0xff);
+                output.write((length >>> 16) & 0xff);
+                output.write(sequence++ & 0xff);
+                output.write(payload, offset, length);
+                offset += length;
+                if (length < MAX_PACKET_LENGTH) {
+                    break;
+                }
+            } while (true);
+        }
+
+        private void writeResultSet(String[] columns, String[] row) throws IOException {
+            final ByteArrayOutputStream count = new ByteArrayOutputStream();
+            count.write(columns.length);
+            write(count.toByteArray());
+            for (String column : columns) {
+                final ByteArrayOutputStream definition = new ByteArrayOutputStream();
+                writeLengthEncodedString(definition, "def");
+                writeLengthEncodedString(definition, "");
+                writeLengthEncodedString(definition, "");
+                writeLengthEncodedString(definition, "");
+                writeLengthEncodedString(definition, column);
+                writeLengthEncodedString(definition, column);
+                definition.write(0x0c);
+                // the charset, column length, type (VAR_STRING), flags, decimals and filler
+                writeLong(definition, 33, 2);
+                writeLong(definition, 1024, 4);
+                definition.write(0xfd);
+                writeLong(definition, 0, 2);
+                definition.write(0);
+                writeLong(definition, 0, 2);
+                write(definition.toByteArray());
+            }
+            write(eofPacket());
+            final ByteArrayOutputStream values = new ByteArrayOutputStream();
+            for (String value : row) {
+                writeLengthEncodedString(values, value);
+            }
+            write(values.toByteArray());
+            write(eofPacket());
+        }
+
+        private void flush() throws IOException {
+            output.flush();
+        }
+
+        private void readFully(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                final int read = input.read(bytes, offset, bytes.length - offset);
+                if (read < 0) {
+                    throw new EOFException();
+                }
+                offset += read;
+            }
+        }
+    }
+}
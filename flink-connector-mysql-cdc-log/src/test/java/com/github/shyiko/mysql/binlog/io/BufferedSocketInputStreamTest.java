@@ -20,12 +20,16 @@ package com.github.shyiko.mysql.binlog.io;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
-/** Unit test for {@link BufferedSocketInputStream}. */
+/** Tests for {@link BufferedSocketInputStream}. */
 public class BufferedSocketInputStreamTest {
 
     @Test
@@ -52,4 +56,60 @@ public class BufferedSocketInputStreamTest {
         assertEquals(-1, in.read(buf, 0, buf.length));
         assertEquals(0, in.available());
     }
+
+    @Test
+    public void testReadUntilEnd() throws IOException {
+        final byte[] data = data(1024, 1);
+        final BufferedSocketInputStream in =
+                new BufferedSocketInputStream(new ByteArrayInputStream(data), 100);
+        assertArrayEquals(data, readFully(in, data.length));
+        assertEquals(-1, in.read());
+        assertEquals(-1, in.read(new byte[10], 0, 10));
+    }
+
+    @Test
+    public void testReuseReleasedBuffer() throws IOException {
+        // the first stream reaches its end and releases its buffer to the pool
+        final byte[] first = data(64 * 1024, 3);
+        final BufferedSocketInputStream firstIn =
+                new BufferedSocketInputStream(new ByteArrayInputStream(first));
+        assertArrayEquals(first, readFully(firstIn, first.length));
+        assertEquals(-1, firstIn.read());
+
+        // the stream reusing the buffer reads its own data only
+        final byte[] second = data(1000, 7);
+        final BufferedSocketInputStream secondIn =
+                new BufferedSocketInputStream(new ByteArrayInputStream(second));
+        assertArrayEquals(second, readFully(secondIn, second.length));
+        assertEquals(-1, secondIn.read());
+
+        // the ended stream never reads the released buffer again
+        assertEquals(-1, firstIn.read());
+        assertEquals(-1, firstIn.read(new byte[10], 0, 10));
+    }
+
+    private static byte[] data(int length, int seed) {
+        final byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * seed);
+        }
+        return data;
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        final byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length) {
+            if (read % 3 == 0) {
+                bytes[read++] = (byte) in.read();
+            } else {
+                final int n = in.read(bytes, read, Math.min(length - read, 77));
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+        }
+        return bytes;
+    }
 }
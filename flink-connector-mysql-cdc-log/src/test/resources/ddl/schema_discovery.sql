@@ -0,0 +1,68 @@
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--   http://www.apache.org/licenses/LICENSE-2.0
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+
+-- ----------------------------------------------------------------------------------------------------------------
+-- DATABASE:  schema_discovery
+-- ----------------------------------------------------------------------------------------------------------------
+
+-- the defaults, generated columns, character sets and comments
+CREATE TABLE defaults_table (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(64) NOT NULL DEFAULT 'it''s a \\ name' COMMENT 'the name',
+    latin_name VARCHAR(64) CHARACTER SET latin1 DEFAULT NULL,
+    code BINARY(4) NOT NULL DEFAULT 'ab',
+    tag VARBINARY(8) DEFAULT 'x\0y',
+    flags BIT(3) NOT NULL DEFAULT b'101',
+    price DECIMAL(10, 2) NOT NULL DEFAULT 1.50,
+    ratio DOUBLE DEFAULT NULL,
+    level ENUM('low', 'high') NOT NULL DEFAULT 'high',
+    options SET('a', 'b', 'c') DEFAULT 'a,b',
+    note TEXT,
+    doc JSON,
+    created TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated DATETIME(3) NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    born DATE DEFAULT '2000-01-01',
+    price_with_tax DECIMAL(12, 2) GENERATED ALWAYS AS (price * 1.1) VIRTUAL,
+    name_length INT GENERATED ALWAYS AS (CHAR_LENGTH(name)) STORED NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='the defaults';
+
+-- the unique and secondary keys of a table with a primary key
+CREATE TABLE keys_table (
+    id INT NOT NULL,
+    tenant INT NOT NULL,
+    email VARCHAR(128) DEFAULT NULL,
+    title VARCHAR(255) NOT NULL,
+    PRIMARY KEY (tenant, id),
+    KEY title_idx (title(16)),
+    UNIQUE KEY email_idx (email),
+    KEY tenant_title_idx (tenant, title)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- the unique key without nullable columns is the primary key of a table without one, even if it's
+-- declared after a unique key with a nullable column
+CREATE TABLE unique_keys_table (
+    code VARCHAR(32) DEFAULT NULL,
+    tenant INT NOT NULL,
+    id INT NOT NULL,
+    UNIQUE KEY code_idx (code),
+    UNIQUE KEY tenant_id_idx (tenant, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- no key at all
+CREATE TABLE no_keys_table (
+    id INT,
+    name VARCHAR(32)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;